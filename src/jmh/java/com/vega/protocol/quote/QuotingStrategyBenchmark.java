@@ -0,0 +1,69 @@
+package com.vega.protocol.quote;
+
+import com.vega.protocol.constant.QuotingStrategyType;
+import com.vega.protocol.model.AppConfig;
+import com.vega.protocol.store.AppConfigStore;
+import com.vega.protocol.utils.PricingUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one call of each {@link QuotingStrategy} against {@link QuotingStrategy#LATENCY_BUDGET_NANOS}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuotingStrategyBenchmark {
+
+    @Param({"AMM", "AVELLANEDA_STOIKOV"})
+    private QuotingStrategyType type;
+
+    @Param({"10", "50"})
+    private int orderCount;
+
+    private final QuoteLadder bids = new QuoteLadder();
+    private final QuoteLadder asks = new QuoteLadder();
+    private QuotingStrategy strategy;
+    private AppConfig config;
+    private MarketSnapshot snapshot;
+
+    @Setup
+    public void setup() {
+        PricingUtils pricingUtils = new PricingUtils(new AppConfigStore());
+        strategy = type.equals(QuotingStrategyType.AMM) ? new AmmQuotingStrategy(pricingUtils) :
+                new AvellanedaStoikovQuotingStrategy(pricingUtils);
+        config = new AppConfig()
+                .setStrategy(type)
+                .setOrderCount(orderCount)
+                .setBidQuoteRange(0.02)
+                .setAskQuoteRange(0.02)
+                .setBidSizeFactor(1.0)
+                .setAskSizeFactor(1.0)
+                .setMinSpread(0.003)
+                .setMaxSpread(0.02)
+                .setBboOffset(0.0)
+                .setRiskAversion(1.0)
+                .setLiquidityDensity(1000.0)
+                .setQuoteHorizon(3600.0);
+        snapshot = new MarketSnapshot()
+                .setBidPrice(19999)
+                .setAskPrice(20001)
+                .setBidVolume(2.5)
+                .setAskVolume(2.5)
+                .setExposure(1)
+                .setOpenVolumeRatio(0.2)
+                .setSigma(1.2)
+                .setPositionDecimalPlaces(3);
+    }
+
+    @Benchmark
+    public boolean quote() {
+        bids.clear();
+        asks.clear();
+        return strategy.quote(snapshot, config, bids, asks);
+    }
+}
@@ -0,0 +1,44 @@
+package com.vega.protocol.quote;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of adding one reference price tick to a {@link VolatilityEstimator}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VolatilityEstimatorBenchmark {
+
+    private static final int TICKS = 1024;
+
+    @Param({"false", "true"})
+    private boolean parkinson;
+
+    private final double[] prices = new double[TICKS];
+    private VolatilityEstimator estimator;
+    private long nanos;
+    private int tick;
+
+    @Setup
+    public void setup() {
+        estimator = new VolatilityEstimator(300, 60, parkinson, 30);
+        double price = 20000;
+        for(int i=0; i<TICKS; i++) {
+            price = price * (1 + 0.0005 * Math.sin(i));
+            prices[i] = price;
+        }
+    }
+
+    @Benchmark
+    public double update() {
+        nanos += 250_000_000L;
+        estimator.update(prices[tick++ & (TICKS - 1)], nanos);
+        return estimator.getVolatility();
+    }
+}
@@ -0,0 +1,187 @@
+package com.vega.protocol.task;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.vega.protocol.backtest.MatchingEngine;
+import com.vega.protocol.backtest.SimulatedClock;
+import com.vega.protocol.backtest.SimulatedVegaApiClient;
+import com.vega.protocol.constant.*;
+import com.vega.protocol.model.*;
+import com.vega.protocol.quote.AmmQuotingStrategy;
+import com.vega.protocol.quote.AvellanedaStoikovQuotingStrategy;
+import com.vega.protocol.service.*;
+import com.vega.protocol.store.*;
+import com.vega.protocol.utils.PricingUtils;
+import com.vega.protocol.utils.QuantUtils;
+import com.vega.protocol.utils.SleepUtils;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one full {@link UpdateQuotesTask#execute(String)} cycle against in-memory stores, with orders acknowledged
+ * by the backtest's {@link MatchingEngine}. With {@code moving} the reference price alternates by more than the price
+ * tolerance, so every cycle replaces the ladder; otherwise the ladder is left in place.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UpdateQuotesTaskBenchmark {
+
+    private static final String MARKET_ID = "1";
+    private static final String PARTY_ID = "1";
+    private static final String SYMBOL = "BTCUSDT";
+    private static final String ASSET = "USDT";
+    private static final BigDecimal MID_PRICE = BigDecimal.valueOf(20000);
+    private static final BigDecimal SPREAD = BigDecimal.valueOf(0.5);
+    private static final BigDecimal SHIFT = BigDecimal.valueOf(20);
+
+    @Param({"AMM", "AVELLANEDA_STOIKOV"})
+    private QuotingStrategyType strategy;
+
+    @Param({"true", "false"})
+    private boolean moving;
+
+    private final SimulatedClock clock = new SimulatedClock();
+    private final ReferencePriceStore referencePriceStore = new ReferencePriceStore();
+    private final OrderStore orderStore = new OrderStore();
+    private MatchingEngine matchingEngine;
+    private UpdateQuotesTask updateQuotesTask;
+    private long cycles;
+
+    @Setup
+    public void setup() {
+        ((Logger) LoggerFactory.getLogger("com.vega.protocol")).setLevel(Level.WARN);
+        clock.advanceTo(TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()));
+        MarketBindingService marketBindingService = new MarketBindingService(MARKET_ID, SYMBOL, null);
+        MarketStore marketStore = new MarketStore();
+        marketStore.add(new Market()
+                .setId(MARKET_ID)
+                .setName(MARKET_ID)
+                .setState(MarketState.ACTIVE)
+                .setTradingMode(MarketTradingMode.CONTINUOUS)
+                .setSettlementAsset(ASSET)
+                .setDecimalPlaces(5)
+                .setPositionDecimalPlaces(2)
+                .setTau(0.0001)
+                .setSigma(1.5));
+        AccountStore accountStore = new AccountStore();
+        accountStore.add(new Account()
+                .setId(String.format("%s-%s", PARTY_ID, ASSET))
+                .setPartyId(PARTY_ID)
+                .setType(AccountType.GENERAL)
+                .setAsset(ASSET)
+                .setBalance(BigDecimal.valueOf(10000000)));
+        NetworkParameterStore networkParameterStore = new NetworkParameterStore();
+        networkParameterStore.add(new NetworkParameter()
+                .setId("spam.pow.numberOfTxPerBlock")
+                .setValue("1000000"));
+        networkParameterStore.add(new NetworkParameter()
+                .setId("spam.protection.max.batchSize")
+                .setValue("100"));
+        AppConfigStore appConfigStore = new AppConfigStore();
+        appConfigStore.update(new AppConfig()
+                .setFee(0.001)
+                .setMinSpread(0.003)
+                .setMaxSpread(0.02)
+                .setCommitmentSpread(0.03)
+                .setOrderCount(20)
+                .setBidSizeFactor(1.0)
+                .setAskSizeFactor(1.0)
+                .setCommitmentBalanceRatio(0.1)
+                .setBidQuoteRange(0.02)
+                .setAskQuoteRange(0.02)
+                .setCommitmentOrderCount(1)
+                .setStakeBuffer(0.2)
+                .setBboOffset(0.0)
+                .setStrategy(strategy)
+                .setRiskAversion(1.0)
+                .setLiquidityDensity(1000.0)
+                .setQuoteHorizon(3600.0)
+                .setPriceToleranceTicks(1)
+                .setPriceToleranceBps(2.0)
+                .setSizeTolerancePercent(10.0)
+                .setVolatilitySpreadFactor(0.0));
+        LatencyService latencyService = new LatencyService();
+        OrderReferenceService orderReferenceService = new OrderReferenceService(10000, 10000L, latencyService);
+        RiskService riskService = new RiskService(orderStore, marketBindingService, referencePriceStore,
+                true, 0.0, 0.0, 0.1, 5000L);
+        riskService.setClock(clock);
+        VolatilityService volatilityService = new VolatilityService(referencePriceStore, marketBindingService,
+                300.0, 60.0, false, 30);
+        volatilityService.setClock(clock);
+        CommandBudgetService commandBudgetService = new CommandBudgetService(networkParameterStore,
+                new SleepUtils() {
+                    @Override
+                    public void sleep(long millis) {
+                        clock.advance(TimeUnit.MILLISECONDS.toNanos(millis));
+                    }
+                }, 1000L, 1, 0L, 3000L);
+        commandBudgetService.setClock(clock);
+        TransactionService[] transactionService = new TransactionService[1];
+        matchingEngine = new MatchingEngine(clock, 0, order -> {
+            orderReferenceService.onUpdate(order);
+            transactionService[0].onOrderUpdate(order);
+            if(order.getStatus().equals(OrderStatus.ACTIVE)) {
+                orderStore.update(order);
+            } else {
+                orderStore.remove(order);
+            }
+        }, fill -> { });
+        SimulatedVegaApiClient vegaApiClient = new SimulatedVegaApiClient(
+                matchingEngine, orderReferenceService, riskService);
+        transactionService[0] = new TransactionService(vegaApiClient, commandBudgetService, 1000, 10000L);
+        QuoteTriggerService quoteTriggerService = new QuoteTriggerService(referencePriceStore, new PositionStore(),
+                marketBindingService, false, 0.0015, 500L);
+        PricingUtils pricingUtils = new PricingUtils(appConfigStore);
+        updateQuotesTask = new UpdateQuotesTask(marketBindingService, true, PARTY_ID, referencePriceStore,
+                appConfigStore, orderStore, new LiquidityCommitmentStore(), networkParameterStore, vegaApiClient,
+                new MarketService(marketStore), new AccountService(accountStore),
+                new PositionService(new PositionStore()),
+                List.of(new AmmQuotingStrategy(pricingUtils), new AvellanedaStoikovQuotingStrategy(pricingUtils)),
+                new QuantUtils(), orderReferenceService, transactionService[0], commandBudgetService,
+                quoteTriggerService, new QuoteStatsService(), volatilityService, latencyService, null, null,
+                "0 0 0 * * *", 0) {
+            @Override
+            public boolean isInitialized() {
+                return true;
+            }
+        };
+        updateReferencePrice(MID_PRICE);
+        quote();
+    }
+
+    @Benchmark
+    public int quote() {
+        clock.advance(TimeUnit.SECONDS.toNanos(1));
+        if(moving) {
+            updateReferencePrice(++cycles % 2 == 0 ? MID_PRICE : MID_PRICE.add(SHIFT));
+        }
+        updateQuotesTask.execute(MARKET_ID);
+        matchingEngine.process();
+        return orderStore.getItems().size();
+    }
+
+    /**
+     * Set the reference price around a mid price
+     *
+     * @param midPrice the mid price
+     */
+    private void updateReferencePrice(
+            final BigDecimal midPrice
+    ) {
+        referencePriceStore.update(new ReferencePrice()
+                .setSymbol(SYMBOL)
+                .setBidPrice(midPrice.subtract(SPREAD))
+                .setAskPrice(midPrice.add(SPREAD))
+                .setBidSize(BigDecimal.TEN)
+                .setAskSize(BigDecimal.TEN)
+                .setMidPrice(midPrice));
+    }
+}
@@ -0,0 +1,46 @@
+package com.vega.protocol.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the conversions between Vega's integer prices and sizes and decimals, on every order in and out
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecimalUtilsBenchmark {
+
+    @Param({"2", "5", "8"})
+    private int decimalPlaces;
+
+    private final DecimalUtils decimalUtils = new DecimalUtils();
+    private BigDecimal integerValue;
+    private BigDecimal decimalValue;
+
+    @Setup
+    public void setup() {
+        decimalValue = new BigDecimal("20000.12345");
+        integerValue = decimalUtils.convertFromDecimals(decimalPlaces, decimalValue);
+    }
+
+    @Benchmark
+    public BigDecimal convertToDecimals() {
+        return decimalUtils.convertToDecimals(decimalPlaces, integerValue);
+    }
+
+    @Benchmark
+    public BigDecimal convertFromDecimals() {
+        return decimalUtils.convertFromDecimals(decimalPlaces, decimalValue);
+    }
+
+    @Benchmark
+    public long convertFromDecimalsToLong() {
+        return decimalUtils.convertFromDecimalsToLong(decimalPlaces, decimalValue);
+    }
+}
@@ -0,0 +1,53 @@
+package com.vega.protocol.utils;
+
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.model.AppConfig;
+import com.vega.protocol.model.DistributionStep;
+import com.vega.protocol.quote.QuoteLadder;
+import com.vega.protocol.store.AppConfigStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building a quote distribution into a reused {@link QuoteLadder} with the list API
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingUtilsBenchmark {
+
+    private static final double MID_PRICE = 20000;
+    private static final double TOTAL_VOLUME = 2.5;
+    private static final double RANGE = 0.02;
+
+    @Param({"10", "50"})
+    private int orderCount;
+
+    @Param({"BUY", "SELL"})
+    private MarketSide side;
+
+    private final QuoteLadder ladder = new QuoteLadder();
+    private PricingUtils pricingUtils;
+
+    @Setup
+    public void setup() {
+        AppConfigStore appConfigStore = new AppConfigStore();
+        appConfigStore.update(new AppConfig().setOrderCount(orderCount));
+        pricingUtils = new PricingUtils(appConfigStore);
+    }
+
+    @Benchmark
+    public int distributionIntoLadder() {
+        return pricingUtils.getDistribution(MID_PRICE, TOTAL_VOLUME, RANGE, side, orderCount, ladder);
+    }
+
+    @Benchmark
+    public List<DistributionStep> distributionAsList() {
+        return pricingUtils.getDistribution(MID_PRICE, TOTAL_VOLUME, RANGE, side);
+    }
+}
@@ -0,0 +1,57 @@
+package com.vega.protocol.utils;
+
+import com.vega.protocol.constant.MarketSide;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares evaluating the probability of trading one price at a time with the batch API over a whole ladder
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuantUtilsBenchmark {
+
+    private static final double MU = 0;
+    private static final double SIGMA = 1.2;
+    private static final double TAU = 0.0001;
+    private static final double BEST_PRICE = 100;
+    private static final double LOWER_BOUND = 90;
+    private static final double UPPER_BOUND = 110;
+
+    @Param({"10", "50", "200"})
+    private int levels;
+
+    private final QuantUtils quantUtils = new QuantUtils();
+    private double[] prices;
+    private double[] probabilities;
+
+    @Setup
+    public void setup() {
+        prices = new double[levels];
+        probabilities = new double[levels];
+        for(int i=0; i<levels; i++) {
+            prices[i] = BEST_PRICE - (i + 1) * (BEST_PRICE - LOWER_BOUND) / levels;
+        }
+    }
+
+    @Benchmark
+    public double[] scalar() {
+        for(int i=0; i<levels; i++) {
+            probabilities[i] = quantUtils.getProbabilityOfTrading(MU, SIGMA, BEST_PRICE, TAU, LOWER_BOUND,
+                    UPPER_BOUND, prices[i], MarketSide.BUY);
+        }
+        return probabilities;
+    }
+
+    @Benchmark
+    public double[] batch() {
+        quantUtils.getProbabilityOfTrading(MU, SIGMA, BEST_PRICE, TAU, LOWER_BOUND, UPPER_BOUND, prices, levels,
+                MarketSide.BUY, probabilities);
+        return probabilities;
+    }
+}
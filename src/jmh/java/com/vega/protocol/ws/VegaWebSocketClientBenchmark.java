@@ -0,0 +1,90 @@
+package com.vega.protocol.ws;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.vega.protocol.constant.MarketState;
+import com.vega.protocol.constant.MarketTradingMode;
+import com.vega.protocol.model.Asset;
+import com.vega.protocol.model.Market;
+import com.vega.protocol.service.LatencyService;
+import com.vega.protocol.service.MetricsService;
+import com.vega.protocol.service.OrderReferenceService;
+import com.vega.protocol.service.OrderService;
+import com.vega.protocol.service.TransactionService;
+import com.vega.protocol.store.*;
+import com.vega.protocol.utils.DecimalUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures {@link VegaWebSocketClient#onMessage(String)} on frames recorded from a Vega node, writing to in-memory
+ * stores. The frames are the ones used by the unit tests, which the {@code benchmark} profile puts on the classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VegaWebSocketClientBenchmark {
+
+    private static final String PARTY_ID = "1";
+    private static final String ASSET_ID = "8e5553ee4e95db51523640d1d03b00c8ab31dd69d787e169b0d958ef52e19a0a";
+    private static final String ASSET = "USDT";
+    private static final Pattern MARKET_ID = Pattern.compile("\"marketId\"\\s*:\\s*\"(\\w+)\"");
+
+    @Param({"vega-orders-ws.json", "vega-positions-ws-2.json", "vega-accounts-ws-4.json",
+            "vega-markets-ws-2.json", "vega-liquidity-provisions-ws.json"})
+    private String frame;
+
+    private String message;
+    private VegaWebSocketClient client;
+
+    @Setup
+    public void setup() throws IOException {
+        ((Logger) LoggerFactory.getLogger("com.vega.protocol")).setLevel(Level.WARN);
+        try(InputStream is = getClass().getClassLoader().getResourceAsStream(frame)) {
+            message = new String(Objects.requireNonNull(is).readAllBytes(), StandardCharsets.UTF_8);
+        }
+        MarketStore marketStore = new MarketStore();
+        Matcher matcher = MARKET_ID.matcher(message);
+        while(matcher.find()) {
+            marketStore.update(new Market()
+                    .setId(matcher.group(1))
+                    .setName(matcher.group(1))
+                    .setState(MarketState.ACTIVE)
+                    .setTradingMode(MarketTradingMode.CONTINUOUS)
+                    .setSettlementAsset(ASSET)
+                    .setDecimalPlaces(5)
+                    .setPositionDecimalPlaces(2));
+        }
+        AssetStore assetStore = new AssetStore();
+        assetStore.add(new Asset()
+                .setId(ASSET_ID)
+                .setName(ASSET)
+                .setSymbol(ASSET)
+                .setDecimalPlaces(6));
+        DecimalUtils decimalUtils = new DecimalUtils();
+        client = new VegaWebSocketClient(PARTY_ID, List.of(), marketStore, new OrderStore(), new PositionStore(),
+                new AccountStore(), assetStore, new LiquidityCommitmentStore(), decimalUtils,
+                new OrderService(decimalUtils), new OrderReferenceService(10000, 10000L, new LatencyService()),
+                new TransactionService(null, null, 1000, 10000L), new MetricsService(new SimpleMeterRegistry()),
+                URI.create("wss://localhost/graphql"));
+    }
+
+    @Benchmark
+    public void onMessage() {
+        client.onMessage(message);
+    }
+}
@@ -0,0 +1,393 @@
+package com.vega.protocol.api;
+
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.constant.OrderType;
+import com.vega.protocol.constant.TimeInForce;
+import com.vega.protocol.model.Market;
+import com.vega.protocol.model.Order;
+import com.vega.protocol.quote.QuoteLevel;
+import com.vega.protocol.utils.DecimalUtils;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Writes wallet command payloads straight into a reusable byte buffer. The output has the same structure and key
+ * ordering as building the command with {@link org.json.JSONObject}, but avoids the intermediate objects,
+ * {@link String#format} calls and {@link BigDecimal} arithmetic on the order path. Strings are written as UTF-8
+ * JSON, so non-ASCII characters reach the node intact.
+ */
+@Component
+public class PayloadWriter {
+
+    private static final byte[] BATCH_PREFIX = ascii("{\"batchMarketInstructions\":{\"cancellations\":[");
+    private static final byte[] SUBMISSIONS_PREFIX = ascii("],\"submissions\":[");
+    private static final byte[] BATCH_SUFFIX = ascii("],\"amendments\":[]}");
+    private static final byte[] ORDER_SUBMISSION_PREFIX = ascii("{\"orderSubmission\":");
+    private static final byte[] PROPAGATE = ascii("\"propagate\":true");
+    private static final byte[] PUB_KEY = ascii("\"pubKey\":");
+    private static final byte[] ORDER_ID = ascii("\"orderId\":");
+    private static final byte[] MARKET_ID = ascii("\"marketId\":");
+    private static final byte[] REFERENCE = ascii("\"reference\":");
+    private static final byte[] SIZE = ascii("\"size\":\"");
+    private static final byte[] PRICE = ascii("\"price\":\"");
+    private static final byte[][] SIDES = fragments(MarketSide.values(), "\"side\":\"SIDE_%s\"");
+    private static final byte[][] TYPES = fragments(OrderType.values(), "\"type\":\"TYPE_%s\"");
+    private static final byte[][] TIME_IN_FORCE = fragments(
+            TimeInForce.values(), "\"timeInForce\":\"TIME_IN_FORCE_%s\"");
+    private static final byte[] HEX = ascii("0123456789abcdef");
+
+    private final DecimalUtils decimalUtils;
+    private final ThreadLocal<Buffer> buffers = ThreadLocal.withInitial(Buffer::new);
+
+    public PayloadWriter(DecimalUtils decimalUtils) {
+        this.decimalUtils = decimalUtils;
+    }
+
+    /**
+     * Write a batch market instruction comprised of cancellations and submissions
+     *
+     * @param cancellations {@link List<String>} orderIds
+     * @param submissions {@link List<Order>} new orders
+     * @param market {@link Market}
+     * @param partyId the public key
+     * @param references provides the reference for each submitted order
+     *
+     * @return the JSON payload
+     */
+    public byte[] writeBatchMarketInstructions(
+            final List<String> cancellations,
+            final List<Order> submissions,
+            final Market market,
+            final String partyId,
+            final Function<Order, String> references
+    ) {
+        Buffer buffer = buffers.get().reset();
+        buffer.write(BATCH_PREFIX);
+        for(int i=0; i<cancellations.size(); i++) {
+            if(i > 0) buffer.write(',');
+            buffer.beginObject();
+            writeStringField(buffer, ORDER_ID, cancellations.get(i));
+            writeStringField(buffer, MARKET_ID, market.getId());
+            buffer.endObject();
+        }
+        buffer.write(SUBMISSIONS_PREFIX);
+        for(int i=0; i<submissions.size(); i++) {
+            if(i > 0) buffer.write(',');
+            Order order = submissions.get(i);
+            writeOrder(buffer, order, market, references.apply(order), true);
+        }
+        buffer.write(BATCH_SUFFIX);
+        writeEnvelopeSuffix(buffer, partyId);
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Write a single order submission
+     *
+     * @param order {@link Order}
+     * @param partyId the public key
+     * @param reference the order reference
+     *
+     * @return the JSON payload
+     */
+    public byte[] writeOrderSubmission(
+            final Order order,
+            final String partyId,
+            final String reference
+    ) {
+        Buffer buffer = buffers.get().reset();
+        buffer.write(ORDER_SUBMISSION_PREFIX);
+        writeOrder(buffer, order, order.getMarket(), reference, !order.getType().equals(OrderType.MARKET));
+        writeEnvelopeSuffix(buffer, partyId);
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Write an order submission object
+     *
+     * @param buffer {@link Buffer}
+     * @param order {@link Order}
+     * @param market {@link Market}
+     * @param reference the order reference
+     * @param withPrice true to include the price
+     */
+    private void writeOrder(
+            final Buffer buffer,
+            final Order order,
+            final Market market,
+            final String reference,
+            final boolean withPrice
+    ) {
+        byte[] side = SIDES[order.getSide().ordinal()];
+        byte[] type = TYPES[order.getType().ordinal()];
+        byte[] timeInForce = TIME_IN_FORCE[order.getTimeInForce().ordinal()];
+        buffer.beginObject();
+        writeStringField(buffer, REFERENCE, reference);
+        buffer.field(side);
+        buffer.field(SIZE);
+        if(order instanceof QuoteLevel level && level.getSizeDecimals() == market.getPositionDecimalPlaces()) {
+            buffer.writeLong(level.getScaledSize());
+        } else {
+            writeScaled(buffer, market.getPositionDecimalPlaces(), order.getSize());
+        }
+        buffer.write('"');
+        if(withPrice) {
+            buffer.field(PRICE);
+            if(order instanceof QuoteLevel level && level.getPriceDecimals() == market.getDecimalPlaces()) {
+                buffer.writeLong(level.getScaledPrice());
+            } else {
+                writeScaled(buffer, market.getDecimalPlaces(), order.getPrice());
+            }
+            buffer.write('"');
+        }
+        buffer.field(type);
+        buffer.field(timeInForce);
+        writeStringField(buffer, MARKET_ID, market.getId());
+        buffer.endObject();
+    }
+
+    /**
+     * Write the common command envelope after the command object
+     *
+     * @param buffer {@link Buffer}
+     * @param partyId the public key
+     */
+    private void writeEnvelopeSuffix(
+            final Buffer buffer,
+            final String partyId
+    ) {
+        buffer.write(',');
+        buffer.write(PROPAGATE);
+        if(partyId != null) {
+            buffer.write(',');
+            buffer.write(PUB_KEY);
+            writeString(buffer, partyId);
+        }
+        buffer.write('}');
+    }
+
+    /**
+     * Write a string field, omitting it when the value is null (as {@link org.json.JSONObject} does)
+     *
+     * @param buffer {@link Buffer}
+     * @param name the field name fragment
+     * @param value the field value
+     */
+    private void writeStringField(
+            final Buffer buffer,
+            final byte[] name,
+            final String value
+    ) {
+        if(value == null) {
+            return;
+        }
+        buffer.field(name);
+        writeString(buffer, value);
+    }
+
+    /**
+     * Write a decimal number as a scaled integer
+     *
+     * @param buffer {@link Buffer}
+     * @param decimalPlaces number of decimal places
+     * @param number decimal representation
+     */
+    private void writeScaled(
+            final Buffer buffer,
+            final int decimalPlaces,
+            final BigDecimal number
+    ) {
+        try {
+            buffer.writeLong(decimalUtils.convertFromDecimalsToLong(decimalPlaces, number));
+        } catch(ArithmeticException e) {
+            buffer.writeAscii(decimalUtils.convertFromDecimals(decimalPlaces, number).toBigInteger().toString());
+        }
+    }
+
+    /**
+     * Write a quoted string, escaping quotes, backslashes, control characters, {@code </} and the
+     * U+2000-U+20FF block, and writing everything else as UTF-8
+     *
+     * @param buffer {@link Buffer}
+     * @param value the string
+     */
+    private void writeString(
+            final Buffer buffer,
+            final String value
+    ) {
+        buffer.write('"');
+        char previous = 0;
+        for(int i=0; i<value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\', '"' -> {
+                    buffer.write('\\');
+                    buffer.write(c);
+                }
+                case '/' -> {
+                    if(previous == '<') buffer.write('\\');
+                    buffer.write(c);
+                }
+                case '\b' -> writeEscape(buffer, 'b');
+                case '\t' -> writeEscape(buffer, 't');
+                case '\n' -> writeEscape(buffer, 'n');
+                case '\f' -> writeEscape(buffer, 'f');
+                case '\r' -> writeEscape(buffer, 'r');
+                default -> {
+                    if(c < ' ' || (c >= '\u0080' && c < '\u00a0') || (c >= '\u2000' && c < '\u2100')) {
+                        buffer.write('\\');
+                        buffer.write('u');
+                        buffer.write(HEX[(c >> 12) & 0xF]);
+                        buffer.write(HEX[(c >> 8) & 0xF]);
+                        buffer.write(HEX[(c >> 4) & 0xF]);
+                        buffer.write(HEX[c & 0xF]);
+                    } else if(c < 0x80) {
+                        buffer.write(c);
+                    } else if(Character.isHighSurrogate(c) && i + 1 < value.length() &&
+                            Character.isLowSurrogate(value.charAt(i + 1))) {
+                        buffer.writeUtf8(Character.toCodePoint(c, value.charAt(++i)));
+                    } else {
+                        buffer.writeUtf8(Character.isSurrogate(c) ? '?' : c);
+                    }
+                }
+            }
+            previous = c;
+        }
+        buffer.write('"');
+    }
+
+    private void writeEscape(
+            final Buffer buffer,
+            final char c
+    ) {
+        buffer.write('\\');
+        buffer.write(c);
+    }
+
+    private static byte[] ascii(
+            final String value
+    ) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[][] fragments(
+            final Enum<?>[] values,
+            final String format
+    ) {
+        byte[][] fragments = new byte[values.length][];
+        for(Enum<?> value : values) {
+            fragments[value.ordinal()] = ascii(String.format(format, value.name()));
+        }
+        return fragments;
+    }
+
+    /**
+     * Growable byte buffer which tracks whether a field separator is needed in the current object
+     */
+    private static class Buffer {
+
+        private static final int MAX_DEPTH = 8;
+
+        private byte[] bytes = new byte[4096];
+        private int length;
+        private final boolean[] firstField = new boolean[MAX_DEPTH];
+        private int depth;
+
+        Buffer reset() {
+            length = 0;
+            depth = 0;
+            return this;
+        }
+
+        void beginObject() {
+            write('{');
+            firstField[depth++] = true;
+        }
+
+        void endObject() {
+            depth--;
+            write('}');
+        }
+
+        void field(byte[] name) {
+            if(firstField[depth - 1]) {
+                firstField[depth - 1] = false;
+            } else {
+                write(',');
+            }
+            write(name);
+        }
+
+        void write(int b) {
+            ensureCapacity(1);
+            bytes[length++] = (byte) b;
+        }
+
+        void write(byte[] fragment) {
+            ensureCapacity(fragment.length);
+            System.arraycopy(fragment, 0, bytes, length, fragment.length);
+            length += fragment.length;
+        }
+
+        void writeAscii(String value) {
+            ensureCapacity(value.length());
+            for(int i=0; i<value.length(); i++) {
+                bytes[length++] = (byte) value.charAt(i);
+            }
+        }
+
+        void writeLong(long value) {
+            if(value == Long.MIN_VALUE) {
+                writeAscii(Long.toString(value));
+                return;
+            }
+            ensureCapacity(20);
+            if(value < 0) {
+                bytes[length++] = '-';
+                value = -value;
+            }
+            int start = length;
+            do {
+                bytes[length++] = (byte) ('0' + (value % 10));
+                value /= 10;
+            } while(value > 0);
+            for(int i=start, j=length-1; i<j; i++, j--) {
+                byte tmp = bytes[i];
+                bytes[i] = bytes[j];
+                bytes[j] = tmp;
+            }
+        }
+
+        void writeUtf8(int codePoint) {
+            ensureCapacity(4);
+            if(codePoint < 0x800) {
+                bytes[length++] = (byte) (0xC0 | (codePoint >> 6));
+                bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if(codePoint < 0x10000) {
+                bytes[length++] = (byte) (0xE0 | (codePoint >> 12));
+                bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                bytes[length++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+
+        private void ensureCapacity(int extra) {
+            if(length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+}
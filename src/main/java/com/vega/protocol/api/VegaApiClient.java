@@ -3,55 +3,84 @@ package com.vega.protocol.api;
 import com.mashape.unirest.http.HttpResponse;
 import com.mashape.unirest.http.JsonNode;
 import com.mashape.unirest.http.Unirest;
+import com.mashape.unirest.http.exceptions.UnirestException;
 import com.vega.protocol.constant.*;
 import com.vega.protocol.exception.TradingException;
 import com.vega.protocol.model.*;
+import com.vega.protocol.service.DataNodeService;
+import com.vega.protocol.service.LatencyService;
+import com.vega.protocol.service.OrderReferenceService;
 import com.vega.protocol.service.OrderService;
+import com.vega.protocol.service.RiskService;
+import com.vega.protocol.signer.TransactionSigner;
 import com.vega.protocol.store.AssetStore;
 import com.vega.protocol.store.MarketStore;
 import com.vega.protocol.utils.DecimalUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 @Slf4j
 @Component
 public class VegaApiClient {
 
+    private static final int MAX_PAGES = 1000;
+
     private final String walletUrl;
     private final String walletUser;
     private final String walletPassword;
-    private final String nodeUrl;
+    private final DataNodeService dataNodeService;
+    private final String tendermintUrl;
     private final String marketId;
     private final MarketStore marketStore;
     private final AssetStore assetStore;
     private final DecimalUtils decimalUtils;
     private final OrderService orderService;
+    private final PayloadWriter payloadWriter;
+    private final OrderReferenceService orderReferenceService;
+    private final TransactionSigner transactionSigner;
+    private final RiskService riskService;
+    private final LatencyService latencyService;
 
     public VegaApiClient(@Value("${vega.wallet.url}") String walletUrl,
                          @Value("${vega.wallet.user}") String walletUser,
                          @Value("${vega.wallet.password}") String walletPassword,
-                         @Value("${vega.node.url}") String nodeUrl,
+                         DataNodeService dataNodeService,
+                         @Value("${vega.tendermint.url}") String tendermintUrl,
                          @Value("${vega.market.id}") String marketId,
                          MarketStore marketStore,
                          AssetStore assetStore,
                          DecimalUtils decimalUtils,
-                         OrderService orderService) {
+                         OrderService orderService,
+                         PayloadWriter payloadWriter,
+                         OrderReferenceService orderReferenceService,
+                         TransactionSigner transactionSigner,
+                         RiskService riskService,
+                         LatencyService latencyService) {
         this.walletUrl = walletUrl;
         this.walletUser = walletUser;
         this.walletPassword = walletPassword;
-        this.nodeUrl = nodeUrl;
+        this.dataNodeService = dataNodeService;
+        this.tendermintUrl = tendermintUrl;
         this.marketId = marketId;
         this.marketStore = marketStore;
         this.assetStore = assetStore;
         this.decimalUtils = decimalUtils;
         this.orderService = orderService;
+        this.payloadWriter = payloadWriter;
+        this.orderReferenceService = orderReferenceService;
+        this.transactionSigner = transactionSigner;
+        this.riskService = riskService;
+        this.latencyService = latencyService;
     }
 
     /**
@@ -61,15 +90,12 @@ public class VegaApiClient {
      */
     public List<NetworkParameter> getNetworkParameters() {
         try {
-            HttpResponse<JsonNode> response = Unirest.get(
-                            String.format("%s/network/parameters", nodeUrl))
-                    .asJson();
-            if(response.getStatus() != 200) {
-                log.warn("Status code = {}", response.getStatus());
+            Optional<JSONArray> edges = getAllEdges(
+                    String.format("%s/network/parameters", dataNodeService.getRestUrl()), "networkParameters");
+            if(edges.isEmpty()) {
                 return Collections.emptyList();
             }
-            JSONArray networkParametersArray = response.getBody().getObject()
-                    .getJSONObject("networkParameters").getJSONArray("edges");
+            JSONArray networkParametersArray = edges.get();
             List<NetworkParameter> networkParameters = new ArrayList<>();
             for(int i=0; i<networkParametersArray.length(); i++) {
                 JSONObject networkParameterObject = networkParametersArray.getJSONObject(i).getJSONObject("node");
@@ -103,15 +129,12 @@ public class VegaApiClient {
             final String partyId
     ) {
         try {
-            HttpResponse<JsonNode> response = Unirest.get(
-                    String.format("%s/liquidity/provisions?partyId=%s", nodeUrl, partyId))
-                    .asJson();
-            if(response.getStatus() != 200) {
-                log.warn("Status code = {}", response.getStatus());
+            Optional<JSONArray> edges = getAllEdges(String.format("%s/liquidity/provisions?partyId=%s",
+                    dataNodeService.getRestUrl(), partyId), "liquidityProvisions");
+            if(edges.isEmpty()) {
                 return Collections.emptyList();
             }
-            JSONArray liquidityProvisionsArray = response.getBody().getObject()
-                    .getJSONObject("liquidityProvisions").getJSONArray("edges");
+            JSONArray liquidityProvisionsArray = edges.get();
             List<LiquidityCommitment> commitments = new ArrayList<>();
             for(int i=0; i<liquidityProvisionsArray.length(); i++) {
                 JSONObject liquidityProvisionObject = liquidityProvisionsArray.getJSONObject(i).getJSONObject("node");
@@ -159,12 +182,11 @@ public class VegaApiClient {
      */
     public List<Asset> getAssets() {
         try {
-            HttpResponse<JsonNode> response = Unirest.get(String.format("%s/assets", nodeUrl)).asJson();
-            if(response.getStatus() != 200) {
-                log.warn("Status code = {}", response.getStatus());
+            Optional<JSONArray> edges = getAllEdges(String.format("%s/assets", dataNodeService.getRestUrl()), "assets");
+            if(edges.isEmpty()) {
                 return Collections.emptyList();
             }
-            JSONArray assetsArray = response.getBody().getObject().getJSONObject("assets").getJSONArray("edges");
+            JSONArray assetsArray = edges.get();
             List<Asset> assets = new ArrayList<>();
             for(int i=0; i<assetsArray.length(); i++) {
                 JSONObject assetObject = assetsArray.getJSONObject(i).getJSONObject("node");
@@ -202,14 +224,13 @@ public class VegaApiClient {
             final String partyId
     ) {
         try {
-            String url = String.format("%s/accounts?filter.partyIds=%s", nodeUrl, partyId);
-            HttpResponse<JsonNode> response = Unirest.get(url).asJson();
-            if(response.getStatus() != 200) {
-                log.warn("Status code = {}", response.getStatus());
+            String url = String.format("%s/accounts?filter.partyIds=%s", dataNodeService.getRestUrl(), partyId);
+            Optional<JSONArray> edges = getAllEdges(url, "accounts");
+            if(edges.isEmpty()) {
                 return Collections.emptyList();
             }
             List<Account> accounts = new ArrayList<>();
-            JSONArray accountsArray = response.getBody().getObject().getJSONObject("accounts").getJSONArray("edges");
+            JSONArray accountsArray = edges.get();
             for(int i=0; i<accountsArray.length(); i++) {
                 JSONObject accountObject = accountsArray.getJSONObject(i).getJSONObject("account");
                 String assetId = accountObject.getString("asset");
@@ -245,12 +266,12 @@ public class VegaApiClient {
      */
     public List<Market> getMarkets() {
         try {
-            HttpResponse<JsonNode> response = Unirest.get(String.format("%s/markets", nodeUrl)).asJson();
-            if(response.getStatus() != 200) {
-                log.warn("Status code = {}", response.getStatus());
+            Optional<JSONArray> edges = getAllEdges(
+                    String.format("%s/markets", dataNodeService.getRestUrl()), "markets");
+            if(edges.isEmpty()) {
                 return Collections.emptyList();
             }
-            JSONArray marketsArray = response.getBody().getObject().getJSONObject("markets").getJSONArray("edges");
+            JSONArray marketsArray = edges.get();
             List<Market> markets = new ArrayList<>();
             for(int i=0; i<marketsArray.length(); i++) {
                 JSONObject marketObject = marketsArray.getJSONObject(i).getJSONObject("node");
@@ -302,14 +323,13 @@ public class VegaApiClient {
             final String partyId
     ) {
         try {
-            HttpResponse<JsonNode> response = Unirest.get(String.format("%s/positions?partyId=%s", nodeUrl, partyId))
-                    .asJson();
-            if(response.getStatus() != 200) {
-                log.warn("Status code = {}", response.getStatus());
+            Optional<JSONArray> edges = getAllEdges(
+                    String.format("%s/positions?partyId=%s", dataNodeService.getRestUrl(), partyId), "positions");
+            if(edges.isEmpty()) {
                 return Collections.emptyList();
             }
             List<Position> positions = new ArrayList<>();
-            JSONArray positionsArray = response.getBody().getObject().getJSONObject("positions").getJSONArray("edges");
+            JSONArray positionsArray = edges.get();
             for(int i=0; i<positionsArray.length(); i++) {
                 JSONObject positionObject = positionsArray.getJSONObject(i).getJSONObject("node");
                 String marketId = positionObject.getString("marketId");
@@ -351,14 +371,13 @@ public class VegaApiClient {
             final String partyId
     ) {
         try {
-            String url = String.format("%s/orders?partyId=%s&liveOnly=true", nodeUrl, partyId);
-            HttpResponse<JsonNode> response = Unirest.get(url).asJson();
-            if(response.getStatus() != 200) {
-                log.warn("Status code = {}", response.getStatus());
+            String url = String.format("%s/orders?partyId=%s&liveOnly=true", dataNodeService.getRestUrl(), partyId);
+            Optional<JSONArray> edges = getAllEdges(url, "orders");
+            if(edges.isEmpty()) {
                 return Collections.emptyList();
             }
             List<Order> orders = new ArrayList<>();
-            JSONArray ordersArray = response.getBody().getObject().getJSONObject("orders").getJSONArray("edges");
+            JSONArray ordersArray = edges.get();
             for(int i=0; i<ordersArray.length(); i++) {
                 JSONObject orderObject = ordersArray.getJSONObject(i).getJSONObject("node");
                 String marketId = orderObject.getString("marketId");
@@ -384,6 +403,7 @@ public class VegaApiClient {
                         .setPrice(decimalUtils.convertToDecimals(market.getDecimalPlaces(), price))
                         .setSide(side)
                         .setId(id)
+                        .setReference(StringUtils.trimToNull(orderObject.optString("reference")))
                         .setIsPeggedOrder(orderObject.has("liquidityProvisionId") &&
                                 orderObject.getString("liquidityProvisionId").length() > 0);
                 if(order.getStatus().equals(OrderStatus.ACTIVE)) {
@@ -397,6 +417,54 @@ public class VegaApiClient {
         return Collections.emptyList();
     }
 
+    /**
+     * Get the edges of every page of a v2 connection, following the cursor until there are no more pages
+     *
+     * @param url the URL of the first page
+     * @param key the connection key in the response
+     *
+     * @return {@link Optional<JSONArray>} empty if any page could not be fetched
+     */
+    private Optional<JSONArray> getAllEdges(
+            final String url,
+            final String key
+    ) throws JSONException, UnirestException {
+        JSONArray edges = new JSONArray();
+        String cursor = null;
+        for(int page=0; page<MAX_PAGES; page++) {
+            String pageUrl = cursor == null ? url : String.format("%s%spagination.after=%s", url,
+                    url.contains("?") ? "&" : "?", URLEncoder.encode(cursor, StandardCharsets.UTF_8));
+            HttpResponse<JsonNode> response;
+            try {
+                response = Unirest.get(pageUrl).asJson();
+            } catch(UnirestException e) {
+                dataNodeService.reportFailure();
+                throw e;
+            }
+            if(response.getStatus() != 200) {
+                log.warn("Status code = {}", response.getStatus());
+                if(response.getStatus() >= 500) {
+                    dataNodeService.reportFailure();
+                }
+                return Optional.empty();
+            }
+            JSONObject connection = response.getBody().getObject().getJSONObject(key);
+            JSONArray pageEdges = connection.getJSONArray("edges");
+            for(int i=0; i<pageEdges.length(); i++) {
+                edges.put(pageEdges.get(i));
+            }
+            JSONObject pageInfo = connection.optJSONObject("pageInfo");
+            String nextCursor = pageInfo != null && pageInfo.optBoolean("hasNextPage") ?
+                    pageInfo.optString("endCursor") : null;
+            if(StringUtils.isEmpty(nextCursor) || nextCursor.equals(cursor) || pageEdges.length() == 0) {
+                return Optional.of(edges);
+            }
+            cursor = nextCursor;
+        }
+        log.warn("Stopped paging {} after {} pages", key, MAX_PAGES);
+        return Optional.of(edges);
+    }
+
     /**
      * Cancel order with recursive retry
      *
@@ -541,29 +609,12 @@ public class VegaApiClient {
             return Optional.empty();
         }
         try {
-            String reference = String.format("%s-%s", partyId, UUID.randomUUID());
-            Market market = order.getMarket();
-            String size = decimalUtils.convertFromDecimals(
-                    market.getPositionDecimalPlaces(), order.getSize()).toBigInteger().toString();
-            JSONObject orderSubmission = new JSONObject()
-                    .put("marketId", market.getId())
-                    .put("size", size)
-                    .put("side", String.format("SIDE_%s", order.getSide().name()))
-                    .put("type", String.format("TYPE_%s", order.getType().name())).put("timeInForce",
-                            String.format("TIME_IN_FORCE_%s", order.getTimeInForce().name()))
-                    .put("reference", reference);
-            if(!order.getType().equals(OrderType.MARKET)) {
-                String price = decimalUtils.convertFromDecimals(
-                        market.getDecimalPlaces(), order.getPrice()).toBigInteger().toString();
-                orderSubmission = orderSubmission.put("price", price);
-            }
-            JSONObject submission = new JSONObject()
-                    .put("orderSubmission", orderSubmission)
-                    .put("pubKey", partyId)
-                    .put("propagate", true);
+            String reference = orderReferenceService.onSubmit(order);
+            byte[] submission = payloadWriter.writeOrderSubmission(order, partyId, reference);
             String token = getToken().orElseThrow(() -> new TradingException(ErrorCode.GET_VEGA_TOKEN_FAILED));
             Map<String, String> headers = new HashMap<>();
             headers.put("Authorization", String.format("Bearer %s", token));
+            headers.put("Content-Type", "application/json");
             HttpResponse<JsonNode> response = Unirest.post(String.format("%s/api/v1/command/sync", walletUrl))
                     .headers(headers)
                     .body(submission)
@@ -599,7 +650,7 @@ public class VegaApiClient {
     }
 
     /**
-     * Submit a new order
+     * Submit a new order, unless it fails the pre-trade checks in {@link RiskService}
      *
      * @param order {@link Order}
      * @param partyId the party ID
@@ -610,7 +661,37 @@ public class VegaApiClient {
             final Order order,
             final String partyId
     ) {
-        return submitOrder(order, partyId, 1);
+        List<Order> submissions = List.of(order);
+        if(order.getMarket() == null) {
+            log.warn("Cannot submit order without a market");
+            return Optional.empty();
+        }
+        try {
+            if(riskService.check(Collections.emptyList(), submissions, order.getMarket()).isEmpty()) {
+                return Optional.empty();
+            }
+        } catch(Exception e) {
+            log.error(e.getMessage(), e);
+            return Optional.empty();
+        }
+        Optional<String> txHash = Optional.empty();
+        if(transactionSigner.canSign(partyId)) {
+            try {
+                txHash = transactionSigner.submitOrder(order, orderReferenceService.onSubmit(order));
+            } catch(TradingException e) {
+                log.warn("Order {} may have been sent; leaving it to the order stream", order.getReference());
+                riskService.onSubmit(Collections.emptyList(), submissions, order.getMarket());
+                return Optional.empty();
+            }
+            if(txHash.isEmpty()) {
+                log.warn("Could not sign order in-process, falling back to the wallet");
+            }
+        }
+        if(txHash.isEmpty()) {
+            txHash = submitOrder(order, partyId, 1);
+        }
+        txHash.ifPresent(tx -> riskService.onSubmit(Collections.emptyList(), submissions, order.getMarket()));
+        return txHash;
     }
 
     /**
@@ -691,21 +772,58 @@ public class VegaApiClient {
     }
 
     /**
-     * Submit a bulk instruction comprised of multiple cancellations, amendments and submissions
+     * Submit a bulk instruction comprised of multiple cancellations, amendments and submissions. Submissions that
+     * fail the pre-trade checks in {@link RiskService} are dropped from the batch, and if the checks themselves fail
+     * only the cancellations are sent. The checks, signing or payload, token and wallet round-trip are each timed
+     * with {@link LatencyService}.
      *
      * @param cancellations {@link List<String>} orderIds
      * @param submissions {@link List<Order>} new orders
      * @param market {@link Market}
      * @param partyId the public key
      *
-     * @return {@link Optional<String>}
+     * @return the batch that was sent, with its transaction hash {@link Optional<BatchInstruction>}
      */
-    public Optional<String> submitBulkInstruction(
+    public Optional<BatchInstruction> submitBulkInstruction(
             final List<String> cancellations,
             final List<Order> submissions,
             final Market market,
             final String partyId) {
-        return submitBulkInstruction(cancellations, submissions, market, partyId, 0);
+        long start = latencyService.start();
+        BatchInstruction batch = new BatchInstruction().setCancellations(cancellations);
+        try {
+            batch.setSubmissions(riskService.check(cancellations, submissions, market));
+        } catch(Exception e) {
+            log.error(e.getMessage(), e);
+        }
+        latencyService.record(LatencyStage.RISK_CHECK, start);
+        List<Order> allowed = batch.getSubmissions();
+        if(cancellations.isEmpty() && allowed.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<String> txHash = Optional.empty();
+        if(transactionSigner.canSign(partyId)) {
+            long signStart = latencyService.start();
+            try {
+                txHash = transactionSigner.submitBatchMarketInstructions(
+                        cancellations, allowed, market, orderReferenceService::onSubmit);
+            } catch(TradingException e) {
+                log.warn("Batch may have been sent; leaving it to the order stream");
+                riskService.onSubmit(cancellations, allowed, market);
+                return Optional.empty();
+            } finally {
+                latencyService.record(LatencyStage.SIGN, signStart);
+            }
+            if(txHash.isEmpty()) {
+                log.warn("Could not sign batch in-process, falling back to the wallet");
+            }
+        }
+        if(txHash.isEmpty()) {
+            txHash = submitBulkInstruction(cancellations, allowed, market, partyId, 0);
+        }
+        txHash.ifPresent(tx -> riskService.onSubmit(cancellations, allowed, market));
+        latencyService.record(LatencyStage.SUBMIT, start);
+        return txHash.map(batch::setTxHash);
     }
 
     /**
@@ -727,43 +845,20 @@ public class VegaApiClient {
             return Optional.empty();
         }
         try {
-            JSONArray cancellationsArr = new JSONArray();
-            JSONArray amendmentsArr = new JSONArray();
-            JSONArray submissionArr = new JSONArray();
-            for(String id : cancellations) {
-                cancellationsArr.put(new JSONObject()
-                        .put("marketId", market.getId())
-                        .put("orderId", id));
-            }
-            for(Order order : submissions) {
-                String reference = String.format("%s-%s", order.getPartyId(), UUID.randomUUID());
-                String price = decimalUtils.convertFromDecimals(
-                        market.getDecimalPlaces(), order.getPrice()).toBigInteger().toString();
-                String size = decimalUtils.convertFromDecimals(
-                        market.getPositionDecimalPlaces(), order.getSize()).toBigInteger().toString();
-                submissionArr.put(new JSONObject()
-                        .put("marketId", market.getId())
-                        .put("price", price)
-                        .put("size", size)
-                        .put("side", String.format("SIDE_%s", order.getSide().name()))
-                        .put("timeInForce", String.format("TIME_IN_FORCE_%s", order.getTimeInForce().name()))
-                        .put("type", String.format("TYPE_%s", order.getType().name()))
-                        .put("reference", reference));
-            }
-            JSONObject bulkInstruction = new JSONObject()
-                    .put("batchMarketInstructions", new JSONObject()
-                            .put("cancellations", cancellationsArr)
-                            .put("amendments", amendmentsArr)
-                            .put("submissions", submissionArr))
-                    .put("pubKey", partyId)
-                    .put("propagate", true);
+            long time = latencyService.start();
+            byte[] bulkInstruction = payloadWriter.writeBatchMarketInstructions(cancellations, submissions, market,
+                    partyId, orderReferenceService::onSubmit);
+            time = latencyService.record(LatencyStage.PAYLOAD, time);
             String token = getToken().orElseThrow(() -> new TradingException(ErrorCode.GET_VEGA_TOKEN_FAILED));
+            time = latencyService.record(LatencyStage.TOKEN, time);
             Map<String, String> headers = new HashMap<>();
             headers.put("Authorization", String.format("Bearer %s", token));
+            headers.put("Content-Type", "application/json");
             HttpResponse<JsonNode> response = Unirest.post(String.format("%s/api/v1/command/sync", walletUrl))
                     .headers(headers)
                     .body(bulkInstruction)
                     .asJson();
+            latencyService.record(LatencyStage.WALLET, time);
             if(response.getBody().toString().contains("couldn't get last block height")) {
                 log.info("Trying to amend order again...");
                 return submitBulkInstruction(cancellations, submissions, market, partyId, attempt+1);
@@ -772,8 +867,6 @@ public class VegaApiClient {
                 throw new TradingException(response.getBody().toString());
             }
             String txHash = response.getBody().getObject().getString("txHash");
-            // TODO - if there is an error we can find it in the Tendermint API using the tx hash...
-            //  https://tm.n01.testnet.vega.xyz/tx?hash=0x5E8C1...
             return Optional.of(txHash);
         } catch (Exception e) {
             log.error(e.getMessage(), e);
@@ -781,6 +874,45 @@ public class VegaApiClient {
         return Optional.empty();
     }
 
+    /**
+     * Get the result of a transaction from the Tendermint API
+     *
+     * @param txHash the transaction hash
+     *
+     * @return {@link Optional<Transaction>} empty if the Tendermint API is not configured or the transaction was
+     * not found
+     */
+    public Optional<Transaction> getTransactionResult(
+            final String txHash
+    ) {
+        if(StringUtils.isBlank(tendermintUrl)) {
+            return Optional.empty();
+        }
+        try {
+            HttpResponse<JsonNode> response = Unirest.get(String.format("%s/tx?hash=0x%s", tendermintUrl, txHash))
+                    .asJson();
+            if(response.getStatus() != 200) {
+                log.warn("Status code = {}", response.getStatus());
+                return Optional.empty();
+            }
+            JSONObject result = response.getBody().getObject().optJSONObject("result");
+            if(result == null) {
+                return Optional.empty();
+            }
+            JSONObject txResult = result.getJSONObject("tx_result");
+            int code = txResult.optInt("code");
+            Transaction transaction = new Transaction()
+                    .setId(txHash)
+                    .setStatus(code == 0 ? TransactionStatus.ACCEPTED : TransactionStatus.REJECTED)
+                    .setReason(code == 0 ? null : StringUtils.defaultIfBlank(
+                            txResult.optString("info"), txResult.optString("log")));
+            return Optional.of(transaction);
+        } catch(Exception e) {
+            log.error(e.getMessage(), e);
+        }
+        return Optional.empty();
+    }
+
     /**
      * Get an authorization token from the wallet
      *
@@ -0,0 +1,690 @@
+package com.vega.protocol.backtest;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.vega.protocol.constant.*;
+import com.vega.protocol.exception.TradingException;
+import com.vega.protocol.model.*;
+import com.vega.protocol.quote.AmmQuotingStrategy;
+import com.vega.protocol.quote.AvellanedaStoikovQuotingStrategy;
+import com.vega.protocol.quote.QuotingStrategy;
+import com.vega.protocol.service.*;
+import com.vega.protocol.store.*;
+import com.vega.protocol.task.UpdateQuotesTask;
+import com.vega.protocol.utils.PricingUtils;
+import com.vega.protocol.utils.QuantUtils;
+import com.vega.protocol.utils.SleepUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.support.CronExpression;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a recorded market data stream through the production quoting code. {@link UpdateQuotesTask},
+ * {@link PricingUtils}, the quoting strategies and the command budget, risk and volatility services all run as they
+ * do live, but against a {@link MatchingEngine} instead of Vega and on a {@link SimulatedClock} that jumps from one
+ * recorded timestamp to the next, so a day of data replays in seconds.
+ *
+ * Quotes are refreshed on the {@code update.quotes.cron.expression} heartbeat and whenever the reference mid moves
+ * by {@code quote.trigger.threshold} or our position changes, no sooner than {@code quote.trigger.min.interval.ms}
+ * apart, as {@link QuoteTriggerService} does live. A refresh that has to wait for the command budget holds up the
+ * replay for as long as it waits. Recorded trades are matched against our orders as if we were at
+ * the front of the queue at each price; {@code backtest.trade.participation} scales them down to allow for the
+ * liquidity that was resting ahead of us. Liquidity commitments and margin are not simulated: the balance is the
+ * starting balance plus the PnL.
+ *
+ * Run it from the application jar with the recording, and optionally a properties file that overrides
+ * {@code application.properties} and {@code backtest.properties}:
+ *
+ * <pre>
+ *     java -cp vega-market-maker.jar -Dloader.main=com.vega.protocol.backtest.Backtest \
+ *         org.springframework.boot.loader.PropertiesLauncher events.csv.gz backtest.properties
+ * </pre>
+ */
+@Slf4j
+public class Backtest {
+
+    private static final String NETWORK_PARAM_PREFIX = "backtest.network.";
+    private static final String RECORDED_PARTY_ID = "recorded";
+    private static final String REFERENCE_PARTY_ID = "reference";
+
+    private final Properties properties;
+    private final SimulatedClock clock = new SimulatedClock();
+    private final String partyId;
+    private final MarketBindingService marketBindingService;
+    private final ReferencePriceStore referencePriceStore = new ReferencePriceStore();
+    private final AppConfigStore appConfigStore = new AppConfigStore();
+    private final OrderStore orderStore = new OrderStore();
+    private final PositionStore positionStore = new PositionStore();
+    private final AccountStore accountStore = new AccountStore();
+    private final MarketStore marketStore = new MarketStore();
+    private final NetworkParameterStore networkParameterStore = new NetworkParameterStore();
+    private final OrderReferenceService orderReferenceService;
+    private final TransactionService transactionService;
+    private final QuoteTriggerService quoteTriggerService;
+    private final MatchingEngine matchingEngine;
+    private final UpdateQuotesTask updateQuotesTask;
+    private final CronExpression heartbeat;
+    private final Map<String, Inventory> inventories = new LinkedHashMap<>();
+    private final Account account;
+    private final double balance;
+    private final double triggerThreshold;
+    private final long triggerIntervalNanos;
+    private final long sampleIntervalNanos;
+    private final double participation;
+    private final boolean fillOnReferenceCross;
+    private final double makerFee;
+    private final BacktestResult result = new BacktestResult();
+    private long nextHeartbeat = Long.MAX_VALUE;
+    private long nextSample = Long.MIN_VALUE;
+    private long lastSample = Long.MIN_VALUE;
+    private double peakPnl;
+
+    public Backtest(Properties properties) {
+        this.properties = properties;
+        this.partyId = get("vega.party.id");
+        this.balance = getDouble("backtest.balance");
+        this.triggerThreshold = getDouble("quote.trigger.threshold");
+        this.triggerIntervalNanos = TimeUnit.MILLISECONDS.toNanos(getLong("quote.trigger.min.interval.ms"));
+        this.sampleIntervalNanos = TimeUnit.MILLISECONDS.toNanos(getLong("backtest.sample.interval.ms"));
+        this.participation = getDouble("backtest.trade.participation");
+        this.fillOnReferenceCross = Boolean.parseBoolean(get("backtest.fill.on.reference.cross"));
+        this.makerFee = getDouble("backtest.maker.fee");
+        this.heartbeat = CronExpression.parse(get("update.quotes.cron.expression"));
+        this.marketBindingService = new MarketBindingService(
+                get("vega.market.id"), get("reference.price.market"), properties.getProperty("quote.markets"));
+        for(MarketBinding binding : marketBindingService.getBindings()) {
+            Market market = buildMarket(binding.getMarketId());
+            marketStore.add(market);
+            inventories.put(binding.getMarketId(), new Inventory(binding, market));
+        }
+        this.account = new Account()
+                .setId(String.format("%s-%s", partyId, get("backtest.market.settlement.asset")))
+                .setPartyId(partyId)
+                .setType(AccountType.GENERAL)
+                .setAsset(get("backtest.market.settlement.asset"))
+                .setBalance(BigDecimal.valueOf(balance));
+        accountStore.add(account);
+        for(String key : properties.stringPropertyNames()) {
+            if(key.startsWith(NETWORK_PARAM_PREFIX)) {
+                networkParameterStore.add(new NetworkParameter()
+                        .setId(key.substring(NETWORK_PARAM_PREFIX.length()))
+                        .setValue(get(key)));
+            }
+        }
+        appConfigStore.update(buildAppConfig());
+        LatencyService latencyService = new LatencyService();
+        latencyService.setClock(clock);
+        this.orderReferenceService = new OrderReferenceService(getInteger("order.reference.capacity"),
+                getLong("order.missing.timeout.ms"), latencyService);
+        RiskService riskService = new RiskService(orderStore, marketBindingService, referencePriceStore,
+                Boolean.parseBoolean(get("risk.enabled")), getDouble("risk.max.order.notional"),
+                getDouble("risk.max.resting.notional"), getDouble("risk.max.price.deviation"),
+                getLong("risk.pending.ttl.ms"));
+        riskService.setClock(clock);
+        VolatilityService volatilityService = new VolatilityService(referencePriceStore, marketBindingService,
+                getDouble("volatility.half.life.seconds"), getDouble("volatility.bar.seconds"),
+                Boolean.parseBoolean(get("volatility.parkinson.enabled")), getInteger("volatility.min.samples"));
+        volatilityService.setClock(clock);
+        CommandBudgetService commandBudgetService = new CommandBudgetService(networkParameterStore,
+                new SleepUtils() {
+                    @Override
+                    public void sleep(long millis) {
+                        clock.advance(TimeUnit.MILLISECONDS.toNanos(millis));
+                    }
+                }, getLong("command.budget.block.ms"), getInteger("command.budget.urgent.reserve"),
+                getLong("command.budget.epoch.limit"), getLong("command.budget.max.wait.ms"));
+        commandBudgetService.setClock(clock);
+        this.matchingEngine = new MatchingEngine(clock,
+                TimeUnit.MILLISECONDS.toNanos(getLong("backtest.latency.ms")), this::onOrder, this::onFill);
+        SimulatedVegaApiClient vegaApiClient = new SimulatedVegaApiClient(
+                matchingEngine, orderReferenceService, riskService);
+        this.transactionService = new TransactionService(vegaApiClient, commandBudgetService,
+                getInteger("transaction.capacity"), getLong("transaction.timeout.ms"));
+        this.quoteTriggerService = new QuoteTriggerService(referencePriceStore, positionStore, marketBindingService,
+                false, triggerThreshold, getLong("quote.trigger.min.interval.ms")) {
+            @Override
+            public void onQuoted(String marketId, BigDecimal midPrice, BigDecimal exposure) {
+                super.onQuoted(marketId, midPrice, exposure);
+                Inventory inventory = inventories.get(marketId);
+                inventory.quotedMidPrice = midPrice.doubleValue();
+                inventory.quotedExposure = exposure;
+                inventory.lastRun = clock.getAsLong();
+            }
+        };
+        PricingUtils pricingUtils = new PricingUtils(appConfigStore);
+        List<QuotingStrategy> quotingStrategies = List.of(
+                new AmmQuotingStrategy(pricingUtils), new AvellanedaStoikovQuotingStrategy(pricingUtils));
+        this.updateQuotesTask = new UpdateQuotesTask(marketBindingService, true, partyId, referencePriceStore,
+                appConfigStore, orderStore, new LiquidityCommitmentStore(), networkParameterStore, vegaApiClient,
+                new MarketService(marketStore), new AccountService(accountStore), new PositionService(positionStore),
+                quotingStrategies, new QuantUtils(), orderReferenceService, transactionService,
+                commandBudgetService, quoteTriggerService, new QuoteStatsService(), volatilityService, latencyService,
+                null, null,
+                get("update.quotes.cron.expression"), 0) {
+            @Override
+            public boolean isInitialized() {
+                return referencePriceStore.get().isPresent();
+            }
+        };
+    }
+
+    /**
+     * Replay a recorded stream
+     *
+     * @param events {@link Iterator<RecordedEvent>} in time order
+     *
+     * @return {@link BacktestResult}
+     */
+    public BacktestResult run(
+            final Iterator<RecordedEvent> events
+    ) {
+        long startedAt = System.nanoTime();
+        long firstTimestamp = Long.MIN_VALUE;
+        try {
+            while(events.hasNext()) {
+                RecordedEvent event = events.next();
+                long nanos = TimeUnit.MILLISECONDS.toNanos(event.getTimestamp());
+                if(firstTimestamp == Long.MIN_VALUE) {
+                    firstTimestamp = event.getTimestamp();
+                    clock.advanceTo(nanos);
+                    nextHeartbeat = getNextHeartbeat();
+                    nextSample = nanos;
+                }
+                advanceTo(nanos);
+                if(event.getType().equals(RecordedEventType.PRICE)) {
+                    onPrice(event);
+                } else {
+                    onTrade(event);
+                }
+                result.setEvents(result.getEvents() + 1);
+                if(clock.getAsLong() >= nextSample) {
+                    sample();
+                    nextSample = clock.getAsLong() - clock.getAsLong() % sampleIntervalNanos + sampleIntervalNanos;
+                }
+            }
+        } finally {
+            quoteTriggerService.stop();
+        }
+        if(firstTimestamp != Long.MIN_VALUE) {
+            if(lastSample < clock.getAsLong()) {
+                sample();
+            }
+            result.setSimulatedMillis(clock.getMillis() - firstTimestamp);
+        }
+        result.setPnl(getPnl());
+        result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        return result;
+    }
+
+    /**
+     * Move the clock to the time of the next event, firing the heartbeats, quote triggers and queued instructions
+     * that fall due on the way in time order
+     *
+     * @param nanos the time of the next event
+     */
+    private void advanceTo(
+            final long nanos
+    ) {
+        while(true) {
+            long next = Math.min(matchingEngine.getNextInstructionTime(), nextHeartbeat);
+            for(Inventory inventory : inventories.values()) {
+                next = Math.min(next, inventory.triggerAt);
+            }
+            if(next > Math.max(nanos, clock.getAsLong())) {
+                break;
+            }
+            clock.advanceTo(next);
+            matchingEngine.process();
+            if(nextHeartbeat <= clock.getAsLong()) {
+                nextHeartbeat = getNextHeartbeat();
+                inventories.values().forEach(inventory -> quote(inventory.binding.getMarketId()));
+            }
+            for(Inventory inventory : inventories.values()) {
+                if(inventory.triggerAt <= clock.getAsLong()) {
+                    inventory.triggerAt = Long.MAX_VALUE;
+                    inventory.lastRun = clock.getAsLong();
+                    quote(inventory.binding.getMarketId());
+                }
+            }
+        }
+        clock.advanceTo(nanos);
+    }
+
+    /**
+     * Handle a reference price tick
+     *
+     * @param event {@link RecordedEvent}
+     */
+    private void onPrice(
+            final RecordedEvent event
+    ) {
+        BigDecimal midPrice = event.getBidPrice().add(event.getAskPrice()).multiply(BigDecimal.valueOf(0.5));
+        referencePriceStore.update(new ReferencePrice()
+                .setSymbol(event.getSymbol())
+                .setBidPrice(event.getBidPrice())
+                .setAskPrice(event.getAskPrice())
+                .setBidSize(event.getBidSize())
+                .setAskSize(event.getAskSize())
+                .setMidPrice(midPrice));
+        for(MarketBinding binding : marketBindingService.getBySymbol(event.getSymbol())) {
+            Inventory inventory = inventories.get(binding.getMarketId());
+            inventory.midPrice = midPrice.doubleValue();
+            if(fillOnReferenceCross) {
+                matchingEngine.trade(inventory.market, MarketSide.BUY, event.getBidPrice(),
+                        getCrossSize(event.getBidSize()), REFERENCE_PARTY_ID);
+                matchingEngine.trade(inventory.market, MarketSide.SELL, event.getAskPrice(),
+                        getCrossSize(event.getAskSize()), REFERENCE_PARTY_ID);
+            }
+            double quotedMidPrice = inventory.quotedMidPrice;
+            if(quotedMidPrice > 0 && Math.abs(midPrice.doubleValue() - quotedMidPrice) / quotedMidPrice >=
+                    triggerThreshold) {
+                request(inventory);
+            }
+        }
+    }
+
+    /**
+     * Handle a recorded trade
+     *
+     * @param event {@link RecordedEvent}
+     */
+    private void onTrade(
+            final RecordedEvent event
+    ) {
+        Inventory inventory = inventories.get(event.getMarketId());
+        if(inventory == null) {
+            return;
+        }
+        BigDecimal size = event.getSize().multiply(BigDecimal.valueOf(participation));
+        matchingEngine.trade(inventory.market, event.getSide(), event.getPrice(), size, RECORDED_PARTY_ID);
+    }
+
+    /**
+     * Apply an order update from the matching engine, as the Vega web socket does live
+     *
+     * @param order {@link Order}
+     */
+    private void onOrder(
+            final Order order
+    ) {
+        if(!partyId.equals(order.getPartyId())) {
+            return;
+        }
+        orderReferenceService.onUpdate(order);
+        transactionService.onOrderUpdate(order);
+        if(order.getStatus().equals(OrderStatus.ACTIVE)) {
+            orderStore.update(order);
+        } else {
+            orderStore.remove(order);
+        }
+    }
+
+    /**
+     * Update our position and PnL for one of our fills
+     *
+     * @param fill {@link Fill}
+     */
+    private void onFill(
+            final Fill fill
+    ) {
+        if(!partyId.equals(fill.getPartyId())) {
+            return;
+        }
+        result.getFills().add(fill);
+        Inventory inventory = inventories.get(fill.getMarketId());
+        double price = fill.getPrice().doubleValue();
+        double size = fill.getSize().doubleValue();
+        double position = inventory.position.doubleValue();
+        double signedSize = fill.getSide().equals(MarketSide.BUY) ? size : -size;
+        if(position == 0 || Math.signum(position) == Math.signum(signedSize)) {
+            inventory.entryPrice = (inventory.entryPrice * Math.abs(position) + price * size) /
+                    (Math.abs(position) + size);
+        } else {
+            double closed = Math.min(Math.abs(position), size);
+            inventory.realisedPnl += closed * (price - inventory.entryPrice) * Math.signum(position);
+            if(size > Math.abs(position)) {
+                inventory.entryPrice = price;
+            }
+        }
+        inventory.position = fill.getSide().equals(MarketSide.BUY) ?
+                inventory.position.add(fill.getSize()) : inventory.position.subtract(fill.getSize());
+        if(inventory.position.signum() == 0) {
+            inventory.entryPrice = 0;
+        }
+        double fee = fill.isAggressor() ? 0 : price * size * makerFee;
+        inventory.fees += fee;
+        result.setVolume(result.getVolume() + price * size);
+        result.setFees(result.getFees() + fee);
+        result.setMaxPosition(Math.max(result.getMaxPosition(), inventory.position.abs().doubleValue()));
+        positionStore.update(new Position()
+                .setId(String.format("%s-%s", inventory.binding.getMarketId(), partyId))
+                .setPartyId(partyId)
+                .setMarket(inventory.market)
+                .setSize(inventory.position.abs())
+                .setSide(inventory.position.signum() > 0 ? MarketSide.BUY :
+                        (inventory.position.signum() < 0 ? MarketSide.SELL : null))
+                .setEntryPrice(BigDecimal.valueOf(inventory.entryPrice))
+                .setRealisedPnl(BigDecimal.valueOf(inventory.realisedPnl))
+                .setUnrealisedPnl(BigDecimal.valueOf(inventory.getUnrealisedPnl())));
+        updateBalance();
+        if(inventory.quotedExposure != null && inventory.quotedExposure.compareTo(inventory.position) != 0) {
+            request(inventory);
+        }
+    }
+
+    /**
+     * Request a refresh of a market's quotes, no sooner than the minimum interval after its previous refresh
+     *
+     * @param inventory {@link Inventory}
+     */
+    private void request(
+            final Inventory inventory
+    ) {
+        if(inventory.triggerAt != Long.MAX_VALUE) {
+            return;
+        }
+        inventory.triggerAt = inventory.lastRun == Long.MIN_VALUE ? clock.getAsLong() :
+                Math.max(clock.getAsLong(), inventory.lastRun + triggerIntervalNanos);
+    }
+
+    /**
+     * Refresh a market's quotes
+     *
+     * @param marketId the market ID
+     */
+    private void quote(
+            final String marketId
+    ) {
+        result.setQuoteCycles(result.getQuoteCycles() + 1);
+        try {
+            updateQuotesTask.execute(marketId);
+        } catch(Exception e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Record the position and PnL of every market at the current time
+     */
+    private void sample() {
+        lastSample = clock.getAsLong();
+        updateBalance();
+        for(Inventory inventory : inventories.values()) {
+            if(inventory.midPrice == 0) {
+                continue;
+            }
+            result.getSamples().add(new BacktestSample()
+                    .setTimestamp(clock.getMillis())
+                    .setMarketId(inventory.binding.getMarketId())
+                    .setMidPrice(inventory.midPrice)
+                    .setPosition(inventory.position.doubleValue())
+                    .setRealisedPnl(inventory.realisedPnl + inventory.fees)
+                    .setUnrealisedPnl(inventory.getUnrealisedPnl())
+                    .setPnl(inventory.getPnl()));
+        }
+        double pnl = getPnl();
+        peakPnl = Math.max(peakPnl, pnl);
+        result.setMaxDrawdown(Math.max(result.getMaxDrawdown(), peakPnl - pnl));
+    }
+
+    /**
+     * Set the balance to the starting balance plus the PnL
+     */
+    private void updateBalance() {
+        account.setBalance(BigDecimal.valueOf(balance + getPnl()));
+        accountStore.update(account);
+    }
+
+    /**
+     * Get the PnL across all markets
+     *
+     * @return the PnL
+     */
+    private double getPnl() {
+        return inventories.values().stream().mapToDouble(Inventory::getPnl).sum();
+    }
+
+    /**
+     * Get the size of an order that trades through our quotes when the reference price crosses them
+     *
+     * @param size the size at the reference BBO
+     *
+     * @return the size, or zero if the recording has no sizes
+     */
+    private BigDecimal getCrossSize(
+            final BigDecimal size
+    ) {
+        return size != null ? size.multiply(BigDecimal.valueOf(participation)) : BigDecimal.ZERO;
+    }
+
+    /**
+     * Get the time of the next heartbeat after the current time
+     *
+     * @return the time in nanoseconds, or {@link Long#MAX_VALUE} if there is none
+     */
+    private long getNextHeartbeat() {
+        ZonedDateTime now = Instant.ofEpochSecond(0, clock.getAsLong()).atZone(ZoneOffset.UTC);
+        ZonedDateTime next = heartbeat.next(now);
+        if(next == null) {
+            return Long.MAX_VALUE;
+        }
+        Instant instant = next.toInstant();
+        return TimeUnit.SECONDS.toNanos(instant.getEpochSecond()) + instant.getNano();
+    }
+
+    /**
+     * Build a simulated market
+     *
+     * @param marketId the market ID
+     *
+     * @return {@link Market}
+     */
+    private Market buildMarket(
+            final String marketId
+    ) {
+        return new Market()
+                .setId(marketId)
+                .setName(marketId)
+                .setState(MarketState.ACTIVE)
+                .setTradingMode(MarketTradingMode.CONTINUOUS)
+                .setSettlementAsset(get("backtest.market.settlement.asset"))
+                .setDecimalPlaces(getInteger("backtest.market.decimal.places"))
+                .setPositionDecimalPlaces(getInteger("backtest.market.position.decimal.places"))
+                .setTau(getDouble("backtest.market.tau"))
+                .setSigma(getDouble("backtest.market.sigma"));
+    }
+
+    /**
+     * Build the app config from the trading config properties, as {@code DataInitializer} does
+     *
+     * @return {@link AppConfig}
+     */
+    private AppConfig buildAppConfig() {
+        return new AppConfig()
+                .setFee(getDouble("fee"))
+                .setMinSpread(getDouble("min.spread"))
+                .setMaxSpread(getDouble("max.spread"))
+                .setCommitmentSpread(getDouble("commitment.spread"))
+                .setOrderCount(getInteger("order.count"))
+                .setBidSizeFactor(getDouble("bid.size.factor"))
+                .setAskSizeFactor(getDouble("ask.size.factor"))
+                .setCommitmentBalanceRatio(getDouble("commitment.balance.ratio"))
+                .setBidQuoteRange(getDouble("bid.quote.range"))
+                .setAskQuoteRange(getDouble("ask.quote.range"))
+                .setCommitmentOrderCount(getInteger("commitment.order.count"))
+                .setStakeBuffer(getDouble("stake.buffer"))
+                .setBboOffset(getDouble("bbo.offset"))
+                .setStrategy(QuotingStrategyType.valueOf(get("quoting.strategy")))
+                .setRiskAversion(getDouble("risk.aversion"))
+                .setLiquidityDensity(getDouble("liquidity.density"))
+                .setQuoteHorizon(getDouble("quote.horizon"))
+                .setPriceToleranceTicks(getInteger("price.tolerance.ticks"))
+                .setPriceToleranceBps(getDouble("price.tolerance.bps"))
+                .setSizeTolerancePercent(getDouble("size.tolerance.percent"))
+                .setVolatilitySpreadFactor(getDouble("volatility.spread.factor"));
+    }
+
+    private String get(
+            final String key
+    ) {
+        String value = properties.getProperty(key);
+        if(value == null) {
+            throw new TradingException(ErrorCode.BACKTEST_PROPERTY_NOT_FOUND);
+        }
+        return value.trim();
+    }
+
+    private double getDouble(
+            final String key
+    ) {
+        return Double.parseDouble(get(key));
+    }
+
+    private long getLong(
+            final String key
+    ) {
+        return Long.parseLong(get(key));
+    }
+
+    private int getInteger(
+            final String key
+    ) {
+        return Integer.parseInt(get(key));
+    }
+
+    /**
+     * Load {@code application.properties} and {@code backtest.properties} from the classpath, then the overrides
+     * and finally any matching system properties
+     *
+     * @param overrides a properties file, or null
+     *
+     * @return {@link Properties}
+     *
+     * @throws IOException if a file cannot be read
+     */
+    public static Properties loadProperties(
+            final Path overrides
+    ) throws IOException {
+        Properties properties = new Properties();
+        for(String resource : List.of("application.properties", "backtest.properties")) {
+            try(InputStream inputStream = Backtest.class.getClassLoader().getResourceAsStream(resource)) {
+                if(inputStream != null) {
+                    properties.load(inputStream);
+                }
+            }
+        }
+        if(overrides != null) {
+            try(Reader reader = Files.newBufferedReader(overrides, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+        }
+        for(String key : properties.stringPropertyNames()) {
+            String value = System.getProperty(key);
+            if(value != null) {
+                properties.setProperty(key, value);
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Write the fills and the sampled position and PnL paths as CSV
+     *
+     * @param result {@link BacktestResult}
+     * @param directory the output directory
+     *
+     * @throws IOException if a file cannot be written
+     */
+    public static void write(
+            final BacktestResult result,
+            final Path directory
+    ) throws IOException {
+        Files.createDirectories(directory);
+        try(PrintWriter writer = new PrintWriter(Files.newBufferedWriter(directory.resolve("fills.csv")))) {
+            writer.println("timestamp,marketId,orderId,reference,side,price,size");
+            for(Fill fill : result.getFills()) {
+                writer.printf("%d,%s,%s,%s,%s,%s,%s%n", fill.getTimestamp(), fill.getMarketId(), fill.getOrderId(),
+                        fill.getReference(), fill.getSide(), fill.getPrice().toPlainString(),
+                        fill.getSize().toPlainString());
+            }
+        }
+        try(PrintWriter writer = new PrintWriter(Files.newBufferedWriter(directory.resolve("samples.csv")))) {
+            writer.println("timestamp,marketId,midPrice,position,realisedPnl,unrealisedPnl,pnl");
+            for(BacktestSample sample : result.getSamples()) {
+                writer.printf("%d,%s,%s,%s,%s,%s,%s%n", sample.getTimestamp(), sample.getMarketId(),
+                        sample.getMidPrice(), sample.getPosition(), sample.getRealisedPnl(),
+                        sample.getUnrealisedPnl(), sample.getPnl());
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if(args.length < 1) {
+            System.err.println("Usage: Backtest <events.csv[.gz]> [overrides.properties]");
+            System.exit(1);
+        }
+        Properties properties = loadProperties(args.length > 1 ? Path.of(args[1]) : null);
+        ((Logger) LoggerFactory.getLogger("com.vega.protocol"))
+                .setLevel(Level.toLevel(properties.getProperty("backtest.log.level"), Level.WARN));
+        ((Logger) LoggerFactory.getLogger(Backtest.class)).setLevel(Level.INFO);
+        BacktestResult result;
+        try(RecordedEventReader reader = RecordedEventReader.open(Path.of(args[0]))) {
+            result = new Backtest(properties).run(reader);
+        }
+        log.info("Replayed {} events ({} s of data) in {} ms: {} quote cycles; {} fills; volume = {}; " +
+                        "fees = {}; PnL = {}; max position = {}; max drawdown = {}",
+                result.getEvents(), result.getSimulatedMillis() / 1000, result.getElapsedMillis(),
+                result.getQuoteCycles(), result.getFills().size(), result.getVolume(), result.getFees(),
+                result.getPnl(), result.getMaxPosition(), result.getMaxDrawdown());
+        String outputDir = properties.getProperty("backtest.output.dir", "").trim();
+        if(!outputDir.isEmpty()) {
+            write(result, Path.of(outputDir));
+        }
+    }
+
+    /**
+     * Our position and PnL in one market
+     */
+    private static class Inventory {
+
+        private final MarketBinding binding;
+        private final Market market;
+        private BigDecimal position = BigDecimal.ZERO;
+        private double entryPrice;
+        private double realisedPnl;
+        private double fees;
+        private double midPrice;
+        private double quotedMidPrice;
+        private BigDecimal quotedExposure;
+        private long lastRun = Long.MIN_VALUE;
+        private long triggerAt = Long.MAX_VALUE;
+
+        private Inventory(
+                final MarketBinding binding,
+                final Market market
+        ) {
+            this.binding = binding;
+            this.market = market;
+        }
+
+        private double getUnrealisedPnl() {
+            return position.signum() == 0 || midPrice == 0 ? 0 :
+                    position.doubleValue() * (midPrice - entryPrice);
+        }
+
+        private double getPnl() {
+            return realisedPnl + fees + getUnrealisedPnl();
+        }
+    }
+}
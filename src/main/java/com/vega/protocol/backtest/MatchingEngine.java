@@ -0,0 +1,323 @@
+package com.vega.protocol.backtest;
+
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.constant.OrderStatus;
+import com.vega.protocol.constant.OrderType;
+import com.vega.protocol.constant.TimeInForce;
+import com.vega.protocol.model.Fill;
+import com.vega.protocol.model.Market;
+import com.vega.protocol.model.Order;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * An in-process limit order book that stands in for Vega in a backtest. Orders match at price-time priority and
+ * trade at the resting order's price. An aggressive order that would trade with an order from the same party is
+ * stopped, as Vega does to prevent wash trades, and an order without a positive price and size is rejected. Market
+ * orders need no price and, like immediate-or-cancel and fill-or-kill orders, never rest; fill-or-kill orders are
+ * not checked for the full size up front.
+ *
+ * Instructions are applied {@code latencyNanos} after they are submitted, in the order they were submitted, and only
+ * when {@link #process()} is called; trades replayed from a recording are matched at once. Every change to an order
+ * is published as a copy, and every match as a {@link Fill} for each side.
+ */
+public class MatchingEngine {
+
+    private static final String TX_PREFIX = "sim-tx-";
+    private static final String ORDER_PREFIX = "sim-";
+    private static final String INVALID_ORDER = "OrderError: invalid price or size";
+
+    private final SimulatedClock clock;
+    private final long latencyNanos;
+    private final Consumer<Order> orderListener;
+    private final Consumer<Fill> fillListener;
+    private final Map<String, Book> books = new HashMap<>();
+    private final Map<String, Order> restingOrders = new HashMap<>();
+    private final ArrayDeque<Instruction> instructions = new ArrayDeque<>();
+    private long txCount;
+    private long orderCount;
+
+    public MatchingEngine(SimulatedClock clock,
+                          long latencyNanos,
+                          Consumer<Order> orderListener,
+                          Consumer<Fill> fillListener) {
+        this.clock = clock;
+        this.latencyNanos = latencyNanos;
+        this.orderListener = orderListener;
+        this.fillListener = fillListener;
+    }
+
+    /**
+     * Queue a batch of cancellations and submissions. The submissions are copied, so the caller may reuse them.
+     *
+     * @param cancellations {@link List<String>} orderIds
+     * @param submissions {@link List<Order>} new orders
+     * @param market {@link Market}
+     * @param partyId the party ID
+     *
+     * @return the transaction hash
+     */
+    public String submit(
+            final List<String> cancellations,
+            final List<Order> submissions,
+            final Market market,
+            final String partyId
+    ) {
+        List<Order> orders = new ArrayList<>(submissions.size());
+        for(Order submission : submissions) {
+            orders.add(new Order()
+                    .setPartyId(partyId)
+                    .setMarket(market)
+                    .setPrice(submission.getPrice())
+                    .setSize(submission.getSize())
+                    .setRemainingSize(submission.getSize())
+                    .setSide(submission.getSide())
+                    .setType(submission.getType() != null ? submission.getType() : OrderType.LIMIT)
+                    .setTimeInForce(submission.getTimeInForce() != null ?
+                            submission.getTimeInForce() : TimeInForce.GTC)
+                    .setIsPeggedOrder(false)
+                    .setReference(submission.getReference()));
+        }
+        instructions.add(new Instruction(clock.getAsLong() + latencyNanos, List.copyOf(cancellations), orders));
+        return TX_PREFIX + (++txCount);
+    }
+
+    /**
+     * Get the time at which the next queued instruction is applied
+     *
+     * @return the time in nanoseconds, or {@link Long#MAX_VALUE} if nothing is queued
+     */
+    public long getNextInstructionTime() {
+        Instruction instruction = instructions.peek();
+        return instruction != null ? instruction.activeAt : Long.MAX_VALUE;
+    }
+
+    /**
+     * Apply the queued instructions that are due at the current time
+     */
+    public void process() {
+        while(!instructions.isEmpty() && instructions.peek().activeAt <= clock.getAsLong()) {
+            Instruction instruction = instructions.poll();
+            instruction.cancellations.forEach(this::cancel);
+            instruction.submissions.forEach(order -> execute(order, order.getType().equals(OrderType.MARKET) ||
+                    order.getTimeInForce() == TimeInForce.IOC || order.getTimeInForce() == TimeInForce.FOK));
+        }
+    }
+
+    /**
+     * Match a trade from a recording against the book, as an immediate-or-cancel order
+     *
+     * @param market {@link Market}
+     * @param side the aggressor's side
+     * @param price the trade price
+     * @param size the trade size
+     * @param partyId the aggressor's party ID
+     */
+    public void trade(
+            final Market market,
+            final MarketSide side,
+            final BigDecimal price,
+            final BigDecimal size,
+            final String partyId
+    ) {
+        execute(new Order()
+                .setPartyId(partyId)
+                .setMarket(market)
+                .setPrice(price)
+                .setSize(size)
+                .setRemainingSize(size)
+                .setSide(side)
+                .setType(OrderType.LIMIT)
+                .setTimeInForce(TimeInForce.IOC)
+                .setIsPeggedOrder(false), true);
+    }
+
+    /**
+     * Get the resting orders on one side of a market, best first and then in time order
+     *
+     * @param marketId the market ID
+     * @param side {@link MarketSide}
+     *
+     * @return {@link List<Order>}
+     */
+    public List<Order> getOrders(
+            final String marketId,
+            final MarketSide side
+    ) {
+        Book book = books.get(marketId);
+        if(book == null) {
+            return Collections.emptyList();
+        }
+        List<Order> orders = new ArrayList<>();
+        book.get(side).values().forEach(orders::addAll);
+        return orders;
+    }
+
+    /**
+     * Cancel a resting order; unknown orders (e.g. ones that have just filled) are ignored
+     *
+     * @param orderId the order ID
+     */
+    private void cancel(
+            final String orderId
+    ) {
+        Order order = restingOrders.remove(orderId);
+        if(order == null) {
+            return;
+        }
+        removeFromBook(order);
+        orderListener.accept(copy(order).setStatus(OrderStatus.CANCELLED));
+    }
+
+    /**
+     * Match an incoming order and rest what is left of it, unless it is immediate-or-cancel
+     *
+     * @param order {@link Order}
+     * @param immediateOrCancel true to drop the remainder
+     */
+    private void execute(
+            final Order order,
+            final boolean immediateOrCancel
+    ) {
+        order.setId(ORDER_PREFIX + (++orderCount));
+        boolean market = order.getType().equals(OrderType.MARKET);
+        if((!market && (order.getPrice() == null || order.getPrice().signum() <= 0)) || order.getSize() == null ||
+                order.getSize().signum() <= 0) {
+            orderListener.accept(copy(order).setStatus(OrderStatus.REJECTED).setRejectionReason(INVALID_ORDER));
+            return;
+        }
+        Book book = books.computeIfAbsent(order.getMarket().getId(), id -> new Book());
+        TreeMap<BigDecimal, ArrayDeque<Order>> contra = book.get(
+                order.getSide().equals(MarketSide.BUY) ? MarketSide.SELL : MarketSide.BUY);
+        while(order.getRemainingSize().signum() > 0 && !contra.isEmpty()) {
+            Map.Entry<BigDecimal, ArrayDeque<Order>> best = contra.firstEntry();
+            int comparison = market ? 0 : order.getPrice().compareTo(best.getKey());
+            if(order.getSide().equals(MarketSide.BUY) ? comparison < 0 : comparison > 0) {
+                break;
+            }
+            Order resting = best.getValue().peek();
+            if(Objects.equals(resting.getPartyId(), order.getPartyId())) {
+                orderListener.accept(copy(order).setStatus(OrderStatus.STOPPED));
+                return;
+            }
+            BigDecimal size = order.getRemainingSize().min(resting.getRemainingSize());
+            order.setRemainingSize(order.getRemainingSize().subtract(size));
+            resting.setRemainingSize(resting.getRemainingSize().subtract(size));
+            if(resting.getRemainingSize().signum() == 0) {
+                best.getValue().poll();
+                if(best.getValue().isEmpty()) {
+                    contra.pollFirstEntry();
+                }
+                restingOrders.remove(resting.getId());
+                resting.setStatus(OrderStatus.FILLED);
+            }
+            fillListener.accept(toFill(resting, best.getKey(), size, false));
+            fillListener.accept(toFill(order, best.getKey(), size, true));
+            orderListener.accept(copy(resting));
+        }
+        if(order.getRemainingSize().signum() == 0) {
+            orderListener.accept(copy(order).setStatus(OrderStatus.FILLED));
+        } else if(immediateOrCancel) {
+            orderListener.accept(copy(order).setStatus(
+                    order.getRemainingSize().compareTo(order.getSize()) < 0 ? OrderStatus.PARTIALLY_FILLED :
+                            OrderStatus.STOPPED));
+        } else {
+            order.setStatus(OrderStatus.ACTIVE);
+            book.get(order.getSide()).computeIfAbsent(order.getPrice(), p -> new ArrayDeque<>()).add(order);
+            restingOrders.put(order.getId(), order);
+            orderListener.accept(copy(order));
+        }
+    }
+
+    /**
+     * Remove a resting order from its price level
+     *
+     * @param order {@link Order}
+     */
+    private void removeFromBook(
+            final Order order
+    ) {
+        TreeMap<BigDecimal, ArrayDeque<Order>> side = books.get(order.getMarket().getId()).get(order.getSide());
+        ArrayDeque<Order> level = side.get(order.getPrice());
+        level.remove(order);
+        if(level.isEmpty()) {
+            side.remove(order.getPrice());
+        }
+    }
+
+    /**
+     * Build the fill for one side of a match
+     *
+     * @param order {@link Order}
+     * @param price the trade price
+     * @param size the trade size
+     * @param aggressor true for the incoming order
+     *
+     * @return {@link Fill}
+     */
+    private Fill toFill(
+            final Order order,
+            final BigDecimal price,
+            final BigDecimal size,
+            final boolean aggressor
+    ) {
+        return new Fill()
+                .setTimestamp(clock.getMillis())
+                .setMarketId(order.getMarket().getId())
+                .setOrderId(order.getId())
+                .setReference(order.getReference())
+                .setPartyId(order.getPartyId())
+                .setSide(order.getSide())
+                .setPrice(price)
+                .setSize(size)
+                .setAggressor(aggressor);
+    }
+
+    /**
+     * Copy an order, so that listeners never see later changes to the book
+     *
+     * @param order {@link Order}
+     *
+     * @return {@link Order}
+     */
+    private static Order copy(
+            final Order order
+    ) {
+        return new Order()
+                .setId(order.getId())
+                .setPartyId(order.getPartyId())
+                .setMarket(order.getMarket())
+                .setPrice(order.getPrice())
+                .setSize(order.getSize())
+                .setRemainingSize(order.getRemainingSize())
+                .setSide(order.getSide())
+                .setStatus(order.getStatus())
+                .setType(order.getType())
+                .setTimeInForce(order.getTimeInForce())
+                .setIsPeggedOrder(order.getIsPeggedOrder())
+                .setReference(order.getReference());
+    }
+
+    /**
+     * A batch that becomes active at a point in simulated time
+     */
+    private record Instruction(long activeAt, List<String> cancellations, List<Order> submissions) {
+    }
+
+    /**
+     * The two sides of one market's book, each keyed by price with the best price first
+     */
+    private static class Book {
+
+        private final TreeMap<BigDecimal, ArrayDeque<Order>> bids = new TreeMap<>(Comparator.reverseOrder());
+        private final TreeMap<BigDecimal, ArrayDeque<Order>> asks = new TreeMap<>();
+
+        private TreeMap<BigDecimal, ArrayDeque<Order>> get(
+                final MarketSide side
+        ) {
+            return side.equals(MarketSide.BUY) ? bids : asks;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.vega.protocol.backtest;
+
+import com.vega.protocol.constant.ErrorCode;
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.constant.RecordedEventType;
+import com.vega.protocol.exception.TradingException;
+import com.vega.protocol.model.RecordedEvent;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a recorded market data stream one line at a time, so that a day of data never has to fit in memory. Each
+ * line is one of:
+ *
+ * <pre>
+ *     timestamp,PRICE,symbol,bidPrice,askPrice[,bidSize,askSize]
+ *     timestamp,TRADE,marketId,side,price,size
+ * </pre>
+ *
+ * where the timestamp is in milliseconds since the epoch and lines are in time order. Blank lines, lines starting
+ * with {@code #} and a header line are skipped. Files ending in {@code .gz} are decompressed.
+ */
+public class RecordedEventReader implements Iterator<RecordedEvent>, Closeable {
+
+    private final BufferedReader reader;
+    private RecordedEvent next;
+
+    public RecordedEventReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Open a recorded stream
+     *
+     * @param path the file
+     *
+     * @return {@link RecordedEventReader}
+     *
+     * @throws IOException if the file cannot be opened
+     */
+    public static RecordedEventReader open(
+            final Path path
+    ) throws IOException {
+        InputStream inputStream = Files.newInputStream(path);
+        if(path.getFileName().toString().endsWith(".gz")) {
+            inputStream = new GZIPInputStream(inputStream, 1 << 16);
+        }
+        return new RecordedEventReader(new BufferedReader(
+                new InputStreamReader(inputStream, StandardCharsets.UTF_8), 1 << 16));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext() {
+        if(next != null) {
+            return true;
+        }
+        try {
+            String line;
+            while((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if(trimmed.isEmpty() || trimmed.startsWith("#") || !Character.isDigit(trimmed.charAt(0))) {
+                    continue;
+                }
+                next = parse(trimmed);
+                return true;
+            }
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RecordedEvent next() {
+        if(!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        RecordedEvent event = next;
+        next = null;
+        return event;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Parse one line of a recorded stream
+     *
+     * @param line the line
+     *
+     * @return {@link RecordedEvent}
+     *
+     * @throws TradingException if the line is not a valid event
+     */
+    public static RecordedEvent parse(
+            final String line
+    ) {
+        String[] fields = line.split(",");
+        try {
+            RecordedEventType type = RecordedEventType.valueOf(fields[1].trim());
+            RecordedEvent event = new RecordedEvent()
+                    .setTimestamp(Long.parseLong(fields[0].trim()))
+                    .setType(type);
+            if(type.equals(RecordedEventType.PRICE) && (fields.length == 5 || fields.length == 7)) {
+                event.setSymbol(fields[2].trim())
+                        .setBidPrice(new BigDecimal(fields[3].trim()))
+                        .setAskPrice(new BigDecimal(fields[4].trim()));
+                if(fields.length == 7) {
+                    event.setBidSize(new BigDecimal(fields[5].trim()))
+                            .setAskSize(new BigDecimal(fields[6].trim()));
+                }
+                return event;
+            }
+            if(type.equals(RecordedEventType.TRADE) && fields.length == 6) {
+                return event.setMarketId(fields[2].trim())
+                        .setSide(MarketSide.valueOf(fields[3].trim()))
+                        .setPrice(new BigDecimal(fields[4].trim()))
+                        .setSize(new BigDecimal(fields[5].trim()));
+            }
+        } catch(IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new TradingException(ErrorCode.INVALID_RECORDED_EVENT);
+        }
+        throw new TradingException(ErrorCode.INVALID_RECORDED_EVENT);
+    }
+}
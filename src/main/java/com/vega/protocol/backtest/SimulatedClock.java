@@ -0,0 +1,52 @@
+package com.vega.protocol.backtest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * The time of a backtest, in nanoseconds since the epoch. It only moves when the replay moves it, so the services
+ * that are timed by it see the recorded timestamps rather than the wall clock.
+ */
+public class SimulatedClock implements LongSupplier {
+
+    private long nanos;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getAsLong() {
+        return nanos;
+    }
+
+    /**
+     * Get the time in milliseconds since the epoch
+     *
+     * @return the time
+     */
+    public long getMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * Move the clock forward to the given time; it never moves backwards
+     *
+     * @param nanos the time in nanoseconds since the epoch
+     */
+    public void advanceTo(
+            final long nanos
+    ) {
+        this.nanos = Math.max(this.nanos, nanos);
+    }
+
+    /**
+     * Move the clock forward by the given duration
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void advance(
+            final long nanos
+    ) {
+        this.nanos += Math.max(0, nanos);
+    }
+}
@@ -0,0 +1,80 @@
+package com.vega.protocol.backtest;
+
+import com.vega.protocol.api.VegaApiClient;
+import com.vega.protocol.model.BatchInstruction;
+import com.vega.protocol.model.Market;
+import com.vega.protocol.model.Order;
+import com.vega.protocol.service.OrderReferenceService;
+import com.vega.protocol.service.RiskService;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Sends our orders and cancellations to a {@link MatchingEngine} instead of a Vega node. Orders go through the same
+ * pre-trade checks in {@link RiskService} as they would in production. Only the commands used by the quoting tasks
+ * are simulated; the other API calls are not available in a backtest.
+ */
+public class SimulatedVegaApiClient extends VegaApiClient {
+
+    private final MatchingEngine matchingEngine;
+    private final OrderReferenceService orderReferenceService;
+    private final RiskService riskService;
+
+    public SimulatedVegaApiClient(MatchingEngine matchingEngine,
+                                  OrderReferenceService orderReferenceService,
+                                  RiskService riskService) {
+        super(null, null, null, null, null, null, null, null, null, null, null,
+                orderReferenceService, null, riskService, null);
+        this.matchingEngine = matchingEngine;
+        this.orderReferenceService = orderReferenceService;
+        this.riskService = riskService;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<BatchInstruction> submitBulkInstruction(
+            final List<String> cancellations,
+            final List<Order> submissions,
+            final Market market,
+            final String partyId
+    ) {
+        List<Order> allowed = riskService.check(cancellations, submissions, market);
+        if(cancellations.isEmpty() && allowed.isEmpty()) {
+            return Optional.empty();
+        }
+        allowed.forEach(orderReferenceService::onSubmit);
+        String txHash = matchingEngine.submit(cancellations, allowed, market, partyId);
+        riskService.onSubmit(cancellations, allowed, market);
+        return Optional.of(new BatchInstruction()
+                .setTxHash(txHash)
+                .setCancellations(cancellations)
+                .setSubmissions(allowed));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<String> submitOrder(
+            final Order order,
+            final String partyId
+    ) {
+        return submitBulkInstruction(Collections.emptyList(), List.of(order), order.getMarket(), partyId)
+                .map(BatchInstruction::getTxHash);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<String> cancelOrder(
+            final String id,
+            final String partyId
+    ) {
+        return Optional.of(matchingEngine.submit(List.of(id), Collections.emptyList(), null, partyId));
+    }
+}
@@ -0,0 +1,6 @@
+package com.vega.protocol.constant;
+
+public enum CommandPriority {
+    URGENT,
+    ROUTINE
+}
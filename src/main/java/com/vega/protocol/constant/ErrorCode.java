@@ -15,4 +15,16 @@ public class ErrorCode {
     public static final String GET_VEGA_TOKEN_FAILED = "Could not get Vega token.";
     public static final String ASSET_NOT_FOUND = "Asset not found.";
     public static final String NETWORK_PARAMETER_NOT_FOUND = "Network parameter not found.";
+    public static final String INVALID_MARKET_BINDING = "Market bindings must be of the form 'marketId:symbol'.";
+    public static final String DUPLICATE_MARKET_BINDING = "Each market can only be bound once.";
+    public static final String QUOTING_STRATEGY_NOT_FOUND = "Quoting strategy not found.";
+    public static final String RISK_AVERSION_MANDATORY = "Mandatory field: 'riskAversion'";
+    public static final String LIQUIDITY_DENSITY_MANDATORY = "Mandatory field: 'liquidityDensity'";
+    public static final String QUOTE_HORIZON_MANDATORY = "Mandatory field: 'quoteHorizon'";
+    public static final String INVALID_RECORDED_EVENT = "Recorded events must be of the form " +
+            "'timestamp,PRICE,symbol,bid,ask[,bidSize,askSize]' or 'timestamp,TRADE,marketId,side,price,size'.";
+    public static final String BACKTEST_PROPERTY_NOT_FOUND = "Backtest property not found.";
+    public static final String STAND_IN_PROPERTY_NOT_FOUND = "Stand-in property not found.";
+    public static final String STAND_IN_START_FAILED = "Stand-in server failed to start.";
+    public static final String TRANSACTION_OUTCOME_UNKNOWN = "Transaction may have been sent; outcome unknown.";
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.vega.protocol.constant;
+
+public enum LatencyStage {
+    QUOTE_CYCLE,
+    STORE_READ,
+    DISTRIBUTION,
+    COMMITMENT,
+    RECONCILE,
+    SUBMIT,
+    RISK_CHECK,
+    SIGN,
+    PAYLOAD,
+    TOKEN,
+    WALLET,
+    ORDER_ACTIVE,
+    ORDER_FILLED,
+    ORDER_CANCELLED
+}
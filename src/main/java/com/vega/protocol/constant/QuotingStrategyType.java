@@ -0,0 +1,6 @@
+package com.vega.protocol.constant;
+
+public enum QuotingStrategyType {
+    AMM,
+    AVELLANEDA_STOIKOV
+}
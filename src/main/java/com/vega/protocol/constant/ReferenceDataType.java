@@ -0,0 +1,7 @@
+package com.vega.protocol.constant;
+
+public enum ReferenceDataType {
+    ASSETS,
+    MARKETS,
+    NETWORK_PARAMETERS
+}
@@ -0,0 +1,8 @@
+package com.vega.protocol.constant;
+
+public enum RiskCheck {
+    ORDER_NOTIONAL,
+    RESTING_NOTIONAL,
+    PRICE_BAND,
+    PRICE_DEVIATION
+}
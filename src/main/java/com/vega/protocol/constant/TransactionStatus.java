@@ -0,0 +1,8 @@
+package com.vega.protocol.constant;
+
+public enum TransactionStatus {
+    PENDING,
+    ACCEPTED,
+    REJECTED,
+    UNRESOLVED
+}
@@ -0,0 +1,10 @@
+package com.vega.protocol.constant;
+
+public enum WebSocketTopic {
+    MARKETS,
+    ORDERS,
+    POSITIONS,
+    ACCOUNTS,
+    LIQUIDITY_COMMITMENTS,
+    REFERENCE_PRICE
+}
@@ -28,4 +28,19 @@ public class AppConfigController {
     ) {
         return ResponseEntity.of(Optional.of(appConfigService.update(config)));
     }
-}
\ No newline at end of file
+
+    @GetMapping("/{marketId}")
+    public ResponseEntity<AppConfig> get(
+            @PathVariable("marketId") String marketId
+    ) {
+        return ResponseEntity.of(Optional.of(appConfigService.get(marketId)));
+    }
+
+    @PutMapping("/{marketId}")
+    public ResponseEntity<AppConfig> update(
+            @PathVariable("marketId") String marketId,
+            @RequestBody AppConfig config
+    ) {
+        return ResponseEntity.of(Optional.of(appConfigService.update(marketId, config)));
+    }
+}
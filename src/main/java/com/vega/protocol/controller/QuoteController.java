@@ -0,0 +1,54 @@
+package com.vega.protocol.controller;
+
+import com.vega.protocol.model.LatencyStats;
+import com.vega.protocol.model.OrderCycleStats;
+import com.vega.protocol.model.QuoteStats;
+import com.vega.protocol.service.LatencyService;
+import com.vega.protocol.service.OrderReferenceService;
+import com.vega.protocol.service.QuoteStatsService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/quote")
+public class QuoteController {
+
+    private final QuoteStatsService quoteStatsService;
+    private final LatencyService latencyService;
+    private final OrderReferenceService orderReferenceService;
+
+    public QuoteController(QuoteStatsService quoteStatsService,
+                           LatencyService latencyService,
+                           OrderReferenceService orderReferenceService) {
+        this.quoteStatsService = quoteStatsService;
+        this.latencyService = latencyService;
+        this.orderReferenceService = orderReferenceService;
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<List<QuoteStats>> getStats() {
+        return ResponseEntity.ok(quoteStatsService.getStats());
+    }
+
+    @GetMapping("/stats/{marketId}")
+    public ResponseEntity<QuoteStats> getStatsByMarketId(
+            @PathVariable("marketId") String marketId
+    ) {
+        return ResponseEntity.of(quoteStatsService.get(marketId));
+    }
+
+    @GetMapping("/latency")
+    public ResponseEntity<List<LatencyStats>> getLatency() {
+        return ResponseEntity.ok(latencyService.getStats());
+    }
+
+    @GetMapping("/orders")
+    public ResponseEntity<List<OrderCycleStats>> getOrderCycleStats() {
+        return ResponseEntity.ok(orderReferenceService.getCycleStats());
+    }
+}
@@ -4,6 +4,7 @@ import com.vega.protocol.model.ReferencePrice;
 import com.vega.protocol.store.ReferencePriceStore;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -21,4 +22,11 @@ public class ReferencePriceController {
     public ResponseEntity<ReferencePrice> get() {
         return ResponseEntity.of(referencePriceStore.get());
     }
+
+    @GetMapping("/{symbol}")
+    public ResponseEntity<ReferencePrice> get(
+            @PathVariable("symbol") String symbol
+    ) {
+        return ResponseEntity.of(referencePriceStore.get(symbol));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.vega.protocol.controller;
+
+import com.vega.protocol.model.Transaction;
+import com.vega.protocol.model.TransactionStats;
+import com.vega.protocol.service.TransactionService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/transaction")
+public class TransactionController {
+
+    private final TransactionService transactionService;
+
+    public TransactionController(TransactionService transactionService) {
+        this.transactionService = transactionService;
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<TransactionStats> getStats() {
+        return ResponseEntity.ok(transactionService.getStats());
+    }
+
+    @GetMapping("/{txHash}")
+    public ResponseEntity<Transaction> getByTxHash(
+            @PathVariable("txHash") String txHash
+    ) {
+        return ResponseEntity.of(transactionService.getById(txHash));
+    }
+}
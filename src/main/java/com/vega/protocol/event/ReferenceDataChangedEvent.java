@@ -0,0 +1,30 @@
+package com.vega.protocol.event;
+
+import com.vega.protocol.constant.ReferenceDataType;
+import com.vega.protocol.model.UniqueItem;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when a refresh finds an asset, market definition or network parameter that differs from the one in
+ * its store. {@code previous} is null for newly listed items.
+ */
+@Getter
+public class ReferenceDataChangedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ReferenceDataType type;
+    private final UniqueItem previous;
+    private final UniqueItem current;
+
+    public ReferenceDataChangedEvent(Object source,
+                                     ReferenceDataType type,
+                                     UniqueItem previous,
+                                     UniqueItem current) {
+        super(source);
+        this.type = type;
+        this.previous = previous;
+        this.current = current;
+    }
+}
@@ -1,17 +1,32 @@
 package com.vega.protocol.initializer;
 
 import com.vega.protocol.api.VegaApiClient;
+import com.vega.protocol.constant.QuotingStrategyType;
 import com.vega.protocol.model.AppConfig;
+import com.vega.protocol.service.ReferenceDataService;
 import com.vega.protocol.store.*;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
 @Slf4j
 @Component
 public class DataInitializer {
 
+    private static final int BOOTSTRAP_THREADS = 4;
+
     private final OrderStore orderStore;
     private final MarketStore marketStore;
     private final PositionStore positionStore;
@@ -21,6 +36,7 @@ public class DataInitializer {
     private final AssetStore assetStore;
     private final NetworkParameterStore networkParameterStore;
     private final VegaApiClient vegaApiClient;
+    private final ReferenceDataService referenceDataService;
     private final String partyId;
     private final Double fee;
     private final Double minSpread;
@@ -35,9 +51,19 @@ public class DataInitializer {
     private final Integer commitmentOrderCount;
     private final Double stakeBuffer;
     private final Double bboOffset;
+    private final QuotingStrategyType quotingStrategy;
+    private final Double riskAversion;
+    private final Double liquidityDensity;
+    private final Double quoteHorizon;
+    private final Integer priceToleranceTicks;
+    private final Double priceToleranceBps;
+    private final Double sizeTolerancePercent;
+    private final Double volatilitySpreadFactor;
 
     @Getter
     private boolean initialized = false;
+    @Getter
+    private final Map<String, Long> bootstrapTimings = Collections.synchronizedMap(new LinkedHashMap<>());
 
     public DataInitializer(OrderStore orderStore,
                            MarketStore marketStore,
@@ -48,6 +74,7 @@ public class DataInitializer {
                            AssetStore assetStore,
                            NetworkParameterStore networkParameterStore,
                            VegaApiClient vegaApiClient,
+                           ReferenceDataService referenceDataService,
                            @Value("${vega.party.id}") String partyId,
                            @Value("${fee}") Double fee,
                            @Value("${min.spread}") Double minSpread,
@@ -61,7 +88,15 @@ public class DataInitializer {
                            @Value("${ask.quote.range}") Double askQuoteRange,
                            @Value("${commitment.order.count}") Integer commitmentOrderCount,
                            @Value("${stake.buffer}") Double stakeBuffer,
-                           @Value("${bbo.offset}") Double bboOffset) {
+                           @Value("${bbo.offset}") Double bboOffset,
+                           @Value("${quoting.strategy}") QuotingStrategyType quotingStrategy,
+                           @Value("${risk.aversion}") Double riskAversion,
+                           @Value("${liquidity.density}") Double liquidityDensity,
+                           @Value("${quote.horizon}") Double quoteHorizon,
+                           @Value("${price.tolerance.ticks}") Integer priceToleranceTicks,
+                           @Value("${price.tolerance.bps}") Double priceToleranceBps,
+                           @Value("${size.tolerance.percent}") Double sizeTolerancePercent,
+                           @Value("${volatility.spread.factor}") Double volatilitySpreadFactor) {
         this.orderStore = orderStore;
         this.marketStore = marketStore;
         this.positionStore = positionStore;
@@ -71,6 +106,7 @@ public class DataInitializer {
         this.assetStore = assetStore;
         this.networkParameterStore = networkParameterStore;
         this.vegaApiClient = vegaApiClient;
+        this.referenceDataService = referenceDataService;
         this.partyId = partyId;
         this.fee = fee;
         this.minSpread = minSpread;
@@ -85,6 +121,14 @@ public class DataInitializer {
         this.commitmentOrderCount = commitmentOrderCount;
         this.stakeBuffer = stakeBuffer;
         this.bboOffset = bboOffset;
+        this.quotingStrategy = quotingStrategy;
+        this.riskAversion = riskAversion;
+        this.liquidityDensity = liquidityDensity;
+        this.quoteHorizon = quoteHorizon;
+        this.priceToleranceTicks = priceToleranceTicks;
+        this.priceToleranceBps = priceToleranceBps;
+        this.sizeTolerancePercent = sizeTolerancePercent;
+        this.volatilitySpreadFactor = volatilitySpreadFactor;
     }
 
     /**
@@ -104,19 +148,69 @@ public class DataInitializer {
                 .setAskQuoteRange(askQuoteRange)
                 .setCommitmentOrderCount(commitmentOrderCount)
                 .setStakeBuffer(stakeBuffer)
-                .setBboOffset(bboOffset);
+                .setBboOffset(bboOffset)
+                .setStrategy(quotingStrategy)
+                .setRiskAversion(riskAversion)
+                .setLiquidityDensity(liquidityDensity)
+                .setQuoteHorizon(quoteHorizon)
+                .setPriceToleranceTicks(priceToleranceTicks)
+                .setPriceToleranceBps(priceToleranceBps)
+                .setSizeTolerancePercent(sizeTolerancePercent)
+                .setVolatilitySpreadFactor(volatilitySpreadFactor);
         appConfigStore.update(config);
         updateState();
         initialized = true;
     }
 
+    /**
+     * Fetch the initial state from the node. Independent resources are fetched in parallel, while markets wait for
+     * assets and the party's positions, orders and LP commitments wait for markets. Reference data is read through
+     * {@link ReferenceDataService}, so it comes from the disk cache when that is still fresh.
+     */
     private void updateState() {
-        vegaApiClient.getNetworkParameters().forEach(networkParameterStore::update);
-        vegaApiClient.getAssets().forEach(assetStore::update);
-        vegaApiClient.getMarkets().forEach(marketStore::update);
-        vegaApiClient.getAccounts(partyId).forEach(accountStore::update);
-        vegaApiClient.getPositions(partyId).forEach(positionStore::update);
-        vegaApiClient.getOpenOrders(partyId).forEach(orderStore::update);
-        vegaApiClient.getLiquidityCommitments(partyId).forEach(liquidityCommitmentStore::update);
+        bootstrapTimings.clear();
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(BOOTSTRAP_THREADS);
+        try {
+            CompletableFuture<Void> networkParameters = CompletableFuture.runAsync(() -> fetch("networkParameters",
+                    referenceDataService::getNetworkParameters, networkParameterStore::update), executor);
+            CompletableFuture<Void> assets = CompletableFuture.runAsync(() -> fetch("assets",
+                    referenceDataService::getAssets, assetStore::update), executor);
+            CompletableFuture<Void> markets = assets.thenRunAsync(() -> fetch("markets",
+                    referenceDataService::getMarkets, marketStore::update), executor);
+            CompletableFuture<Void> accounts = assets.thenRunAsync(() -> fetch("accounts",
+                    () -> vegaApiClient.getAccounts(partyId), accountStore::update), executor);
+            CompletableFuture<Void> positions = markets.thenRunAsync(() -> fetch("positions",
+                    () -> vegaApiClient.getPositions(partyId), positionStore::update), executor);
+            CompletableFuture<Void> orders = markets.thenRunAsync(() -> fetch("orders",
+                    () -> vegaApiClient.getOpenOrders(partyId), orderStore::update), executor);
+            CompletableFuture<Void> liquidityCommitments = markets.thenRunAsync(() -> fetch("liquidityCommitments",
+                    () -> vegaApiClient.getLiquidityCommitments(partyId), liquidityCommitmentStore::update), executor);
+            CompletableFuture.allOf(networkParameters, accounts, positions, orders, liquidityCommitments).join();
+        } finally {
+            executor.shutdown();
+        }
+        bootstrapTimings.put("total", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.info("Bootstrap timings (ms) = {}", bootstrapTimings);
+    }
+
+    /**
+     * Fetch a resource and add it to its store, recording how long it took
+     *
+     * @param resource the resource name
+     * @param fetcher fetches the items
+     * @param store adds an item to the store
+     */
+    private <T> void fetch(
+            final String resource,
+            final Supplier<List<T>> fetcher,
+            final Consumer<T> store
+    ) {
+        long start = System.nanoTime();
+        List<T> items = fetcher.get();
+        items.forEach(store);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        bootstrapTimings.put(resource, elapsed);
+        log.debug("Fetched {} {} in {} ms", items.size(), resource, elapsed);
     }
-}
\ No newline at end of file
+}
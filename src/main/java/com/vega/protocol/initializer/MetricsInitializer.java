@@ -0,0 +1,214 @@
+package com.vega.protocol.initializer;
+
+import com.vega.protocol.constant.LatencyStage;
+import com.vega.protocol.constant.TransactionStatus;
+import com.vega.protocol.model.Market;
+import com.vega.protocol.model.MarketBinding;
+import com.vega.protocol.model.TransactionStats;
+import com.vega.protocol.service.LatencyService;
+import com.vega.protocol.service.MarketBindingService;
+import com.vega.protocol.service.OrderReferenceService;
+import com.vega.protocol.service.PositionService;
+import com.vega.protocol.service.TransactionService;
+import com.vega.protocol.store.*;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Registers the gauges that are read when the metrics are scraped: the store sizes, the age of each reference price,
+ * the position and exposure on each market, the transaction and order outcomes and the latency of each
+ * {@link LatencyStage}.
+ * The websocket meters are recorded by {@link com.vega.protocol.service.MetricsService}, and the JVM and GC metrics
+ * are registered by Spring Boot.
+ */
+@Component
+public class MetricsInitializer implements MeterBinder {
+
+    private final MarketBindingService marketBindingService;
+    private final PositionService positionService;
+    private final TransactionService transactionService;
+    private final LatencyService latencyService;
+    private final OrderReferenceService orderReferenceService;
+    private final ReferencePriceStore referencePriceStore;
+    private final MarketStore marketStore;
+    private final OrderStore orderStore;
+    private final PositionStore positionStore;
+    private final AccountStore accountStore;
+    private final LiquidityCommitmentStore liquidityCommitmentStore;
+
+    public MetricsInitializer(MarketBindingService marketBindingService,
+                              PositionService positionService,
+                              TransactionService transactionService,
+                              LatencyService latencyService,
+                              OrderReferenceService orderReferenceService,
+                              ReferencePriceStore referencePriceStore,
+                              MarketStore marketStore,
+                              OrderStore orderStore,
+                              PositionStore positionStore,
+                              AccountStore accountStore,
+                              LiquidityCommitmentStore liquidityCommitmentStore) {
+        this.marketBindingService = marketBindingService;
+        this.positionService = positionService;
+        this.transactionService = transactionService;
+        this.latencyService = latencyService;
+        this.orderReferenceService = orderReferenceService;
+        this.referencePriceStore = referencePriceStore;
+        this.marketStore = marketStore;
+        this.orderStore = orderStore;
+        this.positionStore = positionStore;
+        this.accountStore = accountStore;
+        this.liquidityCommitmentStore = liquidityCommitmentStore;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        bindStores(meterRegistry);
+        bindReferencePrices(meterRegistry);
+        bindPositions(meterRegistry);
+        bindTransactions(meterRegistry);
+        bindLatency(meterRegistry);
+    }
+
+    /**
+     * Register the number of items in each store
+     *
+     * @param meterRegistry {@link MeterRegistry}
+     */
+    private void bindStores(
+            final MeterRegistry meterRegistry
+    ) {
+        Map<String, MultipleItemStore<?>> stores = Map.of(
+                "markets", marketStore,
+                "orders", orderStore,
+                "positions", positionStore,
+                "accounts", accountStore,
+                "liquidity_commitments", liquidityCommitmentStore);
+        stores.forEach((name, store) -> Gauge.builder("vega.store.size", store, s -> s.getItems().size())
+                .description("Items held in the store")
+                .tag("store", name)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Register the time since each bound reference price was updated
+     *
+     * @param meterRegistry {@link MeterRegistry}
+     */
+    private void bindReferencePrices(
+            final MeterRegistry meterRegistry
+    ) {
+        for(String symbol : marketBindingService.getSymbols()) {
+            TimeGauge.builder("vega.reference.price.age", referencePriceStore, TimeUnit.NANOSECONDS,
+                            s -> s.getAge(symbol).stream().asDoubleStream().findFirst().orElse(Double.NaN))
+                    .description("Time since the reference price was updated")
+                    .tag("symbol", symbol)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Register the open volume (negative when short) and its notional at the mark price on each bound market
+     *
+     * @param meterRegistry {@link MeterRegistry}
+     */
+    private void bindPositions(
+            final MeterRegistry meterRegistry
+    ) {
+        for(MarketBinding binding : marketBindingService.getBindings()) {
+            String marketId = binding.getMarketId();
+            Gauge.builder("vega.position.size", positionService, s -> s.getExposure(marketId).doubleValue())
+                    .description("Open volume, negative when short")
+                    .tag("market", marketId)
+                    .register(meterRegistry);
+            Gauge.builder("vega.position.exposure", positionService, s -> getNotionalExposure(marketId))
+                    .description("Open volume at the mark price, negative when short")
+                    .tag("market", marketId)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Get the open volume on a market at its mark price
+     *
+     * @param marketId the market ID
+     *
+     * @return the notional exposure, or NaN if the market is unknown
+     */
+    private double getNotionalExposure(
+            final String marketId
+    ) {
+        return marketStore.getById(marketId)
+                .map(Market::getMarkPrice)
+                .map(markPrice -> positionService.getExposure(marketId).multiply(markPrice).doubleValue())
+                .orElse(Double.NaN);
+    }
+
+    /**
+     * Register the running totals of submitted transactions by outcome
+     *
+     * @param meterRegistry {@link MeterRegistry}
+     */
+    private void bindTransactions(
+            final MeterRegistry meterRegistry
+    ) {
+        Map<String, ToDoubleFunction<TransactionStats>> outcomes = Map.of(
+                TransactionStatus.ACCEPTED.name(), TransactionStats::getAccepted,
+                TransactionStatus.REJECTED.name(), TransactionStats::getRejected,
+                TransactionStatus.UNRESOLVED.name(), TransactionStats::getUnresolved);
+        FunctionCounter.builder("vega.transactions.submitted", transactionService,
+                        s -> s.getStats().getSubmitted())
+                .description("Transactions submitted")
+                .register(meterRegistry);
+        outcomes.forEach((status, count) -> FunctionCounter.builder("vega.transactions.resolved",
+                        transactionService, s -> count.applyAsDouble(s.getStats()))
+                .description("Transactions resolved, by outcome")
+                .tag("status", status.toLowerCase(Locale.ROOT))
+                .register(meterRegistry));
+        Gauge.builder("vega.transactions.pending", transactionService, s -> s.getStats().getPending())
+                .description("Transactions waiting to be resolved")
+                .register(meterRegistry);
+        FunctionCounter.builder("vega.orders.rejected", transactionService, s -> s.getStats().getRejectedOrders())
+                .description("Orders rejected by the network")
+                .register(meterRegistry);
+        Gauge.builder("vega.orders.missing", orderReferenceService, OrderReferenceService::getMissing)
+                .description("Orders submitted but not seen on the order stream within the timeout")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Register a timer for each latency stage, published as histogram buckets so that percentiles are computed over
+     * the scrape window rather than since startup. The buckets start at one microsecond because the risk check and
+     * signing stages are far below the default one millisecond floor.
+     *
+     * @param meterRegistry {@link MeterRegistry}
+     */
+    private void bindLatency(
+            final MeterRegistry meterRegistry
+    ) {
+        Timer[] timers = new Timer[LatencyStage.values().length];
+        for(LatencyStage stage : LatencyStage.values()) {
+            timers[stage.ordinal()] = Timer.builder("vega.latency")
+                    .description("Latency of the quote pipeline stage")
+                    .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(1_000))
+                    .maximumExpectedValue(Duration.ofSeconds(30))
+                    .register(meterRegistry);
+        }
+        latencyService.setTimers(timers);
+    }
+}
@@ -1,7 +1,12 @@
 package com.vega.protocol.initializer;
 
 import com.vega.protocol.constant.ReferencePriceSource;
+import com.vega.protocol.service.DataNodeService;
+import com.vega.protocol.service.MarketBindingService;
+import com.vega.protocol.service.MetricsService;
+import com.vega.protocol.service.OrderReferenceService;
 import com.vega.protocol.service.OrderService;
+import com.vega.protocol.service.TransactionService;
 import com.vega.protocol.store.*;
 import com.vega.protocol.utils.DecimalUtils;
 import com.vega.protocol.ws.BinanceWebSocketClient;
@@ -19,13 +24,12 @@ import java.net.URI;
 @Component
 public class WebSocketInitializer {
 
-    private final String vegaWsUrl;
     private final String binanceWsUrl;
     private final String polygonWsUrl;
     private final Boolean vegaWsEnabled;
     private final Boolean binanceWsEnabled;
     private final Boolean polygonWsEnabled;
-    private final String referencePriceMarket;
+    private final MarketBindingService marketBindingService;
     private final ReferencePriceSource referencePriceSource;
     private final ReferencePriceStore referencePriceStore;
     private final MarketStore marketStore;
@@ -36,19 +40,20 @@ public class WebSocketInitializer {
     private final LiquidityCommitmentStore liquidityCommitmentStore;
     private final DecimalUtils decimalUtils;
     private final OrderService orderService;
+    private final OrderReferenceService orderReferenceService;
+    private final TransactionService transactionService;
+    private final DataNodeService dataNodeService;
+    private final MetricsService metricsService;
     private final String partyId;
-    private final String marketId;
 
-    public WebSocketInitializer(@Value("${vega.ws.url}") String vegaWsUrl,
-                                @Value("${binance.ws.url}") String binanceWsUrl,
+    public WebSocketInitializer(@Value("${binance.ws.url}") String binanceWsUrl,
                                 @Value("${polygon.ws.url}") String polygonWsUrl,
                                 @Value("${vega.ws.enabled}") Boolean vegaWsEnabled,
                                 @Value("${binance.ws.enabled}") Boolean binanceWsEnabled,
                                 @Value("${polygon.ws.enabled}") Boolean polygonWsEnabled,
-                                @Value("${reference.price.market}") String referencePriceMarket,
                                 @Value("${reference.price.source}") ReferencePriceSource referencePriceSource,
                                 @Value("${vega.party.id}") String partyId,
-                                @Value("${vega.market.id}") String marketId,
+                                MarketBindingService marketBindingService,
                                 ReferencePriceStore referencePriceStore,
                                 MarketStore marketStore,
                                 OrderStore orderStore,
@@ -57,14 +62,17 @@ public class WebSocketInitializer {
                                 AssetStore assetStore,
                                 LiquidityCommitmentStore liquidityCommitmentStore,
                                 DecimalUtils decimalUtils,
-                                OrderService orderService) {
-        this.vegaWsUrl = vegaWsUrl;
+                                OrderService orderService,
+                                OrderReferenceService orderReferenceService,
+                                TransactionService transactionService,
+                                DataNodeService dataNodeService,
+                                MetricsService metricsService) {
         this.binanceWsUrl = binanceWsUrl;
         this.polygonWsUrl = polygonWsUrl;
         this.vegaWsEnabled = vegaWsEnabled;
         this.binanceWsEnabled = binanceWsEnabled;
         this.polygonWsEnabled = polygonWsEnabled;
-        this.referencePriceMarket = referencePriceMarket;
+        this.marketBindingService = marketBindingService;
         this.referencePriceSource = referencePriceSource;
         this.referencePriceStore = referencePriceStore;
         this.marketStore = marketStore;
@@ -75,8 +83,11 @@ public class WebSocketInitializer {
         this.liquidityCommitmentStore = liquidityCommitmentStore;
         this.decimalUtils = decimalUtils;
         this.orderService = orderService;
+        this.orderReferenceService = orderReferenceService;
+        this.transactionService = transactionService;
+        this.dataNodeService = dataNodeService;
+        this.metricsService = metricsService;
         this.partyId = partyId;
-        this.marketId = marketId;
     }
 
     @Getter
@@ -106,8 +117,10 @@ public class WebSocketInitializer {
 
     private void initializeVega() {
         log.info("Connecting to Vega Web Socket...");
-        vegaWebSocketClient = new VegaWebSocketClient(partyId, marketId, marketStore, orderStore, positionStore,
-                accountStore, assetStore, liquidityCommitmentStore, decimalUtils, orderService, URI.create(vegaWsUrl));
+        vegaWebSocketClient = new VegaWebSocketClient(partyId, marketBindingService.getMarketIds(), marketStore,
+                orderStore, positionStore, accountStore, assetStore, liquidityCommitmentStore, decimalUtils,
+                orderService, orderReferenceService, transactionService, metricsService,
+                URI.create(dataNodeService.getWsUrl()));
         vegaWebSocketClient.connect();
         log.info("Connected to {}", vegaWebSocketClient.getURI().toString());
         vegaWebSocketsInitialized = true;
@@ -116,7 +129,8 @@ public class WebSocketInitializer {
     private void initializeBinance() {
         log.info("Connecting to Binance Web Socket...");
         binanceWebSocketClient = new BinanceWebSocketClient(
-                URI.create(binanceWsUrl), referencePriceMarket, referencePriceStore);
+                URI.create(binanceWsUrl), marketBindingService.getSymbols(), referencePriceStore,
+                metricsService);
         binanceWebSocketClient.connect();
         log.info("Connected to {}", binanceWebSocketClient.getURI().toString());
         binanceWebSocketInitialized = true;
@@ -125,7 +139,7 @@ public class WebSocketInitializer {
     private void initializePolygon() {
         log.info("Connecting to Polygon Web Socket...");
         polygonWebSocketClient = new PolygonWebSocketClient(
-                URI.create(polygonWsUrl), referencePriceMarket, referencePriceStore);
+                URI.create(polygonWsUrl), marketBindingService.getSymbols().get(0), referencePriceStore);
         polygonWebSocketClient.connect();
         log.info("Connected to {}", polygonWebSocketClient.getURI().toString());
         polygonWebSocketInitialized = true;
@@ -134,7 +148,12 @@ public class WebSocketInitializer {
     @Scheduled(cron = "* * * * * *")
     public void keepWebSocketsAlive() {
         if(vegaWebSocketsInitialized) {
-            if (vegaWebSocketClient.isClosed()) {
+            String vegaWsUrl = dataNodeService.getWsUrl();
+            if (!vegaWebSocketClient.getURI().toString().equals(vegaWsUrl)) {
+                log.info("Moving Vega Web Socket from {} to {}", vegaWebSocketClient.getURI(), vegaWsUrl);
+                vegaWebSocketClient.close();
+                initializeVega();
+            } else if (vegaWebSocketClient.isClosed()) {
                 vegaWebSocketClient.reconnect();
             }
         }
@@ -1,5 +1,6 @@
 package com.vega.protocol.model;
 
+import com.vega.protocol.constant.QuotingStrategyType;
 import lombok.Data;
 import lombok.experimental.Accessors;
 
@@ -19,4 +20,12 @@ public class AppConfig {
     private Double fee;
     private Double stakeBuffer;
     private Double bboOffset;
+    private QuotingStrategyType strategy;
+    private Double riskAversion;
+    private Double liquidityDensity;
+    private Double quoteHorizon;
+    private Integer priceToleranceTicks;
+    private Double priceToleranceBps;
+    private Double sizeTolerancePercent;
+    private Double volatilitySpreadFactor;
 }
\ No newline at end of file
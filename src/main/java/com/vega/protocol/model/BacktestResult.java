@@ -0,0 +1,27 @@
+package com.vega.protocol.model;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The outcome of a backtest. The PnL figures are in the settlement asset and include maker fees; the unrealised PnL
+ * is marked to the reference mid price.
+ */
+@Data
+@Accessors(chain = true)
+public class BacktestResult {
+    private List<Fill> fills = new ArrayList<>();
+    private List<BacktestSample> samples = new ArrayList<>();
+    private long events;
+    private long quoteCycles;
+    private double volume;
+    private double fees;
+    private double pnl;
+    private double maxPosition;
+    private double maxDrawdown;
+    private long simulatedMillis;
+    private long elapsedMillis;
+}
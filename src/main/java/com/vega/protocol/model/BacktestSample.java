@@ -0,0 +1,16 @@
+package com.vega.protocol.model;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class BacktestSample {
+    private long timestamp;
+    private String marketId;
+    private double midPrice;
+    private double position;
+    private double realisedPnl;
+    private double unrealisedPnl;
+    private double pnl;
+}
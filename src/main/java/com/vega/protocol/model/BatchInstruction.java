@@ -0,0 +1,15 @@
+package com.vega.protocol.model;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Accessors(chain = true)
+public class BatchInstruction {
+    private String txHash;
+    private List<String> cancellations = new ArrayList<>();
+    private List<Order> submissions = new ArrayList<>();
+}
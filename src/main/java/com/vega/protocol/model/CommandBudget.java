@@ -0,0 +1,21 @@
+package com.vega.protocol.model;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.util.Map;
+
+@Data
+@Accessors(chain = true)
+public class CommandBudget {
+    private int maxBatchSize;
+    private int blockLimit;
+    private int blockUsed;
+    private long epochLimit;
+    private long epochUsed;
+    private long urgent;
+    private long routine;
+    private long deferred;
+    private long spamRejections;
+    private Map<String, String> spamParameters;
+}
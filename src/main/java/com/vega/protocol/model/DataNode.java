@@ -0,0 +1,16 @@
+package com.vega.protocol.model;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class DataNode {
+    private String restUrl;
+    private String wsUrl;
+    private boolean healthy = true;
+    private double latencyMs;
+    private long blockHeight;
+    private int consecutiveFailures;
+    private long probes;
+}
@@ -0,0 +1,21 @@
+package com.vega.protocol.model;
+
+import com.vega.protocol.constant.MarketSide;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.math.BigDecimal;
+
+@Data
+@Accessors(chain = true)
+public class Fill {
+    private long timestamp;
+    private String marketId;
+    private String orderId;
+    private String reference;
+    private String partyId;
+    private MarketSide side;
+    private BigDecimal price;
+    private BigDecimal size;
+    private boolean aggressor;
+}
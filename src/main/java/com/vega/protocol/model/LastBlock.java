@@ -0,0 +1,16 @@
+package com.vega.protocol.model;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class LastBlock {
+    private long height;
+    private String hash;
+    private String chainId;
+    private int spamPowDifficulty;
+    private int spamPowNumberOfPastBlocks;
+    private int spamPowNumberOfTxPerBlock;
+    private boolean spamPowIncreasingDifficulty;
+}
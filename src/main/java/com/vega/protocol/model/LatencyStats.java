@@ -0,0 +1,16 @@
+package com.vega.protocol.model;
+
+import com.vega.protocol.constant.LatencyStage;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class LatencyStats {
+    private LatencyStage stage;
+    private long count;
+    private double p50Micros;
+    private double p99Micros;
+    private double p999Micros;
+    private double maxMicros;
+}
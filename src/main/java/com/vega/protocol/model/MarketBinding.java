@@ -0,0 +1,11 @@
+package com.vega.protocol.model;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class MarketBinding {
+    private String marketId;
+    private String referencePriceMarket;
+}
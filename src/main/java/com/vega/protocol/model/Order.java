@@ -25,4 +25,6 @@ public class Order extends UniqueItem {
     private OrderType type;
     private TimeInForce timeInForce;
     private Boolean isPeggedOrder;
+    private String reference;
+    private String rejectionReason;
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.vega.protocol.model;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class OrderCycleStats {
+    private long cycleId;
+    private long submitted;
+    private long active;
+    private long filled;
+    private long cancelled;
+    private long missing;
+    private double maxActiveMs;
+    private double maxFilledMs;
+    private double maxCancelledMs;
+}
@@ -0,0 +1,25 @@
+package com.vega.protocol.model;
+
+import com.vega.protocol.constant.MarketSide;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.math.BigDecimal;
+
+@Data
+@Accessors(chain = true)
+public class OrderIntent {
+    private String reference;
+    private String marketId;
+    private MarketSide side;
+    private Integer level;
+    private Long cycleId;
+    private BigDecimal price;
+    private BigDecimal size;
+    private Long submittedAt;
+    private Long acknowledgedAt;
+    private Long activeAt;
+    private Long filledAt;
+    private Long cancelledAt;
+    private boolean missing;
+}
@@ -0,0 +1,13 @@
+package com.vega.protocol.model;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class ProofOfWork {
+    private String tid;
+    private long nonce;
+    private long blockHeight;
+    private String chainId;
+}
@@ -0,0 +1,17 @@
+package com.vega.protocol.model;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class QuoteStats {
+    private String marketId;
+    private long cycles;
+    private long levels;
+    private long levelsKept;
+    private long levelsSubmitted;
+    private long ordersCancelled;
+    private double touchedRatio;
+    private double lastTouchedRatio;
+}
@@ -0,0 +1,28 @@
+package com.vega.protocol.model;
+
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.constant.RecordedEventType;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.math.BigDecimal;
+
+/**
+ * One line of a recorded market data stream. A {@code PRICE} event is a reference price tick for {@code symbol};
+ * a {@code TRADE} event is a trade on the Vega market {@code marketId}, where {@code side} is the aggressor's side.
+ */
+@Data
+@Accessors(chain = true)
+public class RecordedEvent {
+    private long timestamp;
+    private RecordedEventType type;
+    private String symbol;
+    private String marketId;
+    private MarketSide side;
+    private BigDecimal bidPrice;
+    private BigDecimal askPrice;
+    private BigDecimal bidSize;
+    private BigDecimal askSize;
+    private BigDecimal price;
+    private BigDecimal size;
+}
@@ -8,6 +8,7 @@ import java.math.BigDecimal;
 @Data
 @Accessors(chain = true)
 public class ReferencePrice {
+    private String symbol;
     private BigDecimal bidPrice;
     private BigDecimal askPrice;
     private BigDecimal bidSize;
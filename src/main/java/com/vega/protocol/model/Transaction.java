@@ -0,0 +1,21 @@
+package com.vega.protocol.model;
+
+import com.vega.protocol.constant.TransactionStatus;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+
+import java.util.List;
+
+@Data
+@Accessors(chain = true)
+@EqualsAndHashCode(callSuper = true)
+public class Transaction extends UniqueItem {
+    private String id;
+    private TransactionStatus status;
+    private String reason;
+    private List<String> references;
+    private List<String> cancellations;
+    private Long submittedAt;
+    private Long latencyMs;
+}
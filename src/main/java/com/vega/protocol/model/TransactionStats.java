@@ -0,0 +1,18 @@
+package com.vega.protocol.model;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class TransactionStats {
+    private long submitted;
+    private long pending;
+    private long accepted;
+    private long rejected;
+    private long unresolved;
+    private long rejectedOrders;
+    private double failureRate;
+    private double meanLatencyMs;
+    private long maxLatencyMs;
+}
@@ -0,0 +1,93 @@
+package com.vega.protocol.quote;
+
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.constant.QuotingStrategyType;
+import com.vega.protocol.model.AppConfig;
+import com.vega.protocol.utils.PricingUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Quotes the cube-root AMM curve from {@link PricingUtils} either side of the reference price, with a minimum-size
+ * level at the BBO. When the spread is tighter than our target, the side that would add to our exposure is moved
+ * away; the target widens from {@code minSpread} to {@code maxSpread} as our open volume grows, and by
+ * {@code volatilitySpreadFactor} times the expected one-sigma move of the mid over {@code quoteHorizon} seconds,
+ * using the realised volatility of the reference price.
+ */
+@Component
+public class AmmQuotingStrategy implements QuotingStrategy {
+
+    private final PricingUtils pricingUtils;
+
+    public AmmQuotingStrategy(PricingUtils pricingUtils) {
+        this.pricingUtils = pricingUtils;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public QuotingStrategyType getType() {
+        return QuotingStrategyType.AMM;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean quote(
+            final MarketSnapshot snapshot,
+            final AppConfig config,
+            final QuoteLadder bids,
+            final QuoteLadder asks
+    ) {
+        double bidPrice = snapshot.getBidPrice();
+        double askPrice = snapshot.getAskPrice();
+        pricingUtils.getDistribution(askPrice, snapshot.getAskVolume(), config.getAskQuoteRange(), MarketSide.SELL,
+                config.getOrderCount(), asks);
+        pricingUtils.getDistribution(bidPrice, snapshot.getBidVolume(), config.getBidQuoteRange(), MarketSide.BUY,
+                config.getOrderCount(), bids);
+        if(bids.getCount() == 0 || asks.getCount() == 0) {
+            return false;
+        }
+        bids.multiplySizes(config.getBidSizeFactor());
+        asks.multiplySizes(config.getAskSizeFactor());
+        double bboSize = 1 / Math.pow(10, snapshot.getPositionDecimalPlaces());
+        bids.add(bidPrice * (1 - config.getBboOffset()), bboSize);
+        asks.add(askPrice * (1 + config.getBboOffset()), bboSize);
+        bids.sort(MarketSide.BUY);
+        asks.sort(MarketSide.SELL);
+        double targetSpread = config.getMinSpread() +
+                (snapshot.getOpenVolumeRatio() * (config.getMaxSpread() - config.getMinSpread())) +
+                getVolatilitySpread(snapshot, config);
+        double currentSpread = (asks.getPrice(0) - bids.getPrice(0)) / 2.0;
+        if(currentSpread < targetSpread) {
+            double spreadDiff = targetSpread - currentSpread;
+            if(snapshot.getExposure() > 0) {
+                bids.shiftPrices(-spreadDiff);
+            } else {
+                asks.shiftPrices(spreadDiff);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the extra half-spread for the current realised volatility
+     *
+     * @param snapshot {@link MarketSnapshot}
+     * @param config {@link AppConfig}
+     *
+     * @return the extra half-spread, or zero if it is not configured or there is no estimate yet
+     */
+    private double getVolatilitySpread(
+            final MarketSnapshot snapshot,
+            final AppConfig config
+    ) {
+        if(config.getVolatilitySpreadFactor() == null || config.getQuoteHorizon() == null) {
+            return 0;
+        }
+        double midPrice = (snapshot.getBidPrice() + snapshot.getAskPrice()) / 2.0;
+        return config.getVolatilitySpreadFactor() * midPrice * snapshot.getVolatility() *
+                Math.sqrt(config.getQuoteHorizon() / VolatilityEstimator.SECONDS_PER_YEAR);
+    }
+}
@@ -0,0 +1,74 @@
+package com.vega.protocol.quote;
+
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.constant.QuotingStrategyType;
+import com.vega.protocol.model.AppConfig;
+import com.vega.protocol.utils.PricingUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Inventory-aware quoting after Avellaneda and Stoikov. The quotes are centred on a reservation price that is moved
+ * against our inventory, and their spread is the optimal spread for the given risk aversion and order book
+ * liquidity:
+ *
+ * <pre>
+ *     r = s (1 - q &gamma; &sigma;&sup2; &tau;)
+ *     &delta; = s (&gamma; &sigma;&sup2; &tau; + (2 / &gamma;) ln(1 + &gamma; / k))
+ * </pre>
+ *
+ * Prices are worked in relative terms so that the parameters carry over between markets: s is the reference mid,
+ * &sigma; the realised volatility of the reference price (or the market's risk model volatility until the estimate
+ * has warmed up), annualised, &tau; the quote horizon ({@code quoteHorizon} seconds) in years, q our open volume
+ * ratio signed by the direction of our exposure, &gamma; the risk aversion and k the liquidity density. Each side is
+ * then laid out on the AMM curve from {@link PricingUtils}, outward from the optimal quote. The half-spread is never
+ * tighter than {@code minSpread}.
+ */
+@Component
+public class AvellanedaStoikovQuotingStrategy implements QuotingStrategy {
+
+    private final PricingUtils pricingUtils;
+
+    public AvellanedaStoikovQuotingStrategy(PricingUtils pricingUtils) {
+        this.pricingUtils = pricingUtils;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public QuotingStrategyType getType() {
+        return QuotingStrategyType.AVELLANEDA_STOIKOV;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean quote(
+            final MarketSnapshot snapshot,
+            final AppConfig config,
+            final QuoteLadder bids,
+            final QuoteLadder asks
+    ) {
+        double midPrice = (snapshot.getBidPrice() + snapshot.getAskPrice()) / 2.0;
+        double gamma = config.getRiskAversion();
+        double sigma = snapshot.getVolatility() > 0 ? snapshot.getVolatility() : snapshot.getSigma();
+        double variance = sigma * sigma * config.getQuoteHorizon() / VolatilityEstimator.SECONDS_PER_YEAR;
+        double inventory = Math.signum(snapshot.getExposure()) * snapshot.getOpenVolumeRatio();
+        double reservationPrice = midPrice * (1 - inventory * gamma * variance);
+        double spread = gamma * variance + (2 / gamma) * Math.log1p(gamma / config.getLiquidityDensity());
+        double halfSpread = Math.max(config.getMinSpread(), midPrice * spread / 2.0);
+        pricingUtils.getDistribution(reservationPrice + halfSpread, snapshot.getAskVolume(),
+                config.getAskQuoteRange(), MarketSide.SELL, config.getOrderCount(), asks);
+        pricingUtils.getDistribution(reservationPrice - halfSpread, snapshot.getBidVolume(),
+                config.getBidQuoteRange(), MarketSide.BUY, config.getOrderCount(), bids);
+        if(bids.getCount() == 0 || asks.getCount() == 0) {
+            return false;
+        }
+        bids.multiplySizes(config.getBidSizeFactor());
+        asks.multiplySizes(config.getAskSizeFactor());
+        bids.sort(MarketSide.BUY);
+        asks.sort(MarketSide.SELL);
+        return true;
+    }
+}
@@ -0,0 +1,23 @@
+package com.vega.protocol.quote;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * The inputs to a {@link QuotingStrategy} for one quoting cycle. Each market keeps one instance and overwrites it
+ * every cycle. {@code sigma} is the volatility in the market's risk model and {@code volatility} the realised
+ * volatility of the reference price, both annualised; the latter is zero until the estimate has warmed up.
+ */
+@Data
+@Accessors(chain = true)
+public class MarketSnapshot {
+    private double bidPrice;
+    private double askPrice;
+    private double bidVolume;
+    private double askVolume;
+    private double exposure;
+    private double openVolumeRatio;
+    private double sigma;
+    private double volatility;
+    private int positionDecimalPlaces;
+}
@@ -0,0 +1,225 @@
+package com.vega.protocol.quote;
+
+import com.vega.protocol.constant.ErrorCode;
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.constant.QuotingStrategyType;
+import com.vega.protocol.exception.TradingException;
+import com.vega.protocol.model.AppConfig;
+import com.vega.protocol.model.Market;
+import com.vega.protocol.model.Order;
+import com.vega.protocol.utils.QuantUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the bid and ask ladders for one quoting cycle on primitives: the {@link QuotingStrategy} selected by the
+ * app config fills the reusable arrays in {@link QuoteLadder}, and the scaling for the LP commitment works on them
+ * in place, so the core math allocates nothing. Once we have decided to submit,
+ * {@link #toOrders(MarketSide, Market, String)} copies the ladders into pooled {@link QuoteLevel} orders, which
+ * are reused from one cycle to the next, and
+ * {@link #reconcile(MarketSide, List, Market, String, AppConfig, List)} picks out the levels that have drifted from
+ * our resting orders.
+ *
+ * Instances are stateful and must not be shared between threads.
+ */
+public class QuoteKernel {
+
+    private final Map<QuotingStrategyType, QuotingStrategy> strategies = new EnumMap<>(QuotingStrategyType.class);
+    private final QuantUtils quantUtils;
+    private final QuoteLadder bids = new QuoteLadder();
+    private final QuoteLadder asks = new QuoteLadder();
+    private final QuoteLevelPool bidLevels = new QuoteLevelPool();
+    private final QuoteLevelPool askLevels = new QuoteLevelPool();
+    private final List<QuoteLevel> bidChanges = new ArrayList<>();
+    private final List<QuoteLevel> askChanges = new ArrayList<>();
+    private double[] probabilities = new double[0];
+
+    public QuoteKernel(List<QuotingStrategy> strategies,
+                       QuantUtils quantUtils) {
+        strategies.forEach(strategy -> this.strategies.put(strategy.getType(), strategy));
+        this.quantUtils = quantUtils;
+    }
+
+    public QuoteLadder getBids() {
+        return bids;
+    }
+
+    public QuoteLadder getAsks() {
+        return asks;
+    }
+
+    /**
+     * Build both ladders, sorted best first, with the strategy from the app config (the AMM curve by default)
+     *
+     * @param snapshot {@link MarketSnapshot}
+     * @param config {@link AppConfig}
+     *
+     * @return false if either distribution was empty
+     */
+    public boolean build(
+            final MarketSnapshot snapshot,
+            final AppConfig config
+    ) {
+        QuotingStrategyType type = config.getStrategy() == null ? QuotingStrategyType.AMM : config.getStrategy();
+        QuotingStrategy strategy = strategies.get(type);
+        if(strategy == null) {
+            throw new TradingException(ErrorCode.QUOTING_STRATEGY_NOT_FOUND);
+        }
+        bids.clear();
+        asks.clear();
+        return strategy.quote(snapshot, config, bids, asks);
+    }
+
+    /**
+     * Scale up the sizes on one side so that the quotes satisfy the LP commitment and pegs are not auto-deployed
+     *
+     * @param side {@link MarketSide}
+     * @param market {@link Market}
+     * @param tau the market's tau after scaling
+     * @param fallbackPrice the price used when the book has no best price on this side
+     * @param minProbability the minimum probability of trading for LP orders
+     * @param targetVolume the effective volume required by the commitment
+     */
+    public void adjustForCommitment(
+            final MarketSide side,
+            final Market market,
+            final double tau,
+            final double fallbackPrice,
+            final double minProbability,
+            final double targetVolume
+    ) {
+        QuoteLadder ladder = side.equals(MarketSide.BUY) ? bids : asks;
+        double bestPrice = side.equals(MarketSide.BUY) ? market.getBestBidPrice().doubleValue() :
+                market.getBestAskPrice().doubleValue();
+        if(bestPrice == 0) {
+            bestPrice = fallbackPrice;
+        }
+        double minValidPrice = market.getMinValidPrice().doubleValue();
+        double maxValidPrice = market.getMaxValidPrice().doubleValue();
+        if(probabilities.length < ladder.getCount()) {
+            probabilities = new double[ladder.getPrices().length];
+        }
+        quantUtils.getProbabilityOfTrading(market.getMu(), market.getSigma(), bestPrice, tau, minValidPrice,
+                maxValidPrice, ladder.getPrices(), ladder.getCount(), side, probabilities);
+        double effectiveVolume = 0;
+        for(int i=0; i<ladder.getCount(); i++) {
+            effectiveVolume += ladder.getSize(i) * ladder.getPrice(i) * Math.max(minProbability, probabilities[i]);
+        }
+        double volumeRatio = effectiveVolume / targetVolume;
+        if(volumeRatio > 0 && volumeRatio < 1) {
+            ladder.multiplySizes(1 / volumeRatio);
+        }
+    }
+
+    /**
+     * Convert both ladders to the market's integer representation
+     *
+     * @param market {@link Market}
+     */
+    public void toFixedPoint(
+            final Market market
+    ) {
+        bids.toFixedPoint(market.getDecimalPlaces(), market.getPositionDecimalPlaces());
+        asks.toFixedPoint(market.getDecimalPlaces(), market.getPositionDecimalPlaces());
+    }
+
+    /**
+     * Get the orders for one side from its fixed-point ladder. The orders are pooled: they are lent to the caller
+     * until the next call for the same side, which overwrites them, so they can be handed to the encoders for a
+     * synchronous submission but must not be stored.
+     *
+     * @param side {@link MarketSide}
+     * @param market {@link Market}
+     * @param partyId the party ID
+     *
+     * @return {@link List<Order>} best first
+     */
+    public List<Order> toOrders(
+            final MarketSide side,
+            final Market market,
+            final String partyId
+    ) {
+        return side.equals(MarketSide.BUY) ? bidLevels.fill(bids, side, market, partyId) :
+                askLevels.fill(asks, side, market, partyId);
+    }
+
+    /**
+     * Work out which levels of one side need to change. The ladder and our resting orders are both sorted best first
+     * and merged: a resting order within the price tolerance of a level is kept if its remaining size is also within
+     * tolerance and replaced otherwise, a resting order at a price we no longer quote is cancelled, and a level with
+     * no resting order near it is submitted.
+     *
+     * The price tolerance is the larger of {@code priceToleranceTicks} ticks and {@code priceToleranceBps} basis
+     * points; the size tolerance is {@code sizeTolerancePercent} of the level's size. Both default to zero, i.e.
+     * only an exact match is kept.
+     *
+     * @param side {@link MarketSide}
+     * @param current our resting orders on this side, best first
+     * @param market {@link Market}
+     * @param partyId the party ID
+     * @param config {@link AppConfig}
+     * @param cancellations the IDs of the orders to cancel are appended to this list
+     *
+     * @return {@link List<QuoteLevel>} the levels to submit, valid until the next call for the same side
+     */
+    public List<QuoteLevel> reconcile(
+            final MarketSide side,
+            final List<Order> current,
+            final Market market,
+            final String partyId,
+            final AppConfig config,
+            final List<String> cancellations
+    ) {
+        boolean isBuy = side.equals(MarketSide.BUY);
+        toOrders(side, market, partyId);
+        QuoteLadder ladder = isBuy ? bids : asks;
+        QuoteLevelPool pool = isBuy ? bidLevels : askLevels;
+        List<QuoteLevel> changes = isBuy ? bidChanges : askChanges;
+        changes.clear();
+        double priceScale = Math.pow(10, market.getDecimalPlaces());
+        double sizeScale = Math.pow(10, market.getPositionDecimalPlaces());
+        double tick = 1 / priceScale;
+        double tickTolerance = (config.getPriceToleranceTicks() == null ? 0 : config.getPriceToleranceTicks()) * tick;
+        double bpsTolerance = (config.getPriceToleranceBps() == null ? 0 : config.getPriceToleranceBps()) / 10000;
+        double sizeTolerance = (config.getSizeTolerancePercent() == null ? 0 : config.getSizeTolerancePercent()) / 100;
+        int i = 0;
+        int j = 0;
+        while(i < ladder.getCount() || j < current.size()) {
+            if(j == current.size()) {
+                changes.add(pool.get(i++));
+                continue;
+            }
+            Order order = current.get(j);
+            if(i == ladder.getCount()) {
+                cancellations.add(order.getId());
+                j++;
+                continue;
+            }
+            double price = ladder.getScaledPrice(i) / priceScale;
+            double priceTolerance = Math.max(tickTolerance, price * bpsTolerance) + tick / 2;
+            double currentPrice = order.getPrice().doubleValue();
+            double improvement = isBuy ? currentPrice - price : price - currentPrice;
+            if(Math.abs(improvement) <= priceTolerance) {
+                double size = ladder.getScaledSize(i) / sizeScale;
+                BigDecimal remainingSize = order.getRemainingSize() != null ?
+                        order.getRemainingSize() : order.getSize();
+                if(Math.abs(remainingSize.doubleValue() - size) > size * sizeTolerance + 0.5 / sizeScale) {
+                    cancellations.add(order.getId());
+                    changes.add(pool.get(i));
+                }
+                i++;
+                j++;
+            } else if(improvement > 0) {
+                cancellations.add(order.getId());
+                j++;
+            } else {
+                changes.add(pool.get(i++));
+            }
+        }
+        return changes;
+    }
+}
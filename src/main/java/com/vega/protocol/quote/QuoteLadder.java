@@ -0,0 +1,179 @@
+package com.vega.protocol.quote;
+
+import com.vega.protocol.constant.MarketSide;
+
+import java.util.Arrays;
+
+/**
+ * One side of our quotes held in primitive arrays. Prices and sizes are worked on as doubles and converted to
+ * scaled longs (the integer representation used on the wire) once the ladder is final. The arrays are reused
+ * between cycles and only grow when a cycle needs more levels than any before it.
+ */
+public class QuoteLadder {
+
+    private static final int INITIAL_CAPACITY = 32;
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    private double[] prices = new double[INITIAL_CAPACITY];
+    private double[] sizes = new double[INITIAL_CAPACITY];
+    private long[] scaledPrices = new long[INITIAL_CAPACITY];
+    private long[] scaledSizes = new long[INITIAL_CAPACITY];
+    private int count;
+
+    /**
+     * Remove every level
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Append a level
+     *
+     * @param price the price
+     * @param size the size
+     */
+    public void add(
+            final double price,
+            final double size
+    ) {
+        if(count == prices.length) {
+            int capacity = prices.length * 2;
+            prices = Arrays.copyOf(prices, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+            scaledPrices = Arrays.copyOf(scaledPrices, capacity);
+            scaledSizes = Arrays.copyOf(scaledSizes, capacity);
+        }
+        prices[count] = price;
+        sizes[count] = size;
+        count++;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Get the backing array of prices; only the first {@link #getCount()} entries are valid
+     *
+     * @return the prices
+     */
+    public double[] getPrices() {
+        return prices;
+    }
+
+    public double getPrice(
+            final int i
+    ) {
+        return prices[i];
+    }
+
+    public double getSize(
+            final int i
+    ) {
+        return sizes[i];
+    }
+
+    public void setSize(
+            final int i,
+            final double size
+    ) {
+        sizes[i] = size;
+    }
+
+    public long getScaledPrice(
+            final int i
+    ) {
+        return scaledPrices[i];
+    }
+
+    public long getScaledSize(
+            final int i
+    ) {
+        return scaledSizes[i];
+    }
+
+    /**
+     * Get the sum of the sizes
+     *
+     * @return the total size
+     */
+    public double getTotalSize() {
+        double total = 0;
+        for(int i=0; i<count; i++) {
+            total += sizes[i];
+        }
+        return total;
+    }
+
+    /**
+     * Multiply every size by the same factor
+     *
+     * @param factor the factor
+     */
+    public void multiplySizes(
+            final double factor
+    ) {
+        for(int i=0; i<count; i++) {
+            sizes[i] *= factor;
+        }
+    }
+
+    /**
+     * Move every price by the same amount
+     *
+     * @param delta the amount to add to each price
+     */
+    public void shiftPrices(
+            final double delta
+    ) {
+        for(int i=0; i<count; i++) {
+            prices[i] += delta;
+        }
+    }
+
+    /**
+     * Sort the levels best first, i.e. descending prices for bids and ascending prices for asks
+     *
+     * @param side {@link MarketSide}
+     */
+    public void sort(
+            final MarketSide side
+    ) {
+        boolean descending = side.equals(MarketSide.BUY);
+        for(int i=1; i<count; i++) {
+            double price = prices[i];
+            double size = sizes[i];
+            int j = i - 1;
+            while(j >= 0 && (descending ? prices[j] < price : prices[j] > price)) {
+                prices[j + 1] = prices[j];
+                sizes[j + 1] = sizes[j];
+                j--;
+            }
+            prices[j + 1] = price;
+            sizes[j + 1] = size;
+        }
+    }
+
+    /**
+     * Convert the prices and sizes to their integer representation
+     *
+     * @param priceDecimals the market's decimal places
+     * @param sizeDecimals the market's position decimal places
+     */
+    public void toFixedPoint(
+            final int priceDecimals,
+            final int sizeDecimals
+    ) {
+        double priceScale = POWERS_OF_TEN[priceDecimals];
+        double sizeScale = POWERS_OF_TEN[sizeDecimals];
+        for(int i=0; i<count; i++) {
+            scaledPrices[i] = Math.round(prices[i] * priceScale);
+            scaledSizes[i] = Math.round(sizes[i] * sizeScale);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.vega.protocol.quote;
+
+import com.vega.protocol.model.Order;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * A pooled, mutable order for one level of our quote ladder. The price and size are held as scaled longs (the
+ * integer representation used on the wire), so the encoders can write them without going through BigDecimal; the
+ * BigDecimal views are only built when something asks for them and are kept for as long as the scaled value does
+ * not change.
+ *
+ * Instances are owned by {@link QuoteLevelPool} and are overwritten on the next cycle, so nothing may hold on to
+ * one after the cycle that submitted it.
+ */
+public class QuoteLevel extends Order {
+
+    private long scaledPrice;
+    private long scaledSize;
+    private int priceDecimals;
+    private int sizeDecimals;
+    private BigDecimal price;
+    private BigDecimal size;
+    private int level;
+
+    /**
+     * Set the price and size
+     *
+     * @param scaledPrice the price as an integer with {@code priceDecimals} implied decimal places
+     * @param priceDecimals the market's decimal places
+     * @param scaledSize the size as an integer with {@code sizeDecimals} implied decimal places
+     * @param sizeDecimals the market's position decimal places
+     *
+     * @return {@link QuoteLevel}
+     */
+    public QuoteLevel set(
+            final long scaledPrice,
+            final int priceDecimals,
+            final long scaledSize,
+            final int sizeDecimals
+    ) {
+        if(scaledPrice != this.scaledPrice || priceDecimals != this.priceDecimals) {
+            this.price = null;
+        }
+        if(scaledSize != this.scaledSize || sizeDecimals != this.sizeDecimals) {
+            this.size = null;
+        }
+        this.scaledPrice = scaledPrice;
+        this.priceDecimals = priceDecimals;
+        this.scaledSize = scaledSize;
+        this.sizeDecimals = sizeDecimals;
+        return this;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Set the position of this level in the ladder
+     *
+     * @param level the quote level, starting at zero for the best price
+     *
+     * @return {@link QuoteLevel}
+     */
+    public QuoteLevel setLevel(
+            final int level
+    ) {
+        this.level = level;
+        return this;
+    }
+
+    public long getScaledPrice() {
+        return scaledPrice;
+    }
+
+    public int getPriceDecimals() {
+        return priceDecimals;
+    }
+
+    public long getScaledSize() {
+        return scaledSize;
+    }
+
+    public int getSizeDecimals() {
+        return sizeDecimals;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BigDecimal getPrice() {
+        if(price == null) {
+            price = BigDecimal.valueOf(scaledPrice, priceDecimals);
+        }
+        return price;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BigDecimal getSize() {
+        if(size == null) {
+            size = BigDecimal.valueOf(scaledSize, sizeDecimals);
+        }
+        return size;
+    }
+
+    /**
+     * Set the price, rounded to the current price decimals
+     *
+     * @param price the price
+     *
+     * @return {@link Order}
+     */
+    @Override
+    public Order setPrice(
+            final BigDecimal price
+    ) {
+        this.scaledPrice = toScaled(price, priceDecimals);
+        this.price = null;
+        return this;
+    }
+
+    /**
+     * Set the size, rounded to the current size decimals
+     *
+     * @param size the size
+     *
+     * @return {@link Order}
+     */
+    @Override
+    public Order setSize(
+            final BigDecimal size
+    ) {
+        this.scaledSize = toScaled(size, sizeDecimals);
+        this.size = null;
+        return this;
+    }
+
+    private long toScaled(
+            final BigDecimal number,
+            final int decimals
+    ) {
+        return number.setScale(decimals, RoundingMode.HALF_DOWN).unscaledValue().longValueExact();
+    }
+}
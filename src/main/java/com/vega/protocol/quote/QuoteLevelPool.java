@@ -0,0 +1,85 @@
+package com.vega.protocol.quote;
+
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.constant.OrderStatus;
+import com.vega.protocol.constant.OrderType;
+import com.vega.protocol.constant.TimeInForce;
+import com.vega.protocol.model.Market;
+import com.vega.protocol.model.Order;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The {@link QuoteLevel} objects for one side of our quotes. Each cycle overwrites the levels from the previous
+ * one, and only allocates when the ladder is longer than any before it.
+ *
+ * The list returned by {@link #fill(QuoteLadder, MarketSide, Market, String)} is lent to the caller until the
+ * next call: it can be passed to the encoders, which read it synchronously, but neither the list nor its orders
+ * may be stored.
+ */
+public class QuoteLevelPool {
+
+    private final List<QuoteLevel> levels = new ArrayList<>();
+    private final List<Order> orders = new ArrayList<>();
+    private final List<Order> view = Collections.unmodifiableList(orders);
+
+    /**
+     * Overwrite the levels with a fixed-point ladder
+     *
+     * @param ladder {@link QuoteLadder} after {@link QuoteLadder#toFixedPoint(int, int)}
+     * @param side {@link MarketSide}
+     * @param market {@link Market}
+     * @param partyId the party ID
+     *
+     * @return {@link List<Order>} best first, valid until the next call
+     */
+    public List<Order> fill(
+            final QuoteLadder ladder,
+            final MarketSide side,
+            final Market market,
+            final String partyId
+    ) {
+        orders.clear();
+        for(int i=0; i<ladder.getCount(); i++) {
+            if(i == levels.size()) {
+                levels.add(new QuoteLevel());
+            }
+            QuoteLevel level = levels.get(i).set(ladder.getScaledPrice(i), market.getDecimalPlaces(),
+                    ladder.getScaledSize(i), market.getPositionDecimalPlaces()).setLevel(i);
+            level.setId(null)
+                    .setReference(null)
+                    .setStatus(OrderStatus.ACTIVE)
+                    .setSide(side)
+                    .setType(OrderType.LIMIT)
+                    .setTimeInForce(TimeInForce.GTC)
+                    .setMarket(market)
+                    .setPartyId(partyId);
+            orders.add(level);
+        }
+        return view;
+    }
+
+    /**
+     * Get a level filled by the last call to {@link #fill(QuoteLadder, MarketSide, Market, String)}
+     *
+     * @param i the level, starting at zero for the best price
+     *
+     * @return {@link QuoteLevel}
+     */
+    public QuoteLevel get(
+            final int i
+    ) {
+        return levels.get(i);
+    }
+
+    /**
+     * Get the number of levels allocated so far
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return levels.size();
+    }
+}
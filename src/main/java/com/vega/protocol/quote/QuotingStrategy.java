@@ -0,0 +1,36 @@
+package com.vega.protocol.quote;
+
+import com.vega.protocol.constant.QuotingStrategyType;
+import com.vega.protocol.model.AppConfig;
+
+/**
+ * Turns a snapshot of a market into the target bid and ask ladders. The strategy for each market is chosen by
+ * {@link AppConfig#getStrategy()}, so it can be switched at runtime through the app config API.
+ *
+ * A single instance serves every market and is called from the quote workers concurrently, so implementations
+ * must not keep per-call state. A call must complete within {@link #LATENCY_BUDGET_NANOS} for ladders of up to 50
+ * levels; {@code QuotingStrategyBenchmark} measures each implementation against it.
+ */
+public interface QuotingStrategy {
+
+    long LATENCY_BUDGET_NANOS = 5_000;
+
+    /**
+     * Get the type that selects this strategy
+     *
+     * @return {@link QuotingStrategyType}
+     */
+    QuotingStrategyType getType();
+
+    /**
+     * Fill the ladders, sorted best first
+     *
+     * @param snapshot {@link MarketSnapshot}
+     * @param config {@link AppConfig}
+     * @param bids {@link QuoteLadder} cleared by the caller
+     * @param asks {@link QuoteLadder} cleared by the caller
+     *
+     * @return false if either side is empty
+     */
+    boolean quote(MarketSnapshot snapshot, AppConfig config, QuoteLadder bids, QuoteLadder asks);
+}
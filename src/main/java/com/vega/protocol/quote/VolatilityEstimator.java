@@ -0,0 +1,134 @@
+package com.vega.protocol.quote;
+
+/**
+ * Online estimate of realised volatility from a stream of prices. Each tick updates an exponentially weighted mean
+ * of the squared log return per second, with the weight of a tick set by the time since the previous one, so that
+ * irregular ticks are handled. Optionally the estimate comes from the Parkinson estimator on fixed-length bars
+ * instead, which uses the high and low of each bar and is less noisy when ticks are sparse.
+ *
+ * Updates work on primitive fields only and allocate nothing. Instances are not thread safe.
+ */
+public class VolatilityEstimator {
+
+    public static final double SECONDS_PER_YEAR = 365 * 24 * 60 * 60;
+
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double PARKINSON_FACTOR = 1 / (4 * Math.log(2));
+
+    private final double decayNanos;
+    private final long barNanos;
+    private final boolean parkinson;
+    private final int minSamples;
+    private double lastPrice;
+    private long lastNanos;
+    private double varianceRate;
+    private int samples;
+    private double high;
+    private double low;
+    private long barStartNanos;
+    private double parkinsonRate;
+    private int bars;
+
+    /**
+     * @param halfLifeSeconds the half-life of the exponential weights
+     * @param barSeconds the length of a Parkinson bar
+     * @param parkinson true to estimate from bar highs and lows
+     * @param minSamples the number of returns (or bars) needed before the estimate is used
+     */
+    public VolatilityEstimator(
+            final double halfLifeSeconds,
+            final double barSeconds,
+            final boolean parkinson,
+            final int minSamples
+    ) {
+        this.decayNanos = halfLifeSeconds * NANOS_PER_SECOND / Math.log(2);
+        this.barNanos = (long) (barSeconds * NANOS_PER_SECOND);
+        this.parkinson = parkinson;
+        this.minSamples = minSamples;
+    }
+
+    /**
+     * Add a price
+     *
+     * @param price the price
+     * @param nanos the time of the price in nanoseconds
+     */
+    public void update(
+            final double price,
+            final long nanos
+    ) {
+        if(price <= 0) {
+            return;
+        }
+        if(lastPrice == 0) {
+            lastPrice = price;
+            lastNanos = nanos;
+            startBar(price, nanos);
+            return;
+        }
+        long elapsed = nanos - lastNanos;
+        if(elapsed <= 0) {
+            return;
+        }
+        double logReturn = Math.log(price / lastPrice);
+        double rate = logReturn * logReturn * NANOS_PER_SECOND / elapsed;
+        varianceRate = samples == 0 ? rate : varianceRate + weight(elapsed) * (rate - varianceRate);
+        samples++;
+        lastPrice = price;
+        lastNanos = nanos;
+        if(parkinson) {
+            updateBar(price, nanos);
+        }
+    }
+
+    /**
+     * Get the annualised volatility
+     *
+     * @return the volatility, or zero until enough samples have been seen
+     */
+    public double getVolatility() {
+        double rate = parkinson ? parkinsonRate : varianceRate;
+        int count = parkinson ? bars : samples;
+        return count < minSamples ? 0 : Math.sqrt(rate * SECONDS_PER_YEAR);
+    }
+
+    /**
+     * Get the number of samples behind the estimate
+     *
+     * @return the number of returns, or of completed bars when using the Parkinson estimator
+     */
+    public int getSamples() {
+        return parkinson ? bars : samples;
+    }
+
+    private void updateBar(
+            final double price,
+            final long nanos
+    ) {
+        if(nanos - barStartNanos < barNanos) {
+            high = Math.max(high, price);
+            low = Math.min(low, price);
+            return;
+        }
+        double range = Math.log(high / low);
+        double rate = range * range * PARKINSON_FACTOR * NANOS_PER_SECOND / (nanos - barStartNanos);
+        parkinsonRate = bars == 0 ? rate : parkinsonRate + weight(nanos - barStartNanos) * (rate - parkinsonRate);
+        bars++;
+        startBar(price, nanos);
+    }
+
+    private void startBar(
+            final double price,
+            final long nanos
+    ) {
+        high = price;
+        low = price;
+        barStartNanos = nanos;
+    }
+
+    private double weight(
+            final long elapsed
+    ) {
+        return 1 - Math.exp(-elapsed / decayNanos);
+    }
+}
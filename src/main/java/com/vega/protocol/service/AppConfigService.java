@@ -1,6 +1,7 @@
 package com.vega.protocol.service;
 
 import com.vega.protocol.constant.ErrorCode;
+import com.vega.protocol.constant.QuotingStrategyType;
 import com.vega.protocol.exception.TradingException;
 import com.vega.protocol.model.AppConfig;
 import com.vega.protocol.store.AppConfigStore;
@@ -25,6 +26,19 @@ public class AppConfigService {
         return appConfigStore.get().orElseThrow(() -> new TradingException(ErrorCode.APP_CONFIG_NOT_FOUND));
     }
 
+    /**
+     * Get the app config for a market
+     *
+     * @param marketId the market ID
+     *
+     * @return {@link AppConfig} the market's override, or the default config
+     */
+    public AppConfig get(
+            final String marketId
+    ) {
+        return appConfigStore.get(marketId).orElseThrow(() -> new TradingException(ErrorCode.APP_CONFIG_NOT_FOUND));
+    }
+
     /**
      * Update app config
      *
@@ -34,6 +48,36 @@ public class AppConfigService {
      */
     public AppConfig update(
             final AppConfig config
+    ) {
+        validate(config);
+        appConfigStore.update(config);
+        return config;
+    }
+
+    /**
+     * Override the app config for a market
+     *
+     * @param marketId the market ID
+     * @param config {@link AppConfig}
+     *
+     * @return {@link AppConfig}
+     */
+    public AppConfig update(
+            final String marketId,
+            final AppConfig config
+    ) {
+        validate(config);
+        appConfigStore.update(marketId, config);
+        return config;
+    }
+
+    /**
+     * Check the mandatory fields of app config
+     *
+     * @param config {@link AppConfig}
+     */
+    private void validate(
+            final AppConfig config
     ) {
         if(ObjectUtils.isEmpty(config.getAskSizeFactor())) {
             throw new TradingException(ErrorCode.ASK_SIZE_FACTOR_MANDATORY);
@@ -59,7 +103,16 @@ public class AppConfigService {
         if(ObjectUtils.isEmpty(config.getOrderCount())) {
             throw new TradingException(ErrorCode.ORDER_COUNT_MANDATORY);
         }
-        appConfigStore.update(config);
-        return config;
+        if(QuotingStrategyType.AVELLANEDA_STOIKOV.equals(config.getStrategy())) {
+            if(ObjectUtils.isEmpty(config.getRiskAversion())) {
+                throw new TradingException(ErrorCode.RISK_AVERSION_MANDATORY);
+            }
+            if(ObjectUtils.isEmpty(config.getLiquidityDensity())) {
+                throw new TradingException(ErrorCode.LIQUIDITY_DENSITY_MANDATORY);
+            }
+            if(ObjectUtils.isEmpty(config.getQuoteHorizon())) {
+                throw new TradingException(ErrorCode.QUOTE_HORIZON_MANDATORY);
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,260 @@
+package com.vega.protocol.service;
+
+import com.vega.protocol.constant.CommandPriority;
+import com.vega.protocol.model.BatchInstruction;
+import com.vega.protocol.model.CommandBudget;
+import com.vega.protocol.model.Order;
+import com.vega.protocol.store.NetworkParameterStore;
+import com.vega.protocol.utils.SleepUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps our command rate inside the network's spam protection limits. Usage is counted per block (approximated
+ * by a fixed window of the configured block time) and per epoch, using the limits from the {@code spam.*}
+ * network parameters. A slice of every block is reserved for urgent commands so that cancellations, risk
+ * reductions and liquidity commitment updates are never starved by routine quote refreshes.
+ */
+@Slf4j
+@Service
+public class CommandBudgetService {
+
+    private static final String SPAM_PARAM_PREFIX = "spam.";
+    private static final String MAX_BATCH_SIZE_PARAM = "spam.protection.max.batchSize";
+    private static final String TX_PER_BLOCK_PARAM = "spam.pow.numberOfTxPerBlock";
+    private static final String EPOCH_LENGTH_PARAM = "validators.epoch.length";
+    private static final int DEFAULT_TX_PER_BLOCK = 2;
+    private static final Duration DEFAULT_EPOCH_LENGTH = Duration.ofDays(1);
+    private static final List<String> SPAM_REJECTIONS = List.of("spam", "too many", "proof of work", "pow");
+
+    private final NetworkParameterStore networkParameterStore;
+    private final SleepUtils sleepUtils;
+    private final long blockNanos;
+    private final int urgentReserve;
+    private final long epochLimit;
+    private final long maxWaitMs;
+    private LongSupplier clock = System::nanoTime;
+
+    private long blockStart = Long.MIN_VALUE;
+    private long epochStart = Long.MIN_VALUE;
+    private int blockUsed;
+    private long epochUsed;
+    private long urgent;
+    private long routine;
+    private long deferred;
+    private long spamRejections;
+
+    public CommandBudgetService(NetworkParameterStore networkParameterStore,
+                                SleepUtils sleepUtils,
+                                @Value("${command.budget.block.ms}") Long blockMs,
+                                @Value("${command.budget.urgent.reserve}") Integer urgentReserve,
+                                @Value("${command.budget.epoch.limit}") Long epochLimit,
+                                @Value("${command.budget.max.wait.ms}") Long maxWaitMs) {
+        this.networkParameterStore = networkParameterStore;
+        this.sleepUtils = sleepUtils;
+        this.blockNanos = TimeUnit.MILLISECONDS.toNanos(blockMs);
+        this.urgentReserve = urgentReserve;
+        this.epochLimit = epochLimit;
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    /**
+     * Get the maximum number of instructions allowed in one batch
+     *
+     * @return the max batch size
+     */
+    public int getMaxBatchSize() {
+        return (int) networkParameterStore.getLong(MAX_BATCH_SIZE_PARAM);
+    }
+
+    /**
+     * Merge cancellations and submissions into as few batches as possible, with the cancellations first so that
+     * stale orders are removed in the earliest command
+     *
+     * @param cancellations {@link List<String>} orderIds
+     * @param submissions {@link List<Order>} new orders
+     *
+     * @return {@link List<BatchInstruction>}
+     */
+    public List<BatchInstruction> partition(
+            final List<String> cancellations,
+            final List<Order> submissions
+    ) {
+        int maxBatchSize = getMaxBatchSize();
+        List<BatchInstruction> batches = new ArrayList<>();
+        BatchInstruction batch = null;
+        int size = 0;
+        for(String cancellation : cancellations) {
+            if(batch == null || size == maxBatchSize) {
+                batch = new BatchInstruction();
+                batches.add(batch);
+                size = 0;
+            }
+            batch.getCancellations().add(cancellation);
+            size++;
+        }
+        for(Order submission : submissions) {
+            if(batch == null || size == maxBatchSize) {
+                batch = new BatchInstruction();
+                batches.add(batch);
+                size = 0;
+            }
+            batch.getSubmissions().add(submission);
+            size++;
+        }
+        return batches;
+    }
+
+    /**
+     * Take one command from the budget if it is available now
+     *
+     * @param priority {@link CommandPriority}
+     *
+     * @return true if the command may be sent
+     */
+    public synchronized boolean tryAcquire(
+            final CommandPriority priority
+    ) {
+        roll();
+        int blockLimit = getBlockLimit();
+        int available = priority.equals(CommandPriority.URGENT) ? blockLimit :
+                blockLimit - Math.min(urgentReserve, blockLimit - 1);
+        if(blockUsed >= available || (epochLimit > 0 && epochUsed >= epochLimit)) {
+            return false;
+        }
+        blockUsed++;
+        epochUsed++;
+        if(priority.equals(CommandPriority.URGENT)) {
+            urgent++;
+        } else {
+            routine++;
+        }
+        return true;
+    }
+
+    /**
+     * Take one command from the budget, waiting for the next block if the current one is used up
+     *
+     * @param priority {@link CommandPriority}
+     *
+     * @return true if the command may be sent; false if it should be deferred
+     */
+    public boolean acquire(
+            final CommandPriority priority
+    ) {
+        long deadline = clock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        while(!tryAcquire(priority)) {
+            long waitNanos;
+            synchronized (this) {
+                if(epochLimit > 0 && epochUsed >= epochLimit) {
+                    deferred++;
+                    return false;
+                }
+                long nextBlock = blockStart + blockNanos;
+                waitNanos = nextBlock - clock.getAsLong();
+                if(nextBlock > deadline) {
+                    deferred++;
+                    return false;
+                }
+            }
+            sleepUtils.sleep(Math.max(1L, TimeUnit.NANOSECONDS.toMillis(waitNanos)));
+        }
+        return true;
+    }
+
+    /**
+     * Record a rejected transaction; when it was rejected by spam protection the rest of the current block is
+     * given up so that nothing else is sent into the same rejection
+     *
+     * @param reason the rejection reason
+     */
+    public synchronized void onRejected(
+            final String reason
+    ) {
+        if(reason == null) {
+            return;
+        }
+        String lowerCaseReason = reason.toLowerCase(Locale.ROOT);
+        if(SPAM_REJECTIONS.stream().anyMatch(lowerCaseReason::contains)) {
+            roll();
+            spamRejections++;
+            blockUsed = Math.max(blockUsed, getBlockLimit());
+            log.warn("Transaction rejected by spam protection; pausing until the next block: {}", reason);
+        }
+    }
+
+    /**
+     * Get the current limits and usage
+     *
+     * @return {@link CommandBudget}
+     */
+    public synchronized CommandBudget getBudget() {
+        roll();
+        Map<String, String> spamParameters = new TreeMap<>();
+        networkParameterStore.getItems().stream()
+                .filter(p -> p.getId().startsWith(SPAM_PARAM_PREFIX))
+                .forEach(p -> spamParameters.put(p.getId(), p.getValue()));
+        return new CommandBudget()
+                .setMaxBatchSize((int) networkParameterStore.getLong(MAX_BATCH_SIZE_PARAM, 0))
+                .setBlockLimit(getBlockLimit())
+                .setBlockUsed(blockUsed)
+                .setEpochLimit(epochLimit)
+                .setEpochUsed(epochUsed)
+                .setUrgent(urgent)
+                .setRoutine(routine)
+                .setDeferred(deferred)
+                .setSpamRejections(spamRejections)
+                .setSpamParameters(spamParameters);
+    }
+
+    /**
+     * Reset the usage counters when the current block or epoch has passed
+     */
+    private void roll() {
+        long now = clock.getAsLong();
+        if(blockStart == Long.MIN_VALUE || now - blockStart >= blockNanos) {
+            blockStart = now;
+            blockUsed = 0;
+        }
+        if(epochStart == Long.MIN_VALUE || now - epochStart >= getEpochNanos()) {
+            epochStart = now;
+            epochUsed = 0;
+        }
+    }
+
+    /**
+     * Get the number of transactions allowed per block
+     *
+     * @return the block limit
+     */
+    private int getBlockLimit() {
+        long limit = networkParameterStore.getLong(TX_PER_BLOCK_PARAM, DEFAULT_TX_PER_BLOCK);
+        return limit > 0 ? (int) limit : DEFAULT_TX_PER_BLOCK;
+    }
+
+    /**
+     * Get the epoch length
+     *
+     * @return the epoch length in nanoseconds
+     */
+    private long getEpochNanos() {
+        return networkParameterStore.getDuration(EPOCH_LENGTH_PARAM, DEFAULT_EPOCH_LENGTH).toNanos();
+    }
+
+    /**
+     * Set the clock that blocks and epochs are measured by, e.g. the simulated clock of a backtest
+     *
+     * @param clock {@link LongSupplier} of nanoseconds
+     */
+    public void setClock(
+            final LongSupplier clock
+    ) {
+        this.clock = clock;
+    }
+}
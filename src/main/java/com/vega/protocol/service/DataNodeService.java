@@ -0,0 +1,255 @@
+package com.vega.protocol.service;
+
+import com.mashape.unirest.http.HttpResponse;
+import com.mashape.unirest.http.Unirest;
+import com.vega.protocol.model.DataNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Chooses which data node serves our reads and subscriptions. Every node is probed on a schedule for its latency
+ * and block height; nodes that fail repeatedly or fall too far behind the others are marked unhealthy. The
+ * selected node is replaced immediately when it becomes unhealthy, but a healthy node is only replaced by one that
+ * has been clearly faster for several probes in a row, so that small latency differences don't cause flapping.
+ */
+@Slf4j
+@Service
+public class DataNodeService {
+
+    private static final String BLOCK_HEIGHT_HEADER = "x-block-height";
+    private static final double LATENCY_SMOOTHING = 0.3;
+
+    private final List<DataNode> nodes = new ArrayList<>();
+    private final long maxLagBlocks;
+    private final int failureThreshold;
+    private final double switchRatio;
+    private final int switchProbes;
+    private final long probeTimeoutMs;
+    private final ExecutorService executor;
+    private DataNode selected;
+    private DataNode candidate;
+    private int candidateProbes;
+
+    public DataNodeService(@Value("${vega.node.url}") String nodeUrls,
+                           @Value("${vega.ws.url}") String wsUrls,
+                           @Value("${vega.node.max.lag.blocks}") Long maxLagBlocks,
+                           @Value("${vega.node.failure.threshold}") Integer failureThreshold,
+                           @Value("${vega.node.switch.ratio}") Double switchRatio,
+                           @Value("${vega.node.switch.probes}") Integer switchProbes,
+                           @Value("${vega.node.probe.timeout.ms}") Long probeTimeoutMs) {
+        List<String> restUrls = split(nodeUrls);
+        List<String> wsUrlList = split(wsUrls);
+        for(int i=0; i<restUrls.size(); i++) {
+            String wsUrl = wsUrlList.isEmpty() ? null : wsUrlList.get(Math.min(i, wsUrlList.size() - 1));
+            nodes.add(new DataNode().setRestUrl(restUrls.get(i)).setWsUrl(wsUrl));
+        }
+        this.maxLagBlocks = maxLagBlocks;
+        this.failureThreshold = failureThreshold;
+        this.switchRatio = switchRatio;
+        this.switchProbes = switchProbes;
+        this.probeTimeoutMs = probeTimeoutMs;
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "data-node-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.selected = nodes.isEmpty() ? null : nodes.get(0);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Get the REST URL of the selected node
+     *
+     * @return the REST URL
+     */
+    public synchronized String getRestUrl() {
+        return selected != null ? selected.getRestUrl() : null;
+    }
+
+    /**
+     * Get the web socket URL of the selected node
+     *
+     * @return the web socket URL
+     */
+    public synchronized String getWsUrl() {
+        return selected != null ? selected.getWsUrl() : null;
+    }
+
+    /**
+     * Get a snapshot of every configured node
+     *
+     * @return {@link List<DataNode>}
+     */
+    public synchronized List<DataNode> getNodes() {
+        return nodes.stream().map(n -> new DataNode()
+                .setRestUrl(n.getRestUrl())
+                .setWsUrl(n.getWsUrl())
+                .setHealthy(n.isHealthy())
+                .setLatencyMs(n.getLatencyMs())
+                .setBlockHeight(n.getBlockHeight())
+                .setConsecutiveFailures(n.getConsecutiveFailures())
+                .setProbes(n.getProbes())).toList();
+    }
+
+    /**
+     * Record a failed request against the selected node, failing over once it reaches the failure threshold
+     */
+    public synchronized void reportFailure() {
+        if(selected == null || nodes.size() < 2) {
+            return;
+        }
+        selected.setConsecutiveFailures(selected.getConsecutiveFailures() + 1);
+        if(selected.getConsecutiveFailures() >= failureThreshold) {
+            selected.setHealthy(false);
+            select();
+        }
+    }
+
+    /**
+     * Probe every node and update the selection. Nothing is probed when there is only one node to choose from.
+     */
+    @Scheduled(fixedDelayString = "${vega.node.probe.ms}")
+    public void probe() {
+        List<DataNode> targets;
+        synchronized (this) {
+            if(nodes.size() < 2) {
+                return;
+            }
+            targets = new ArrayList<>(nodes);
+        }
+        List<CompletableFuture<Optional<Probe>>> futures = targets.stream()
+                .map(node -> CompletableFuture.supplyAsync(() -> probe(node), executor))
+                .toList();
+        List<Optional<Probe>> probes = futures.stream().map(CompletableFuture::join).toList();
+        synchronized (this) {
+            for(int i=0; i<targets.size(); i++) {
+                DataNode node = targets.get(i);
+                Optional<Probe> probe = probes.get(i);
+                node.setProbes(node.getProbes() + 1);
+                if(probe.isEmpty()) {
+                    node.setConsecutiveFailures(node.getConsecutiveFailures() + 1);
+                    continue;
+                }
+                double latencyMs = probe.get().latencyNanos() / 1e6;
+                node.setConsecutiveFailures(0)
+                        .setLatencyMs(node.getProbes() == 1 || node.getLatencyMs() == 0 ? latencyMs :
+                                node.getLatencyMs() + LATENCY_SMOOTHING * (latencyMs - node.getLatencyMs()));
+                if(probe.get().blockHeight() >= 0) {
+                    node.setBlockHeight(probe.get().blockHeight());
+                }
+            }
+            long maxHeight = nodes.stream().mapToLong(DataNode::getBlockHeight).max().orElse(0);
+            for(DataNode node : nodes) {
+                boolean lagging = node.getBlockHeight() > 0 && maxHeight - node.getBlockHeight() > maxLagBlocks;
+                node.setHealthy(node.getConsecutiveFailures() < failureThreshold && !lagging);
+            }
+            select();
+        }
+    }
+
+    /**
+     * Choose the healthy node with the lowest latency, applying hysteresis when the selected node is healthy
+     */
+    private void select() {
+        Optional<DataNode> best = nodes.stream().filter(DataNode::isHealthy)
+                .min(Comparator.comparingDouble(DataNode::getLatencyMs));
+        if(best.isEmpty() || best.get() == selected) {
+            candidate = null;
+            candidateProbes = 0;
+            return;
+        }
+        if(!selected.isHealthy()) {
+            log.warn("Data node {} is unhealthy; failing over to {}", selected.getRestUrl(), best.get().getRestUrl());
+            switchTo(best.get());
+            return;
+        }
+        if(best.get().getLatencyMs() >= selected.getLatencyMs() * switchRatio) {
+            candidate = null;
+            candidateProbes = 0;
+            return;
+        }
+        if(best.get() != candidate) {
+            candidate = best.get();
+            candidateProbes = 0;
+        }
+        if(++candidateProbes >= switchProbes) {
+            log.info("Switching from data node {} ({} ms) to {} ({} ms)", selected.getRestUrl(),
+                    Math.round(selected.getLatencyMs()), best.get().getRestUrl(),
+                    Math.round(best.get().getLatencyMs()));
+            switchTo(best.get());
+        }
+    }
+
+    private void switchTo(
+            final DataNode node
+    ) {
+        selected = node;
+        candidate = null;
+        candidateProbes = 0;
+    }
+
+    /**
+     * Time a lightweight request to a node and read the block height it reports. A request still running after the
+     * probe timeout is cancelled, so that a node that stops answering does not hold on to a probe thread.
+     *
+     * @param node {@link DataNode}
+     *
+     * @return {@link Optional<Probe>} empty if the request failed or timed out
+     */
+    private Optional<Probe> probe(
+            final DataNode node
+    ) {
+        Future<HttpResponse<String>> request = null;
+        try {
+            long start = System.nanoTime();
+            request = Unirest.get(String.format("%s/vega/time", node.getRestUrl())).asStringAsync();
+            HttpResponse<String> response = request.get(probeTimeoutMs, TimeUnit.MILLISECONDS);
+            long latencyNanos = System.nanoTime() - start;
+            if(response.getStatus() != 200) {
+                log.warn("Data node {} returned status code = {}", node.getRestUrl(), response.getStatus());
+                return Optional.empty();
+            }
+            long blockHeight = response.getHeaders().entrySet().stream()
+                    .filter(e -> e.getKey() != null && e.getKey().equalsIgnoreCase(BLOCK_HEIGHT_HEADER))
+                    .flatMap(e -> e.getValue().stream())
+                    .mapToLong(Long::parseLong)
+                    .findFirst()
+                    .orElse(-1L);
+            return Optional.of(new Probe(latencyNanos, blockHeight));
+        } catch(TimeoutException e) {
+            log.warn("Data node {} probe timed out after {} ms", node.getRestUrl(), probeTimeoutMs);
+            return Optional.empty();
+        } catch(Exception e) {
+            log.warn("Data node {} probe failed: {}", node.getRestUrl(), e.getMessage());
+            return Optional.empty();
+        } finally {
+            if(request != null && !request.isDone()) {
+                request.cancel(true);
+            }
+        }
+    }
+
+    private static List<String> split(
+            final String urls
+    ) {
+        return Arrays.stream(urls.split(",")).map(String::trim).filter(url -> !url.isEmpty()).toList();
+    }
+
+    private record Probe(long latencyNanos, long blockHeight) {
+    }
+}
@@ -0,0 +1,148 @@
+package com.vega.protocol.service;
+
+import com.vega.protocol.constant.LatencyStage;
+import com.vega.protocol.model.LatencyStats;
+import com.vega.protocol.utils.LatencyHistogram;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Times each stage of the quote pipeline, from the store reads in {@link com.vega.protocol.task.UpdateQuotesTask} to
+ * the wallet round-trip in {@link com.vega.protocol.api.VegaApiClient}, into one {@link LatencyHistogram} per
+ * {@link LatencyStage}. Each quote cycle also gets a trace ID, which is put in the logging MDC under
+ * {@link #TRACE_ID} so that every log line of a slow cycle can be found. Once
+ * {@link com.vega.protocol.initializer.MetricsInitializer} has bound the metrics, each stage is also recorded into a
+ * {@link Timer}, whose histogram buckets let the scraper compute percentiles over its own window.
+ */
+@Service
+public class LatencyService {
+
+    public static final String TRACE_ID = "traceId";
+
+    private static final double NANOS_PER_MICRO = 1000.0;
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[LatencyStage.values().length];
+    private final String tracePrefix = String.format("%s-", Long.toString(System.currentTimeMillis(), 36));
+    private final AtomicLong traceCount = new AtomicLong();
+    private volatile Timer[] timers;
+    private LongSupplier clock = System::nanoTime;
+
+    public LatencyService() {
+        for(LatencyStage stage : LatencyStage.values()) {
+            histograms[stage.ordinal()] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Get the current time, to start timing a stage
+     *
+     * @return the time in nanoseconds
+     */
+    public long start() {
+        return clock.getAsLong();
+    }
+
+    /**
+     * Record the time since a stage started
+     *
+     * @param stage {@link LatencyStage}
+     * @param startNanos the time the stage started, from {@link #start()}
+     *
+     * @return the current time, so that the next stage can start from it
+     */
+    public long record(
+            final LatencyStage stage,
+            final long startNanos
+    ) {
+        long now = clock.getAsLong();
+        histograms[stage.ordinal()].record(now - startNanos);
+        Timer[] timers = this.timers;
+        if(timers != null) {
+            timers[stage.ordinal()].record(now - startNanos, TimeUnit.NANOSECONDS);
+        }
+        return now;
+    }
+
+    /**
+     * Start a new trace on the calling thread
+     *
+     * @return the trace ID
+     */
+    public String startTrace() {
+        String traceId = tracePrefix + Long.toString(traceCount.incrementAndGet(), 36);
+        MDC.put(TRACE_ID, traceId);
+        return traceId;
+    }
+
+    /**
+     * End the trace on the calling thread
+     */
+    public void endTrace() {
+        MDC.remove(TRACE_ID);
+    }
+
+    /**
+     * Get the stats for one stage
+     *
+     * @param stage {@link LatencyStage}
+     *
+     * @return {@link LatencyStats}
+     */
+    public LatencyStats get(
+            final LatencyStage stage
+    ) {
+        LatencyHistogram histogram = histograms[stage.ordinal()];
+        return new LatencyStats()
+                .setStage(stage)
+                .setCount(histogram.getTotalCount())
+                .setP50Micros(histogram.getValueAtPercentile(50) / NANOS_PER_MICRO)
+                .setP99Micros(histogram.getValueAtPercentile(99) / NANOS_PER_MICRO)
+                .setP999Micros(histogram.getValueAtPercentile(99.9) / NANOS_PER_MICRO)
+                .setMaxMicros(histogram.getMax() / NANOS_PER_MICRO);
+    }
+
+    /**
+     * Get the stats for every stage
+     *
+     * @return {@link List<LatencyStats>}
+     */
+    public List<LatencyStats> getStats() {
+        return Arrays.stream(LatencyStage.values()).map(this::get).toList();
+    }
+
+    /**
+     * Clear the recorded latencies of every stage
+     */
+    public void reset() {
+        Arrays.stream(histograms).forEach(LatencyHistogram::reset);
+    }
+
+    /**
+     * Set the timers that every stage is also recorded into
+     *
+     * @param timers one {@link Timer} per {@link LatencyStage}, indexed by ordinal
+     */
+    public void setTimers(
+            final Timer[] timers
+    ) {
+        this.timers = timers;
+    }
+
+    /**
+     * Set the clock (used for testing)
+     *
+     * @param clock {@link LongSupplier} of nanoseconds
+     */
+    public void setClock(
+            final LongSupplier clock
+    ) {
+        this.clock = clock;
+    }
+}
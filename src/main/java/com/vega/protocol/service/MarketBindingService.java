@@ -0,0 +1,116 @@
+package com.vega.protocol.service;
+
+import com.vega.protocol.constant.ErrorCode;
+import com.vega.protocol.exception.TradingException;
+import com.vega.protocol.model.MarketBinding;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * The markets we quote and the reference price market that each one follows. By default this is the single market
+ * in {@code vega.market.id} bound to {@code reference.price.market}; setting {@code quote.markets} to a
+ * comma-separated list of {@code marketId:symbol} pairs switches to multi-market mode.
+ */
+@Service
+public class MarketBindingService {
+
+    private final List<MarketBinding> bindings;
+    private final Map<String, MarketBinding> bindingsByMarket = new HashMap<>();
+    private final Map<String, List<MarketBinding>> bindingsBySymbol = new LinkedHashMap<>();
+
+    public MarketBindingService(@Value("${vega.market.id}") String marketId,
+                                @Value("${reference.price.market}") String referencePriceMarket,
+                                @Value("${quote.markets}") String markets) {
+        this.bindings = markets == null || markets.isBlank() ?
+                List.of(new MarketBinding().setMarketId(marketId).setReferencePriceMarket(referencePriceMarket)) :
+                parse(markets);
+        for(MarketBinding binding : bindings) {
+            if(bindingsByMarket.put(binding.getMarketId(), binding) != null) {
+                throw new TradingException(ErrorCode.DUPLICATE_MARKET_BINDING);
+            }
+            bindingsBySymbol.computeIfAbsent(binding.getReferencePriceMarket(), s -> new ArrayList<>()).add(binding);
+        }
+    }
+
+    /**
+     * Get every binding, in the order they were configured
+     *
+     * @return {@link List<MarketBinding>}
+     */
+    public List<MarketBinding> getBindings() {
+        return bindings;
+    }
+
+    /**
+     * Get the binding for a market
+     *
+     * @param marketId the market ID
+     *
+     * @return {@link Optional<MarketBinding>}
+     */
+    public Optional<MarketBinding> getByMarketId(
+            final String marketId
+    ) {
+        return Optional.ofNullable(bindingsByMarket.get(marketId));
+    }
+
+    /**
+     * Get the bindings that follow a reference price market
+     *
+     * @param symbol the reference price market
+     *
+     * @return {@link List<MarketBinding>}
+     */
+    public List<MarketBinding> getBySymbol(
+            final String symbol
+    ) {
+        return symbol == null ? Collections.emptyList() :
+                bindingsBySymbol.getOrDefault(symbol, Collections.emptyList());
+    }
+
+    /**
+     * Get the IDs of the bound markets
+     *
+     * @return {@link List<String>}
+     */
+    public List<String> getMarketIds() {
+        return bindings.stream().map(MarketBinding::getMarketId).toList();
+    }
+
+    /**
+     * Get the distinct reference price markets, in the order they were configured
+     *
+     * @return {@link List<String>}
+     */
+    public List<String> getSymbols() {
+        return List.copyOf(bindingsBySymbol.keySet());
+    }
+
+    /**
+     * Check whether more than one market is bound
+     *
+     * @return true / false
+     */
+    public boolean isMultiMarket() {
+        return bindings.size() > 1;
+    }
+
+    private static List<MarketBinding> parse(
+            final String markets
+    ) {
+        List<MarketBinding> bindings = new ArrayList<>();
+        for(String pair : markets.split(",")) {
+            if(pair.isBlank()) {
+                continue;
+            }
+            String[] parts = pair.trim().split(":");
+            if(parts.length != 2 || parts[0].isBlank() || parts[1].isBlank()) {
+                throw new TradingException(ErrorCode.INVALID_MARKET_BINDING);
+            }
+            bindings.add(new MarketBinding().setMarketId(parts[0].trim()).setReferencePriceMarket(parts[1].trim()));
+        }
+        return bindings;
+    }
+}
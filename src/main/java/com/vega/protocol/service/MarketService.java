@@ -6,6 +6,8 @@ import com.vega.protocol.model.Market;
 import com.vega.protocol.store.MarketStore;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+
 @Service
 public class MarketService {
 
@@ -26,4 +28,20 @@ public class MarketService {
         return marketStore.getItems().stream().filter(m -> m.getId().equals(marketId)).findFirst()
                 .orElseThrow(() -> new TradingException(ErrorCode.MARKET_NOT_FOUND));
     }
-}
\ No newline at end of file
+
+    /**
+     * Count the markets, out of the given IDs, that settle in an asset
+     *
+     * @param marketIds the market IDs
+     * @param asset the settlement asset
+     *
+     * @return the number of markets
+     */
+    public int countBySettlementAsset(
+            final Collection<String> marketIds,
+            final String asset
+    ) {
+        return (int) marketStore.getItems().stream()
+                .filter(m -> marketIds.contains(m.getId()) && asset.equals(m.getSettlementAsset())).count();
+    }
+}
@@ -0,0 +1,108 @@
+package com.vega.protocol.service;
+
+import com.vega.protocol.constant.WebSocketTopic;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts the messages received on each {@link WebSocketTopic} and measures how far behind they are. The meters are
+ * registered up front and indexed by topic, so that recording a message does not look anything up. Frames which
+ * carry an event time record the lag from it; for every topic the time since its last message is also exported.
+ */
+@Service
+public class MetricsService {
+
+    private static final String TOPIC = "topic";
+
+    private final Counter[] messages;
+    private final Timer[] lag;
+    private final AtomicLongArray lastMessageNanos;
+    private LongSupplier clock = System::nanoTime;
+
+    public MetricsService(MeterRegistry meterRegistry) {
+        WebSocketTopic[] topics = WebSocketTopic.values();
+        this.messages = new Counter[topics.length];
+        this.lag = new Timer[topics.length];
+        this.lastMessageNanos = new AtomicLongArray(topics.length);
+        for(WebSocketTopic topic : topics) {
+            String tag = topic.name().toLowerCase(Locale.ROOT);
+            messages[topic.ordinal()] = Counter.builder("vega.ws.messages")
+                    .description("Websocket messages received")
+                    .tag(TOPIC, tag)
+                    .register(meterRegistry);
+            lag[topic.ordinal()] = Timer.builder("vega.ws.lag")
+                    .description("Time from the event to its websocket message being received")
+                    .tag(TOPIC, tag)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry);
+            lastMessageNanos.set(topic.ordinal(), Long.MIN_VALUE);
+            TimeGauge.builder("vega.ws.last.message.age", this, TimeUnit.NANOSECONDS,
+                            m -> m.getLastMessageAge(topic))
+                    .description("Time since the last websocket message")
+                    .tag(TOPIC, tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Record a message received on a topic
+     *
+     * @param topic {@link WebSocketTopic}
+     */
+    public void onMessage(
+            final WebSocketTopic topic
+    ) {
+        messages[topic.ordinal()].increment();
+        lastMessageNanos.set(topic.ordinal(), clock.getAsLong());
+    }
+
+    /**
+     * Record a message received on a topic, with the time of the event it carries
+     *
+     * @param topic {@link WebSocketTopic}
+     * @param eventTimeMillis the event time in epoch milliseconds
+     */
+    public void onMessage(
+            final WebSocketTopic topic,
+            final long eventTimeMillis
+    ) {
+        onMessage(topic);
+        lag[topic.ordinal()].record(Math.max(0, System.currentTimeMillis() - eventTimeMillis), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the time since the last message on a topic
+     *
+     * @param topic {@link WebSocketTopic}
+     *
+     * @return the age in nanoseconds, or NaN if no message has been received
+     */
+    public double getLastMessageAge(
+            final WebSocketTopic topic
+    ) {
+        long last = lastMessageNanos.get(topic.ordinal());
+        if(last == Long.MIN_VALUE) {
+            return Double.NaN;
+        }
+        return clock.getAsLong() - last;
+    }
+
+    /**
+     * Set the clock (used for testing)
+     *
+     * @param clock {@link LongSupplier} of nanoseconds
+     */
+    public void setClock(
+            final LongSupplier clock
+    ) {
+        this.clock = clock;
+    }
+}
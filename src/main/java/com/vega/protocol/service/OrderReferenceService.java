@@ -0,0 +1,371 @@
+package com.vega.protocol.service;
+
+import com.vega.protocol.constant.LatencyStage;
+import com.vega.protocol.constant.OrderStatus;
+import com.vega.protocol.model.Order;
+import com.vega.protocol.model.OrderCycleStats;
+import com.vega.protocol.model.OrderIntent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates order references and remembers what each reference was submitted for, so that order updates from the
+ * node can be attributed back to the quote level and cycle that produced them. The time from submission to an
+ * order first being seen ACTIVE, filled and CANCELLED is recorded in the {@link LatencyService}, and summarised for
+ * each of the last {@link #CYCLE_CAPACITY} quoting cycles along with the orders that never appeared.
+ */
+@Slf4j
+@Service
+public class OrderReferenceService {
+
+    public static final int CYCLE_CAPACITY = 100;
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final String prefix;
+    private final AtomicLong counter = new AtomicLong();
+    private final Map<String, OrderIntent> intents;
+    private final Map<Long, OrderCycleStats> cycles;
+    private final long missingTimeoutNanos;
+    private final LatencyService latencyService;
+    private long missing;
+
+    public OrderReferenceService(@Value("${order.reference.capacity}") Integer capacity,
+                                 @Value("${order.missing.timeout.ms}") Long missingTimeoutMs,
+                                 LatencyService latencyService) {
+        this.prefix = String.format("%s-%s-",
+                Long.toString(System.currentTimeMillis(), 36), Long.toString(ProcessHandle.current().pid(), 36));
+        this.missingTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(missingTimeoutMs);
+        this.latencyService = latencyService;
+        this.intents = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, OrderIntent> eldest) {
+                if(size() <= capacity) {
+                    return false;
+                }
+                OrderIntent intent = eldest.getValue();
+                if(intent.getSubmittedAt() != null && intent.getAcknowledgedAt() == null) {
+                    markMissing(intent);
+                }
+                return true;
+            }
+        };
+        this.cycles = new LinkedHashMap<>(CYCLE_CAPACITY * 4 / 3 + 1, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, OrderCycleStats> eldest) {
+                return size() > CYCLE_CAPACITY;
+            }
+        };
+    }
+
+    /**
+     * Get the next order reference
+     *
+     * @return the reference
+     */
+    public String next() {
+        return prefix + counter.incrementAndGet();
+    }
+
+    /**
+     * Assign a reference to an order and remember its intended quote level
+     *
+     * @param order {@link Order}
+     * @param level the quote level, starting at zero for the best price
+     * @param cycleId the quoting cycle
+     *
+     * @return the reference
+     */
+    public String register(
+            final Order order,
+            final Integer level,
+            final Long cycleId
+    ) {
+        String reference = next();
+        order.setReference(reference);
+        OrderIntent intent = new OrderIntent()
+                .setReference(reference)
+                .setMarketId(order.getMarket() != null ? order.getMarket().getId() : null)
+                .setSide(order.getSide())
+                .setLevel(level)
+                .setCycleId(cycleId)
+                .setPrice(order.getPrice())
+                .setSize(order.getSize());
+        synchronized (intents) {
+            intents.put(reference, intent);
+        }
+        return reference;
+    }
+
+    /**
+     * Stamp the submit time of an order, registering it first if it has no reference yet
+     *
+     * @param order {@link Order}
+     *
+     * @return the reference
+     */
+    public String onSubmit(
+            final Order order
+    ) {
+        String reference = order.getReference() != null ? order.getReference() : register(order, null, null);
+        long now = latencyService.start();
+        synchronized (intents) {
+            OrderIntent intent = intents.get(reference);
+            if(intent != null) {
+                if(intent.getSubmittedAt() == null && intent.getCycleId() != null) {
+                    OrderCycleStats cycle = cycles.computeIfAbsent(intent.getCycleId(),
+                            k -> new OrderCycleStats().setCycleId(k));
+                    cycle.setSubmitted(cycle.getSubmitted() + 1);
+                }
+                intent.setSubmittedAt(now);
+                intent.setPrice(order.getPrice());
+                intent.setSize(order.getSize());
+            }
+        }
+        return reference;
+    }
+
+    /**
+     * Attribute an order update from the node to the intent that produced it, and record the time from submission
+     * to the first update, the order first being ACTIVE, its first fill and its cancellation
+     *
+     * @param order {@link Order}
+     */
+    public void onUpdate(
+            final Order order
+    ) {
+        if(order.getReference() == null || order.getStatus() == null) {
+            return;
+        }
+        OrderIntent intent;
+        Long latency = null;
+        synchronized (intents) {
+            intent = intents.get(order.getReference());
+            if(intent == null) {
+                return;
+            }
+            if(intent.getSubmittedAt() != null) {
+                long now = latencyService.start();
+                if(intent.getAcknowledgedAt() == null) {
+                    intent.setAcknowledgedAt(now);
+                    latency = now - intent.getSubmittedAt();
+                    clearMissing(intent);
+                }
+                onLifecycle(order, intent, now);
+            }
+        }
+        if(order.getStatus().equals(OrderStatus.REJECTED)) {
+            log.warn("Order rejected: reference = {}; side = {}; level = {}; cycle = {}; price = {}; size = {}",
+                    intent.getReference(), intent.getSide(), intent.getLevel(), intent.getCycleId(),
+                    intent.getPrice(), intent.getSize());
+        } else if(latency != null) {
+            log.debug("Order {} with reference {} (level {}, cycle {}) after {} ms", order.getStatus(),
+                    intent.getReference(), intent.getLevel(), intent.getCycleId(),
+                    TimeUnit.NANOSECONDS.toMillis(latency));
+        }
+    }
+
+    /**
+     * Record the lifecycle events of an order the first time they are seen
+     *
+     * @param order {@link Order}
+     * @param intent {@link OrderIntent}
+     * @param now the current time in nanoseconds
+     */
+    private void onLifecycle(
+            final Order order,
+            final OrderIntent intent,
+            final long now
+    ) {
+        Optional<OrderCycleStats> cycle = getCycleStats(intent);
+        if(order.getStatus().equals(OrderStatus.ACTIVE) && intent.getActiveAt() == null) {
+            intent.setActiveAt(now);
+            double ms = record(LatencyStage.ORDER_ACTIVE, intent.getSubmittedAt(), now);
+            cycle.ifPresent(c -> c.setActive(c.getActive() + 1).setMaxActiveMs(Math.max(c.getMaxActiveMs(), ms)));
+        }
+        if(isFilled(order) && intent.getFilledAt() == null) {
+            intent.setFilledAt(now);
+            double ms = record(LatencyStage.ORDER_FILLED, intent.getSubmittedAt(), now);
+            cycle.ifPresent(c -> c.setFilled(c.getFilled() + 1).setMaxFilledMs(Math.max(c.getMaxFilledMs(), ms)));
+        }
+        if(order.getStatus().equals(OrderStatus.CANCELLED) && intent.getCancelledAt() == null) {
+            intent.setCancelledAt(now);
+            double ms = record(LatencyStage.ORDER_CANCELLED, intent.getSubmittedAt(), now);
+            cycle.ifPresent(c -> c.setCancelled(c.getCancelled() + 1)
+                    .setMaxCancelledMs(Math.max(c.getMaxCancelledMs(), ms)));
+        }
+    }
+
+    /**
+     * Check if an order has been at least partially filled
+     *
+     * @param order {@link Order}
+     *
+     * @return true if filled
+     */
+    private boolean isFilled(
+            final Order order
+    ) {
+        if(order.getStatus().equals(OrderStatus.FILLED) || order.getStatus().equals(OrderStatus.PARTIALLY_FILLED)) {
+            return true;
+        }
+        return order.getSize() != null && order.getRemainingSize() != null &&
+                order.getRemainingSize().compareTo(order.getSize()) < 0;
+    }
+
+    /**
+     * Record the time from submission to a lifecycle event
+     *
+     * @param stage {@link LatencyStage}
+     * @param submittedAt the submit time in nanoseconds
+     * @param now the current time in nanoseconds
+     *
+     * @return the latency in milliseconds
+     */
+    private double record(
+            final LatencyStage stage,
+            final long submittedAt,
+            final long now
+    ) {
+        latencyService.record(stage, submittedAt);
+        return (now - submittedAt) / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Count submitted orders which have not been seen on the order stream before the timeout
+     */
+    @Scheduled(fixedDelay = 1000L)
+    public void resolveMissing() {
+        long now = latencyService.start();
+        synchronized (intents) {
+            for(OrderIntent intent : intents.values()) {
+                if(intent.getSubmittedAt() != null && intent.getAcknowledgedAt() == null && !intent.isMissing() &&
+                        now - intent.getSubmittedAt() > missingTimeoutNanos) {
+                    markMissing(intent);
+                }
+            }
+        }
+    }
+
+    /**
+     * Count an order which has not been seen on the order stream
+     *
+     * @param intent {@link OrderIntent}
+     */
+    private void markMissing(
+            final OrderIntent intent
+    ) {
+        if(intent.isMissing()) {
+            return;
+        }
+        intent.setMissing(true);
+        missing++;
+        getCycleStats(intent).ifPresent(c -> c.setMissing(c.getMissing() + 1));
+        log.warn("Order never seen: reference = {}; side = {}; level = {}; cycle = {}; price = {}; size = {}",
+                intent.getReference(), intent.getSide(), intent.getLevel(), intent.getCycleId(),
+                intent.getPrice(), intent.getSize());
+    }
+
+    /**
+     * Stop counting an order as missing once it has been seen on the order stream after the timeout
+     *
+     * @param intent {@link OrderIntent}
+     */
+    private void clearMissing(
+            final OrderIntent intent
+    ) {
+        if(!intent.isMissing()) {
+            return;
+        }
+        intent.setMissing(false);
+        missing--;
+        getCycleStats(intent).ifPresent(c -> c.setMissing(c.getMissing() - 1));
+        log.info("Order seen after being counted missing: reference = {}; cycle = {}",
+                intent.getReference(), intent.getCycleId());
+    }
+
+    /**
+     * Get the stats of the cycle an order was submitted in
+     *
+     * @param intent {@link OrderIntent}
+     *
+     * @return {@link Optional<OrderCycleStats>}, empty if the order was not part of a recent quoting cycle
+     */
+    private Optional<OrderCycleStats> getCycleStats(
+            final OrderIntent intent
+    ) {
+        return intent.getCycleId() == null ? Optional.empty() : Optional.ofNullable(cycles.get(intent.getCycleId()));
+    }
+
+    /**
+     * Get the order lifecycle stats of the most recent quoting cycles, oldest first
+     *
+     * @return {@link List<OrderCycleStats>}
+     */
+    public List<OrderCycleStats> getCycleStats() {
+        synchronized (intents) {
+            return cycles.values().stream().map(this::copy).toList();
+        }
+    }
+
+    /**
+     * Get the number of submitted orders which have not been seen on the order stream within the timeout
+     *
+     * @return the count
+     */
+    public long getMissing() {
+        synchronized (intents) {
+            return missing;
+        }
+    }
+
+    private OrderCycleStats copy(
+            final OrderCycleStats stats
+    ) {
+        return new OrderCycleStats()
+                .setCycleId(stats.getCycleId())
+                .setSubmitted(stats.getSubmitted())
+                .setActive(stats.getActive())
+                .setFilled(stats.getFilled())
+                .setCancelled(stats.getCancelled())
+                .setMissing(stats.getMissing())
+                .setMaxActiveMs(stats.getMaxActiveMs())
+                .setMaxFilledMs(stats.getMaxFilledMs())
+                .setMaxCancelledMs(stats.getMaxCancelledMs());
+    }
+
+    /**
+     * Get the intent for a reference
+     *
+     * @param reference the order reference
+     *
+     * @return {@link Optional<OrderIntent>}
+     */
+    public Optional<OrderIntent> getByReference(
+            final String reference
+    ) {
+        synchronized (intents) {
+            return Optional.ofNullable(intents.get(reference));
+        }
+    }
+
+    /**
+     * Get the number of remembered references
+     *
+     * @return the size
+     */
+    public int size() {
+        synchronized (intents) {
+            return intents.size();
+        }
+    }
+}
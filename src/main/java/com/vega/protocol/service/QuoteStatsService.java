@@ -0,0 +1,90 @@
+package com.vega.protocol.service;
+
+import com.vega.protocol.model.QuoteStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Counts how many ladder levels each quoting cycle actually touches. A level is touched when it has to be submitted,
+ * either because nothing rests near it or because the resting order has drifted out of tolerance; the touched
+ * ratio shows how much the quote tolerances are saving us.
+ */
+@Slf4j
+@Service
+public class QuoteStatsService {
+
+    private final Map<String, QuoteStats> stats = new LinkedHashMap<>();
+
+    /**
+     * Record one quoting cycle
+     *
+     * @param marketId the market ID
+     * @param levels the number of levels in the target ladders
+     * @param submitted the number of levels submitted
+     * @param cancelled the number of resting orders cancelled
+     */
+    public synchronized void record(
+            final String marketId,
+            final int levels,
+            final int submitted,
+            final int cancelled
+    ) {
+        QuoteStats marketStats = stats.computeIfAbsent(marketId, k -> new QuoteStats().setMarketId(marketId));
+        marketStats.setCycles(marketStats.getCycles() + 1)
+                .setLevels(marketStats.getLevels() + levels)
+                .setLevelsKept(marketStats.getLevelsKept() + Math.max(0, levels - submitted))
+                .setLevelsSubmitted(marketStats.getLevelsSubmitted() + submitted)
+                .setOrdersCancelled(marketStats.getOrdersCancelled() + cancelled)
+                .setTouchedRatio(ratio(marketStats.getLevelsSubmitted(), marketStats.getLevels()))
+                .setLastTouchedRatio(ratio(submitted, levels));
+        log.debug("Touched {} of {} levels for {}; cancelled {} orders", submitted, levels, marketId, cancelled);
+    }
+
+    /**
+     * Get the stats for one market
+     *
+     * @param marketId the market ID
+     *
+     * @return {@link Optional<QuoteStats>}
+     */
+    public synchronized Optional<QuoteStats> get(
+            final String marketId
+    ) {
+        return Optional.ofNullable(stats.get(marketId)).map(this::copy);
+    }
+
+    /**
+     * Get the stats for every market quoted so far
+     *
+     * @return {@link List<QuoteStats>}
+     */
+    public synchronized List<QuoteStats> getStats() {
+        return stats.values().stream().map(this::copy).toList();
+    }
+
+    private double ratio(
+            final long numerator,
+            final long denominator
+    ) {
+        return denominator == 0 ? 0 : (double) numerator / denominator;
+    }
+
+    private QuoteStats copy(
+            final QuoteStats marketStats
+    ) {
+        return new QuoteStats()
+                .setMarketId(marketStats.getMarketId())
+                .setCycles(marketStats.getCycles())
+                .setLevels(marketStats.getLevels())
+                .setLevelsKept(marketStats.getLevelsKept())
+                .setLevelsSubmitted(marketStats.getLevelsSubmitted())
+                .setOrdersCancelled(marketStats.getOrdersCancelled())
+                .setTouchedRatio(marketStats.getTouchedRatio())
+                .setLastTouchedRatio(marketStats.getLastTouchedRatio());
+    }
+}
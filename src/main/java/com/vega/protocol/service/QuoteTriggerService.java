@@ -0,0 +1,231 @@
+package com.vega.protocol.service;
+
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.model.MarketBinding;
+import com.vega.protocol.model.Position;
+import com.vega.protocol.model.ReferencePrice;
+import com.vega.protocol.store.PositionStore;
+import com.vega.protocol.store.ReferencePriceStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Requests a quote refresh for a market as soon as its reference mid moves by more than the threshold from the mid
+ * our live quotes were built from, or as soon as our position in it changes. Each market is tracked separately.
+ * Requests are coalesced per market, no sooner than the minimum interval after the market's previous refresh, so
+ * a burst of ticks costs one refresh. The action is called on a single scheduling thread and is expected to hand
+ * the refresh off rather than run it.
+ */
+@Slf4j
+@Service
+public class QuoteTriggerService {
+
+    private final MarketBindingService marketBindingService;
+    private final boolean enabled;
+    private final double threshold;
+    private final long minIntervalNanos;
+    private final ScheduledExecutorService executor;
+    private final Map<String, Trigger> triggers = new HashMap<>();
+    private LongSupplier clock = System::nanoTime;
+    private volatile Consumer<String> action;
+
+    public QuoteTriggerService(ReferencePriceStore referencePriceStore,
+                               PositionStore positionStore,
+                               MarketBindingService marketBindingService,
+                               @Value("${quote.trigger.enabled}") Boolean enabled,
+                               @Value("${quote.trigger.threshold}") Double threshold,
+                               @Value("${quote.trigger.min.interval.ms}") Long minIntervalMs) {
+        this.marketBindingService = marketBindingService;
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minIntervalMs);
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "quote-trigger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for(String marketId : marketBindingService.getMarketIds()) {
+            triggers.put(marketId, new Trigger(marketId));
+        }
+        referencePriceStore.addListener(this::onReferencePrice);
+        positionStore.addListener(this::onPosition);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Set the refresh to run when a trigger fires
+     *
+     * @param action {@link Consumer<String>} called with the market ID
+     */
+    public void setAction(
+            final Consumer<String> action
+    ) {
+        this.action = action;
+    }
+
+    /**
+     * Get the relative move in the mid price that justifies a refresh
+     *
+     * @return the threshold
+     */
+    public double getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Record the reference mid and exposure that a market's live quotes were built from
+     *
+     * @param marketId the market ID
+     * @param midPrice the reference mid price
+     * @param exposure the exposure (negative for short positions)
+     */
+    public void onQuoted(
+            final String marketId,
+            final BigDecimal midPrice,
+            final BigDecimal exposure
+    ) {
+        Trigger trigger = triggers.get(marketId);
+        if(trigger == null) {
+            return;
+        }
+        trigger.quotedMidPrice = midPrice.doubleValue();
+        trigger.quotedExposure = exposure;
+        trigger.lastRun = clock.getAsLong();
+    }
+
+    /**
+     * Check whether the exposure differs from the one a market's live quotes were built from
+     *
+     * @param marketId the market ID
+     * @param exposure the exposure (negative for short positions)
+     *
+     * @return true if the quotes were never built or the exposure has changed
+     */
+    public boolean isExposureChanged(
+            final String marketId,
+            final BigDecimal exposure
+    ) {
+        Trigger trigger = triggers.get(marketId);
+        BigDecimal quotedExposure = trigger != null ? trigger.quotedExposure : null;
+        return quotedExposure == null || quotedExposure.compareTo(exposure) != 0;
+    }
+
+    /**
+     * Handle a reference price update
+     *
+     * @param referencePrice {@link ReferencePrice}
+     */
+    private void onReferencePrice(
+            final ReferencePrice referencePrice
+    ) {
+        if(referencePrice.getMidPrice() == null) {
+            return;
+        }
+        for(MarketBinding binding : marketBindingService.getBySymbol(referencePrice.getSymbol())) {
+            Trigger trigger = triggers.get(binding.getMarketId());
+            double quotedMid = trigger.quotedMidPrice;
+            if(quotedMid == 0) {
+                continue;
+            }
+            double delta = Math.abs(referencePrice.getMidPrice().doubleValue() - quotedMid) / quotedMid;
+            if(delta >= threshold) {
+                request(trigger);
+            }
+        }
+    }
+
+    /**
+     * Handle a position update
+     *
+     * @param position {@link Position}
+     */
+    private void onPosition(
+            final Position position
+    ) {
+        if(position.getMarket() == null || position.getSize() == null) {
+            return;
+        }
+        Trigger trigger = triggers.get(position.getMarket().getId());
+        if(trigger == null || trigger.quotedExposure == null) {
+            return;
+        }
+        BigDecimal exposure = MarketSide.SELL.equals(position.getSide()) ?
+                position.getSize().negate() : position.getSize();
+        if(isExposureChanged(trigger.marketId, exposure)) {
+            request(trigger);
+        }
+    }
+
+    /**
+     * Schedule a refresh of the market unless one is already pending
+     *
+     * @param trigger {@link Trigger}
+     */
+    private void request(
+            final Trigger trigger
+    ) {
+        if(!enabled || action == null || executor.isShutdown() || !trigger.pending.compareAndSet(false, true)) {
+            return;
+        }
+        long previous = trigger.lastRun;
+        long delay = previous == Long.MIN_VALUE ? 0 : Math.max(0, previous + minIntervalNanos - clock.getAsLong());
+        executor.schedule(() -> run(trigger), delay, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Run the refresh; updates that arrive while it is running schedule the next one
+     *
+     * @param trigger {@link Trigger}
+     */
+    private void run(
+            final Trigger trigger
+    ) {
+        trigger.pending.set(false);
+        trigger.lastRun = clock.getAsLong();
+        try {
+            action.accept(trigger.marketId);
+        } catch(Exception e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    void setClock(
+            final LongSupplier clock
+    ) {
+        this.clock = clock;
+    }
+
+    /**
+     * The trigger state of one market
+     */
+    private static class Trigger {
+
+        private final String marketId;
+        private final AtomicBoolean pending = new AtomicBoolean();
+        private volatile double quotedMidPrice;
+        private volatile BigDecimal quotedExposure;
+        private volatile long lastRun = Long.MIN_VALUE;
+
+        private Trigger(
+                final String marketId
+        ) {
+            this.marketId = marketId;
+        }
+    }
+}
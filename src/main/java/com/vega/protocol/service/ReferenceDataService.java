@@ -0,0 +1,411 @@
+package com.vega.protocol.service;
+
+import com.vega.protocol.api.VegaApiClient;
+import com.vega.protocol.constant.*;
+import com.vega.protocol.event.ReferenceDataChangedEvent;
+import com.vega.protocol.model.Asset;
+import com.vega.protocol.model.Market;
+import com.vega.protocol.model.NetworkParameter;
+import com.vega.protocol.model.UniqueItem;
+import com.vega.protocol.store.AssetStore;
+import com.vega.protocol.store.MarketStore;
+import com.vega.protocol.store.NetworkParameterStore;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for reference data which rarely changes: assets, market definitions and network parameters.
+ * Each type is kept for its own TTL and refreshed in the background once that has passed. Refreshed values are
+ * written to their stores only when they differ, and each difference is published as a
+ * {@link ReferenceDataChangedEvent}. Markets are merged into the stored object so that the fields maintained by
+ * the market data stream are kept. When a cache path is set the data is also saved to disk, so that a restart can
+ * skip fetching anything which is still within its TTL.
+ */
+@Slf4j
+@Service
+public class ReferenceDataService {
+
+    private static final String SOURCE = "source";
+    private static final String FETCHED_AT = "fetchedAt";
+    private static final String ITEMS = "items";
+
+    private final VegaApiClient vegaApiClient;
+    private final AssetStore assetStore;
+    private final MarketStore marketStore;
+    private final NetworkParameterStore networkParameterStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<ReferenceDataType, Long> ttls = new EnumMap<>(ReferenceDataType.class);
+    private final Map<ReferenceDataType, Entry> entries = new EnumMap<>(ReferenceDataType.class);
+    private final String cachePath;
+    private final String source;
+    private LongSupplier clock = System::currentTimeMillis;
+    private boolean diskLoaded = false;
+
+    public ReferenceDataService(VegaApiClient vegaApiClient,
+                                AssetStore assetStore,
+                                MarketStore marketStore,
+                                NetworkParameterStore networkParameterStore,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${reference.data.assets.ttl.ms}") Long assetsTtlMs,
+                                @Value("${reference.data.markets.ttl.ms}") Long marketsTtlMs,
+                                @Value("${reference.data.network.parameters.ttl.ms}") Long networkParametersTtlMs,
+                                @Value("${reference.data.cache.path}") String cachePath,
+                                @Value("${vega.node.url}") String source) {
+        this.vegaApiClient = vegaApiClient;
+        this.assetStore = assetStore;
+        this.marketStore = marketStore;
+        this.networkParameterStore = networkParameterStore;
+        this.eventPublisher = eventPublisher;
+        this.ttls.put(ReferenceDataType.ASSETS, assetsTtlMs);
+        this.ttls.put(ReferenceDataType.MARKETS, marketsTtlMs);
+        this.ttls.put(ReferenceDataType.NETWORK_PARAMETERS, networkParametersTtlMs);
+        this.cachePath = cachePath;
+        this.source = source;
+    }
+
+    /**
+     * Get the assets, fetching them if the cached copy has expired
+     *
+     * @return {@link List<Asset>}
+     */
+    public List<Asset> getAssets() {
+        return get(ReferenceDataType.ASSETS, vegaApiClient::getAssets);
+    }
+
+    /**
+     * Get the market definitions, fetching them if the cached copy has expired
+     *
+     * @return {@link List<Market>}
+     */
+    public List<Market> getMarkets() {
+        return get(ReferenceDataType.MARKETS, vegaApiClient::getMarkets);
+    }
+
+    /**
+     * Get the network parameters, fetching them if the cached copy has expired
+     *
+     * @return {@link List<NetworkParameter>}
+     */
+    public List<NetworkParameter> getNetworkParameters() {
+        return get(ReferenceDataType.NETWORK_PARAMETERS, vegaApiClient::getNetworkParameters);
+    }
+
+    /**
+     * Refresh every type that has expired and apply the changes to the stores. Types which have not been loaded
+     * yet are left for the initial bootstrap. Assets are refreshed before markets because markets refer to them.
+     */
+    @Scheduled(fixedDelayString = "${reference.data.refresh.ms}")
+    public void refresh() {
+        try {
+            refreshExpired();
+        } catch(Exception e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    private void refreshExpired() throws JSONException {
+        if(isExpired(ReferenceDataType.NETWORK_PARAMETERS)) {
+            apply(ReferenceDataType.NETWORK_PARAMETERS, getNetworkParameters(), networkParameterStore::getById,
+                    networkParameterStore::update);
+        }
+        if(isExpired(ReferenceDataType.ASSETS)) {
+            apply(ReferenceDataType.ASSETS, getAssets(), assetStore::getById, assetStore::update);
+        }
+        if(isExpired(ReferenceDataType.MARKETS)) {
+            for(Market market : getMarkets()) {
+                Optional<Market> existing = marketStore.getById(market.getId());
+                if(existing.isEmpty()) {
+                    marketStore.update(market);
+                    publish(ReferenceDataType.MARKETS, null, market);
+                } else if(!isSameDefinition(existing.get(), market)) {
+                    Market previous = copyDefinition(existing.get(), new Market());
+                    marketStore.update(copyDefinition(market, existing.get()));
+                    publish(ReferenceDataType.MARKETS, previous, existing.get());
+                }
+            }
+        }
+    }
+
+    /**
+     * Write changed items to their store and publish the changes
+     *
+     * @param type {@link ReferenceDataType}
+     * @param items the refreshed items
+     * @param lookup finds the stored item by ID
+     * @param store updates the stored item
+     */
+    private <T extends UniqueItem> void apply(
+            final ReferenceDataType type,
+            final List<T> items,
+            final Function<String, Optional<T>> lookup,
+            final Consumer<T> store
+    ) throws JSONException {
+        for(T item : items) {
+            Optional<T> existing = lookup.apply(item.getId());
+            if(existing.isEmpty() || !toJson(existing.get()).toString().equals(toJson(item).toString())) {
+                store.accept(item);
+                publish(type, existing.orElse(null), item);
+            }
+        }
+    }
+
+    private void publish(
+            final ReferenceDataType type,
+            final UniqueItem previous,
+            final UniqueItem current
+    ) {
+        log.info("{} changed: {} -> {}", type, previous, current);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(this, type, previous, current));
+    }
+
+    /**
+     * Check whether a loaded type has passed its TTL
+     *
+     * @param type {@link ReferenceDataType}
+     *
+     * @return true / false
+     */
+    private boolean isExpired(
+            final ReferenceDataType type
+    ) {
+        synchronized (entries) {
+            Entry entry = entries.get(type);
+            return entry != null && clock.getAsLong() - entry.fetchedAt >= ttls.get(type);
+        }
+    }
+
+    /**
+     * Return the cached items when they are within their TTL, otherwise fetch them. The stale copy is returned if
+     * the fetch fails.
+     *
+     * @param type {@link ReferenceDataType}
+     * @param fetcher fetches the items from the node
+     *
+     * @return the items
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends UniqueItem> List<T> get(
+            final ReferenceDataType type,
+            final Supplier<List<T>> fetcher
+    ) {
+        Entry entry;
+        synchronized (entries) {
+            loadFromDisk();
+            entry = entries.get(type);
+            if(entry != null && clock.getAsLong() - entry.fetchedAt < ttls.get(type)) {
+                return (List<T>) entry.items;
+            }
+        }
+        List<T> items = fetcher.get();
+        if(items.isEmpty() && entry != null) {
+            log.warn("Could not refresh {}; keeping {} cached items", type, entry.items.size());
+            return (List<T>) entry.items;
+        }
+        synchronized (entries) {
+            entries.put(type, new Entry(List.copyOf(items), clock.getAsLong()));
+            saveToDisk();
+        }
+        return items;
+    }
+
+    /**
+     * Load the cache file once, ignoring it if it was written for a different node
+     */
+    private void loadFromDisk() {
+        if(diskLoaded) {
+            return;
+        }
+        diskLoaded = true;
+        if(cachePath.isBlank() || !Files.exists(Path.of(cachePath))) {
+            return;
+        }
+        try {
+            JSONObject cache = new JSONObject(Files.readString(Path.of(cachePath), StandardCharsets.UTF_8));
+            if(!source.equals(cache.optString(SOURCE))) {
+                log.info("Ignoring reference data cache written for {}", cache.optString(SOURCE));
+                return;
+            }
+            for(ReferenceDataType type : ReferenceDataType.values()) {
+                JSONObject entryObject = cache.optJSONObject(type.name());
+                if(entryObject == null) {
+                    continue;
+                }
+                JSONArray itemsArray = entryObject.getJSONArray(ITEMS);
+                List<UniqueItem> items = new ArrayList<>();
+                for(int i=0; i<itemsArray.length(); i++) {
+                    items.add(fromJson(type, itemsArray.getJSONObject(i)));
+                }
+                entries.put(type, new Entry(items, entryObject.getLong(FETCHED_AT)));
+            }
+            log.info("Loaded reference data cache from {}", cachePath);
+        } catch(Exception e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Save every cached type to the cache file, replacing it atomically
+     */
+    private void saveToDisk() {
+        if(cachePath.isBlank()) {
+            return;
+        }
+        try {
+            JSONObject cache = new JSONObject().put(SOURCE, source);
+            for(Map.Entry<ReferenceDataType, Entry> entry : entries.entrySet()) {
+                JSONArray itemsArray = new JSONArray();
+                for(UniqueItem item : entry.getValue().items) {
+                    itemsArray.put(toJson(item));
+                }
+                cache.put(entry.getKey().name(), new JSONObject()
+                        .put(FETCHED_AT, entry.getValue().fetchedAt)
+                        .put(ITEMS, itemsArray));
+            }
+            Path path = Path.of(cachePath).toAbsolutePath();
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.writeString(tmp, cache.toString(), StandardCharsets.UTF_8);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch(Exception e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    private JSONObject toJson(
+            final UniqueItem item
+    ) throws JSONException {
+        if(item instanceof Asset asset) {
+            return new JSONObject()
+                    .put("id", asset.getId())
+                    .put("name", asset.getName())
+                    .put("symbol", asset.getSymbol())
+                    .put("decimalPlaces", asset.getDecimalPlaces())
+                    .put("quantum", asset.getQuantum())
+                    .put("status", asset.getStatus());
+        }
+        if(item instanceof Market market) {
+            return new JSONObject()
+                    .put("id", market.getId())
+                    .put("name", market.getName())
+                    .put("state", market.getState())
+                    .put("tradingMode", market.getTradingMode())
+                    .put("settlementAsset", market.getSettlementAsset())
+                    .put("decimalPlaces", market.getDecimalPlaces())
+                    .put("positionDecimalPlaces", market.getPositionDecimalPlaces())
+                    .put("tau", market.getTau())
+                    .put("mu", market.getMu())
+                    .put("sigma", market.getSigma());
+        }
+        NetworkParameter networkParameter = (NetworkParameter) item;
+        return new JSONObject()
+                .put("id", networkParameter.getId())
+                .put("value", networkParameter.getValue())
+                .put("type", networkParameter.getType());
+    }
+
+    private UniqueItem fromJson(
+            final ReferenceDataType type,
+            final JSONObject object
+    ) throws JSONException {
+        return switch (type) {
+            case ASSETS -> new Asset()
+                    .setId(object.getString("id"))
+                    .setName(object.getString("name"))
+                    .setSymbol(object.getString("symbol"))
+                    .setDecimalPlaces(object.getInt("decimalPlaces"))
+                    .setQuantum(object.getDouble("quantum"))
+                    .setStatus(optEnum(AssetStatus.class, object, "status"));
+            case MARKETS -> new Market()
+                    .setId(object.getString("id"))
+                    .setName(object.getString("name"))
+                    .setState(optEnum(MarketState.class, object, "state"))
+                    .setTradingMode(optEnum(MarketTradingMode.class, object, "tradingMode"))
+                    .setSettlementAsset(object.getString("settlementAsset"))
+                    .setDecimalPlaces(object.getInt("decimalPlaces"))
+                    .setPositionDecimalPlaces(object.getInt("positionDecimalPlaces"))
+                    .setTau(object.getDouble("tau"))
+                    .setMu(object.getDouble("mu"))
+                    .setSigma(object.getDouble("sigma"));
+            case NETWORK_PARAMETERS -> new NetworkParameter()
+                    .setId(object.getString("id"))
+                    .setValue(object.getString("value"))
+                    .setType(optEnum(DataType.class, object, "type"));
+        };
+    }
+
+    private static <E extends Enum<E>> E optEnum(
+            final Class<E> type,
+            final JSONObject object,
+            final String key
+    ) {
+        String value = object.optString(key, null);
+        return value == null ? null : Enum.valueOf(type, value);
+    }
+
+    /**
+     * Compare the fields of a market which come from its definition rather than the market data stream
+     *
+     * @param a {@link Market}
+     * @param b {@link Market}
+     *
+     * @return true if the definitions match
+     */
+    private boolean isSameDefinition(
+            final Market a,
+            final Market b
+    ) {
+        return Objects.equals(a.getName(), b.getName()) &&
+                Objects.equals(a.getSettlementAsset(), b.getSettlementAsset()) &&
+                a.getDecimalPlaces() == b.getDecimalPlaces() &&
+                a.getPositionDecimalPlaces() == b.getPositionDecimalPlaces() &&
+                a.getTau() == b.getTau() &&
+                a.getMu() == b.getMu() &&
+                a.getSigma() == b.getSigma();
+    }
+
+    private Market copyDefinition(
+            final Market from,
+            final Market to
+    ) {
+        return to.setId(from.getId())
+                .setName(from.getName())
+                .setSettlementAsset(from.getSettlementAsset())
+                .setDecimalPlaces(from.getDecimalPlaces())
+                .setPositionDecimalPlaces(from.getPositionDecimalPlaces())
+                .setTau(from.getTau())
+                .setMu(from.getMu())
+                .setSigma(from.getSigma());
+    }
+
+    void setClock(
+            final LongSupplier clock
+    ) {
+        this.clock = clock;
+    }
+
+    private static class Entry {
+
+        private final List<? extends UniqueItem> items;
+        private final long fetchedAt;
+
+        Entry(List<? extends UniqueItem> items, long fetchedAt) {
+            this.items = items;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+}
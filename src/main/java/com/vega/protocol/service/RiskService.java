@@ -0,0 +1,325 @@
+package com.vega.protocol.service;
+
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.constant.OrderStatus;
+import com.vega.protocol.constant.OrderType;
+import com.vega.protocol.constant.RiskCheck;
+import com.vega.protocol.model.Market;
+import com.vega.protocol.model.MarketBinding;
+import com.vega.protocol.model.Order;
+import com.vega.protocol.model.ReferencePrice;
+import com.vega.protocol.store.OrderStore;
+import com.vega.protocol.store.ReferencePriceStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Pre-trade limits for every order we send. Each order is checked against the maximum order notional, the market's
+ * valid price band and the maximum distance from its reference price, and the resting notional on its side of the
+ * book is kept within the maximum. An order that fails is dropped from its batch; cancellations always go through.
+ *
+ * The resting notional is kept as a running total per market and side, so each check is O(1). It is updated from
+ * our order updates, and covers submissions that have been sent but not yet seen on the order stream until they
+ * are, or until the pending TTL expires. A limit of zero is not checked.
+ */
+@Slf4j
+@Service
+public class RiskService {
+
+    private final MarketBindingService marketBindingService;
+    private final ReferencePriceStore referencePriceStore;
+    private final boolean enabled;
+    private final double maxOrderNotional;
+    private final double maxRestingNotional;
+    private final double maxPriceDeviation;
+    private final long pendingTtlNanos;
+    private final Map<String, RestingOrder> restingOrders = new HashMap<>();
+    private final Map<String, Exposure[]> exposures = new HashMap<>();
+    private final long[] rejections = new long[RiskCheck.values().length];
+    private LongSupplier clock = System::nanoTime;
+
+    public RiskService(OrderStore orderStore,
+                       MarketBindingService marketBindingService,
+                       ReferencePriceStore referencePriceStore,
+                       @Value("${risk.enabled}") Boolean enabled,
+                       @Value("${risk.max.order.notional}") Double maxOrderNotional,
+                       @Value("${risk.max.resting.notional}") Double maxRestingNotional,
+                       @Value("${risk.max.price.deviation}") Double maxPriceDeviation,
+                       @Value("${risk.pending.ttl.ms}") Long pendingTtlMs) {
+        this.marketBindingService = marketBindingService;
+        this.referencePriceStore = referencePriceStore;
+        this.enabled = enabled;
+        this.maxOrderNotional = maxOrderNotional;
+        this.maxRestingNotional = maxRestingNotional;
+        this.maxPriceDeviation = maxPriceDeviation;
+        this.pendingTtlNanos = TimeUnit.MILLISECONDS.toNanos(pendingTtlMs);
+        orderStore.addListener(this::onUpdate);
+    }
+
+    /**
+     * Check a batch before it is sent
+     *
+     * @param cancellations {@link List<String>} orderIds
+     * @param submissions {@link List<Order>} new orders
+     * @param market {@link Market}
+     *
+     * @return {@link List<Order>} the submissions that passed; the given list itself if they all did
+     */
+    public synchronized List<Order> check(
+            final List<String> cancellations,
+            final List<Order> submissions,
+            final Market market
+    ) {
+        if(!enabled || submissions.isEmpty()) {
+            return submissions;
+        }
+        Exposure[] exposure = getExposure(market.getId());
+        double buyNotional = exposure[0].getNotional();
+        double sellNotional = exposure[1].getNotional();
+        for(String id : cancellations) {
+            RestingOrder restingOrder = restingOrders.get(id);
+            if(restingOrder != null && !restingOrder.cancelling) {
+                if(restingOrder.side == 0) {
+                    buyNotional -= restingOrder.notional;
+                } else {
+                    sellNotional -= restingOrder.notional;
+                }
+            }
+        }
+        double referencePrice = getReferencePrice(market);
+        double minPrice = market.getMinValidPrice() != null ? market.getMinValidPrice().doubleValue() : 0;
+        double maxPrice = market.getMaxValidPrice() != null ?
+                market.getMaxValidPrice().doubleValue() : Double.MAX_VALUE;
+        List<Order> allowed = null;
+        for(int i=0; i<submissions.size(); i++) {
+            Order order = submissions.get(i);
+            boolean isBuy = order.getSide().equals(MarketSide.BUY);
+            boolean isResting = isLimit(order);
+            double price = isResting ? order.getPrice().doubleValue() : referencePrice;
+            double notional = price * order.getSize().doubleValue();
+            double restingNotional = isBuy ? buyNotional : sellNotional;
+            RiskCheck breach = null;
+            if(maxOrderNotional > 0 && notional > maxOrderNotional) {
+                breach = RiskCheck.ORDER_NOTIONAL;
+            } else if(isResting && (price < minPrice || price > maxPrice)) {
+                breach = RiskCheck.PRICE_BAND;
+            } else if(isResting && maxPriceDeviation > 0 && referencePrice > 0 &&
+                    Math.abs(price - referencePrice) > referencePrice * maxPriceDeviation) {
+                breach = RiskCheck.PRICE_DEVIATION;
+            } else if(isResting && maxRestingNotional > 0 && restingNotional + notional > maxRestingNotional) {
+                breach = RiskCheck.RESTING_NOTIONAL;
+            }
+            if(breach != null) {
+                rejections[breach.ordinal()]++;
+                log.warn("Dropping {} {} @ {} on {}: {} limit breached", order.getSide(), order.getSize(),
+                        order.getPrice(), market.getId(), breach);
+                if(allowed == null) {
+                    allowed = new ArrayList<>(submissions.subList(0, i));
+                }
+                continue;
+            }
+            if(isResting) {
+                if(isBuy) {
+                    buyNotional += notional;
+                } else {
+                    sellNotional += notional;
+                }
+            }
+            if(allowed != null) {
+                allowed.add(order);
+            }
+        }
+        return allowed != null ? allowed : submissions;
+    }
+
+    /**
+     * Record a batch that has been sent, so that later checks see it before it reaches the order stream
+     *
+     * @param cancellations {@link List<String>} orderIds
+     * @param submissions {@link List<Order>} new orders
+     * @param market {@link Market}
+     */
+    public synchronized void onSubmit(
+            final List<String> cancellations,
+            final List<Order> submissions,
+            final Market market
+    ) {
+        if(!enabled) {
+            return;
+        }
+        Exposure[] exposure = getExposure(market.getId());
+        for(String id : cancellations) {
+            RestingOrder restingOrder = restingOrders.get(id);
+            if(restingOrder != null && !restingOrder.cancelling) {
+                restingOrder.cancelling = true;
+                exposure[restingOrder.side].resting -= restingOrder.notional;
+            }
+        }
+        long now = clock.getAsLong();
+        for(Order order : submissions) {
+            if(isLimit(order)) {
+                Exposure side = exposure[getSide(order)];
+                side.pending += order.getPrice().doubleValue() * order.getSize().doubleValue();
+                side.pendingSince = now;
+            }
+        }
+    }
+
+    /**
+     * Update the resting notional from an order update
+     *
+     * @param order {@link Order}
+     */
+    public synchronized void onUpdate(
+            final Order order
+    ) {
+        if(!enabled || order.getId() == null || order.getMarket() == null || order.getSide() == null) {
+            return;
+        }
+        Exposure side = getExposure(order.getMarket().getId())[getSide(order)];
+        RestingOrder previous = restingOrders.remove(order.getId());
+        if(previous != null) {
+            if(!previous.cancelling) {
+                side.resting -= previous.notional;
+            }
+        } else if(isLimit(order) && side.pending > 0) {
+            side.pending = Math.max(0, side.pending - order.getPrice().doubleValue() * order.getSize().doubleValue());
+        }
+        if(isResting(order)) {
+            BigDecimal remainingSize = order.getRemainingSize() != null ? order.getRemainingSize() : order.getSize();
+            double notional = order.getPrice().doubleValue() * remainingSize.doubleValue();
+            restingOrders.put(order.getId(), new RestingOrder(getSide(order), notional));
+            side.resting += notional;
+        }
+    }
+
+    /**
+     * Get the number of orders dropped by a check
+     *
+     * @param check {@link RiskCheck}
+     *
+     * @return the number of orders
+     */
+    public synchronized long getRejections(
+            final RiskCheck check
+    ) {
+        return rejections[check.ordinal()];
+    }
+
+    /**
+     * Get the resting notional on one side of a market, including pending submissions
+     *
+     * @param marketId the market ID
+     * @param side {@link MarketSide}
+     *
+     * @return the notional
+     */
+    public synchronized double getRestingNotional(
+            final String marketId,
+            final MarketSide side
+    ) {
+        return getExposure(marketId)[side.equals(MarketSide.BUY) ? 0 : 1].getNotional();
+    }
+
+    private Exposure[] getExposure(
+            final String marketId
+    ) {
+        Exposure[] exposure = exposures.computeIfAbsent(marketId,
+                k -> new Exposure[] {new Exposure(), new Exposure()});
+        long now = clock.getAsLong();
+        exposure[0].expirePending(now);
+        exposure[1].expirePending(now);
+        return exposure;
+    }
+
+    private double getReferencePrice(
+            final Market market
+    ) {
+        return marketBindingService.getByMarketId(market.getId())
+                .map(MarketBinding::getReferencePriceMarket)
+                .flatMap(referencePriceStore::get)
+                .map(ReferencePrice::getMidPrice)
+                .map(BigDecimal::doubleValue)
+                .orElse(0.0);
+    }
+
+    private int getSide(
+            final Order order
+    ) {
+        return order.getSide().equals(MarketSide.BUY) ? 0 : 1;
+    }
+
+    private boolean isLimit(
+            final Order order
+    ) {
+        return !OrderType.MARKET.equals(order.getType()) && order.getPrice() != null &&
+                !Boolean.TRUE.equals(order.getIsPeggedOrder());
+    }
+
+    private boolean isResting(
+            final Order order
+    ) {
+        return isLimit(order) && (OrderStatus.ACTIVE.equals(order.getStatus()) ||
+                OrderStatus.PARKED.equals(order.getStatus()));
+    }
+
+    /**
+     * Set the clock that pending notional expires by, e.g. the simulated clock of a backtest
+     *
+     * @param clock {@link LongSupplier} of nanoseconds
+     */
+    public void setClock(
+            final LongSupplier clock
+    ) {
+        this.clock = clock;
+    }
+
+    /**
+     * The resting notional on one side of a market
+     */
+    private class Exposure {
+
+        private double resting;
+        private double pending;
+        private long pendingSince;
+
+        private double getNotional() {
+            return resting + pending;
+        }
+
+        private void expirePending(
+                final long now
+        ) {
+            if(pending > 0 && now - pendingSince > pendingTtlNanos) {
+                pending = 0;
+            }
+        }
+    }
+
+    /**
+     * An order counted in the resting notional
+     */
+    private static class RestingOrder {
+
+        private final int side;
+        private final double notional;
+        private boolean cancelling;
+
+        private RestingOrder(
+                final int side,
+                final double notional
+        ) {
+            this.side = side;
+            this.notional = notional;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.vega.protocol.service;
+
+import com.vega.protocol.api.VegaApiClient;
+import com.vega.protocol.constant.OrderStatus;
+import com.vega.protocol.constant.TransactionStatus;
+import com.vega.protocol.model.Order;
+import com.vega.protocol.model.Transaction;
+import com.vega.protocol.model.TransactionStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks submitted transactions until they are seen to land (or not) and keeps running totals of the outcomes.
+ * Transactions are resolved from the order stream using the references and order IDs they contain; any that are
+ * still pending after the timeout are looked up on the Tendermint API when it is configured.
+ */
+@Slf4j
+@Service
+public class TransactionService {
+
+    private final VegaApiClient vegaApiClient;
+    private final CommandBudgetService commandBudgetService;
+    private final long timeoutNanos;
+    private final Map<String, Transaction> transactions;
+    private final Map<String, String> txHashByKey = new HashMap<>();
+
+    private long submitted;
+    private long pending;
+    private long accepted;
+    private long rejected;
+    private long unresolved;
+    private long rejectedOrders;
+    private long totalLatencyMs;
+    private long maxLatencyMs;
+
+    public TransactionService(VegaApiClient vegaApiClient,
+                              CommandBudgetService commandBudgetService,
+                              @Value("${transaction.capacity}") Integer capacity,
+                              @Value("${transaction.timeout.ms}") Long timeoutMs) {
+        this.vegaApiClient = vegaApiClient;
+        this.commandBudgetService = commandBudgetService;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        this.transactions = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Transaction> eldest) {
+                if(size() <= capacity) {
+                    return false;
+                }
+                if(eldest.getValue().getStatus().equals(TransactionStatus.PENDING)) {
+                    resolve(eldest.getValue(), TransactionStatus.UNRESOLVED, "Evicted");
+                }
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Track a submitted transaction
+     *
+     * @param txHash the transaction hash
+     * @param submissions {@link List<Order>} submitted orders, with references
+     * @param cancellations {@link List<String>} cancelled orderIds
+     */
+    public synchronized void track(
+            final String txHash,
+            final List<Order> submissions,
+            final List<String> cancellations
+    ) {
+        List<String> references = submissions.stream().map(Order::getReference).filter(Objects::nonNull).toList();
+        Transaction transaction = new Transaction()
+                .setId(txHash)
+                .setStatus(TransactionStatus.PENDING)
+                .setReferences(references)
+                .setCancellations(List.copyOf(cancellations))
+                .setSubmittedAt(System.nanoTime());
+        submitted++;
+        pending++;
+        references.forEach(r -> txHashByKey.put(r, txHash));
+        cancellations.forEach(id -> txHashByKey.put(id, txHash));
+        transactions.put(txHash, transaction);
+    }
+
+    /**
+     * Resolve the transaction that contains an order from an order update
+     *
+     * @param order {@link Order}
+     */
+    public synchronized void onOrderUpdate(
+            final Order order
+    ) {
+        if(order.getStatus() == null) {
+            return;
+        }
+        if(order.getStatus().equals(OrderStatus.REJECTED)) {
+            rejectedOrders++;
+        }
+        String txHash = order.getReference() != null ? txHashByKey.get(order.getReference()) : null;
+        if(txHash == null && order.getStatus().equals(OrderStatus.CANCELLED)) {
+            txHash = txHashByKey.get(order.getId());
+        }
+        if(txHash == null) {
+            return;
+        }
+        Transaction transaction = transactions.get(txHash);
+        if(transaction == null || !transaction.getStatus().equals(TransactionStatus.PENDING)) {
+            return;
+        }
+        if(order.getStatus().equals(OrderStatus.REJECTED)) {
+            resolve(transaction, TransactionStatus.REJECTED, order.getRejectionReason());
+        } else {
+            resolve(transaction, TransactionStatus.ACCEPTED, null);
+        }
+    }
+
+    /**
+     * Resolve transactions which have been pending for longer than the timeout
+     */
+    @Scheduled(fixedDelay = 1000L)
+    public void resolveExpired() {
+        long now = System.nanoTime();
+        List<Transaction> expired;
+        synchronized (this) {
+            expired = transactions.values().stream()
+                    .filter(t -> t.getStatus().equals(TransactionStatus.PENDING))
+                    .filter(t -> now - t.getSubmittedAt() > timeoutNanos)
+                    .toList();
+        }
+        for(Transaction transaction : expired) {
+            Optional<Transaction> result = vegaApiClient.getTransactionResult(transaction.getId());
+            synchronized (this) {
+                if(!transaction.getStatus().equals(TransactionStatus.PENDING)) {
+                    continue;
+                }
+                if(result.isPresent()) {
+                    resolve(transaction, result.get().getStatus(), result.get().getReason());
+                } else {
+                    resolve(transaction, TransactionStatus.UNRESOLVED, "Not seen before timeout");
+                }
+            }
+        }
+        if(!expired.isEmpty()) {
+            log.info("Transaction stats = {}", getStats());
+        }
+    }
+
+    /**
+     * Get a tracked transaction
+     *
+     * @param txHash the transaction hash
+     *
+     * @return {@link Optional<Transaction>}
+     */
+    public synchronized Optional<Transaction> getById(
+            final String txHash
+    ) {
+        return Optional.ofNullable(transactions.get(txHash));
+    }
+
+    /**
+     * Get the running totals of transaction outcomes
+     *
+     * @return {@link TransactionStats}
+     */
+    public synchronized TransactionStats getStats() {
+        long resolved = accepted + rejected + unresolved;
+        return new TransactionStats()
+                .setSubmitted(submitted)
+                .setPending(pending)
+                .setAccepted(accepted)
+                .setRejected(rejected)
+                .setUnresolved(unresolved)
+                .setRejectedOrders(rejectedOrders)
+                .setFailureRate(resolved == 0 ? 0 : (double) (rejected + unresolved) / resolved)
+                .setMeanLatencyMs(accepted + rejected == 0 ? 0 : (double) totalLatencyMs / (accepted + rejected))
+                .setMaxLatencyMs(maxLatencyMs);
+    }
+
+    /**
+     * Mark a pending transaction as resolved and update the totals
+     *
+     * @param transaction {@link Transaction}
+     * @param status the outcome
+     * @param reason the rejection reason
+     */
+    private void resolve(
+            final Transaction transaction,
+            final TransactionStatus status,
+            final String reason
+    ) {
+        transaction.setStatus(status).setReason(reason);
+        pending--;
+        transaction.getReferences().forEach(r -> txHashByKey.remove(r, transaction.getId()));
+        transaction.getCancellations().forEach(id -> txHashByKey.remove(id, transaction.getId()));
+        switch (status) {
+            case ACCEPTED -> accepted++;
+            case REJECTED -> rejected++;
+            default -> unresolved++;
+        }
+        if(status.equals(TransactionStatus.UNRESOLVED)) {
+            log.warn("Transaction {} unresolved: {}", transaction.getId(), reason);
+            return;
+        }
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - transaction.getSubmittedAt());
+        transaction.setLatencyMs(latencyMs);
+        totalLatencyMs += latencyMs;
+        maxLatencyMs = Math.max(maxLatencyMs, latencyMs);
+        if(status.equals(TransactionStatus.REJECTED)) {
+            log.warn("Transaction {} rejected after {} ms: {}", transaction.getId(), latencyMs, reason);
+            commandBudgetService.onRejected(reason);
+        } else {
+            log.debug("Transaction {} accepted after {} ms", transaction.getId(), latencyMs);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.vega.protocol.service;
+
+import com.vega.protocol.model.ReferencePrice;
+import com.vega.protocol.quote.VolatilityEstimator;
+import com.vega.protocol.store.ReferencePriceStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps a {@link VolatilityEstimator} for each reference price market, updated on every reference price tick. The
+ * estimators are created up front, so a tick costs a map lookup and the estimator update.
+ */
+@Service
+public class VolatilityService {
+
+    private final Map<String, VolatilityEstimator> estimators = new HashMap<>();
+    private LongSupplier clock = System::nanoTime;
+
+    public VolatilityService(ReferencePriceStore referencePriceStore,
+                             MarketBindingService marketBindingService,
+                             @Value("${volatility.half.life.seconds}") Double halfLifeSeconds,
+                             @Value("${volatility.bar.seconds}") Double barSeconds,
+                             @Value("${volatility.parkinson.enabled}") Boolean parkinson,
+                             @Value("${volatility.min.samples}") Integer minSamples) {
+        for(String symbol : marketBindingService.getSymbols()) {
+            estimators.put(symbol, new VolatilityEstimator(halfLifeSeconds, barSeconds, parkinson, minSamples));
+        }
+        referencePriceStore.addListener(this::onReferencePrice);
+    }
+
+    /**
+     * Add a reference price tick to the estimate for its symbol
+     *
+     * @param referencePrice {@link ReferencePrice}
+     */
+    private void onReferencePrice(
+            final ReferencePrice referencePrice
+    ) {
+        VolatilityEstimator estimator = estimators.get(referencePrice.getSymbol());
+        if(estimator == null || referencePrice.getMidPrice() == null) {
+            return;
+        }
+        double midPrice = referencePrice.getMidPrice().doubleValue();
+        synchronized (estimator) {
+            estimator.update(midPrice, clock.getAsLong());
+        }
+    }
+
+    /**
+     * Get the realised volatility of a reference price market
+     *
+     * @param symbol the reference price market
+     *
+     * @return the annualised volatility, or zero if there are not enough ticks yet
+     */
+    public double getVolatility(
+            final String symbol
+    ) {
+        VolatilityEstimator estimator = estimators.get(symbol);
+        if(estimator == null) {
+            return 0;
+        }
+        synchronized (estimator) {
+            return estimator.getVolatility();
+        }
+    }
+
+    /**
+     * Set the clock that ticks are timestamped with, e.g. the simulated clock of a backtest
+     *
+     * @param clock {@link LongSupplier} of nanoseconds
+     */
+    public void setClock(
+            final LongSupplier clock
+    ) {
+        this.clock = clock;
+    }
+}
@@ -0,0 +1,143 @@
+package com.vega.protocol.signer;
+
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.constant.OrderType;
+import com.vega.protocol.constant.TimeInForce;
+import com.vega.protocol.model.Market;
+import com.vega.protocol.model.Order;
+import com.vega.protocol.quote.QuoteLevel;
+import com.vega.protocol.utils.DecimalUtils;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Encodes trading commands as the protocol buffers messages defined in Vega's commands/v1 package
+ */
+@Component
+public class CommandEncoder {
+
+    public static final int ORDER_SUBMISSION = 1001;
+    public static final int BATCH_MARKET_INSTRUCTIONS = 1015;
+
+    private final DecimalUtils decimalUtils;
+
+    public CommandEncoder(DecimalUtils decimalUtils) {
+        this.decimalUtils = decimalUtils;
+    }
+
+    /**
+     * Encode a batch market instruction comprised of cancellations and submissions
+     *
+     * @param cancellations {@link List<String>} orderIds
+     * @param submissions {@link List<Order>} new orders
+     * @param market {@link Market}
+     * @param references provides the reference for each submitted order
+     *
+     * @return the encoded BatchMarketInstructions
+     */
+    public byte[] encodeBatchMarketInstructions(
+            final List<String> cancellations,
+            final List<Order> submissions,
+            final Market market,
+            final Function<Order, String> references
+    ) {
+        ProtobufWriter batch = new ProtobufWriter();
+        for(String orderId : cancellations) {
+            batch.writeMessage(1, new ProtobufWriter()
+                    .writeString(1, orderId)
+                    .writeString(2, market.getId()));
+        }
+        for(Order order : submissions) {
+            batch.writeBytes(3, encodeOrderSubmission(order, market, references.apply(order), true));
+        }
+        return batch.toByteArray();
+    }
+
+    /**
+     * Encode a single order submission
+     *
+     * @param order {@link Order}
+     * @param reference the order reference
+     *
+     * @return the encoded OrderSubmission
+     */
+    public byte[] encodeOrderSubmission(
+            final Order order,
+            final String reference
+    ) {
+        return encodeOrderSubmission(order, order.getMarket(), reference,
+                !order.getType().equals(OrderType.MARKET));
+    }
+
+    private byte[] encodeOrderSubmission(
+            final Order order,
+            final Market market,
+            final String reference,
+            final boolean withPrice
+    ) {
+        ProtobufWriter submission = new ProtobufWriter()
+                .writeString(1, market.getId());
+        QuoteLevel level = order instanceof QuoteLevel quoteLevel ? quoteLevel : null;
+        if(withPrice) {
+            submission.writeString(2, level != null && level.getPriceDecimals() == market.getDecimalPlaces() ?
+                    Long.toString(level.getScaledPrice()) :
+                    toScaledString(market.getDecimalPlaces(), order.getPrice()));
+        }
+        long size = level != null && level.getSizeDecimals() == market.getPositionDecimalPlaces() ?
+                level.getScaledSize() :
+                decimalUtils.convertFromDecimalsToLong(market.getPositionDecimalPlaces(), order.getSize());
+        return submission
+                .writeUint64(3, size)
+                .writeEnum(4, getSide(order.getSide()))
+                .writeEnum(5, getTimeInForce(order.getTimeInForce()))
+                .writeEnum(7, getType(order.getType()))
+                .writeString(8, reference)
+                .toByteArray();
+    }
+
+    private String toScaledString(
+            final int decimalPlaces,
+            final BigDecimal number
+    ) {
+        try {
+            return Long.toString(decimalUtils.convertFromDecimalsToLong(decimalPlaces, number));
+        } catch(ArithmeticException e) {
+            return decimalUtils.convertFromDecimals(decimalPlaces, number).toBigInteger().toString();
+        }
+    }
+
+    private int getSide(
+            final MarketSide side
+    ) {
+        return switch (side) {
+            case BUY -> 1;
+            case SELL -> 2;
+        };
+    }
+
+    private int getTimeInForce(
+            final TimeInForce timeInForce
+    ) {
+        return switch (timeInForce) {
+            case GTC -> 1;
+            case GTT -> 2;
+            case IOC -> 3;
+            case FOK -> 4;
+            case GFA -> 5;
+            case GFN -> 6;
+        };
+    }
+
+    private int getType(
+            final OrderType type
+    ) {
+        return switch (type) {
+            case LIMIT -> 1;
+            case MARKET -> 2;
+            case NETWORK -> 3;
+        };
+    }
+}
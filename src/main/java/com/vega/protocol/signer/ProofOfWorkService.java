@@ -0,0 +1,256 @@
+package com.vega.protocol.signer;
+
+import com.mashape.unirest.http.HttpResponse;
+import com.mashape.unirest.http.JsonNode;
+import com.mashape.unirest.http.Unirest;
+import com.vega.protocol.model.LastBlock;
+import com.vega.protocol.model.ProofOfWork;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.binary.Hex;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computes the spam proof-of-work required on every transaction ahead of time. A background thread polls the
+ * latest block and, for each new block, solves as many proofs as the network allows per block, so that signing a
+ * transaction only has to take a ready-made proof from the queue.
+ */
+@Slf4j
+@Service
+public class ProofOfWorkService {
+
+    private static final byte[] PREFIX = "Vega_SPAM_PoW".getBytes(StandardCharsets.US_ASCII);
+    private static final int SAFETY_BLOCKS = 5;
+
+    private final boolean enabled;
+    private final String coreUrl;
+    private final long refreshIntervalMs;
+    private final Deque<ProofOfWork> proofs = new ArrayDeque<>();
+    private final SecureRandom random = new SecureRandom();
+    private volatile LastBlock lastBlock;
+    private ScheduledExecutorService executor;
+
+    public ProofOfWorkService(@Value("${vega.signer.enabled}") Boolean enabled,
+                              @Value("${vega.core.url}") String coreUrl,
+                              @Value("${vega.signer.pow.refresh.ms}") Long refreshIntervalMs) {
+        this.enabled = enabled;
+        this.coreUrl = coreUrl;
+        this.refreshIntervalMs = refreshIntervalMs;
+    }
+
+    /**
+     * Start computing proofs in the background when the signer is enabled
+     */
+    @PostConstruct
+    public void initialize() {
+        if(!enabled) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "proof-of-work");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::refresh, 0, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if(executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Fetch the latest block and solve proofs for it if it is new
+     */
+    public void refresh() {
+        try {
+            getLastBlock().ifPresent(this::update);
+        } catch(Exception e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Discard proofs which are about to expire and solve proofs for the block if it is new
+     *
+     * @param block {@link LastBlock}
+     */
+    public void update(
+            final LastBlock block
+    ) {
+        LastBlock previous = lastBlock;
+        lastBlock = block;
+        synchronized (proofs) {
+            proofs.removeIf(p -> !isValid(p, block));
+        }
+        if(previous != null && previous.getHeight() >= block.getHeight()) {
+            return;
+        }
+        List<ProofOfWork> solved = new ArrayList<>();
+        for(int i=0; i<Math.max(1, block.getSpamPowNumberOfTxPerBlock()); i++) {
+            solved.add(solve(block));
+        }
+        synchronized (proofs) {
+            proofs.addAll(solved);
+        }
+    }
+
+    /**
+     * Take a proof which is still valid for the latest block, oldest first
+     *
+     * @return {@link Optional<ProofOfWork>} empty if none are ready
+     */
+    public Optional<ProofOfWork> take() {
+        LastBlock block = lastBlock;
+        if(block == null) {
+            return Optional.empty();
+        }
+        synchronized (proofs) {
+            while(!proofs.isEmpty()) {
+                ProofOfWork proof = proofs.pollFirst();
+                if(isValid(proof, block)) {
+                    return Optional.of(proof);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Get the number of proofs ready to use
+     *
+     * @return the count
+     */
+    public int available() {
+        synchronized (proofs) {
+            return proofs.size();
+        }
+    }
+
+    /**
+     * Solve a proof for a block with a new random transaction ID
+     *
+     * @param block {@link LastBlock}
+     *
+     * @return {@link ProofOfWork}
+     */
+    public ProofOfWork solve(
+            final LastBlock block
+    ) {
+        byte[] tidBytes = new byte[32];
+        random.nextBytes(tidBytes);
+        String tid = Hex.encodeHexString(tidBytes);
+        long nonce = solve(block.getHash(), tid, block.getSpamPowDifficulty());
+        return new ProofOfWork()
+                .setTid(tid)
+                .setNonce(nonce)
+                .setBlockHeight(block.getHeight())
+                .setChainId(block.getChainId());
+    }
+
+    /**
+     * Find the first nonce for which SHA3-256("Vega_SPAM_PoW" + blockHash + tid + nonce) has at least the required
+     * number of leading zero bits
+     *
+     * @param blockHash the block hash
+     * @param tid the transaction ID
+     * @param difficulty the required number of leading zero bits
+     *
+     * @return the nonce
+     */
+    public static long solve(
+            final String blockHash,
+            final String tid,
+            final int difficulty
+    ) {
+        MessageDigest digest = sha3();
+        byte[] hash = blockHash.getBytes(StandardCharsets.US_ASCII);
+        byte[] tidBytes = tid.getBytes(StandardCharsets.US_ASCII);
+        byte[] data = new byte[PREFIX.length + hash.length + tidBytes.length + Long.BYTES];
+        System.arraycopy(PREFIX, 0, data, 0, PREFIX.length);
+        System.arraycopy(hash, 0, data, PREFIX.length, hash.length);
+        System.arraycopy(tidBytes, 0, data, PREFIX.length + hash.length, tidBytes.length);
+        int offset = data.length - Long.BYTES;
+        for(long nonce=0; ; nonce++) {
+            for(int i=0; i<Long.BYTES; i++) {
+                data[offset + i] = (byte) (nonce >>> (8 * (Long.BYTES - 1 - i)));
+            }
+            if(leadingZeroBits(digest.digest(data)) >= difficulty) {
+                return nonce;
+            }
+        }
+    }
+
+    /**
+     * Count the leading zero bits of a hash
+     *
+     * @param hash the hash
+     *
+     * @return the number of leading zero bits
+     */
+    public static int leadingZeroBits(
+            final byte[] hash
+    ) {
+        int zeros = 0;
+        for(byte b : hash) {
+            if(b == 0) {
+                zeros += 8;
+            } else {
+                return zeros + Integer.numberOfLeadingZeros(b & 0xFF) - 24;
+            }
+        }
+        return zeros;
+    }
+
+    /**
+     * Get the latest block and spam proof-of-work parameters from the core node
+     *
+     * @return {@link Optional<LastBlock>}
+     */
+    private Optional<LastBlock> getLastBlock() throws Exception {
+        HttpResponse<JsonNode> response = Unirest.get(String.format("%s/blockchain/height", coreUrl)).asJson();
+        if(response.getStatus() != 200) {
+            log.warn("Status code = {}", response.getStatus());
+            return Optional.empty();
+        }
+        JSONObject object = response.getBody().getObject();
+        return Optional.of(new LastBlock()
+                .setHeight(object.getLong("height"))
+                .setHash(object.getString("hash"))
+                .setChainId(object.optString("chainId"))
+                .setSpamPowDifficulty(object.getInt("spamPowDifficulty"))
+                .setSpamPowNumberOfPastBlocks(object.getInt("spamPowNumberOfPastBlocks"))
+                .setSpamPowNumberOfTxPerBlock(object.getInt("spamPowNumberOfTxPerBlock"))
+                .setSpamPowIncreasingDifficulty(object.optBoolean("spamPowIncreasingDifficulty")));
+    }
+
+    private boolean isValid(
+            final ProofOfWork proof,
+            final LastBlock block
+    ) {
+        int pastBlocks = block.getSpamPowNumberOfPastBlocks();
+        return proof.getBlockHeight() > block.getHeight() - pastBlocks + Math.min(SAFETY_BLOCKS, pastBlocks / 2);
+    }
+
+    private static MessageDigest sha3() {
+        try {
+            return MessageDigest.getInstance("SHA3-256");
+        } catch(NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
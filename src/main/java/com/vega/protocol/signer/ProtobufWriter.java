@@ -0,0 +1,139 @@
+package com.vega.protocol.signer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Minimal protocol buffers encoder covering the wire types used by Vega commands (varints and length-delimited
+ * fields). Nested messages are encoded with their own writer and then written as bytes.
+ */
+public class ProtobufWriter {
+
+    private static final int VARINT = 0;
+    private static final int LENGTH_DELIMITED = 2;
+
+    private byte[] bytes = new byte[256];
+    private int length;
+
+    /**
+     * Write an unsigned varint field, skipping it when it has the default value
+     *
+     * @param field the field number
+     * @param value the value
+     *
+     * @return {@link ProtobufWriter}
+     */
+    public ProtobufWriter writeUint64(
+            final int field,
+            final long value
+    ) {
+        if(value != 0) {
+            writeTag(field, VARINT);
+            writeVarint(value);
+        }
+        return this;
+    }
+
+    /**
+     * Write an enum field, skipping it when it has the default value
+     *
+     * @param field the field number
+     * @param value the enum number
+     *
+     * @return {@link ProtobufWriter}
+     */
+    public ProtobufWriter writeEnum(
+            final int field,
+            final int value
+    ) {
+        return writeUint64(field, value);
+    }
+
+    /**
+     * Write a string field, skipping it when it is null or empty
+     *
+     * @param field the field number
+     * @param value the value
+     *
+     * @return {@link ProtobufWriter}
+     */
+    public ProtobufWriter writeString(
+            final int field,
+            final String value
+    ) {
+        if(value != null && !value.isEmpty()) {
+            writeBytes(field, value.getBytes(StandardCharsets.UTF_8));
+        }
+        return this;
+    }
+
+    /**
+     * Write a bytes field, including when it is empty (used for embedded messages and repeated elements)
+     *
+     * @param field the field number
+     * @param value the value
+     *
+     * @return {@link ProtobufWriter}
+     */
+    public ProtobufWriter writeBytes(
+            final int field,
+            final byte[] value
+    ) {
+        writeTag(field, LENGTH_DELIMITED);
+        writeVarint(value.length);
+        ensureCapacity(value.length);
+        System.arraycopy(value, 0, bytes, length, value.length);
+        length += value.length;
+        return this;
+    }
+
+    /**
+     * Write an embedded message field
+     *
+     * @param field the field number
+     * @param message {@link ProtobufWriter}
+     *
+     * @return {@link ProtobufWriter}
+     */
+    public ProtobufWriter writeMessage(
+            final int field,
+            final ProtobufWriter message
+    ) {
+        return writeBytes(field, message.toByteArray());
+    }
+
+    /**
+     * Get the encoded message
+     *
+     * @return the bytes
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, length);
+    }
+
+    private void writeTag(
+            final int field,
+            final int wireType
+    ) {
+        writeVarint(((long) field << 3) | wireType);
+    }
+
+    private void writeVarint(
+            long value
+    ) {
+        ensureCapacity(10);
+        while((value & ~0x7FL) != 0) {
+            bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[length++] = (byte) value;
+    }
+
+    private void ensureCapacity(
+            final int extra
+    ) {
+        if(length + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+        }
+    }
+}
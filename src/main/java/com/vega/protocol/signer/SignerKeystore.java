@@ -0,0 +1,103 @@
+package com.vega.protocol.signer;
+
+import org.apache.commons.codec.binary.Hex;
+import org.json.JSONObject;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Reads and writes an Ed25519 key encrypted with AES-GCM under a PBKDF2-derived key. The file is JSON containing
+ * the public key, the KDF salt and iteration count, the IV and the encrypted 32 byte seed.
+ */
+public class SignerKeystore {
+
+    private static final String KDF = "PBKDF2WithHmacSHA256";
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final int KEY_BITS = 256;
+    private static final int TAG_BITS = 128;
+    private static final int DEFAULT_ITERATIONS = 310000;
+
+    /**
+     * Load a signing key from an encrypted keystore
+     *
+     * @param path the keystore file
+     * @param passphrase the passphrase
+     *
+     * @return {@link SigningKey}
+     */
+    public static SigningKey load(
+            final Path path,
+            final char[] passphrase
+    ) throws Exception {
+        JSONObject keystore = new JSONObject(Files.readString(path, StandardCharsets.UTF_8));
+        Base64.Decoder decoder = Base64.getDecoder();
+        byte[] salt = decoder.decode(keystore.getString("salt"));
+        byte[] iv = decoder.decode(keystore.getString("iv"));
+        byte[] ciphertext = decoder.decode(keystore.getString("ciphertext"));
+        int iterations = keystore.getInt("iterations");
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.DECRYPT_MODE, deriveKey(passphrase, salt, iterations), new GCMParameterSpec(TAG_BITS, iv));
+        byte[] seed = cipher.doFinal(ciphertext);
+        try {
+            return new SigningKey(seed, keystore.getString("publicKey"));
+        } finally {
+            Arrays.fill(seed, (byte) 0);
+        }
+    }
+
+    /**
+     * Write a signing key to an encrypted keystore
+     *
+     * @param path the keystore file
+     * @param seed the 32 byte private key seed
+     * @param publicKey the 32 byte public key
+     * @param passphrase the passphrase
+     */
+    public static void write(
+            final Path path,
+            final byte[] seed,
+            final byte[] publicKey,
+            final char[] passphrase
+    ) throws Exception {
+        SecureRandom random = new SecureRandom();
+        byte[] salt = new byte[16];
+        byte[] iv = new byte[12];
+        random.nextBytes(salt);
+        random.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.ENCRYPT_MODE, deriveKey(passphrase, salt, DEFAULT_ITERATIONS),
+                new GCMParameterSpec(TAG_BITS, iv));
+        Base64.Encoder encoder = Base64.getEncoder();
+        JSONObject keystore = new JSONObject()
+                .put("publicKey", Hex.encodeHexString(publicKey))
+                .put("salt", encoder.encodeToString(salt))
+                .put("iterations", DEFAULT_ITERATIONS)
+                .put("iv", encoder.encodeToString(iv))
+                .put("ciphertext", encoder.encodeToString(cipher.doFinal(seed)));
+        Files.writeString(path, keystore.toString(), StandardCharsets.UTF_8);
+    }
+
+    private static SecretKeySpec deriveKey(
+            final char[] passphrase,
+            final byte[] salt,
+            final int iterations
+    ) throws Exception {
+        PBEKeySpec spec = new PBEKeySpec(passphrase, salt, iterations, KEY_BITS);
+        try {
+            byte[] key = SecretKeyFactory.getInstance(KDF).generateSecret(spec).getEncoded();
+            return new SecretKeySpec(key, "AES");
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
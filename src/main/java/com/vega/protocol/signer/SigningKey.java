@@ -0,0 +1,84 @@
+package com.vega.protocol.signer;
+
+import lombok.Getter;
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+
+import java.nio.charset.StandardCharsets;
+import java.security.*;
+import java.security.spec.EdECPrivateKeySpec;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.NamedParameterSpec;
+import java.security.spec.X509EncodedKeySpec;
+
+/**
+ * An Ed25519 key pair used to sign Vega transactions
+ */
+public class SigningKey {
+
+    private static final String ALGORITHM = "Ed25519";
+    private static final byte[] X509_PREFIX = {0x30, 0x2a, 0x30, 0x05, 0x06, 0x03, 0x2b, 0x65, 0x70, 0x03, 0x21, 0x00};
+
+    private final PrivateKey privateKey;
+    private final PublicKey publicKey;
+    @Getter
+    private final String publicKeyHex;
+
+    /**
+     * Create a signing key from its raw parts
+     *
+     * @param seed the 32 byte private key seed
+     * @param publicKeyHex the hex encoded 32 byte public key
+     */
+    public SigningKey(
+            final byte[] seed,
+            final String publicKeyHex
+    ) throws GeneralSecurityException, DecoderException {
+        KeyFactory keyFactory = KeyFactory.getInstance(ALGORITHM);
+        byte[] publicKeyBytes = Hex.decodeHex(publicKeyHex);
+        byte[] encodedPublicKey = new byte[X509_PREFIX.length + publicKeyBytes.length];
+        System.arraycopy(X509_PREFIX, 0, encodedPublicKey, 0, X509_PREFIX.length);
+        System.arraycopy(publicKeyBytes, 0, encodedPublicKey, X509_PREFIX.length, publicKeyBytes.length);
+        this.privateKey = keyFactory.generatePrivate(new EdECPrivateKeySpec(NamedParameterSpec.ED25519, seed));
+        this.publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(encodedPublicKey));
+        this.publicKeyHex = publicKeyHex.toLowerCase();
+        byte[] probe = "vega".getBytes(StandardCharsets.UTF_8);
+        if(!verify(probe, sign(probe))) {
+            throw new InvalidKeySpecException("Public key does not match private key");
+        }
+    }
+
+    /**
+     * Sign a message
+     *
+     * @param message the message
+     *
+     * @return the signature
+     */
+    public byte[] sign(
+            final byte[] message
+    ) throws GeneralSecurityException {
+        Signature signature = Signature.getInstance(ALGORITHM);
+        signature.initSign(privateKey);
+        signature.update(message);
+        return signature.sign();
+    }
+
+    /**
+     * Verify a signature
+     *
+     * @param message the message
+     * @param signature the signature
+     *
+     * @return true if the signature is valid
+     */
+    public boolean verify(
+            final byte[] message,
+            final byte[] signature
+    ) throws GeneralSecurityException {
+        Signature verifier = Signature.getInstance(ALGORITHM);
+        verifier.initVerify(publicKey);
+        verifier.update(message);
+        return verifier.verify(signature);
+    }
+}
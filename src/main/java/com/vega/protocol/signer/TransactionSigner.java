@@ -0,0 +1,293 @@
+package com.vega.protocol.signer;
+
+import com.mashape.unirest.http.HttpResponse;
+import com.mashape.unirest.http.JsonNode;
+import com.mashape.unirest.http.Unirest;
+import com.mashape.unirest.http.exceptions.UnirestException;
+import com.vega.protocol.constant.ErrorCode;
+import com.vega.protocol.exception.TradingException;
+import com.vega.protocol.model.Market;
+import com.vega.protocol.model.Order;
+import com.vega.protocol.model.ProofOfWork;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Signs transactions in-process and submits them straight to a core node, instead of going through the wallet.
+ * When the signer is disabled, not ready or the node rejects the submission, callers fall back to the wallet. Once
+ * the request may have reached the node, a failure is reported as an unknown outcome instead, so that the same
+ * orders are not sent twice.
+ */
+@Slf4j
+@Service
+public class TransactionSigner {
+
+    private static final String SIGNATURE_ALGORITHM = "vega/ed25519";
+    private static final int SIGNATURE_VERSION = 1;
+    private static final int TX_VERSION = 3;
+
+    private final boolean enabled;
+    private final String coreUrl;
+    private final String keystorePath;
+    private final String passphrase;
+    private final String partyId;
+    private final CommandEncoder commandEncoder;
+    private final ProofOfWorkService proofOfWorkService;
+    private final SecureRandom random = new SecureRandom();
+    private SigningKey signingKey;
+
+    public TransactionSigner(@Value("${vega.signer.enabled}") Boolean enabled,
+                             @Value("${vega.core.url}") String coreUrl,
+                             @Value("${vega.signer.keystore.path}") String keystorePath,
+                             @Value("${vega.signer.passphrase:}") String passphrase,
+                             @Value("${vega.party.id}") String partyId,
+                             CommandEncoder commandEncoder,
+                             ProofOfWorkService proofOfWorkService) {
+        this.enabled = enabled;
+        this.coreUrl = coreUrl;
+        this.keystorePath = keystorePath;
+        this.passphrase = passphrase;
+        this.partyId = partyId;
+        this.commandEncoder = commandEncoder;
+        this.proofOfWorkService = proofOfWorkService;
+    }
+
+    /**
+     * Load the signing key from the keystore when the signer is enabled
+     */
+    @PostConstruct
+    public void initialize() {
+        if(!enabled) {
+            return;
+        }
+        try {
+            SigningKey key = SignerKeystore.load(Path.of(keystorePath), passphrase.toCharArray());
+            if(!key.getPublicKeyHex().equalsIgnoreCase(partyId)) {
+                log.error("Keystore public key {} does not match party {}", key.getPublicKeyHex(), partyId);
+                return;
+            }
+            signingKey = key;
+            log.info("Signing transactions in-process for {}", partyId);
+        } catch(Exception e) {
+            log.error("Could not load keystore, falling back to the wallet: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Check whether the signer can be used
+     *
+     * @return true if enabled and the key is loaded
+     */
+    public boolean isEnabled() {
+        return enabled && signingKey != null;
+    }
+
+    /**
+     * Check whether the signer can sign for a party
+     *
+     * @param partyId the party ID
+     *
+     * @return true if enabled and the key belongs to the party
+     */
+    public boolean canSign(
+            final String partyId
+    ) {
+        return isEnabled() && signingKey.getPublicKeyHex().equalsIgnoreCase(partyId);
+    }
+
+    /**
+     * Sign and submit a batch market instruction
+     *
+     * @param cancellations {@link List<String>} orderIds
+     * @param submissions {@link List<Order>} new orders
+     * @param market {@link Market}
+     * @param references provides the reference for each submitted order
+     *
+     * @return {@link Optional<String>} the txHash, or empty if the wallet should be used instead
+     *
+     * @throws TradingException if the transaction may have been sent but its outcome is unknown
+     */
+    public Optional<String> submitBatchMarketInstructions(
+            final List<String> cancellations,
+            final List<Order> submissions,
+            final Market market,
+            final Function<Order, String> references
+    ) {
+        return submit(CommandEncoder.BATCH_MARKET_INSTRUCTIONS,
+                commandEncoder.encodeBatchMarketInstructions(cancellations, submissions, market, references));
+    }
+
+    /**
+     * Sign and submit a single order
+     *
+     * @param order {@link Order}
+     * @param reference the order reference
+     *
+     * @return {@link Optional<String>} the txHash, or empty if the wallet should be used instead
+     *
+     * @throws TradingException if the transaction may have been sent but its outcome is unknown
+     */
+    public Optional<String> submitOrder(
+            final Order order,
+            final String reference
+    ) {
+        return submit(CommandEncoder.ORDER_SUBMISSION, commandEncoder.encodeOrderSubmission(order, reference));
+    }
+
+    /**
+     * Sign a command with a precomputed proof-of-work and send it to the core node
+     *
+     * @param commandField the InputData field number of the command
+     * @param command the encoded command
+     *
+     * @return {@link Optional<String>} the txHash, or empty if nothing was sent or the node rejected it
+     *
+     * @throws TradingException if the transaction may have been sent but its outcome is unknown
+     */
+    private Optional<String> submit(
+            final int commandField,
+            final byte[] command
+    ) {
+        if(!isEnabled()) {
+            return Optional.empty();
+        }
+        Optional<ProofOfWork> proof = proofOfWorkService.take();
+        if(proof.isEmpty()) {
+            log.warn("No proof-of-work ready");
+            return Optional.empty();
+        }
+        JSONObject request;
+        try {
+            byte[] transaction = sign(commandField, command, proof.get(), random.nextLong() >>> 1);
+            request = new JSONObject()
+                    .put("tx", Base64.getEncoder().encodeToString(transaction))
+                    .put("type", "TYPE_SYNC");
+        } catch(Exception e) {
+            log.error(e.getMessage(), e);
+            return Optional.empty();
+        }
+        HttpResponse<JsonNode> response;
+        try {
+            response = Unirest.post(String.format("%s/transaction/raw", coreUrl))
+                    .header("Content-Type", "application/json")
+                    .body(request)
+                    .asJson();
+        } catch(UnirestException e) {
+            if(isNotSent(e)) {
+                log.warn("Could not connect to core node: {}", e.getMessage());
+                return Optional.empty();
+            }
+            log.error(e.getMessage(), e);
+            throw new TradingException(ErrorCode.TRANSACTION_OUTCOME_UNKNOWN);
+        }
+        try {
+            JSONObject body = response.getBody().getObject();
+            if(response.getStatus() != 200 || !body.optBoolean("success")) {
+                log.warn("Transaction not accepted by node: {}", body);
+                return Optional.empty();
+            }
+            return Optional.of(body.getString("hash"));
+        } catch(Exception e) {
+            log.error(e.getMessage(), e);
+            throw new TradingException(ErrorCode.TRANSACTION_OUTCOME_UNKNOWN);
+        }
+    }
+
+    /**
+     * Check whether a failed request never reached the node, because the connection could not be made
+     *
+     * @param e {@link UnirestException}
+     *
+     * @return true if the request was not sent
+     */
+    private boolean isNotSent(
+            final UnirestException e
+    ) {
+        Throwable cause = e.getCause();
+        return cause instanceof ConnectException || cause instanceof ConnectTimeoutException ||
+                cause instanceof UnknownHostException;
+    }
+
+    /**
+     * Build a signed transaction
+     *
+     * @param commandField the InputData field number of the command
+     * @param command the encoded command
+     * @param proof {@link ProofOfWork}
+     * @param nonce the replay protection nonce
+     *
+     * @return the encoded Transaction
+     */
+    byte[] sign(
+            final int commandField,
+            final byte[] command,
+            final ProofOfWork proof,
+            final long nonce
+    ) throws GeneralSecurityException {
+        byte[] inputData = new ProtobufWriter()
+                .writeUint64(1, nonce)
+                .writeUint64(2, proof.getBlockHeight())
+                .writeBytes(commandField, command)
+                .toByteArray();
+        byte[] signature = signingKey.sign(getSignedBytes(proof.getChainId(), inputData));
+        return new ProtobufWriter()
+                .writeBytes(1, inputData)
+                .writeMessage(2, new ProtobufWriter()
+                        .writeString(1, Hex.encodeHexString(signature))
+                        .writeString(2, SIGNATURE_ALGORITHM)
+                        .writeUint64(3, SIGNATURE_VERSION))
+                .writeString(1002, signingKey.getPublicKeyHex())
+                .writeEnum(2000, TX_VERSION)
+                .writeMessage(3000, new ProtobufWriter()
+                        .writeString(1, proof.getTid())
+                        .writeUint64(2, proof.getNonce()))
+                .toByteArray();
+    }
+
+    /**
+     * Get the bytes covered by the signature: the chain ID, a zero byte and the input data
+     *
+     * @param chainId the chain ID
+     * @param inputData the encoded InputData
+     *
+     * @return the bytes to sign
+     */
+    static byte[] getSignedBytes(
+            final String chainId,
+            final byte[] inputData
+    ) {
+        byte[] chain = StringUtils.hasText(chainId) ? chainId.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        byte[] signed = new byte[chain.length + 1 + inputData.length];
+        System.arraycopy(chain, 0, signed, 0, chain.length);
+        System.arraycopy(inputData, 0, signed, chain.length + 1, inputData.length);
+        return signed;
+    }
+
+    /**
+     * Use a signing key directly (for tests)
+     *
+     * @param signingKey {@link SigningKey}
+     */
+    void setSigningKey(
+            final SigningKey signingKey
+    ) {
+        this.signingKey = signingKey;
+    }
+}
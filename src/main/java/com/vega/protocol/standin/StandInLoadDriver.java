@@ -0,0 +1,116 @@
+package com.vega.protocol.standin;
+
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.model.MarketBinding;
+import com.vega.protocol.service.MarketBindingService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates load against a running {@link StandInVega}: a random-walk reference price on the ticker stream every
+ * {@code standin.ticker.interval.ms} and an aggressive trade at the reference price every
+ * {@code standin.trade.interval.ms}, alternating sides. Either is disabled when its interval is zero. The
+ * tick-to-trade percentiles are logged every {@code standin.report.interval.ms}.
+ */
+@Slf4j
+class StandInLoadDriver {
+
+    private final StandInVega vega;
+    private final List<MarketBinding> bindings;
+    private final Map<String, BigDecimal> prices = new HashMap<>();
+    private final long tickerIntervalMs;
+    private final long tradeIntervalMs;
+    private final long reportIntervalMs;
+    private final BigDecimal spread;
+    private final BigDecimal tradeSize;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private boolean buy;
+
+    StandInLoadDriver(StandInVega vega,
+                      Properties properties) {
+        this.vega = vega;
+        this.bindings = new MarketBindingService(properties.getProperty("vega.market.id"),
+                properties.getProperty("reference.price.market"), properties.getProperty("quote.markets"))
+                .getBindings();
+        this.tickerIntervalMs = Long.parseLong(properties.getProperty("standin.ticker.interval.ms", "0"));
+        this.tradeIntervalMs = Long.parseLong(properties.getProperty("standin.trade.interval.ms", "0"));
+        this.reportIntervalMs = Long.parseLong(properties.getProperty("standin.report.interval.ms", "10000"));
+        this.spread = new BigDecimal(properties.getProperty("standin.ticker.spread", "1"));
+        this.tradeSize = new BigDecimal(properties.getProperty("standin.trade.size", "0.01"));
+        BigDecimal price = new BigDecimal(properties.getProperty("standin.ticker.price", "20000"));
+        bindings.forEach(binding -> prices.put(binding.getReferencePriceMarket(), price));
+    }
+
+    /**
+     * Start generating load; the tasks run until the process exits
+     */
+    void run() {
+        if(tickerIntervalMs > 0) {
+            scheduler.scheduleAtFixedRate(this::tick, tickerIntervalMs, tickerIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        if(tradeIntervalMs > 0) {
+            scheduler.scheduleAtFixedRate(this::trade, tradeIntervalMs, tradeIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        if(reportIntervalMs > 0) {
+            scheduler.scheduleAtFixedRate(this::report, reportIntervalMs, reportIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Move each reference price by up to one spread and publish it
+     */
+    private void tick() {
+        try {
+            for(Map.Entry<String, BigDecimal> entry : prices.entrySet()) {
+                BigDecimal step = spread.multiply(BigDecimal.valueOf(ThreadLocalRandom.current().nextDouble(-1, 1)));
+                BigDecimal mid = entry.getValue().add(step).setScale(spread.scale(), RoundingMode.HALF_EVEN)
+                        .max(spread);
+                entry.setValue(mid);
+                BigDecimal halfSpread = spread.divide(BigDecimal.valueOf(2), spread.scale() + 1,
+                        RoundingMode.HALF_EVEN);
+                vega.publishTicker(entry.getKey(), mid.subtract(halfSpread), mid.add(halfSpread),
+                        BigDecimal.ONE, BigDecimal.ONE);
+            }
+        } catch(Exception e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Trade at the reference price in every market, alternating sides
+     */
+    private void trade() {
+        try {
+            buy = !buy;
+            for(MarketBinding binding : bindings) {
+                vega.trade(binding.getMarketId(), buy ? MarketSide.BUY : MarketSide.SELL,
+                        prices.get(binding.getReferencePriceMarket()), tradeSize);
+            }
+        } catch(Exception e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Log the tick-to-trade percentiles recorded so far
+     */
+    private void report() {
+        long[] samples = vega.getTickToTradeNanos();
+        if(samples.length == 0) {
+            log.info("Tick-to-trade: no samples");
+            return;
+        }
+        Arrays.sort(samples);
+        log.info("Tick-to-trade: n = {}, p50 = {} us, p99 = {} us, max = {} us", samples.length,
+                TimeUnit.NANOSECONDS.toMicros(samples[(int) (samples.length * 0.5)]),
+                TimeUnit.NANOSECONDS.toMicros(samples[Math.min(samples.length - 1, (int) (samples.length * 0.99))]),
+                TimeUnit.NANOSECONDS.toMicros(samples[samples.length - 1]));
+    }
+}
@@ -0,0 +1,1013 @@
+package com.vega.protocol.standin;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.vega.protocol.backtest.MatchingEngine;
+import com.vega.protocol.backtest.SimulatedClock;
+import com.vega.protocol.constant.*;
+import com.vega.protocol.exception.TradingException;
+import com.vega.protocol.model.*;
+import com.vega.protocol.service.MarketBindingService;
+import com.vega.protocol.utils.DecimalUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A local stand-in for the Vega services this app talks to, for load tests and end-to-end runs on one box. A single
+ * HTTP port serves the data node REST API ({@code /api/v2}), the wallet command API ({@code /api/v1}) and the
+ * Tendermint {@code /tx} lookup; a websocket port serves the graphql-ws subscriptions on {@code /graphql} and a
+ * Binance-style ticker stream on {@code /stream}. Commands are matched by the backtest's {@link MatchingEngine}
+ * {@code standin.latency.ms} after they are received, and every HTTP response can be delayed or failed at random.
+ *
+ * Point the app at it with {@code vega.node.url}, {@code vega.ws.url}, {@code vega.wallet.url},
+ * {@code vega.tendermint.url} and {@code binance.ws.url}, and leave the in-process signer disabled: signed
+ * transactions are not decoded. Liquidity commitments are recorded but their pegged orders are not placed, and
+ * there is no margin, so a party's general account is its starting balance plus its realised PnL.
+ *
+ * The time from each {@link #publishTicker ticker update} to the first order command received after it is recorded
+ * as the tick-to-trade latency of the app.
+ */
+@Slf4j
+public class StandInVega implements AutoCloseable {
+
+    private static final String PROPERTY_PREFIX = "standin.";
+    private static final String NETWORK_PARAM_PREFIX = "standin.network.";
+    private static final String TRADER_PARTY_ID = "standin-trader";
+    private static final String BLOCK_HEIGHT_HEADER = "X-Block-Height";
+    private static final int TRANSACTION_CAPACITY = 100000;
+    private static final int TICK_TO_TRADE_CAPACITY = 100000;
+
+    private final Properties properties;
+    private final SimulatedClock clock = new SimulatedClock();
+    private final DecimalUtils decimalUtils = new DecimalUtils();
+    private final MatchingEngine matchingEngine;
+    private final HttpServer httpServer;
+    private final StandInWebSocketServer webSocketServer;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService httpExecutor;
+    private final String host;
+    private final Asset asset;
+    private final Map<String, Market> markets = new LinkedHashMap<>();
+    private final Map<String, String> symbols = new LinkedHashMap<>();
+    private final List<NetworkParameter> networkParameters = new ArrayList<>();
+    private final Map<String, Order> liveOrders = new LinkedHashMap<>();
+    private final Map<String, Holding> holdings = new LinkedHashMap<>();
+    private final Map<String, BigDecimal> realisedPnl = new HashMap<>();
+    private final Map<String, BigDecimal> lastPrices = new HashMap<>();
+    private final Map<String, JSONObject> liquidityProvisions = new LinkedHashMap<>();
+    private final Set<String> transactions = Collections.newSetFromMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > TRANSACTION_CAPACITY;
+        }
+    });
+    private final long[] tickToTradeNanos = new long[TICK_TO_TRADE_CAPACITY];
+    private final long startNanos = System.nanoTime();
+    private final long latencyNanos;
+    private final long blockNanos;
+    private final long responseDelayMs;
+    private final int pageSize;
+    private final BigDecimal balance;
+    private volatile double commandErrorRate;
+    private volatile double dataErrorRate;
+    private volatile long lastTickNanos;
+    private volatile boolean tickPending;
+    private int tickToTradeCount;
+    private long liquidityProvisionCount;
+
+    public StandInVega(Properties properties) throws IOException {
+        this.properties = properties;
+        this.host = get("standin.host");
+        this.latencyNanos = TimeUnit.MILLISECONDS.toNanos(getLong("standin.latency.ms"));
+        this.blockNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, getLong("standin.block.ms")));
+        this.responseDelayMs = getLong("standin.response.delay.ms");
+        this.pageSize = getInteger("standin.page.size");
+        this.balance = new BigDecimal(get("standin.balance"));
+        this.commandErrorRate = getDouble("standin.command.error.rate");
+        this.dataErrorRate = getDouble("standin.data.error.rate");
+        this.asset = new Asset()
+                .setId(get("standin.asset.id"))
+                .setSymbol(get("standin.asset.symbol"))
+                .setName(get("standin.asset.symbol"))
+                .setDecimalPlaces(getInteger("standin.asset.decimal.places"))
+                .setQuantum(1.0)
+                .setStatus(AssetStatus.ENABLED);
+        MarketBindingService marketBindingService = new MarketBindingService(get("vega.market.id"),
+                get("reference.price.market"), properties.getProperty("quote.markets"));
+        for(MarketBinding binding : marketBindingService.getBindings()) {
+            markets.put(binding.getMarketId(), new Market()
+                    .setId(binding.getMarketId())
+                    .setName(String.format("%s stand-in", binding.getReferencePriceMarket()))
+                    .setSettlementAsset(asset.getSymbol())
+                    .setDecimalPlaces(getInteger("standin.market.decimal.places"))
+                    .setPositionDecimalPlaces(getInteger("standin.market.position.decimal.places"))
+                    .setState(MarketState.ACTIVE)
+                    .setTradingMode(MarketTradingMode.CONTINUOUS)
+                    .setTau(getDouble("standin.market.tau"))
+                    .setMu(getDouble("standin.market.mu"))
+                    .setSigma(getDouble("standin.market.sigma"))
+                    .setTargetStake(new BigDecimal(get("standin.market.target.stake")))
+                    .setSuppliedStake(BigDecimal.ZERO));
+            symbols.put(binding.getMarketId(), binding.getReferencePriceMarket());
+        }
+        for(String key : new TreeSet<>(properties.stringPropertyNames())) {
+            if(key.startsWith(NETWORK_PARAM_PREFIX)) {
+                networkParameters.add(new NetworkParameter()
+                        .setId(key.substring(NETWORK_PARAM_PREFIX.length()))
+                        .setValue(get(key)));
+            }
+        }
+        this.matchingEngine = new MatchingEngine(clock, latencyNanos, this::onOrder, this::onFill);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "standin-engine");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpExecutor = Executors.newFixedThreadPool(getInteger("standin.http.threads"), r -> {
+            Thread thread = new Thread(r, "standin-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpServer = HttpServer.create(new InetSocketAddress(host, getInteger("standin.http.port")), 0);
+        this.httpServer.setExecutor(httpExecutor);
+        this.httpServer.createContext("/", this::handle);
+        this.webSocketServer = new StandInWebSocketServer(this,
+                new InetSocketAddress(host, getInteger("standin.ws.port")));
+    }
+
+    /**
+     * Start listening on the HTTP and websocket ports
+     *
+     * @return this
+     */
+    public StandInVega start() {
+        httpServer.start();
+        webSocketServer.startAndWait();
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        httpServer.stop(0);
+        httpExecutor.shutdownNow();
+        scheduler.shutdownNow();
+        try {
+            webSocketServer.stop(1000);
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Get the data node REST URL, for {@code vega.node.url}
+     *
+     * @return the URL
+     */
+    public String getRestUrl() {
+        return String.format("http://%s:%d/api/v2", host, httpServer.getAddress().getPort());
+    }
+
+    /**
+     * Get the wallet URL, for {@code vega.wallet.url}; the Tendermint API is served on the same URL
+     *
+     * @return the URL
+     */
+    public String getWalletUrl() {
+        return String.format("http://%s:%d", host, httpServer.getAddress().getPort());
+    }
+
+    /**
+     * Get the graphql-ws URL, for {@code vega.ws.url}
+     *
+     * @return the URL
+     */
+    public String getWsUrl() {
+        return String.format("ws://%s:%d/graphql", host, webSocketServer.getPort());
+    }
+
+    /**
+     * Get the ticker stream URL, for {@code binance.ws.url}
+     *
+     * @return the URL
+     */
+    public String getTickerUrl() {
+        return String.format("ws://%s:%d/stream", host, webSocketServer.getPort());
+    }
+
+    /**
+     * Set the share of wallet commands that are answered with an error
+     *
+     * @param commandErrorRate between 0 and 1
+     *
+     * @return this
+     */
+    public StandInVega setCommandErrorRate(
+            final double commandErrorRate
+    ) {
+        this.commandErrorRate = commandErrorRate;
+        return this;
+    }
+
+    /**
+     * Set the share of data node requests that are answered with HTTP 500
+     *
+     * @param dataErrorRate between 0 and 1
+     *
+     * @return this
+     */
+    public StandInVega setDataErrorRate(
+            final double dataErrorRate
+    ) {
+        this.dataErrorRate = dataErrorRate;
+        return this;
+    }
+
+    /**
+     * Publish a reference price on the ticker stream and start timing the app's response to it
+     *
+     * @param symbol the reference symbol, e.g. {@code BTCUSDT}
+     * @param bidPrice the best bid
+     * @param askPrice the best ask
+     * @param bidSize the size at the best bid
+     * @param askSize the size at the best ask
+     */
+    public void publishTicker(
+            final String symbol,
+            final BigDecimal bidPrice,
+            final BigDecimal askPrice,
+            final BigDecimal bidSize,
+            final BigDecimal askSize
+    ) {
+        try {
+            JSONObject frame = new JSONObject()
+                    .put("stream", String.format("%s@ticker", symbol.toLowerCase(Locale.ROOT)))
+                    .put("data", new JSONObject()
+                            .put("s", symbol)
+                            .put("b", bidPrice.toPlainString())
+                            .put("a", askPrice.toPlainString())
+                            .put("B", bidSize.toPlainString())
+                            .put("A", askSize.toPlainString()));
+            lastTickNanos = System.nanoTime();
+            tickPending = true;
+            webSocketServer.publishTicker(frame.toString());
+        } catch(JSONException e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Send an aggressive order from another party, which trades with whatever rests at or better than its price
+     *
+     * @param marketId the market ID
+     * @param side the aggressor's side
+     * @param price the limit price
+     * @param size the size
+     */
+    public synchronized void trade(
+            final String marketId,
+            final MarketSide side,
+            final BigDecimal price,
+            final BigDecimal size
+    ) {
+        Market market = getMarket(marketId);
+        advanceClock();
+        matchingEngine.trade(market, side, price, size, TRADER_PARTY_ID);
+        publishMarketData(market);
+    }
+
+    /**
+     * Get the orders resting on one side of a market, best first
+     *
+     * @param marketId the market ID
+     * @param side {@link MarketSide}
+     *
+     * @return {@link List<Order>}
+     */
+    public synchronized List<Order> getOrders(
+            final String marketId,
+            final MarketSide side
+    ) {
+        return matchingEngine.getOrders(marketId, side);
+    }
+
+    /**
+     * Get the tick-to-trade latencies recorded so far, oldest first
+     *
+     * @return the latencies in nanoseconds
+     */
+    public synchronized long[] getTickToTradeNanos() {
+        int count = Math.min(tickToTradeCount, TICK_TO_TRADE_CAPACITY);
+        long[] samples = new long[count];
+        int start = tickToTradeCount - count;
+        for(int i=0; i<count; i++) {
+            samples[i] = tickToTradeNanos[(start + i) % TICK_TO_TRADE_CAPACITY];
+        }
+        return samples;
+    }
+
+    /**
+     * Get the current items for a new subscription
+     *
+     * @param field the root field of the subscription
+     * @param partyId the party ID, if the subscription has one
+     * @param marketIds the market IDs; empty for every market
+     *
+     * @return {@link List<JSONObject>}
+     */
+    synchronized List<JSONObject> getSnapshot(
+            final String field,
+            final String partyId,
+            final Set<String> marketIds
+    ) throws JSONException {
+        List<JSONObject> items = new ArrayList<>();
+        switch (field) {
+            case "marketsData" -> {
+                for(Market market : markets.values()) {
+                    if(marketIds.isEmpty() || marketIds.contains(market.getId())) {
+                        items.add(toMarketData(market));
+                    }
+                }
+            }
+            case "orders" -> {
+                for(Order order : liveOrders.values()) {
+                    if(order.getPartyId().equals(partyId) &&
+                            (marketIds.isEmpty() || marketIds.contains(order.getMarket().getId()))) {
+                        items.add(toOrder(order));
+                    }
+                }
+            }
+            case "positions" -> {
+                for(Holding holding : getHoldings(partyId)) {
+                    items.add(toPosition(holding, true));
+                }
+            }
+            case "accounts" -> items.add(toAccount(partyId, true));
+            case "liquidityProvisions" -> items.addAll(getLiquidityProvisions(partyId));
+            default -> log.warn("Unsupported subscription = {}", field);
+        }
+        return items;
+    }
+
+    /**
+     * Route an HTTP request
+     *
+     * @param exchange {@link HttpExchange}
+     */
+    private void handle(
+            final HttpExchange exchange
+    ) throws IOException {
+        try(exchange) {
+            if(responseDelayMs > 0) {
+                Thread.sleep(responseDelayMs);
+            }
+            String path = exchange.getRequestURI().getPath();
+            Map<String, String> params = getParams(exchange.getRequestURI().getRawQuery());
+            if(path.equals("/api/v2/vega/time")) {
+                exchange.getResponseHeaders().add(BLOCK_HEIGHT_HEADER, String.valueOf(getBlockHeight()));
+                respond(exchange, 200, new JSONObject().put("timestamp", String.valueOf(getEpochNanos())));
+            } else if(path.startsWith("/api/v2/")) {
+                if(ThreadLocalRandom.current().nextDouble() < dataErrorRate) {
+                    respond(exchange, 500, toError("injected data node error"));
+                    return;
+                }
+                Optional<JSONObject> body = query(path.substring("/api/v2".length()), params);
+                respond(exchange, body.isPresent() ? 200 : 404, body.orElse(new JSONObject()));
+            } else if(path.equals("/api/v1/auth/token")) {
+                respond(exchange, 200, new JSONObject().put("token", "standin"));
+            } else if(path.equals("/api/v1/command/sync")) {
+                String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                respond(exchange, 200, command(new JSONObject(body)));
+            } else if(path.equals("/tx")) {
+                respond(exchange, 200, getTransactionResult(params.getOrDefault("hash", "")));
+            } else {
+                respond(exchange, 404, new JSONObject());
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch(Exception e) {
+            log.error(e.getMessage(), e);
+            respond(exchange, 500, toError(String.valueOf(e.getMessage())));
+        }
+    }
+
+    /**
+     * Answer a data node query with one page of the matching items
+     *
+     * @param path the path after {@code /api/v2}
+     * @param params the query parameters
+     *
+     * @return {@link Optional<JSONObject>} empty for an unknown path
+     */
+    private synchronized Optional<JSONObject> query(
+            final String path,
+            final Map<String, String> params
+    ) throws JSONException {
+        String partyId = params.getOrDefault("partyId", params.get("filter.partyIds"));
+        List<JSONObject> nodes = new ArrayList<>();
+        String key;
+        String edgeKey = "node";
+        switch (path) {
+            case "/network/parameters" -> {
+                key = "networkParameters";
+                for(NetworkParameter parameter : networkParameters) {
+                    nodes.add(new JSONObject()
+                            .put("key", parameter.getId())
+                            .put("value", parameter.getValue()));
+                }
+            }
+            case "/assets" -> {
+                key = "assets";
+                nodes.add(toAsset());
+            }
+            case "/markets" -> {
+                key = "markets";
+                for(Market market : markets.values()) {
+                    nodes.add(toMarket(market));
+                }
+            }
+            case "/accounts" -> {
+                key = "accounts";
+                edgeKey = "account";
+                nodes.add(toAccount(partyId, false));
+            }
+            case "/positions" -> {
+                key = "positions";
+                for(Holding holding : getHoldings(partyId)) {
+                    nodes.add(toPosition(holding, false));
+                }
+            }
+            case "/orders" -> {
+                key = "orders";
+                for(Order order : liveOrders.values()) {
+                    if(order.getPartyId().equals(partyId)) {
+                        nodes.add(toOrder(order));
+                    }
+                }
+            }
+            case "/liquidity/provisions" -> {
+                key = "liquidityProvisions";
+                nodes.addAll(getLiquidityProvisions(partyId));
+            }
+            default -> {
+                return Optional.empty();
+            }
+        }
+        int start = params.containsKey("pagination.after") ?
+                Integer.parseInt(params.get("pagination.after")) + 1 : 0;
+        int end = Math.min(nodes.size(), start + pageSize);
+        JSONArray edges = new JSONArray();
+        for(int i=start; i<end; i++) {
+            edges.put(new JSONObject().put(edgeKey, nodes.get(i)).put("cursor", String.valueOf(i)));
+        }
+        JSONObject pageInfo = new JSONObject()
+                .put("hasNextPage", end < nodes.size())
+                .put("endCursor", String.valueOf(end - 1));
+        return Optional.of(new JSONObject().put(key, new JSONObject().put("edges", edges).put("pageInfo", pageInfo)));
+    }
+
+    /**
+     * Handle a wallet command
+     *
+     * @param command {@link JSONObject}
+     *
+     * @return the response body
+     */
+    private JSONObject command(
+            final JSONObject command
+    ) throws JSONException {
+        if(ThreadLocalRandom.current().nextDouble() < commandErrorRate) {
+            return toError("injected wallet error");
+        }
+        String partyId = command.getString("pubKey");
+        String txHash;
+        synchronized (this) {
+            advanceClock();
+            if(command.has("batchMarketInstructions")) {
+                recordTickToTrade();
+                JSONObject batch = command.getJSONObject("batchMarketInstructions");
+                JSONArray cancellationsArray = batch.getJSONArray("cancellations");
+                JSONArray submissionsArray = batch.getJSONArray("submissions");
+                List<String> cancellations = new ArrayList<>();
+                for(int i=0; i<cancellationsArray.length(); i++) {
+                    cancellations.add(cancellationsArray.getJSONObject(i).getString("orderId"));
+                }
+                List<Order> submissions = new ArrayList<>();
+                Market market = null;
+                for(int i=0; i<submissionsArray.length(); i++) {
+                    JSONObject submission = submissionsArray.getJSONObject(i);
+                    market = getMarket(submission.getString("marketId"));
+                    submissions.add(toOrder(submission, market));
+                }
+                txHash = matchingEngine.submit(cancellations, submissions, market, partyId);
+            } else if(command.has("orderSubmission")) {
+                recordTickToTrade();
+                JSONObject submission = command.getJSONObject("orderSubmission");
+                Market market = getMarket(submission.getString("marketId"));
+                txHash = matchingEngine.submit(Collections.emptyList(), List.of(toOrder(submission, market)),
+                        market, partyId);
+            } else if(command.has("orderCancellation")) {
+                recordTickToTrade();
+                txHash = matchingEngine.submit(List.of(command.getJSONObject("orderCancellation")
+                        .getString("orderId")), Collections.emptyList(), null, partyId);
+            } else if(command.has("liquidityProvisionSubmission") || command.has("liquidityProvisionAmendment")) {
+                JSONObject submission = command.optJSONObject("liquidityProvisionSubmission");
+                txHash = onLiquidityProvision(submission != null ? submission :
+                        command.getJSONObject("liquidityProvisionAmendment"), partyId);
+            } else {
+                return toError("unsupported command");
+            }
+            transactions.add(txHash);
+        }
+        scheduler.schedule(this::process, latencyNanos, TimeUnit.NANOSECONDS);
+        return new JSONObject().put("txHash", txHash);
+    }
+
+    /**
+     * Apply the commands that have become due and publish the new market data
+     */
+    private synchronized void process() {
+        try {
+            advanceClock();
+            matchingEngine.process();
+            markets.values().forEach(this::publishMarketData);
+        } catch(Exception e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Record or replace a party's liquidity commitment and publish it
+     *
+     * @param submission {@link JSONObject}
+     * @param partyId the party ID
+     *
+     * @return the transaction hash
+     */
+    private String onLiquidityProvision(
+            final JSONObject submission,
+            final String partyId
+    ) throws JSONException {
+        Market market = getMarket(submission.getString("marketId"));
+        String key = String.format("%s-%s", partyId, market.getId());
+        JSONObject existing = liquidityProvisions.get(key);
+        long count = ++liquidityProvisionCount;
+        JSONObject provision = new JSONObject()
+                .put("id", existing != null ? existing.getString("id") : String.format("standin-lp-%d", count))
+                .put("partyId", partyId)
+                .put("marketId", market.getId())
+                .put("commitmentAmount", submission.get("commitmentAmount").toString())
+                .put("fee", submission.get("fee").toString())
+                .put("status", "STATUS_ACTIVE")
+                .put("buys", toLiquidityOrders(submission.getJSONArray("buys")))
+                .put("sells", toLiquidityOrders(submission.getJSONArray("sells")));
+        liquidityProvisions.put(key, provision);
+        webSocketServer.publish("liquidityProvisions", partyId, market.getId(), provision);
+        return String.format("standin-lp-tx-%d", count);
+    }
+
+    /**
+     * Keep the live orders up to date and publish every change
+     *
+     * @param order {@link Order}
+     */
+    private void onOrder(
+            final Order order
+    ) {
+        if(order.getStatus().equals(OrderStatus.ACTIVE)) {
+            liveOrders.put(order.getId(), order);
+        } else {
+            liveOrders.remove(order.getId());
+        }
+        try {
+            webSocketServer.publish("orders", order.getPartyId(), order.getMarket().getId(), toOrder(order));
+        } catch(JSONException e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Update the position and balance of the party to a fill and publish them
+     *
+     * @param fill {@link Fill}
+     */
+    private void onFill(
+            final Fill fill
+    ) {
+        lastPrices.put(fill.getMarketId(), fill.getPrice());
+        Holding holding = holdings.computeIfAbsent(String.format("%s-%s", fill.getPartyId(), fill.getMarketId()),
+                k -> new Holding(fill.getPartyId(), markets.get(fill.getMarketId())));
+        BigDecimal size = fill.getSide().equals(MarketSide.BUY) ? fill.getSize() : fill.getSize().negate();
+        BigDecimal openVolume = holding.openVolume;
+        BigDecimal newVolume = openVolume.add(size);
+        if(openVolume.signum() == 0 || openVolume.signum() == size.signum()) {
+            holding.entryPrice = openVolume.multiply(holding.entryPrice).add(size.multiply(fill.getPrice()))
+                    .divide(newVolume, 10, RoundingMode.HALF_EVEN);
+        } else {
+            BigDecimal closed = size.abs().min(openVolume.abs());
+            BigDecimal pnl = fill.getPrice().subtract(holding.entryPrice).multiply(closed)
+                    .multiply(BigDecimal.valueOf(openVolume.signum()));
+            holding.realisedPnl = holding.realisedPnl.add(pnl);
+            realisedPnl.merge(fill.getPartyId(), pnl, BigDecimal::add);
+            if(newVolume.signum() != 0 && newVolume.signum() != openVolume.signum()) {
+                holding.entryPrice = fill.getPrice();
+            }
+        }
+        holding.openVolume = newVolume;
+        try {
+            webSocketServer.publish("positions", fill.getPartyId(), fill.getMarketId(), toPosition(holding, true));
+            webSocketServer.publish("accounts", fill.getPartyId(), null, toAccount(fill.getPartyId(), true));
+        } catch(JSONException e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Record the time since the last ticker update, if this is the first order command since then
+     */
+    private void recordTickToTrade() {
+        if(tickPending) {
+            tickPending = false;
+            tickToTradeNanos[tickToTradeCount++ % TICK_TO_TRADE_CAPACITY] = System.nanoTime() - lastTickNanos;
+        }
+    }
+
+    private void publishMarketData(
+            final Market market
+    ) {
+        try {
+            webSocketServer.publish("marketsData", null, market.getId(), toMarketData(market));
+        } catch(JSONException e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    private List<JSONObject> getLiquidityProvisions(
+            final String partyId
+    ) throws JSONException {
+        List<JSONObject> provisions = new ArrayList<>();
+        for(JSONObject provision : liquidityProvisions.values()) {
+            if(provision.getString("partyId").equals(partyId)) {
+                provisions.add(provision);
+            }
+        }
+        return provisions;
+    }
+
+    private JSONObject getTransactionResult(
+            final String hash
+    ) throws JSONException {
+        String txHash = hash.startsWith("0x") ? hash.substring(2) : hash;
+        synchronized (this) {
+            if(!transactions.contains(txHash)) {
+                return toError("transaction not found");
+            }
+        }
+        return new JSONObject().put("result", new JSONObject()
+                .put("hash", txHash)
+                .put("tx_result", new JSONObject().put("code", 0)));
+    }
+
+    private JSONObject toError(
+            final String message
+    ) {
+        try {
+            return new JSONObject().put("error", message);
+        } catch(JSONException e) {
+            return new JSONObject();
+        }
+    }
+
+    private JSONObject toAsset() throws JSONException {
+        return new JSONObject()
+                .put("id", asset.getId())
+                .put("status", String.format("STATUS_%s", asset.getStatus().name()))
+                .put("details", new JSONObject()
+                        .put("name", asset.getName())
+                        .put("symbol", asset.getSymbol())
+                        .put("decimals", String.valueOf(asset.getDecimalPlaces()))
+                        .put("quantum", String.valueOf(asset.getQuantum())));
+    }
+
+    private JSONObject toMarket(
+            final Market market
+    ) throws JSONException {
+        return new JSONObject()
+                .put("id", market.getId())
+                .put("decimalPlaces", String.valueOf(market.getDecimalPlaces()))
+                .put("positionDecimalPlaces", String.valueOf(market.getPositionDecimalPlaces()))
+                .put("state", String.format("STATE_%s", market.getState().name()))
+                .put("tradingMode", String.format("TRADING_MODE_%s", market.getTradingMode().name()))
+                .put("tradableInstrument", new JSONObject()
+                        .put("instrument", new JSONObject()
+                                .put("name", market.getName())
+                                .put("future", new JSONObject().put("settlementAsset", asset.getId())))
+                        .put("logNormalRiskModel", new JSONObject()
+                                .put("tau", market.getTau())
+                                .put("params", new JSONObject()
+                                        .put("mu", market.getMu())
+                                        .put("sigma", market.getSigma()))));
+    }
+
+    private JSONObject toMarketData(
+            final Market market
+    ) throws JSONException {
+        List<Order> bids = matchingEngine.getOrders(market.getId(), MarketSide.BUY);
+        List<Order> asks = matchingEngine.getOrders(market.getId(), MarketSide.SELL);
+        BigDecimal bestBid = bids.isEmpty() ? BigDecimal.ZERO : bids.get(0).getPrice();
+        BigDecimal bestAsk = asks.isEmpty() ? BigDecimal.ZERO : asks.get(0).getPrice();
+        BigDecimal markPrice = lastPrices.getOrDefault(market.getId(), bids.isEmpty() || asks.isEmpty() ?
+                BigDecimal.ZERO : bestBid.add(bestAsk).divide(BigDecimal.valueOf(2), market.getDecimalPlaces(),
+                RoundingMode.HALF_EVEN));
+        BigDecimal openInterest = holdings.values().stream()
+                .filter(holding -> holding.market.getId().equals(market.getId()) && holding.openVolume.signum() > 0)
+                .map(holding -> holding.openVolume)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return new JSONObject()
+                .put("marketId", market.getId())
+                .put("marketState", String.format("STATE_%s", market.getState().name()))
+                .put("marketTradingMode", String.format("TRADING_MODE_%s", market.getTradingMode().name()))
+                .put("markPrice", toPrice(market, markPrice))
+                .put("bestBidPrice", toPrice(market, bestBid))
+                .put("bestOfferPrice", toPrice(market, bestAsk))
+                .put("bestBidVolume", toSize(market, getVolumeAtBest(bids)))
+                .put("bestOfferVolume", toSize(market, getVolumeAtBest(asks)))
+                .put("targetStake", decimalUtils.convertFromDecimals(asset.getDecimalPlaces(),
+                        market.getTargetStake()).toBigInteger().toString())
+                .put("suppliedStake", decimalUtils.convertFromDecimals(asset.getDecimalPlaces(),
+                        market.getSuppliedStake()).toBigInteger().toString())
+                .put("openInterest", toSize(market, openInterest))
+                .put("priceMonitoringBounds", new JSONArray());
+    }
+
+    private JSONObject toOrder(
+            final Order order
+    ) throws JSONException {
+        Market market = order.getMarket();
+        return new JSONObject()
+                .put("id", order.getId())
+                .put("marketId", market.getId())
+                .put("price", order.getPrice() != null ? toPrice(market, order.getPrice()) : "0")
+                .put("size", toSize(market, order.getSize()))
+                .put("remaining", toSize(market, order.getRemainingSize()))
+                .put("side", String.format("SIDE_%s", order.getSide().name()))
+                .put("type", String.format("TYPE_%s", order.getType().name()))
+                .put("timeInForce", String.format("TIME_IN_FORCE_%s", order.getTimeInForce().name()))
+                .put("status", String.format("STATUS_%s", order.getStatus().name()))
+                .put("reference", Objects.toString(order.getReference(), ""))
+                .put("rejectionReason", Objects.toString(order.getRejectionReason(), ""))
+                .put("liquidityProvisionId", "");
+    }
+
+    private Order toOrder(
+            final JSONObject submission,
+            final Market market
+    ) throws JSONException {
+        return new Order()
+                .setMarket(market)
+                .setSide(MarketSide.valueOf(submission.getString("side").replace("SIDE_", "")))
+                .setSize(decimalUtils.convertToDecimals(market.getPositionDecimalPlaces(),
+                        new BigDecimal(submission.getString("size"))))
+                .setPrice(submission.has("price") ? decimalUtils.convertToDecimals(market.getDecimalPlaces(),
+                        new BigDecimal(submission.getString("price"))) : null)
+                .setType(OrderType.valueOf(submission.optString("type", "TYPE_LIMIT").replace("TYPE_", "")))
+                .setTimeInForce(TimeInForce.valueOf(submission.optString("timeInForce", "TIME_IN_FORCE_GTC")
+                        .replace("TIME_IN_FORCE_", "")))
+                .setReference(submission.optString("reference", null));
+    }
+
+    private JSONObject toPosition(
+            final Holding holding,
+            final boolean stream
+    ) throws JSONException {
+        Market market = holding.market;
+        BigDecimal markPrice = lastPrices.getOrDefault(market.getId(), holding.entryPrice);
+        BigDecimal unrealisedPnl = markPrice.subtract(holding.entryPrice).multiply(holding.openVolume);
+        return new JSONObject()
+                .put("marketId", market.getId())
+                .put("partyId", holding.partyId)
+                .put("openVolume", toSize(market, holding.openVolume))
+                .put("averageEntryPrice", toPrice(market, holding.entryPrice))
+                .put(stream ? "realisedPNL" : "realisedPnl", toPrice(market, holding.realisedPnl))
+                .put(stream ? "unrealisedPNL" : "unrealisedPnl", toPrice(market, unrealisedPnl));
+    }
+
+    private JSONObject toAccount(
+            final String partyId,
+            final boolean stream
+    ) throws JSONException {
+        BigDecimal total = balance.add(realisedPnl.getOrDefault(partyId, BigDecimal.ZERO)).max(BigDecimal.ZERO);
+        return new JSONObject()
+                .put(stream ? "assetId" : "asset", asset.getId())
+                .put("marketId", "")
+                .put("type", "ACCOUNT_TYPE_GENERAL")
+                .put("balance", decimalUtils.convertFromDecimals(asset.getDecimalPlaces(), total)
+                        .toBigInteger().toString());
+    }
+
+    private JSONArray toLiquidityOrders(
+            final JSONArray orders
+    ) throws JSONException {
+        JSONArray liquidityOrders = new JSONArray();
+        for(int i=0; i<orders.length(); i++) {
+            liquidityOrders.put(new JSONObject().put("liquidityOrder", orders.getJSONObject(i)));
+        }
+        return liquidityOrders;
+    }
+
+    private String toPrice(
+            final Market market,
+            final BigDecimal price
+    ) {
+        return decimalUtils.convertFromDecimals(market.getDecimalPlaces(), price).toBigInteger().toString();
+    }
+
+    private String toSize(
+            final Market market,
+            final BigDecimal size
+    ) {
+        return decimalUtils.convertFromDecimals(market.getPositionDecimalPlaces(), size).toBigInteger().toString();
+    }
+
+    private BigDecimal getVolumeAtBest(
+            final List<Order> orders
+    ) {
+        return orders.stream()
+                .filter(order -> order.getPrice().compareTo(orders.get(0).getPrice()) == 0)
+                .map(Order::getRemainingSize)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private List<Holding> getHoldings(
+            final String partyId
+    ) {
+        return holdings.values().stream().filter(holding -> holding.partyId.equals(partyId)).toList();
+    }
+
+    private Market getMarket(
+            final String marketId
+    ) {
+        Market market = markets.get(marketId);
+        if(market == null) {
+            throw new TradingException(ErrorCode.MARKET_NOT_FOUND);
+        }
+        return market;
+    }
+
+    private void advanceClock() {
+        clock.advanceTo(getEpochNanos());
+    }
+
+    private long getEpochNanos() {
+        Instant now = Instant.now();
+        return TimeUnit.SECONDS.toNanos(now.getEpochSecond()) + now.getNano();
+    }
+
+    private long getBlockHeight() {
+        return (System.nanoTime() - startNanos) / blockNanos + 1;
+    }
+
+    private void respond(
+            final HttpExchange exchange,
+            final int status,
+            final JSONObject body
+    ) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try(OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> getParams(
+            final String query
+    ) {
+        Map<String, String> params = new HashMap<>();
+        if(query == null || query.isEmpty()) {
+            return params;
+        }
+        for(String pair : query.split("&")) {
+            int index = pair.indexOf('=');
+            if(index > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, index), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(index + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private String get(
+            final String key
+    ) {
+        String value = properties.getProperty(key);
+        if(value == null) {
+            throw new TradingException(ErrorCode.STAND_IN_PROPERTY_NOT_FOUND);
+        }
+        return value.trim();
+    }
+
+    private double getDouble(
+            final String key
+    ) {
+        return Double.parseDouble(get(key));
+    }
+
+    private long getLong(
+            final String key
+    ) {
+        return Long.parseLong(get(key));
+    }
+
+    private int getInteger(
+            final String key
+    ) {
+        return Integer.parseInt(get(key));
+    }
+
+    /**
+     * Load {@code application.properties} and {@code standin.properties} from the classpath, then the overrides
+     * and finally the system properties which set one of those keys or any {@code standin.} key
+     *
+     * @param overrides a properties file, or null
+     *
+     * @return {@link Properties}
+     *
+     * @throws IOException if a file cannot be read
+     */
+    public static Properties loadProperties(
+            final Path overrides
+    ) throws IOException {
+        Properties properties = new Properties();
+        for(String resource : List.of("application.properties", "standin.properties")) {
+            try(InputStream inputStream = StandInVega.class.getClassLoader().getResourceAsStream(resource)) {
+                if(inputStream != null) {
+                    properties.load(inputStream);
+                }
+            }
+        }
+        if(overrides != null) {
+            try(Reader reader = Files.newBufferedReader(overrides, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+        }
+        Properties systemProperties = System.getProperties();
+        for(String key : systemProperties.stringPropertyNames()) {
+            if(key.startsWith(PROPERTY_PREFIX) || properties.containsKey(key)) {
+                properties.setProperty(key, systemProperties.getProperty(key));
+            }
+        }
+        return properties;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Properties properties = loadProperties(args.length > 0 ? Path.of(args[0]) : null);
+        ((Logger) LoggerFactory.getLogger("com.vega.protocol"))
+                .setLevel(Level.toLevel(properties.getProperty("standin.log.level"), Level.INFO));
+        StandInVega vega = new StandInVega(properties).start();
+        Runtime.getRuntime().addShutdownHook(new Thread(vega::close));
+        log.info("Stand-in is running; start the app with --vega.node.url={} --vega.ws.url={} " +
+                        "--vega.wallet.url={} --vega.tendermint.url={} --binance.ws.url={} --vega.signer.enabled=false",
+                vega.getRestUrl(), vega.getWsUrl(), vega.getWalletUrl(), vega.getWalletUrl(), vega.getTickerUrl());
+        new StandInLoadDriver(vega, properties).run();
+    }
+
+    /**
+     * One party's position in one market, at average cost
+     */
+    private static class Holding {
+
+        private final String partyId;
+        private final Market market;
+        private BigDecimal openVolume = BigDecimal.ZERO;
+        private BigDecimal entryPrice = BigDecimal.ZERO;
+        private BigDecimal realisedPnl = BigDecimal.ZERO;
+
+        private Holding(
+                final String partyId,
+                final Market market
+        ) {
+            this.partyId = partyId;
+            this.market = market;
+        }
+    }
+}
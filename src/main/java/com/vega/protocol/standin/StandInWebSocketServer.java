@@ -0,0 +1,237 @@
+package com.vega.protocol.standin;
+
+import com.vega.protocol.constant.ErrorCode;
+import com.vega.protocol.exception.TradingException;
+import lombok.extern.slf4j.Slf4j;
+import org.java_websocket.WebSocket;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.protocols.Protocol;
+import org.java_websocket.server.WebSocketServer;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.net.InetSocketAddress;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The websocket side of {@link StandInVega}. Connections to {@code /graphql} speak the graphql-ws protocol used by
+ * {@link com.vega.protocol.ws.VegaWebSocketClient}: each {@code start} message subscribes to one root field, which is
+ * answered with a snapshot and then with every change. Connections to {@code /stream} receive Binance-style ticker
+ * frames, so that the reference price can be driven from the same process.
+ */
+@Slf4j
+class StandInWebSocketServer extends WebSocketServer {
+
+    private static final String TICKER_PATH = "/stream";
+    private static final Pattern ROOT_FIELD = Pattern.compile("subscription\\s*\\{\\s*(\\w+)");
+    private static final Pattern PARTY_ID = Pattern.compile("partyId:\\s*\"([^\"]*)\"");
+    private static final Pattern MARKET_ID = Pattern.compile("marketId:\\s*\"([^\"]*)\"");
+    private static final Pattern MARKET_IDS = Pattern.compile("marketIds:\\s*(\\[[^]]*])");
+
+    private final StandInVega vega;
+    private final Map<WebSocket, List<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final Set<WebSocket> tickerConnections = ConcurrentHashMap.newKeySet();
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    StandInWebSocketServer(StandInVega vega,
+                           InetSocketAddress address) {
+        super(address, List.of(new Draft_6455(Collections.emptyList(),
+                List.of(new Protocol("graphql-ws"), new Protocol("")))));
+        this.vega = vega;
+        setReuseAddr(true);
+    }
+
+    /**
+     * Start the server and wait until it is listening
+     */
+    void startAndWait() {
+        start();
+        try {
+            if(!started.await(10, TimeUnit.SECONDS)) {
+                throw new TradingException(ErrorCode.STAND_IN_START_FAILED);
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TradingException(ErrorCode.STAND_IN_START_FAILED);
+        }
+    }
+
+    /**
+     * Send an item to every subscription to the given field that matches its party and market
+     *
+     * @param field the root field, e.g. {@code orders}
+     * @param partyId the party the item belongs to, or null for market data
+     * @param marketId the market the item belongs to
+     * @param item {@link JSONObject}
+     */
+    void publish(
+            final String field,
+            final String partyId,
+            final String marketId,
+            final JSONObject item
+    ) {
+        subscriptions.forEach((connection, connectionSubscriptions) -> {
+            for(Subscription subscription : connectionSubscriptions) {
+                if(subscription.matches(field, partyId, marketId)) {
+                    try {
+                        send(connection, subscription, new JSONArray().put(item));
+                    } catch(JSONException e) {
+                        log.error(e.getMessage(), e);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Send a ticker frame to every connection on the ticker stream
+     *
+     * @param frame the frame
+     */
+    void publishTicker(
+            final String frame
+    ) {
+        for(WebSocket connection : tickerConnections) {
+            if(connection.isOpen()) {
+                connection.send(frame);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onOpen(WebSocket connection, ClientHandshake handshake) {
+        if(handshake.getResourceDescriptor().startsWith(TICKER_PATH)) {
+            tickerConnections.add(connection);
+        } else {
+            subscriptions.put(connection, new CopyOnWriteArrayList<>());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onClose(WebSocket connection, int code, String reason, boolean remote) {
+        tickerConnections.remove(connection);
+        subscriptions.remove(connection);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onMessage(WebSocket connection, String message) {
+        try {
+            JSONObject jsonObject = new JSONObject(message);
+            if(tickerConnections.contains(connection)) {
+                connection.send(new JSONObject().put("result", JSONObject.NULL)
+                        .put("id", jsonObject.opt("id")).toString());
+                return;
+            }
+            List<Subscription> connectionSubscriptions = subscriptions.get(connection);
+            String type = jsonObject.optString("type");
+            String id = jsonObject.optString("id");
+            switch (type) {
+                case "connection_init" -> connection.send(new JSONObject().put("type", "connection_ack").toString());
+                case "start" -> {
+                    Subscription subscription = parse(id, jsonObject.getJSONObject("payload").getString("query"));
+                    connectionSubscriptions.add(subscription);
+                    send(connection, subscription, new JSONArray(
+                            vega.getSnapshot(subscription.field(), subscription.partyId(),
+                                    subscription.marketIds())));
+                }
+                case "stop" -> connectionSubscriptions.removeIf(subscription -> subscription.id().equals(id));
+                default -> log.warn("Unsupported message type = {}", type);
+            }
+        } catch(Exception e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onError(WebSocket connection, Exception e) {
+        log.error(e.getMessage(), e);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onStart() {
+        started.countDown();
+    }
+
+    /**
+     * Read the root field and the party and market filters from a subscription query
+     *
+     * @param id the subscription ID
+     * @param query the GraphQL query
+     *
+     * @return {@link Subscription}
+     */
+    private Subscription parse(
+            final String id,
+            final String query
+    ) throws JSONException {
+        Matcher rootField = ROOT_FIELD.matcher(query);
+        String field = rootField.find() ? rootField.group(1) : "";
+        Matcher partyId = PARTY_ID.matcher(query);
+        Set<String> marketIds = new HashSet<>();
+        Matcher marketId = MARKET_ID.matcher(query);
+        if(marketId.find()) {
+            marketIds.add(marketId.group(1));
+        }
+        Matcher marketIdList = MARKET_IDS.matcher(query);
+        if(marketIdList.find()) {
+            JSONArray marketIdsArray = new JSONArray(marketIdList.group(1));
+            for(int i=0; i<marketIdsArray.length(); i++) {
+                marketIds.add(marketIdsArray.getString(i));
+            }
+        }
+        return new Subscription(id, field, partyId.find() ? partyId.group(1) : null, marketIds);
+    }
+
+    private void send(
+            final WebSocket connection,
+            final Subscription subscription,
+            final JSONArray items
+    ) throws JSONException {
+        if(!connection.isOpen()) {
+            return;
+        }
+        JSONObject frame = new JSONObject()
+                .put("id", subscription.id())
+                .put("type", "data")
+                .put("payload", new JSONObject().put("data", new JSONObject().put(subscription.field(), items)));
+        connection.send(frame.toString());
+    }
+
+    /**
+     * One graphql-ws subscription; an empty set of market IDs matches every market
+     */
+    private record Subscription(String id, String field, String partyId, Set<String> marketIds) {
+
+        private boolean matches(
+                final String field,
+                final String partyId,
+                final String marketId
+        ) {
+            return this.field.equals(field) && (partyId == null || partyId.equals(this.partyId)) &&
+                    (marketIds.isEmpty() || marketIds.contains(marketId));
+        }
+    }
+}
@@ -3,6 +3,37 @@ package com.vega.protocol.store;
 import com.vega.protocol.model.AppConfig;
 import org.springframework.stereotype.Repository;
 
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the default app config and any per-market overrides of it
+ */
 @Repository
 public class AppConfigStore extends SingleItemStore<AppConfig> {
-}
\ No newline at end of file
+
+    private final Map<String, AppConfig> marketConfigs = new ConcurrentHashMap<>();
+
+    /**
+     * Get the config for a market, falling back to the default config when the market has no override
+     *
+     * @param marketId the market ID
+     *
+     * @return {@link Optional<AppConfig>}
+     */
+    public Optional<AppConfig> get(String marketId) {
+        AppConfig config = marketConfigs.get(marketId);
+        return config != null ? Optional.of(config) : get();
+    }
+
+    /**
+     * Override the config for a market
+     *
+     * @param marketId the market ID
+     * @param config {@link AppConfig}
+     */
+    public void update(String marketId, AppConfig config) {
+        marketConfigs.put(marketId, config);
+    }
+}
@@ -6,10 +6,13 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 public abstract class MultipleItemStore<T extends UniqueItem> {
 
     private final List<T> items = Collections.synchronizedList(new ArrayList<>());
+    private final List<Consumer<T>> listeners = new CopyOnWriteArrayList<>();
 
     /**
      * Get an item by ID
@@ -41,9 +44,8 @@ public abstract class MultipleItemStore<T extends UniqueItem> {
      * @param item {@link T}
      */
     public void remove(T item) {
-        synchronized (items) {
-            items.removeIf(i -> i.getId().equals(item.getId()));
-        }
+        removeItem(item);
+        listeners.forEach(listener -> listener.accept(item));
     }
 
     /**
@@ -52,8 +54,24 @@ public abstract class MultipleItemStore<T extends UniqueItem> {
      * @param item {@link T}
      */
     public void update(T item) {
-        remove(item);
+        removeItem(item);
         add(item);
+        listeners.forEach(listener -> listener.accept(item));
+    }
+
+    private void removeItem(T item) {
+        synchronized (items) {
+            items.removeIf(i -> i.getId().equals(item.getId()));
+        }
+    }
+
+    /**
+     * Register a listener that is called with every update or removal, on the thread that made the change
+     *
+     * @param listener {@link Consumer<T>}
+     */
+    public void addListener(Consumer<T> listener) {
+        listeners.add(listener);
     }
 
     /**
@@ -1,9 +1,171 @@
 package com.vega.protocol.store;
 
+import com.vega.protocol.constant.ErrorCode;
+import com.vega.protocol.exception.TradingException;
 import com.vega.protocol.model.NetworkParameter;
-import com.vega.protocol.store.MultipleItemStore;
 import org.springframework.stereotype.Repository;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Network parameters are stored as strings, so alongside each one we keep its value parsed as a double, a long and
+ * a duration (whichever apply). The parsing happens once when the parameter is stored; the typed accessors are
+ * then a single hash lookup.
+ */
 @Repository
 public class NetworkParameterStore extends MultipleItemStore<NetworkParameter> {
+
+    private static final Pattern DURATION = Pattern.compile("(\\d+(?:\\.\\d+)?)(h|ms|m|s)");
+
+    private final Map<String, ParsedValue> parsedValues = new ConcurrentHashMap<>();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void add(NetworkParameter item) {
+        super.add(item);
+        getById(item.getId()).ifPresent(p -> parsedValues.put(p.getId(), ParsedValue.of(p.getValue())));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void remove(NetworkParameter item) {
+        super.remove(item);
+        parsedValues.remove(item.getId());
+    }
+
+    /**
+     * Get a numeric parameter
+     *
+     * @param id the parameter ID
+     *
+     * @return the value
+     *
+     * @throws TradingException if the parameter is missing or not a number
+     */
+    public double getDouble(String id) {
+        ParsedValue value = parsedValues.get(id);
+        if(value == null || Double.isNaN(value.number())) {
+            throw new TradingException(ErrorCode.NETWORK_PARAMETER_NOT_FOUND);
+        }
+        return value.number();
+    }
+
+    /**
+     * Get a numeric parameter
+     *
+     * @param id the parameter ID
+     * @param defaultValue returned if the parameter is missing or not a number
+     *
+     * @return the value
+     */
+    public double getDouble(String id, double defaultValue) {
+        ParsedValue value = parsedValues.get(id);
+        return value == null || Double.isNaN(value.number()) ? defaultValue : value.number();
+    }
+
+    /**
+     * Get an integer parameter
+     *
+     * @param id the parameter ID
+     *
+     * @return the value
+     *
+     * @throws TradingException if the parameter is missing or not an integer that fits in a long
+     */
+    public long getLong(String id) {
+        ParsedValue value = parsedValues.get(id);
+        if(value == null || !value.isInteger()) {
+            throw new TradingException(ErrorCode.NETWORK_PARAMETER_NOT_FOUND);
+        }
+        return value.integer();
+    }
+
+    /**
+     * Get an integer parameter
+     *
+     * @param id the parameter ID
+     * @param defaultValue returned if the parameter is missing or not an integer that fits in a long
+     *
+     * @return the value
+     */
+    public long getLong(String id, long defaultValue) {
+        ParsedValue value = parsedValues.get(id);
+        return value == null || !value.isInteger() ? defaultValue : value.integer();
+    }
+
+    /**
+     * Get a duration parameter, e.g. 24h0m0s
+     *
+     * @param id the parameter ID
+     * @param defaultValue returned if the parameter is missing or not a positive duration
+     *
+     * @return {@link Duration}
+     */
+    public Duration getDuration(String id, Duration defaultValue) {
+        ParsedValue value = parsedValues.get(id);
+        return value == null || value.duration() == null ? defaultValue : value.duration();
+    }
+
+    /**
+     * Parse a duration in the network's format, e.g. 24h0m0s
+     *
+     * @param duration the duration
+     *
+     * @return the duration in nanoseconds; zero if it cannot be parsed
+     */
+    public static long parseDuration(String duration) {
+        double nanos = 0;
+        Matcher matcher = DURATION.matcher(duration);
+        while(matcher.find()) {
+            double value = Double.parseDouble(matcher.group(1));
+            nanos += switch (matcher.group(2)) {
+                case "h" -> value * Duration.ofHours(1).toNanos();
+                case "m" -> value * Duration.ofMinutes(1).toNanos();
+                case "s" -> value * Duration.ofSeconds(1).toNanos();
+                default -> value * Duration.ofMillis(1).toNanos();
+            };
+        }
+        return (long) nanos;
+    }
+
+    /**
+     * A parameter value parsed as every type it can be read as
+     *
+     * @param number the value as a double; NaN if it is not a number
+     * @param integer the value as a long, if {@code isInteger}
+     * @param isInteger true if the value is an integer that fits in a long
+     * @param duration the value as a duration; null if it is not a positive duration
+     */
+    private record ParsedValue(double number, long integer, boolean isInteger, Duration duration) {
+
+        static ParsedValue of(String value) {
+            if(value == null) {
+                return new ParsedValue(Double.NaN, 0, false, null);
+            }
+            String trimmed = value.trim();
+            double number;
+            try {
+                number = Double.parseDouble(trimmed);
+            } catch(NumberFormatException e) {
+                number = Double.NaN;
+            }
+            long integer = 0;
+            boolean isInteger = false;
+            try {
+                integer = Long.parseLong(trimmed);
+                isInteger = true;
+            } catch(NumberFormatException ignored) {
+            }
+            long nanos = Double.isNaN(number) ? parseDuration(trimmed) : 0;
+            return new ParsedValue(number, integer, isInteger, nanos > 0 ? Duration.ofNanos(nanos) : null);
+        }
+    }
 }
@@ -3,6 +3,53 @@ package com.vega.protocol.store;
 import com.vega.protocol.model.ReferencePrice;
 import org.springframework.stereotype.Repository;
 
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the latest reference price for each symbol, and when it was received; {@link #get()} returns the latest update
+ * from any symbol
+ */
 @Repository
 public class ReferencePriceStore extends SingleItemStore<ReferencePrice> {
-}
\ No newline at end of file
+
+    private final Map<String, ReferencePrice> prices = new ConcurrentHashMap<>();
+    private final Map<String, Long> updateTimes = new ConcurrentHashMap<>();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void update(ReferencePrice item) {
+        if(item.getSymbol() != null) {
+            prices.put(item.getSymbol(), item);
+            updateTimes.put(item.getSymbol(), System.nanoTime());
+        }
+        super.update(item);
+    }
+
+    /**
+     * Get the reference price for a symbol
+     *
+     * @param symbol the reference price market
+     *
+     * @return {@link Optional<ReferencePrice>}
+     */
+    public Optional<ReferencePrice> get(String symbol) {
+        return Optional.ofNullable(prices.get(symbol));
+    }
+
+    /**
+     * Get the time since the reference price for a symbol was updated
+     *
+     * @param symbol the reference price market
+     *
+     * @return {@link OptionalLong} the age in nanoseconds
+     */
+    public OptionalLong getAge(String symbol) {
+        Long updateTime = updateTimes.get(symbol);
+        return updateTime == null ? OptionalLong.empty() : OptionalLong.of(System.nanoTime() - updateTime);
+    }
+}
@@ -1,9 +1,13 @@
 package com.vega.protocol.store;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 public abstract class SingleItemStore<T> {
 
+    private final List<Consumer<T>> listeners = new CopyOnWriteArrayList<>();
     private T item;
 
     /**
@@ -13,6 +17,16 @@ public abstract class SingleItemStore<T> {
      */
     public void update(T item) {
         this.item = item;
+        listeners.forEach(listener -> listener.accept(item));
+    }
+
+    /**
+     * Register a listener that is called with every update, on the thread that made the update
+     *
+     * @param listener {@link Consumer<T>}
+     */
+    public void addListener(Consumer<T> listener) {
+        listeners.add(listener);
     }
 
     /**
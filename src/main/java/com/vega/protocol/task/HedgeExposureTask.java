@@ -9,8 +9,10 @@ import com.vega.protocol.constant.ReferencePriceSource;
 import com.vega.protocol.exception.TradingException;
 import com.vega.protocol.initializer.DataInitializer;
 import com.vega.protocol.initializer.WebSocketInitializer;
+import com.vega.protocol.model.MarketBinding;
 import com.vega.protocol.model.Position;
 import com.vega.protocol.model.ReferencePrice;
+import com.vega.protocol.service.MarketBindingService;
 import com.vega.protocol.service.PositionService;
 import com.vega.protocol.store.ReferencePriceStore;
 import com.vega.protocol.utils.SleepUtils;
@@ -19,6 +21,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @Slf4j
 @Component
@@ -27,19 +30,17 @@ public class HedgeExposureTask extends TradingTask {
     private final PositionService positionService;
     private final IGApiClient igApiClient;
     private final BinanceApiClient binanceApiClient;
-    private final String marketId;
+    private final MarketBindingService marketBindingService;
     private final ReferencePriceSource referencePriceSource;
-    private final String referencePriceMarket;
     private final String igMarketEpic;
     private final SleepUtils sleepUtils;
 
     public HedgeExposureTask(DataInitializer dataInitializer,
                              WebSocketInitializer webSocketInitializer,
-                             @Value("${vega.market.id}") String marketId,
+                             MarketBindingService marketBindingService,
                              @Value("${hedge.exposure.enabled}") Boolean taskEnabled,
                              @Value("${reference.price.source}") ReferencePriceSource referencePriceSource,
                              @Value("${ig.market.epic}") String igMarketEpic,
-                             @Value("${reference.price.market}") String referencePriceMarket,
                              PositionService positionService,
                              IGApiClient igApiClient,
                              BinanceApiClient binanceApiClient,
@@ -47,11 +48,10 @@ public class HedgeExposureTask extends TradingTask {
                              SleepUtils sleepUtils) {
         super(dataInitializer, webSocketInitializer, referencePriceStore, taskEnabled);
         this.positionService = positionService;
-        this.marketId = marketId;
+        this.marketBindingService = marketBindingService;
         this.referencePriceSource = referencePriceSource;
         this.igApiClient = igApiClient;
         this.binanceApiClient = binanceApiClient;
-        this.referencePriceMarket = referencePriceMarket;
         this.igMarketEpic = igMarketEpic;
         this.sleepUtils = sleepUtils;
     }
@@ -77,22 +77,44 @@ public class HedgeExposureTask extends TradingTask {
             log.debug("Cannot execute {} because it is disabled", getClass().getSimpleName());
             return;
         }
-        BigDecimal exposure = positionService.getExposure(marketId);
+        List<MarketBinding> bindings = marketBindingService.getBindings();
+        for(int i=0; i<bindings.size(); i++) {
+            if(i > 0 && !referencePriceSource.equals(ReferencePriceSource.BINANCE)) {
+                log.warn("Cannot hedge {} because IG hedging only supports one market", bindings.get(i).getMarketId());
+                continue;
+            }
+            try {
+                hedge(bindings.get(i));
+            } catch(Exception e) {
+                log.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Hedge the exposure of one market on the reference exchange
+     *
+     * @param binding {@link MarketBinding}
+     */
+    private void hedge(
+            final MarketBinding binding
+    ) {
+        BigDecimal exposure = positionService.getExposure(binding.getMarketId());
         if(exposure.doubleValue() != 0) {
-            log.info("Hedging exposure...");
+            log.info("Hedging exposure for {}...", binding.getMarketId());
             ExchangeApiClient exchangeApiClient = referencePriceSource.equals(ReferencePriceSource.BINANCE) ?
                     binanceApiClient : igApiClient;
             String marketSymbol = referencePriceSource.equals(ReferencePriceSource.BINANCE) ?
-                    referencePriceMarket : igMarketEpic;
+                    binding.getReferencePriceMarket() : igMarketEpic;
             BigDecimal hedgeExposure = exchangeApiClient.getPosition(marketSymbol)
                     .orElse(new Position().setSize(BigDecimal.ZERO)).getSize();
             BigDecimal diff = hedgeExposure.subtract(exposure).abs();
             if(hedgeExposure.abs().doubleValue() < exposure.abs().doubleValue()) {
                 MarketSide side = exposure.doubleValue() < 0 ? MarketSide.BUY : MarketSide.SELL;
-                executeTwap(side, marketSymbol, diff, exchangeApiClient);
+                executeTwap(side, marketSymbol, binding.getReferencePriceMarket(), diff, exchangeApiClient);
             } else if(hedgeExposure.abs().doubleValue() > exposure.abs().doubleValue()) {
                 MarketSide side = exposure.doubleValue() < 0 ? MarketSide.SELL : MarketSide.BUY;
-                executeTwap(side, marketSymbol, diff, exchangeApiClient);
+                executeTwap(side, marketSymbol, binding.getReferencePriceMarket(), diff, exchangeApiClient);
             }
         }
     }
@@ -102,19 +124,21 @@ public class HedgeExposureTask extends TradingTask {
      *
      * @param side {@link MarketSide}
      * @param symbol the market symbol
+     * @param referencePriceMarket the reference price market used to size each slice
      * @param totalSize the total trade size
      * @param exchangeApiClient {@link ExchangeApiClient}
      */
     private void executeTwap(
         final MarketSide side,
         final String symbol,
+        final String referencePriceMarket,
         final BigDecimal totalSize,
         final ExchangeApiClient exchangeApiClient
     ) {
         log.info("TWAP >> {} {} {}", side, totalSize, symbol);
         BigDecimal remainingSize = totalSize;
         while(remainingSize.doubleValue() > 0) {
-            ReferencePrice referencePrice = referencePriceStore.get()
+            ReferencePrice referencePrice = referencePriceStore.get(referencePriceMarket)
                     .orElseThrow(() -> new TradingException(ErrorCode.REFERENCE_PRICE_NOT_FOUND));
             BigDecimal size = side.equals(MarketSide.BUY) ? referencePrice.getAskSize() : referencePrice.getBidSize();
             if(size.doubleValue() > remainingSize.doubleValue()) {
@@ -1,6 +1,7 @@
 package com.vega.protocol.task;
 
 import com.vega.protocol.api.VegaApiClient;
+import com.vega.protocol.constant.CommandPriority;
 import com.vega.protocol.constant.ErrorCode;
 import com.vega.protocol.constant.PeggedReference;
 import com.vega.protocol.exception.TradingException;
@@ -8,6 +9,8 @@ import com.vega.protocol.initializer.DataInitializer;
 import com.vega.protocol.initializer.WebSocketInitializer;
 import com.vega.protocol.model.*;
 import com.vega.protocol.service.AccountService;
+import com.vega.protocol.service.CommandBudgetService;
+import com.vega.protocol.service.MarketBindingService;
 import com.vega.protocol.service.MarketService;
 import com.vega.protocol.service.PositionService;
 import com.vega.protocol.store.AppConfigStore;
@@ -19,6 +22,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.math.MathContext;
 import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
@@ -34,11 +38,12 @@ public class UpdateLiquidityCommitmentTask extends TradingTask {
     private final AppConfigStore appConfigStore;
     private final LiquidityCommitmentStore liquidityCommitmentStore;
     private final VegaApiClient vegaApiClient;
-    private final String marketId;
+    private final CommandBudgetService commandBudgetService;
+    private final MarketBindingService marketBindingService;
     private final String partyId;
     private final String updateLiquidityCommitmentCronExpression;
 
-    public UpdateLiquidityCommitmentTask(@Value("${vega.market.id}") String marketId,
+    public UpdateLiquidityCommitmentTask(MarketBindingService marketBindingService,
                                          @Value("${update.liquidity.commitment.enabled}") Boolean taskEnabled,
                                          @Value("${vega.party.id}") String partyId,
                                          MarketService marketService,
@@ -46,6 +51,7 @@ public class UpdateLiquidityCommitmentTask extends TradingTask {
                                          PositionService positionService,
                                          AppConfigStore appConfigStore,
                                          VegaApiClient vegaApiClient,
+                                         CommandBudgetService commandBudgetService,
                                          ReferencePriceStore referencePriceStore,
                                          LiquidityCommitmentStore liquidityCommitmentStore,
                                          DataInitializer dataInitializer,
@@ -58,7 +64,8 @@ public class UpdateLiquidityCommitmentTask extends TradingTask {
         this.appConfigStore = appConfigStore;
         this.liquidityCommitmentStore = liquidityCommitmentStore;
         this.vegaApiClient = vegaApiClient;
-        this.marketId = marketId;
+        this.commandBudgetService = commandBudgetService;
+        this.marketBindingService = marketBindingService;
         this.updateLiquidityCommitmentCronExpression = updateLiquidityCommitmentCronExpression;
         this.partyId = partyId;
     }
@@ -78,23 +85,67 @@ public class UpdateLiquidityCommitmentTask extends TradingTask {
             log.debug("Cannot execute {} because it is disabled", getClass().getSimpleName());
             return;
         }
-        log.info("Updating liquidity commitment...");
+        for(MarketBinding binding : marketBindingService.getBindings()) {
+            try {
+                updateLiquidityCommitment(binding);
+            } catch(Exception e) {
+                log.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Update the liquidity commitment for one market
+     *
+     * @param marketId the market ID
+     */
+    public void execute(
+            final String marketId
+    ) {
+        MarketBinding binding = marketBindingService.getByMarketId(marketId)
+                .orElseThrow(() -> new TradingException(ErrorCode.MARKET_NOT_FOUND));
+        if(!isInitialized()) {
+            log.warn("Cannot execute {} because data is not initialized", getClass().getSimpleName());
+            return;
+        }
+        if(!taskEnabled) {
+            log.debug("Cannot execute {} because it is disabled", getClass().getSimpleName());
+            return;
+        }
+        updateLiquidityCommitment(binding);
+    }
+
+    /**
+     * Update the liquidity commitment for one market
+     *
+     * @param binding {@link MarketBinding}
+     */
+    private void updateLiquidityCommitment(
+            final MarketBinding binding
+    ) {
+        String marketId = binding.getMarketId();
+        log.info("Updating liquidity commitment for {}...", marketId);
         Market market = marketService.getById(marketId);
-        BigDecimal balance = accountService.getTotalBalance(market.getSettlementAsset());
+        BigDecimal balance = getBalance(market);
         if(balance.doubleValue() == 0) {
             log.info("Cannot update liquidity commitment because balance = {}", balance);
             return;
         }
         BigDecimal exposure = positionService.getExposure(marketId);
-        AppConfig config = appConfigStore.get()
+        AppConfig config = appConfigStore.get(marketId)
                 .orElseThrow(() -> new TradingException(ErrorCode.APP_CONFIG_NOT_FOUND));
-        ReferencePrice referencePrice = referencePriceStore.get()
+        ReferencePrice referencePrice = referencePriceStore.get(binding.getReferencePriceMarket())
                 .orElseThrow(() -> new TradingException(ErrorCode.REFERENCE_PRICE_NOT_FOUND));
+        if(market.getTargetStake() == null || market.getSuppliedStake() == null) {
+            log.info("Cannot update liquidity commitment for {} until its market data has arrived", marketId);
+            return;
+        }
         BigDecimal midPrice = referencePrice.getMidPrice();
         BigDecimal bidPoolSize = balance.multiply(BigDecimal.valueOf(0.5));
         BigDecimal askPoolSize = bidPoolSize.divide(midPrice, market.getDecimalPlaces(), RoundingMode.HALF_DOWN);
         BigDecimal commitmentAmount = bidPoolSize.multiply(BigDecimal.valueOf(config.getCommitmentBalanceRatio()));
-        BigDecimal requiredStake = (market.getTargetStake().multiply(BigDecimal.valueOf(1 + config.getStakeBuffer())));
+        BigDecimal requiredStake = market.getTargetStake()
+                .multiply(BigDecimal.valueOf(1 + config.getStakeBuffer()));
         log.info("Exposure = {}\nBid pool size = {}\nAsk pool size = {}; Required stake = {}",
                 exposure, bidPoolSize, askPoolSize, requiredStake);
         if(requiredStake.doubleValue() > commitmentAmount.doubleValue() &&
@@ -135,7 +186,31 @@ public class UpdateLiquidityCommitmentTask extends TradingTask {
                     .subtract(currentCommitment.get().getCommitmentAmount());
             commitmentAmount = commitmentAmount.subtract(stakeFromOthers);
         }
+        if(!commandBudgetService.tryAcquire(CommandPriority.URGENT)) {
+            log.warn("Deferring liquidity commitment update; command budget is used up");
+            return;
+        }
         vegaApiClient.submitLiquidityCommitment(liquidityCommitment, partyId, hasCommitment);
-        log.info("Liquidity commitment updated -> {}", commitmentAmount);
+        log.info("Liquidity commitment updated for {} -> {}", marketId, commitmentAmount);
+    }
+
+    /**
+     * Get the balance available to a market. When several bound markets settle in the same asset, the balance is
+     * split equally between them.
+     *
+     * @param market {@link Market}
+     *
+     * @return the balance
+     */
+    private BigDecimal getBalance(
+            final Market market
+    ) {
+        BigDecimal balance = accountService.getTotalBalance(market.getSettlementAsset());
+        if(!marketBindingService.isMultiMarket()) {
+            return balance;
+        }
+        int markets = marketService.countBySettlementAsset(
+                marketBindingService.getMarketIds(), market.getSettlementAsset());
+        return markets > 1 ? balance.divide(BigDecimal.valueOf(markets), MathContext.DECIMAL64) : balance;
     }
 }
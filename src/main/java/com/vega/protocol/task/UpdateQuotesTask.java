@@ -6,28 +6,50 @@ import com.vega.protocol.exception.TradingException;
 import com.vega.protocol.initializer.DataInitializer;
 import com.vega.protocol.initializer.WebSocketInitializer;
 import com.vega.protocol.model.*;
+import com.vega.protocol.quote.QuoteKernel;
+import com.vega.protocol.quote.MarketSnapshot;
+import com.vega.protocol.quote.QuoteLadder;
+import com.vega.protocol.quote.QuoteLevel;
+import com.vega.protocol.quote.QuotingStrategy;
 import com.vega.protocol.service.AccountService;
+import com.vega.protocol.service.CommandBudgetService;
+import com.vega.protocol.service.LatencyService;
+import com.vega.protocol.service.MarketBindingService;
 import com.vega.protocol.service.MarketService;
+import com.vega.protocol.service.OrderReferenceService;
 import com.vega.protocol.service.PositionService;
+import com.vega.protocol.service.QuoteStatsService;
+import com.vega.protocol.service.QuoteTriggerService;
+import com.vega.protocol.service.TransactionService;
+import com.vega.protocol.service.VolatilityService;
 import com.vega.protocol.store.*;
-import com.vega.protocol.utils.PricingUtils;
 import com.vega.protocol.utils.QuantUtils;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.collections4.ListUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.math.MathContext;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Quotes every market in {@link MarketBindingService}. Each market has its own {@link QuoteKernel} and is refreshed
+ * on a bounded pool of workers. Requests for a market are coalesced so that it never occupies more than one worker,
+ * and a market that is slow or failing only holds up its own refreshes. With {@code quote.workers} set to zero the
+ * refreshes run on the thread that requested them.
+ *
+ * A refresh only replaces the levels that have drifted from our resting orders by more than the price and size
+ * tolerances in the app config; see {@link QuoteKernel#reconcile(MarketSide, List, Market, String, AppConfig, List)}.
+ */
 @Slf4j
 @Component
 public class UpdateQuotesTask extends TradingTask {
 
     private static final String TAU_SCALING_PARAM = "market.liquidity.probabilityOfTrading.tau.scaling";
-    private static final String MAX_BATCH_SIZE_PARAM = "spam.protection.max.batchSize";
     private static final String STAKE_TO_SISKAS_PARAM = "market.liquidity.stakeToCcySiskas";
     private static final String MIN_PROB_OF_TRADING_PARAM = "market.liquidity.minimum.probabilityOfTrading.lpOrders";
 
@@ -36,16 +58,25 @@ public class UpdateQuotesTask extends TradingTask {
     private final LiquidityCommitmentStore liquidityCommitmentStore;
     private final NetworkParameterStore networkParameterStore;
     private final VegaApiClient vegaApiClient;
-    private final String marketId;
+    private final MarketBindingService marketBindingService;
     private final MarketService marketService;
     private final AccountService accountService;
     private final PositionService positionService;
-    private final PricingUtils pricingUtils;
-    private final QuantUtils quantUtils;
+    private final OrderReferenceService orderReferenceService;
+    private final TransactionService transactionService;
+    private final CommandBudgetService commandBudgetService;
+    private final QuoteTriggerService quoteTriggerService;
+    private final QuoteStatsService quoteStatsService;
+    private final VolatilityService volatilityService;
+    private final LatencyService latencyService;
     private final String partyId;
     private final String updateQuotesCronExpression;
+    private final Map<String, MarketQuoter> quoters = new LinkedHashMap<>();
+    private final ThreadPoolExecutor workers;
+    private final Executor executor;
+    private final AtomicLong cycleId = new AtomicLong();
 
-    public UpdateQuotesTask(@Value("${vega.market.id}") String marketId,
+    public UpdateQuotesTask(MarketBindingService marketBindingService,
                             @Value("${update.quotes.enabled}") Boolean taskEnabled,
                             @Value("${vega.party.id}") String partyId,
                             ReferencePriceStore referencePriceStore,
@@ -57,14 +88,22 @@ public class UpdateQuotesTask extends TradingTask {
                             MarketService marketService,
                             AccountService accountService,
                             PositionService positionService,
-                            PricingUtils pricingUtils,
+                            List<QuotingStrategy> quotingStrategies,
                             QuantUtils quantUtils,
+                            OrderReferenceService orderReferenceService,
+                            TransactionService transactionService,
+                            CommandBudgetService commandBudgetService,
+                            QuoteTriggerService quoteTriggerService,
+                            QuoteStatsService quoteStatsService,
+                            VolatilityService volatilityService,
+                            LatencyService latencyService,
                             DataInitializer dataInitializer,
                             WebSocketInitializer webSocketInitializer,
-                            @Value("${update.quotes.cron.expression}") String updateQuotesCronExpression) {
+                            @Value("${update.quotes.cron.expression}") String updateQuotesCronExpression,
+                            @Value("${quote.workers}") Integer workerCount) {
         super(dataInitializer, webSocketInitializer, referencePriceStore, taskEnabled);
         this.appConfigStore = appConfigStore;
-        this.marketId = marketId;
+        this.marketBindingService = marketBindingService;
         this.orderStore = orderStore;
         this.liquidityCommitmentStore = liquidityCommitmentStore;
         this.networkParameterStore = networkParameterStore;
@@ -72,10 +111,40 @@ public class UpdateQuotesTask extends TradingTask {
         this.marketService = marketService;
         this.accountService = accountService;
         this.positionService = positionService;
-        this.pricingUtils = pricingUtils;
-        this.quantUtils = quantUtils;
+        this.orderReferenceService = orderReferenceService;
+        this.transactionService = transactionService;
+        this.commandBudgetService = commandBudgetService;
+        this.quoteTriggerService = quoteTriggerService;
+        this.quoteStatsService = quoteStatsService;
+        this.volatilityService = volatilityService;
+        this.latencyService = latencyService;
         this.partyId = partyId;
         this.updateQuotesCronExpression = updateQuotesCronExpression;
+        for(MarketBinding binding : marketBindingService.getBindings()) {
+            quoters.put(binding.getMarketId(),
+                    new MarketQuoter(binding, new QuoteKernel(quotingStrategies, quantUtils)));
+        }
+        if(workerCount > 0) {
+            AtomicInteger threads = new AtomicInteger();
+            this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, quoters.size())), r -> {
+                        Thread thread = new Thread(r, "quote-worker-" + threads.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            this.executor = workers;
+        } else {
+            this.workers = null;
+            this.executor = Runnable::run;
+        }
+        quoteTriggerService.setAction(this::request);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if(workers != null) {
+            workers.shutdownNow();
+        }
     }
 
     /**
@@ -88,6 +157,9 @@ public class UpdateQuotesTask extends TradingTask {
 
     /**
      * {@inheritDoc}
+     *
+     * The cron schedule is a heartbeat that requests a refresh of every market; most refreshes are requested by
+     * {@link QuoteTriggerService} when a reference price moves or our position changes.
      */
     @Override
     public void execute() {
@@ -99,256 +171,387 @@ public class UpdateQuotesTask extends TradingTask {
             log.debug("Cannot execute {} because it is disabled", getClass().getSimpleName());
             return;
         }
-        log.info("Updating quotes...");
+        quoters.values().forEach(this::request);
+    }
+
+    /**
+     * Request a refresh of one market's quotes on the worker pool
+     *
+     * @param marketId the market ID
+     */
+    public void request(
+            final String marketId
+    ) {
+        MarketQuoter quoter = quoters.get(marketId);
+        if(quoter == null) {
+            log.warn("Cannot update quotes for {} because it is not bound", marketId);
+            return;
+        }
+        request(quoter);
+    }
+
+    /**
+     * Request a refresh, dispatching it unless one is already queued or running for the market
+     *
+     * @param quoter {@link MarketQuoter}
+     */
+    private void request(
+            final MarketQuoter quoter
+    ) {
+        if(quoter.requests.getAndIncrement() == 0) {
+            dispatch(quoter);
+        }
+    }
+
+    /**
+     * Hand a market's refresh to the worker pool
+     *
+     * @param quoter {@link MarketQuoter}
+     */
+    private void dispatch(
+            final MarketQuoter quoter
+    ) {
+        try {
+            executor.execute(() -> drain(quoter));
+        } catch(RejectedExecutionException e) {
+            quoter.requests.set(0);
+            log.error("Cannot update quotes for {}: {}", quoter.binding.getMarketId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Refresh a market once for every request received so far. Requests that arrive during the refresh go to the
+     * back of the queue, so that a busy market does not starve the others.
+     *
+     * @param quoter {@link MarketQuoter}
+     */
+    private void drain(
+            final MarketQuoter quoter
+    ) {
+        int requests = quoter.requests.get();
+        try {
+            execute(quoter.binding.getMarketId());
+        } catch(Exception e) {
+            log.error(e.getMessage(), e);
+        }
+        if(quoter.requests.addAndGet(-requests) > 0) {
+            dispatch(quoter);
+        }
+    }
+
+    /**
+     * Update the quotes for one market on the calling thread
+     *
+     * @param marketId the market ID
+     */
+    public void execute(
+            final String marketId
+    ) {
+        MarketQuoter quoter = quoters.get(marketId);
+        if(quoter == null) {
+            throw new TradingException(ErrorCode.MARKET_NOT_FOUND);
+        }
+        if(!isInitialized()) {
+            log.warn("Cannot execute {} because data is not initialized", getClass().getSimpleName());
+            return;
+        }
+        if(!taskEnabled) {
+            log.debug("Cannot execute {} because it is disabled", getClass().getSimpleName());
+            return;
+        }
+        synchronized (quoter) {
+            long start = latencyService.start();
+            latencyService.startTrace();
+            try {
+                updateQuotes(quoter);
+            } finally {
+                latencyService.record(LatencyStage.QUOTE_CYCLE, start);
+                latencyService.endTrace();
+            }
+        }
+    }
+
+    /**
+     * Update the quotes for one market, timing each stage with {@link LatencyService}
+     *
+     * @param quoter {@link MarketQuoter}
+     */
+    private void updateQuotes(
+            final MarketQuoter quoter
+    ) {
+        long time = latencyService.start();
+        String marketId = quoter.binding.getMarketId();
+        QuoteKernel quoteKernel = quoter.kernel;
+        log.info("Updating quotes for {}...", marketId);
         Market market = marketService.getById(marketId);
-        BigDecimal balance = accountService.getTotalBalance(market.getSettlementAsset());
+        BigDecimal balance = getBalance(market);
         if(balance.doubleValue() == 0) {
             log.info("Cannot update quotes because balance = {}", balance);
             return;
         }
         BigDecimal exposure = positionService.getExposure(marketId);
         // TODO - we should use the net exposure here after considering our hedge on Binance / IG
-        AppConfig config = appConfigStore.get()
+        AppConfig config = appConfigStore.get(marketId)
                 .orElseThrow(() -> new TradingException(ErrorCode.APP_CONFIG_NOT_FOUND));
-        ReferencePrice referencePrice = referencePriceStore.get()
+        ReferencePrice referencePrice = referencePriceStore.get(quoter.binding.getReferencePriceMarket())
                 .orElseThrow(() -> new TradingException(ErrorCode.REFERENCE_PRICE_NOT_FOUND));
         BigDecimal midPrice = referencePrice.getMidPrice();
-        BigDecimal bidPoolSize = balance.multiply(BigDecimal.valueOf(0.5));
-        BigDecimal askPoolSize = bidPoolSize.divide(midPrice, market.getDecimalPlaces(), RoundingMode.HALF_DOWN);
-        double openVolumeRatio = Math.min(0.99, exposure.abs().doubleValue() / askPoolSize.doubleValue());
+        time = latencyService.record(LatencyStage.STORE_READ, time);
+        double bidPoolSize = balance.doubleValue() * 0.5;
+        double askPoolSize = roundHalfDown(bidPoolSize / midPrice.doubleValue(), market.getDecimalPlaces());
+        double openVolumeRatio = Math.min(0.99, Math.abs(exposure.doubleValue()) / askPoolSize);
         log.info("\n\nReference price = {}\nExposure = {}\nBid pool size = {}\nAsk pool size = {}\n",
                 referencePrice, exposure, bidPoolSize, askPoolSize);
-        BigDecimal bidVolume = askPoolSize.multiply(BigDecimal.valueOf(config.getCommitmentBalanceRatio()));
-        BigDecimal askVolume = askPoolSize.multiply(BigDecimal.valueOf(config.getCommitmentBalanceRatio()));
-        double bidQuoteRange = config.getBidQuoteRange();
-        double askQuoteRange = config.getAskQuoteRange();
+        double bidVolume = askPoolSize * config.getCommitmentBalanceRatio();
+        double askVolume = askPoolSize * config.getCommitmentBalanceRatio();
         if(exposure.doubleValue() > 0) {
-            bidVolume = bidVolume.multiply(BigDecimal.valueOf(1 - openVolumeRatio));
+            bidVolume = bidVolume * (1 - openVolumeRatio);
         } else if(exposure.doubleValue() < 0) {
-            askVolume = askVolume.multiply(BigDecimal.valueOf(1 - openVolumeRatio));
+            askVolume = askVolume * (1 - openVolumeRatio);
         }
-        List<DistributionStep> askDistribution = pricingUtils.getDistribution(
-                referencePrice.getAskPrice().doubleValue(), askVolume.doubleValue(), askQuoteRange, MarketSide.SELL);
-        List<DistributionStep> bidDistribution = pricingUtils.getDistribution(
-                referencePrice.getBidPrice().doubleValue(), bidVolume.doubleValue(), bidQuoteRange, MarketSide.BUY);
-        if(bidDistribution.size() == 0) {
-            log.warn("Bid distribution was empty !!");
+        MarketSnapshot snapshot = quoter.snapshot
+                .setBidPrice(referencePrice.getBidPrice().doubleValue())
+                .setAskPrice(referencePrice.getAskPrice().doubleValue())
+                .setBidVolume(bidVolume)
+                .setAskVolume(askVolume)
+                .setExposure(exposure.doubleValue())
+                .setOpenVolumeRatio(openVolumeRatio)
+                .setSigma(market.getSigma())
+                .setVolatility(volatilityService.getVolatility(quoter.binding.getReferencePriceMarket()))
+                .setPositionDecimalPlaces(market.getPositionDecimalPlaces());
+        boolean built = quoteKernel.build(snapshot, config);
+        time = latencyService.record(LatencyStage.DISTRIBUTION, time);
+        if(!built) {
+            log.warn("{} distribution was empty !!", quoteKernel.getBids().getCount() == 0 ? "Bid" : "Ask");
             return;
         }
-        if(askDistribution.size() == 0) {
-            log.warn("Ask distribution was empty !!");
-            return;
-        }
-        List<Order> bids = bidDistribution.stream().map(d ->
-                new Order()
-                        .setSize(BigDecimal.valueOf(d.getSize() * config.getBidSizeFactor()))
-                        .setPrice(BigDecimal.valueOf(d.getPrice()))
-                        .setStatus(OrderStatus.ACTIVE)
-                        .setSide(MarketSide.BUY)
-                        .setType(OrderType.LIMIT)
-                        .setTimeInForce(TimeInForce.GTC)
-                        .setMarket(market)
-                        .setPartyId(partyId)
-        ).collect(Collectors.toList());
-        List<Order> asks = askDistribution.stream().map(d ->
-                new Order()
-                        .setSize(BigDecimal.valueOf(d.getSize() * config.getAskSizeFactor()))
-                        .setPrice(BigDecimal.valueOf(d.getPrice()))
-                        .setStatus(OrderStatus.ACTIVE)
-                        .setSide(MarketSide.SELL)
-                        .setType(OrderType.LIMIT)
-                        .setTimeInForce(TimeInForce.GTC)
-                        .setMarket(market)
-                        .setPartyId(partyId)
-        ).collect(Collectors.toList());
-        BigDecimal bboSize = BigDecimal.valueOf(1 / Math.pow(10, market.getPositionDecimalPlaces()));
-        bids.add(new Order()
-                .setSize(bboSize)
-                .setPrice(referencePrice.getBidPrice().multiply(BigDecimal.valueOf(1 - config.getBboOffset())))
-                .setStatus(OrderStatus.ACTIVE)
-                .setSide(MarketSide.BUY)
-                .setType(OrderType.LIMIT)
-                .setTimeInForce(TimeInForce.GTC)
-                .setMarket(market)
-                .setPartyId(partyId));
-        asks.add(new Order()
-                .setSize(bboSize)
-                .setPrice(referencePrice.getAskPrice().multiply(BigDecimal.valueOf(1 + config.getBboOffset())))
-                .setStatus(OrderStatus.ACTIVE)
-                .setSide(MarketSide.SELL)
-                .setType(OrderType.LIMIT)
-                .setTimeInForce(TimeInForce.GTC)
-                .setMarket(market)
-                .setPartyId(partyId));
-        asks.sort(Comparator.comparing(Order::getPrice));
-        bids.sort(Comparator.comparing(Order::getPrice).reversed());
-        Order bestBid = bids.get(0);
-        Order bestAsk = asks.get(0);
-        updateSpread(bids, asks, config, exposure, openVolumeRatio);
-        log.info("Bid price = {}; Ask price = {}", bestBid.getPrice(), bestAsk.getPrice());
+        QuoteLadder bids = quoteKernel.getBids();
+        QuoteLadder asks = quoteKernel.getAsks();
+        log.info("Bid price = {}; Ask price = {}", bids.getPrice(0), asks.getPrice(0));
         Optional<LiquidityCommitment> liquidityCommitmentOptional = liquidityCommitmentStore.getItems().stream()
                 .filter(lc -> lc.getMarket().getId().equals(marketId)).findFirst();
         if(liquidityCommitmentOptional.isPresent()) {
-            BigDecimal commitmentAmount = liquidityCommitmentOptional.get().getCommitmentAmount();
-            adjustOrders(bids, commitmentAmount, config);
-            adjustOrders(asks, commitmentAmount, config);
+            adjustForCommitment(quoteKernel, liquidityCommitmentOptional.get().getCommitmentAmount().doubleValue(),
+                    market, midPrice.doubleValue(), config);
+            time = latencyService.record(LatencyStage.COMMITMENT, time);
         }
-        List<Order> submissions = new ArrayList<>();
-        submissions.addAll(bids);
-        submissions.addAll(asks);
-        List<Order> currentOrders = orderStore.getItems().stream().filter(o -> !o.getIsPeggedOrder()).filter(o -> o.getStatus().equals(OrderStatus.ACTIVE)).toList();
+        List<Order> currentOrders = orderStore.getItems().stream()
+                .filter(o -> o.getMarket() != null && marketId.equals(o.getMarket().getId()))
+                .filter(o -> !o.getIsPeggedOrder()).filter(o -> o.getStatus().equals(OrderStatus.ACTIVE)).toList();
         List<Order> currentBids = currentOrders.stream().filter(o -> o.getSide().equals(MarketSide.BUY))
                 .sorted(Comparator.comparing(Order::getPrice).reversed()).toList();
         List<Order> currentAsks = currentOrders.stream().filter(o -> o.getSide().equals(MarketSide.SELL))
                 .sorted(Comparator.comparing(Order::getPrice)).toList();
-        if(shouldUpdateQuotes(currentBids, currentAsks, bestBid, bestAsk, config)) {
-            List<String> cancellations = currentOrders.stream().map(Order::getId).toList();
-            NetworkParameter maxBatchSizeParam = networkParameterStore.getById(MAX_BATCH_SIZE_PARAM)
-                    .orElseThrow(() -> new TradingException(ErrorCode.NETWORK_PARAMETER_NOT_FOUND));
-            int maxBatchSize = Integer.parseInt(maxBatchSizeParam.getValue());
-            int totalBatchSize = cancellations.size() + submissions.size();
-            log.info("Max batch size = {}; Total batch size = {}; Cancellations = {}; Submissions = {}",
-                    maxBatchSize, totalBatchSize, cancellations.size(), submissions.size());
-            if (totalBatchSize <= maxBatchSize && totalBatchSize > 0) {
-                vegaApiClient.submitBulkInstruction(cancellations, submissions, market, partyId);
-            } else {
-                List<List<String>> cancellationBatches = ListUtils.partition(cancellations, maxBatchSize);
-                List<List<Order>> submissionBatches = ListUtils.partition(submissions, maxBatchSize);
-                for (List<Order> batch : submissionBatches) {
-                    vegaApiClient.submitBulkInstruction(Collections.emptyList(), batch, market, partyId);
-                }
-                for (List<String> batch : cancellationBatches) {
-                    vegaApiClient.submitBulkInstruction(batch, Collections.emptyList(), market, partyId);
+        if(shouldUpdateQuotes(marketId, currentBids, currentAsks, bids.getPrice(0), asks.getPrice(0), exposure)) {
+            long cycle = cycleId.incrementAndGet();
+            quoteKernel.toFixedPoint(market);
+            List<String> cancellations = new ArrayList<>();
+            List<QuoteLevel> askLevels = quoteKernel.reconcile(
+                    MarketSide.SELL, currentAsks, market, partyId, config, cancellations);
+            List<QuoteLevel> bidLevels = quoteKernel.reconcile(
+                    MarketSide.BUY, currentBids, market, partyId, config, cancellations);
+            List<Order> submissions = quoter.submissions;
+            submissions.clear();
+            for(QuoteLevel level : bidLevels) {
+                orderReferenceService.register(level, level.getLevel(), cycle);
+                submissions.add(level);
+            }
+            for(QuoteLevel level : askLevels) {
+                orderReferenceService.register(level, level.getLevel(), cycle);
+                submissions.add(level);
+            }
+            quoteStatsService.record(marketId, bids.getCount() + asks.getCount(),
+                    submissions.size(), cancellations.size());
+            latencyService.record(LatencyStage.RECONCILE, time);
+            if(submissions.isEmpty() && cancellations.isEmpty()) {
+                log.info("Quotes for {} are within tolerance; nothing to update", marketId);
+                quoteTriggerService.onQuoted(marketId, midPrice, exposure);
+                return;
+            }
+            List<BatchInstruction> batches = commandBudgetService.partition(cancellations, submissions);
+            log.info("Batches = {}; Cancellations = {}; Submissions = {}",
+                    batches.size(), cancellations.size(), submissions.size());
+            for(int i=0; i<batches.size(); i++) {
+                if(!commandBudgetService.acquire(CommandPriority.ROUTINE)) {
+                    log.warn("Deferring {} of {} batches to the next cycle; command budget is used up",
+                            batches.size() - i, batches.size());
+                    if(i == 0) {
+                        cancelCrossedOrders(currentBids, currentAsks, referencePrice, market);
+                    } else {
+                        request(marketId);
+                    }
+                    return;
                 }
+                BatchInstruction batch = batches.get(i);
+                submitBulkInstruction(batch.getCancellations(), batch.getSubmissions(), market);
             }
-            log.info("Quotes successfully updated!");
+            quoteTriggerService.onQuoted(marketId, midPrice, exposure);
+            log.info("Quotes successfully updated for {}!", marketId);
         }
     }
 
     /**
-     * Updates the spread if we have acquired some exposure
+     * Get the balance available to a market. When several bound markets settle in the same asset, the balance is
+     * split equally between them.
      *
-     * @param bids {@link List<Order>}
-     * @param asks {@link List<Order>}
-     * @param config {@link AppConfig}
-     * @param exposure current exposure
-     * @param openVolumeRatio the open volume as a ratio of account balance
+     * @param market {@link Market}
+     *
+     * @return the balance
      */
-    private void updateSpread(
-            final List<Order> bids,
-            final List<Order> asks,
-            final AppConfig config,
-            final BigDecimal exposure,
-            final double openVolumeRatio
+    private BigDecimal getBalance(
+            final Market market
     ) {
-        Order bestBid = bids.get(0);
-        Order bestAsk = asks.get(0);
-        double targetSpread = config.getMinSpread() +
-                (openVolumeRatio * (config.getMaxSpread() - config.getMinSpread()));
-        double currentSpread = (bestAsk.getPrice().doubleValue() - bestBid.getPrice().doubleValue()) / 2.0;
-        if(currentSpread < targetSpread) {
-            double spreadDiff = targetSpread - currentSpread;
-            if(exposure.doubleValue() > 0) {
-                bids.forEach(b -> b.setPrice(b.getPrice().subtract(BigDecimal.valueOf(spreadDiff))));
-            } else {
-                asks.forEach(a -> a.setPrice(a.getPrice().add(BigDecimal.valueOf(spreadDiff))));
-            }
+        BigDecimal balance = accountService.getTotalBalance(market.getSettlementAsset());
+        if(!marketBindingService.isMultiMarket()) {
+            return balance;
         }
+        int markets = marketService.countBySettlementAsset(
+                marketBindingService.getMarketIds(), market.getSettlementAsset());
+        return markets > 1 ? balance.divide(BigDecimal.valueOf(markets), MathContext.DECIMAL64) : balance;
     }
 
     /**
-     * Calculate the effective volume implied by orders after considering probability of a price-level trading
+     * Cancel any resting orders that are now through the reference price. This is sent as an urgent command so
+     * that it still goes out when the routine refresh has been deferred.
      *
-     * @param orders {@link List<Order>}
-     *
-     * @return effective total volume
+     * @param currentBids the current bids
+     * @param currentAsks the current asks
+     * @param referencePrice {@link ReferencePrice}
+     * @param market {@link Market}
      */
-    private BigDecimal getEffectiveVolume(
-            final List<Order> orders
+    private void cancelCrossedOrders(
+            final List<Order> currentBids,
+            final List<Order> currentAsks,
+            final ReferencePrice referencePrice,
+            final Market market
     ) {
-        NetworkParameter tauScalingParam = networkParameterStore.getById(TAU_SCALING_PARAM)
-                .orElseThrow(() -> new TradingException(ErrorCode.NETWORK_PARAMETER_NOT_FOUND));
-        ReferencePrice referencePrice = referencePriceStore.get()
-                .orElseThrow(() -> new TradingException(ErrorCode.REFERENCE_PRICE_NOT_FOUND));
-        return orders.stream().map(o -> {
-            double mu = o.getMarket().getMu();
-            double tau = o.getMarket().getTau() * new BigDecimal(tauScalingParam.getValue()).doubleValue();
-            double sigma = o.getMarket().getSigma();
-            double bestPrice = o.getSide().equals(MarketSide.BUY) ? o.getMarket().getBestBidPrice().doubleValue() :
-                    o.getMarket().getBestAskPrice().doubleValue();
-            if(bestPrice == 0) {
-                bestPrice = referencePrice.getMidPrice().doubleValue();
+        List<String> cancellations = new ArrayList<>();
+        currentBids.stream().filter(o -> o.getPrice().compareTo(referencePrice.getAskPrice()) > 0)
+                .forEach(o -> cancellations.add(o.getId()));
+        currentAsks.stream().filter(o -> o.getPrice().compareTo(referencePrice.getBidPrice()) < 0)
+                .forEach(o -> cancellations.add(o.getId()));
+        if(cancellations.isEmpty()) {
+            return;
+        }
+        for(BatchInstruction batch : commandBudgetService.partition(cancellations, Collections.emptyList())) {
+            if(!commandBudgetService.tryAcquire(CommandPriority.URGENT)) {
+                log.warn("Could not cancel {} crossed orders; command budget is used up", cancellations.size());
+                return;
             }
-            double minValidPrice = o.getMarket().getMinValidPrice().doubleValue();
-            double maxValidPrice = o.getMarket().getMaxValidPrice().doubleValue();
-            double price = o.getPrice().doubleValue();
-            MarketSide side = o.getSide();
-            double probability = quantUtils.getProbabilityOfTrading(mu, sigma, bestPrice, tau,
-                    minValidPrice, maxValidPrice, price, side);
-            NetworkParameter minProbabilityOfTradingParam = networkParameterStore.getById(MIN_PROB_OF_TRADING_PARAM)
-                    .orElseThrow(() -> new TradingException(ErrorCode.NETWORK_PARAMETER_NOT_FOUND));
-            probability = Math.max(new BigDecimal(minProbabilityOfTradingParam.getValue()).doubleValue(), probability);
-            return o.getSize().multiply(o.getPrice()).multiply(BigDecimal.valueOf(probability));
-        }).reduce(BigDecimal.ZERO, BigDecimal::add);
+            submitBulkInstruction(batch.getCancellations(), Collections.emptyList(), market);
+        }
     }
 
     /**
-     * Scale up order sizes so that the quotes satisfy the LP commitment amount and pegs are not auto-deployed
+     * Submit a batch market instruction and track the resulting transaction, with only the orders that were sent
      *
-     * @param orders {@link List<Order>}
+     * @param cancellations {@link List<String>} orderIds
+     * @param submissions {@link List<Order>} new orders
+     * @param market {@link Market}
+     */
+    private void submitBulkInstruction(
+            final List<String> cancellations,
+            final List<Order> submissions,
+            final Market market
+    ) {
+        vegaApiClient.submitBulkInstruction(cancellations, submissions, market, partyId)
+                .ifPresent(batch -> transactionService.track(
+                        batch.getTxHash(), batch.getSubmissions(), batch.getCancellations()));
+    }
+
+    /**
+     * Scale up both sides so that the quotes satisfy the LP commitment amount and pegs are not auto-deployed
+     *
+     * @param quoteKernel {@link QuoteKernel}
      * @param commitmentAmount the LP commitment amount
+     * @param market {@link Market}
+     * @param midPrice the reference mid price
      * @param config {@link AppConfig}
      */
-    private void adjustOrders(
-            final List<Order> orders,
-            final BigDecimal commitmentAmount,
+    private void adjustForCommitment(
+            final QuoteKernel quoteKernel,
+            final double commitmentAmount,
+            final Market market,
+            final double midPrice,
             final AppConfig config
     ) {
-        NetworkParameter stakeToSiskasParam = networkParameterStore.getById(STAKE_TO_SISKAS_PARAM)
-                .orElseThrow(() -> new TradingException(ErrorCode.NETWORK_PARAMETER_NOT_FOUND));
-        BigDecimal effectiveVolume = getEffectiveVolume(orders);
-        BigDecimal targetVolume = (commitmentAmount.multiply(BigDecimal.valueOf(1 + config.getStakeBuffer())))
-                .multiply(new BigDecimal(stakeToSiskasParam.getValue()));
-        BigDecimal volumeRatio = effectiveVolume.divide(targetVolume, 8, RoundingMode.HALF_DOWN);
-        if(volumeRatio.doubleValue() < 1) {
-            BigDecimal modifier = BigDecimal.ONE.divide(volumeRatio, 8, RoundingMode.HALF_DOWN);
-            orders.forEach(o -> o.setSize(o.getSize().multiply(modifier)));
-        }
+        double tau = market.getTau() * networkParameterStore.getDouble(TAU_SCALING_PARAM);
+        double minProbability = networkParameterStore.getDouble(MIN_PROB_OF_TRADING_PARAM);
+        double targetVolume = commitmentAmount * (1 + config.getStakeBuffer()) *
+                networkParameterStore.getDouble(STAKE_TO_SISKAS_PARAM);
+        quoteKernel.adjustForCommitment(MarketSide.BUY, market, tau, midPrice, minProbability, targetVolume);
+        quoteKernel.adjustForCommitment(MarketSide.SELL, market, tau, midPrice, minProbability, targetVolume);
+    }
+
+    /**
+     * Round a positive or negative value to the given decimal places, with ties rounded towards zero
+     *
+     * @param value the value
+     * @param decimalPlaces the decimal places
+     *
+     * @return the rounded value
+     */
+    private static double roundHalfDown(
+            final double value,
+            final int decimalPlaces
+    ) {
+        double scale = Math.pow(10, decimalPlaces);
+        return Math.signum(value) * Math.ceil(Math.abs(value) * scale - 0.5) / scale;
     }
 
     /**
-     * Check whether the price has changed sufficiently to justify updating our quotes
+     * Check whether the price or our exposure has changed sufficiently to justify updating our quotes
      *
+     * @param marketId the market ID
      * @param currentBids the current bids
      * @param currentAsks the current asks
-     * @param bestBid the new best bid
-     * @param bestAsk the new best ask
-     * @param config {@link AppConfig}
+     * @param bestBid the new best bid price
+     * @param bestAsk the new best ask price
+     * @param exposure the current exposure
      *
      * @return true / false
      */
     private boolean shouldUpdateQuotes(
+            final String marketId,
             final List<Order> currentBids,
             final List<Order> currentAsks,
-            final Order bestBid,
-            final Order bestAsk,
-            final AppConfig config
+            final double bestBid,
+            final double bestAsk,
+            final BigDecimal exposure
     ) {
-        /*if(currentBids.size() > 0 && currentAsks.size() > 0) {
-            Order currentBestBid = currentBids.get(0);
-            Order currentBestAsk = currentAsks.get(0);
-            BigDecimal staticMidPrice = (bestBid.getPrice().add(bestAsk.getPrice()))
-                    .multiply(BigDecimal.valueOf(0.5));
-            BigDecimal currentMidPrice = (currentBestBid.getPrice().add(currentBestAsk.getPrice()))
-                    .multiply(BigDecimal.valueOf(0.5));
-            double priceDelta = ((staticMidPrice.subtract(currentMidPrice).abs())
-                    .divide(currentMidPrice, 4, RoundingMode.HALF_DOWN)).doubleValue();
-            if(priceDelta < (config.getMinSpread() / 2.0)) {
-                log.warn("Not updating quotes because the mid-price delta is only = {}%",
-                        Math.round(priceDelta * 10000.0) / 100.0);
-                return false;
-            }
-        }*/
+        if(currentBids.size() == 0 || currentAsks.size() == 0 ||
+                quoteTriggerService.isExposureChanged(marketId, exposure)) {
+            return true;
+        }
+        double newMidPrice = (bestBid + bestAsk) / 2.0;
+        double currentMidPrice = (currentBids.get(0).getPrice().doubleValue() +
+                currentAsks.get(0).getPrice().doubleValue()) / 2.0;
+        double priceDelta = Math.abs(newMidPrice - currentMidPrice) / currentMidPrice;
+        if(priceDelta < quoteTriggerService.getThreshold()) {
+            log.info("Not updating quotes because the mid-price delta is only = {}%",
+                    Math.round(priceDelta * 1000000.0) / 10000.0);
+            return false;
+        }
         return true;
     }
+
+    /**
+     * The quoting state of one market
+     */
+    private static class MarketQuoter {
+
+        private final MarketBinding binding;
+        private final QuoteKernel kernel;
+        private final MarketSnapshot snapshot = new MarketSnapshot();
+        private final List<Order> submissions = new ArrayList<>();
+        private final AtomicInteger requests = new AtomicInteger();
+
+        private MarketQuoter(
+                final MarketBinding binding,
+                final QuoteKernel kernel
+        ) {
+            this.binding = binding;
+            this.kernel = kernel;
+        }
+    }
 }
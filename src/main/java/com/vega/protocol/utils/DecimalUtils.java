@@ -8,6 +8,12 @@ import java.math.RoundingMode;
 @Component
 public class DecimalUtils {
 
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
     /**
      * Convert number to decimal version
      *
@@ -39,4 +45,39 @@ public class DecimalUtils {
         return BigDecimal.valueOf(Math.pow(10, decimalPlaces)).multiply(number)
                 .setScale(0, RoundingMode.HALF_DOWN);
     }
-}
\ No newline at end of file
+
+    /**
+     * Convert number from decimal version to a scaled long, using the same rounding as
+     * {@link #convertFromDecimals(int, BigDecimal)} without going through {@link BigDecimal} arithmetic
+     *
+     * @param decimalPlaces number of decimal places
+     * @param number decimal representation
+     *
+     * @return integer representation
+     *
+     * @throws ArithmeticException if the result does not fit in a long
+     */
+    public long convertFromDecimalsToLong(
+            final int decimalPlaces,
+            final BigDecimal number
+    ) {
+        long unscaled = number.unscaledValue().longValueExact();
+        int shift = decimalPlaces - number.scale();
+        if(shift >= 0) {
+            if(shift >= POWERS_OF_TEN.length) {
+                throw new ArithmeticException("long overflow");
+            }
+            return Math.multiplyExact(unscaled, POWERS_OF_TEN[shift]);
+        }
+        if(-shift >= POWERS_OF_TEN.length) {
+            return number.movePointRight(decimalPlaces).setScale(0, RoundingMode.HALF_DOWN).longValueExact();
+        }
+        long divisor = POWERS_OF_TEN[-shift];
+        long quotient = unscaled / divisor;
+        long remainder = Math.abs(unscaled % divisor);
+        if(remainder > divisor - remainder) {
+            quotient += Long.signum(unscaled);
+        }
+        return quotient;
+    }
+}
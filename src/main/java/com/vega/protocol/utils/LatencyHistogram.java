@@ -0,0 +1,130 @@
+package com.vega.protocol.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * A histogram of non-negative long values (e.g. latencies in nanoseconds) with the same log-linear layout as
+ * HdrHistogram: values below 256 are counted exactly, and above that each power of two is split into 128 buckets,
+ * so a percentile is never more than 1% above the value it reports on. Every value up to {@link Long#MAX_VALUE} is
+ * tracked in a fixed 57 KB of counts.
+ *
+ * Recording is lock-free and allocates nothing, so it can be called from several threads on the hot path. Reads are
+ * not atomic with respect to concurrent recording and may be off by the values recorded while they run.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int BUCKET_COUNT = Long.SIZE - 1 - SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(SUB_BUCKET_COUNT + BUCKET_COUNT * SUB_BUCKET_HALF_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Record a value; negative values are recorded as zero
+     *
+     * @param value the value
+     */
+    public void record(
+            final long value
+    ) {
+        long recorded = Math.max(0, value);
+        counts.incrementAndGet(getIndex(recorded));
+        totalCount.incrementAndGet();
+        max.accumulate(recorded);
+    }
+
+    /**
+     * Get the number of values recorded
+     *
+     * @return the count
+     */
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * Get the largest value recorded
+     *
+     * @return the value, or zero if nothing has been recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Get the value at or below which the given percentage of the recorded values fall
+     *
+     * @param percentile the percentile, from 0 to 100
+     *
+     * @return the highest value equivalent to the bucket holding the percentile, or zero if nothing has been recorded
+     */
+    public long getValueAtPercentile(
+            final double percentile
+    ) {
+        long total = totalCount.get();
+        if(total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * total));
+        long cumulative = 0;
+        for(int i=0; i<counts.length(); i++) {
+            cumulative += counts.get(i);
+            if(cumulative >= target) {
+                return Math.min(getHighestEquivalentValue(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Clear every recorded value
+     */
+    public void reset() {
+        for(int i=0; i<counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        max.reset();
+    }
+
+    /**
+     * Get the index of the bucket that counts a value
+     *
+     * @param value the value
+     *
+     * @return the index
+     */
+    private static int getIndex(
+            final long value
+    ) {
+        int shift = Math.max(0, Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        if(shift == 0) {
+            return (int) value;
+        }
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF_COUNT +
+                (int) (value >>> shift) - SUB_BUCKET_HALF_COUNT;
+    }
+
+    /**
+     * Get the highest value counted by a bucket
+     *
+     * @param index the index
+     *
+     * @return the value
+     */
+    private static long getHighestEquivalentValue(
+            final int index
+    ) {
+        if(index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF_COUNT + 1;
+        long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        return (subBucket << shift) + (1L << shift) - 1;
+    }
+}
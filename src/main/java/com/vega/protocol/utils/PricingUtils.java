@@ -5,19 +5,32 @@ import com.vega.protocol.constant.MarketSide;
 import com.vega.protocol.exception.TradingException;
 import com.vega.protocol.model.AppConfig;
 import com.vega.protocol.model.DistributionStep;
+import com.vega.protocol.quote.QuoteLadder;
 import com.vega.protocol.store.AppConfigStore;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Builds the cube-root AMM distribution of our quotes. The shape of the curve depends only on the order count, so
+ * the offset fractions and size weights are computed once per order count and each call just scales them by the
+ * price, range and volume. Markets can use different order counts, so a shape is cached for each count; the cache
+ * is dropped whenever the default app config is updated.
+ */
 @Component
 public class PricingUtils {
 
+    private static final double ADJUSTMENT = Math.cbrt(3);
+
     private final AppConfigStore configStore;
+    private final Map<Integer, Shape> shapes = new ConcurrentHashMap<>();
 
     public PricingUtils(AppConfigStore configStore) {
         this.configStore = configStore;
+        configStore.addListener(config -> shapes.clear());
     }
 
     /**
@@ -35,28 +48,101 @@ public class PricingUtils {
             final double range,
             final MarketSide side
     ) {
-        AppConfig config = configStore.get().orElseThrow(() -> new TradingException(ErrorCode.APP_CONFIG_NOT_FOUND));
+        QuoteLadder ladder = new QuoteLadder();
+        getDistribution(midPrice, totalVolume, range, side, ladder);
         List<DistributionStep> distribution = new ArrayList<>();
-        int count = config.getOrderCount();
-        double iter = 6.0 / count;
-        double adjustment = Math.pow(3, 1.0 / 3.0);
-        double total_size = 0;
-        for(double x=-3; x<=3; x+=iter) {
-            double y = Math.pow(Math.abs(x), 1.0 / 3.0);
-            if(x < 0) {
-                y = y * -1.0;
-            }
-            double offset = ((((x + iter) + 3) / 6) * range * midPrice);
-            double price = side.equals(MarketSide.SELL) ? midPrice + offset : midPrice - offset;
-            double size = (y + adjustment) - total_size;
-            distribution.add(new DistributionStep()
-                    .setPrice(Math.round(price * 10000.0) / 10000.0)
-                    .setSize(Math.round(size * 10000.0) / 10000.0));
-            total_size += size;
+        for(int i=0; i<ladder.getCount(); i++) {
+            distribution.add(new DistributionStep().setPrice(ladder.getPrice(i)).setSize(ladder.getSize(i)));
         }
-        double sum = distribution.stream().mapToDouble(DistributionStep::getSize).sum();
-        double modifier = totalVolume / sum;
-        distribution.forEach(d -> d.setSize(d.getSize() * modifier));
         return distribution;
     }
-}
\ No newline at end of file
+
+    /**
+     * Build the distribution for a given mid-price, target volume and range, replacing the contents of the ladder.
+     * There is exactly one level per order, with the order count taken from the default app config.
+     *
+     * @param midPrice this will be the best bid or ask
+     * @param totalVolume the total volume across all quotes
+     * @param range the depth for the quotes
+     * @param ladder {@link QuoteLadder}
+     *
+     * @return the number of levels
+     */
+    public int getDistribution(
+            final double midPrice,
+            final double totalVolume,
+            final double range,
+            final MarketSide side,
+            final QuoteLadder ladder
+    ) {
+        AppConfig config = configStore.get().orElseThrow(() -> new TradingException(ErrorCode.APP_CONFIG_NOT_FOUND));
+        return getDistribution(midPrice, totalVolume, range, side, config.getOrderCount(), ladder);
+    }
+
+    /**
+     * Build the distribution for a given mid-price, target volume and range, replacing the contents of the ladder.
+     * There is exactly one level per order.
+     *
+     * @param midPrice this will be the best bid or ask
+     * @param totalVolume the total volume across all quotes
+     * @param range the depth for the quotes
+     * @param orderCount the number of orders
+     * @param ladder {@link QuoteLadder}
+     *
+     * @return the number of levels
+     */
+    public int getDistribution(
+            final double midPrice,
+            final double totalVolume,
+            final double range,
+            final MarketSide side,
+            final int orderCount,
+            final QuoteLadder ladder
+    ) {
+        ladder.clear();
+        Shape shape = shapes.computeIfAbsent(orderCount, Shape::of);
+        for(int i=0; i<shape.offsets().length; i++) {
+            double offset = shape.offsets()[i] * range * midPrice;
+            double price = side.equals(MarketSide.SELL) ? midPrice + offset : midPrice - offset;
+            ladder.add(Math.round(price * 10000.0) / 10000.0, shape.weights()[i] * totalVolume);
+        }
+        return ladder.getCount();
+    }
+
+    /**
+     * The distribution for a unit range and volume: level {@code i} sits {@code offsets[i]} of the range away from
+     * the best price and carries {@code weights[i]} of the volume. The cumulative size follows the cube root of
+     * {@code x} for {@code x} stepping evenly from -3 to 3, so the weights are the differences between successive
+     * cube roots (rounded to 4 d.p. as the orders always were). Level {@code i} ends at step {@code i + 1}, so no
+     * level is left with zero size at {@code x = -3}.
+     *
+     * @param orderCount the number of levels
+     * @param offsets offset from the best price as a fraction of the range
+     * @param weights size as a fraction of the total volume
+     */
+    private record Shape(int orderCount, double[] offsets, double[] weights) {
+
+        static Shape of(
+                final int orderCount
+        ) {
+            int count = Math.max(orderCount, 0);
+            double[] offsets = new double[count];
+            double[] weights = new double[count];
+            double iter = 6.0 / count;
+            double totalSize = 0;
+            double sum = 0;
+            for(int i=0; i<count; i++) {
+                double x = -3 + (i + 1) * iter;
+                double size = (Math.cbrt(x) + ADJUSTMENT) - totalSize;
+                offsets[i] = (double) (i + 1) / count;
+                weights[i] = Math.round(size * 10000.0) / 10000.0;
+                totalSize += size;
+                sum += weights[i];
+            }
+            for(int i=0; i<count; i++) {
+                weights[i] = sum > 0 ? weights[i] / sum : 1.0 / count;
+            }
+            return new Shape(orderCount, offsets, weights);
+        }
+    }
+}
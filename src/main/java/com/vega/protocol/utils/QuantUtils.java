@@ -45,6 +45,52 @@ public class QuantUtils {
         return (max - cdf(m, stdev, price)) / z;
     }
 
+    /**
+     * Return the probability of trading for every price in a ladder. The terms that depend only on the risk model
+     * and bounds (including both bound CDFs) are computed once, leaving one {@code erfc} per price. The results are
+     * identical to calling {@link #getProbabilityOfTrading(double, double, double, double, double, double, double,
+     * MarketSide)} for each price.
+     *
+     * @param mu from risk model
+     * @param sigma from risk model
+     * @param bestPrice the best price in the book
+     * @param tau from risk model
+     * @param lowerBound the lower price monitoring bound
+     * @param upperBound the upper price monitoring bound
+     * @param prices the prices to calculate the probability of trading for
+     * @param count the number of prices to use from the array
+     * @param side the side of the book {@link MarketSide}
+     * @param probabilities receives the probability for each price
+     */
+    public void getProbabilityOfTrading(
+            final double mu,
+            final double sigma,
+            final double bestPrice,
+            final double tau,
+            final double lowerBound,
+            final double upperBound,
+            final double[] prices,
+            final int count,
+            final MarketSide side,
+            final double[] probabilities
+    ) {
+        double stdev = sigma * Math.sqrt(tau);
+        double m = Math.log(bestPrice) + (mu - 0.5 * sigma * sigma) * tau;
+        double min = cdf(m, stdev, lowerBound);
+        double max = cdf(m, stdev, upperBound);
+        double z = max - min;
+        boolean buy = side.equals(MarketSide.BUY);
+        for(int i=0; i<count; i++) {
+            double price = prices[i];
+            if(price < lowerBound || price > upperBound) {
+                probabilities[i] = 0;
+            } else {
+                double cdf = cdf(m, stdev, price);
+                probabilities[i] = buy ? (cdf - min) / z : (max - cdf) / z;
+            }
+        }
+    }
+
     /**
      * Cumulative density function at x
      *
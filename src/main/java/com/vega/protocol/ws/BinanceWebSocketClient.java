@@ -1,6 +1,8 @@
 package com.vega.protocol.ws;
 
+import com.vega.protocol.constant.WebSocketTopic;
 import com.vega.protocol.model.ReferencePrice;
+import com.vega.protocol.service.MetricsService;
 import com.vega.protocol.store.ReferencePriceStore;
 import lombok.extern.slf4j.Slf4j;
 import org.java_websocket.client.WebSocketClient;
@@ -10,20 +12,31 @@ import org.json.JSONObject;
 
 import java.math.BigDecimal;
 import java.net.URI;
+import java.util.List;
 import java.util.Locale;
 
 @Slf4j
 public class BinanceWebSocketClient extends WebSocketClient {
 
-    private final String symbol;
+    private final List<String> symbols;
     private final ReferencePriceStore referencePriceStore;
+    private final MetricsService metricsService;
 
     public BinanceWebSocketClient(URI uri,
                                   String symbol,
-                                  ReferencePriceStore referencePriceStore) {
+                                  ReferencePriceStore referencePriceStore,
+                                  MetricsService metricsService) {
+        this(uri, List.of(symbol), referencePriceStore, metricsService);
+    }
+
+    public BinanceWebSocketClient(URI uri,
+                                  List<String> symbols,
+                                  ReferencePriceStore referencePriceStore,
+                                  MetricsService metricsService) {
         super(uri);
-        this.symbol = symbol;
+        this.symbols = symbols;
         this.referencePriceStore = referencePriceStore;
+        this.metricsService = metricsService;
     }
 
     /**
@@ -32,9 +45,13 @@ public class BinanceWebSocketClient extends WebSocketClient {
     @Override
     public void onOpen(ServerHandshake handshake) {
         try {
+            JSONArray streams = new JSONArray();
+            for(String symbol : symbols) {
+                streams.put(String.format("%s@ticker", symbol.toLowerCase(Locale.ROOT)));
+            }
             JSONObject sub = new JSONObject()
                     .put("method", "SUBSCRIBE")
-                    .put("params", new JSONArray().put(String.format("%s@ticker", symbol.toLowerCase(Locale.ROOT))))
+                    .put("params", streams)
                     .put("id", 1);
             this.send(sub.toString());
         } catch (Exception e) {
@@ -51,12 +68,18 @@ public class BinanceWebSocketClient extends WebSocketClient {
             JSONObject jsonObject = new JSONObject(message);
             if(jsonObject.has("stream")) {
                 JSONObject data = jsonObject.getJSONObject("data");
+                if(data.has("E")) {
+                    metricsService.onMessage(WebSocketTopic.REFERENCE_PRICE, data.getLong("E"));
+                } else {
+                    metricsService.onMessage(WebSocketTopic.REFERENCE_PRICE);
+                }
                 BigDecimal askPrice = BigDecimal.valueOf(data.getDouble("a"));
                 BigDecimal bidPrice = BigDecimal.valueOf(data.getDouble("b"));
                 BigDecimal askSize = BigDecimal.valueOf(data.getDouble("A"));
                 BigDecimal bidSize = BigDecimal.valueOf(data.getDouble("B"));
                 BigDecimal midPrice = askPrice.add(bidPrice).multiply(BigDecimal.valueOf(0.5));
                 ReferencePrice referencePrice = new ReferencePrice()
+                        .setSymbol(data.optString("s", symbols.get(0)))
                         .setAskPrice(askPrice)
                         .setBidPrice(bidPrice)
                         .setAskSize(askSize)
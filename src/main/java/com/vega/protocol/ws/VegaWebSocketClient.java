@@ -3,7 +3,10 @@ package com.vega.protocol.ws;
 import com.vega.protocol.constant.*;
 import com.vega.protocol.exception.TradingException;
 import com.vega.protocol.model.*;
+import com.vega.protocol.service.MetricsService;
+import com.vega.protocol.service.OrderReferenceService;
 import com.vega.protocol.service.OrderService;
+import com.vega.protocol.service.TransactionService;
 import com.vega.protocol.store.*;
 import com.vega.protocol.utils.DecimalUtils;
 import lombok.extern.slf4j.Slf4j;
@@ -38,7 +41,7 @@ public class VegaWebSocketClient extends WebSocketClient {
     private static final String ORDERS_QUERY =
     """
         subscription {
-            orders(partyId: "PARTY_ID", marketId: "MARKET_ID") {
+            orders(partyId: "PARTY_ID"MARKET_FILTER) {
                 id
                 price
                 side
@@ -48,6 +51,8 @@ public class VegaWebSocketClient extends WebSocketClient {
                 status
                 marketId
                 liquidityProvisionId
+                reference
+                rejectionReason
             }
         }
     """;
@@ -68,7 +73,7 @@ public class VegaWebSocketClient extends WebSocketClient {
     private static final String MARKETS_QUERY =
     """
         subscription {
-            marketsData(marketIds: "MARKET_ID") {
+            marketsData(marketIds: MARKET_IDS) {
             	marketId
             	marketState
             	marketTradingMode
@@ -131,12 +136,15 @@ public class VegaWebSocketClient extends WebSocketClient {
     private final AssetStore assetStore;
     private final LiquidityCommitmentStore liquidityCommitmentStore;
     private final String partyId;
-    private final String marketId;
+    private final List<String> marketIds;
     private final DecimalUtils decimalUtils;
     private final OrderService orderService;
+    private final OrderReferenceService orderReferenceService;
+    private final TransactionService transactionService;
+    private final MetricsService metricsService;
 
     /**
-     * Create a websocket client for Vega
+     * Create a websocket client for a single Vega market
      *
      * @param partyId the Vega party ID
      * @param marketId the Vega market ID
@@ -148,6 +156,9 @@ public class VegaWebSocketClient extends WebSocketClient {
      * @param liquidityCommitmentStore {@link LiquidityCommitmentStore}
      * @param decimalUtils {@link DecimalUtils}
      * @param orderService {@link OrderService}
+     * @param orderReferenceService {@link OrderReferenceService}
+     * @param transactionService {@link TransactionService}
+     * @param metricsService {@link MetricsService}
      * @param uri the websocket URI
      */
     public VegaWebSocketClient(
@@ -161,6 +172,48 @@ public class VegaWebSocketClient extends WebSocketClient {
             final LiquidityCommitmentStore liquidityCommitmentStore,
             final DecimalUtils decimalUtils,
             final OrderService orderService,
+            final OrderReferenceService orderReferenceService,
+            final TransactionService transactionService,
+            final MetricsService metricsService,
+            final URI uri
+    ) {
+        this(partyId, List.of(marketId), marketStore, orderStore, positionStore, accountStore, assetStore,
+                liquidityCommitmentStore, decimalUtils, orderService, orderReferenceService, transactionService,
+                metricsService, uri);
+    }
+
+    /**
+     * Create a websocket client for Vega
+     *
+     * @param partyId the Vega party ID
+     * @param marketIds the Vega market IDs
+     * @param marketStore {@link MarketStore}
+     * @param orderStore {@link OrderStore}
+     * @param positionStore {@link PositionStore}
+     * @param accountStore {@link AccountStore}
+     * @param assetStore {@link AssetStore}
+     * @param liquidityCommitmentStore {@link LiquidityCommitmentStore}
+     * @param decimalUtils {@link DecimalUtils}
+     * @param orderService {@link OrderService}
+     * @param orderReferenceService {@link OrderReferenceService}
+     * @param transactionService {@link TransactionService}
+     * @param metricsService {@link MetricsService}
+     * @param uri the websocket URI
+     */
+    public VegaWebSocketClient(
+            final String partyId,
+            final List<String> marketIds,
+            final MarketStore marketStore,
+            final OrderStore orderStore,
+            final PositionStore positionStore,
+            final AccountStore accountStore,
+            final AssetStore assetStore,
+            final LiquidityCommitmentStore liquidityCommitmentStore,
+            final DecimalUtils decimalUtils,
+            final OrderService orderService,
+            final OrderReferenceService orderReferenceService,
+            final TransactionService transactionService,
+            final MetricsService metricsService,
             final URI uri
     ) {
         super(uri, new Draft_6455(Collections.emptyList(),
@@ -173,8 +226,11 @@ public class VegaWebSocketClient extends WebSocketClient {
         this.liquidityCommitmentStore = liquidityCommitmentStore;
         this.decimalUtils = decimalUtils;
         this.orderService = orderService;
+        this.orderReferenceService = orderReferenceService;
+        this.transactionService = transactionService;
+        this.metricsService = metricsService;
         this.partyId = partyId;
-        this.marketId = marketId;
+        this.marketIds = List.copyOf(marketIds);
     }
 
     /**
@@ -188,7 +244,7 @@ public class VegaWebSocketClient extends WebSocketClient {
             this.send(init.toString());
             JSONObject marketsQuery = new JSONObject()
                     .put("query", MARKETS_QUERY
-                            .replace("MARKET_ID", marketId));
+                            .replace("MARKET_IDS", new JSONArray(marketIds).toString()));
             JSONObject marketsSubscription = new JSONObject()
                     .put("id", "markets")
                     .put("type", "start")
@@ -197,7 +253,8 @@ public class VegaWebSocketClient extends WebSocketClient {
             JSONObject ordersQuery = new JSONObject()
                     .put("query", ORDERS_QUERY
                             .replace("PARTY_ID", partyId)
-                            .replace("MARKET_ID", marketId));
+                            .replace("MARKET_FILTER", marketIds.size() == 1 ?
+                                    String.format(", marketId: \"%s\"", marketIds.get(0)) : ""));
             JSONObject ordersSubscription = new JSONObject()
                     .put("id", "orders")
                     .put("type", "start")
@@ -244,11 +301,26 @@ public class VegaWebSocketClient extends WebSocketClient {
             if(StringUtils.hasText(id) && payload != null) {
                 JSONObject data = payload.getJSONObject("data");
                 switch (id) {
-                    case "markets" -> handleMarkets(data);
-                    case "orders" -> handleOrders(data);
-                    case "positions" -> handlePositions(data);
-                    case "accounts" -> handleAccounts(data);
-                    case "liquidityCommitment" -> handleLiquidityCommitment(data);
+                    case "markets" -> {
+                        metricsService.onMessage(WebSocketTopic.MARKETS);
+                        handleMarkets(data);
+                    }
+                    case "orders" -> {
+                        metricsService.onMessage(WebSocketTopic.ORDERS);
+                        handleOrders(data);
+                    }
+                    case "positions" -> {
+                        metricsService.onMessage(WebSocketTopic.POSITIONS);
+                        handlePositions(data);
+                    }
+                    case "accounts" -> {
+                        metricsService.onMessage(WebSocketTopic.ACCOUNTS);
+                        handleAccounts(data);
+                    }
+                    case "liquidityCommitment" -> {
+                        metricsService.onMessage(WebSocketTopic.LIQUIDITY_COMMITMENTS);
+                        handleLiquidityCommitment(data);
+                    }
                     default -> log.warn("Unsupported message");
                 }
             }
@@ -355,6 +427,8 @@ public class VegaWebSocketClient extends WebSocketClient {
                         .replace("TYPE_", ""));
                 OrderStatus status = OrderStatus.valueOf(orderObject.getString("status")
                         .replace("STATUS_", ""));
+                String reference = orderObject.optString("reference");
+                String rejectionReason = orderObject.optString("rejectionReason");
 		if(status.equals(OrderStatus.ACTIVE)) activeCount++;
 		if(status.equals(OrderStatus.CANCELLED)) cancelCount++;
             	Order order = new Order()
@@ -367,8 +441,12 @@ public class VegaWebSocketClient extends WebSocketClient {
                     .setPartyId(partyId)
                     .setMarket(market)
                     .setSide(side)
+                    .setReference(StringUtils.hasText(reference) ? reference : null)
+                    .setRejectionReason(StringUtils.hasText(rejectionReason) ? rejectionReason : null)
                     .setIsPeggedOrder(orderObject.has("liquidityProvisionId") &&
                             orderObject.getString("liquidityProvisionId").length() > 0);
+                orderReferenceService.onUpdate(order);
+                transactionService.onOrderUpdate(order);
 	    	if(order.getStatus().equals(OrderStatus.CANCELLED)) {
 		    orderStore.remove(order);
 		} else {
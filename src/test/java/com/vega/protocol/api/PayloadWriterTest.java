@@ -0,0 +1,241 @@
+package com.vega.protocol.api;
+
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.constant.OrderType;
+import com.vega.protocol.constant.TimeInForce;
+import com.vega.protocol.model.Market;
+import com.vega.protocol.model.Order;
+import com.vega.protocol.quote.QuoteLevel;
+import com.vega.protocol.utils.DecimalUtils;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class PayloadWriterTest {
+
+    private static final String PARTY_ID = "6817f2b4d9464716c6756d2827d893872b1d33839e211c27a650629e428dc35c";
+
+    private final DecimalUtils decimalUtils = new DecimalUtils();
+    private PayloadWriter payloadWriter;
+
+    @BeforeEach
+    public void setup() {
+        payloadWriter = new PayloadWriter(decimalUtils);
+    }
+
+    private Market newMarket(
+            final int decimalPlaces,
+            final int positionDecimalPlaces
+    ) {
+        return new Market()
+                .setId("10c4b1114d2f6fda239b73d018bca55888b6018f0ac70029972a17fea0a6a56e")
+                .setDecimalPlaces(decimalPlaces)
+                .setPositionDecimalPlaces(positionDecimalPlaces);
+    }
+
+    private Order newOrder(
+            final Market market,
+            final BigDecimal price,
+            final BigDecimal size,
+            final MarketSide side,
+            final OrderType type,
+            final TimeInForce timeInForce
+    ) {
+        return new Order()
+                .setMarket(market)
+                .setPartyId(PARTY_ID)
+                .setPrice(price)
+                .setSize(size)
+                .setSide(side)
+                .setType(type)
+                .setTimeInForce(timeInForce);
+    }
+
+    private String legacyBatch(
+            final List<String> cancellations,
+            final List<Order> submissions,
+            final Market market,
+            final String partyId
+    ) throws JSONException {
+        JSONArray cancellationsArr = new JSONArray();
+        JSONArray submissionArr = new JSONArray();
+        for(String id : cancellations) {
+            cancellationsArr.put(new JSONObject()
+                    .put("marketId", market.getId())
+                    .put("orderId", id));
+        }
+        for(Order order : submissions) {
+            submissionArr.put(new JSONObject()
+                    .put("marketId", market.getId())
+                    .put("price", decimalUtils.convertFromDecimals(
+                            market.getDecimalPlaces(), order.getPrice()).toBigInteger().toString())
+                    .put("size", decimalUtils.convertFromDecimals(
+                            market.getPositionDecimalPlaces(), order.getSize()).toBigInteger().toString())
+                    .put("side", String.format("SIDE_%s", order.getSide().name()))
+                    .put("timeInForce", String.format("TIME_IN_FORCE_%s", order.getTimeInForce().name()))
+                    .put("type", String.format("TYPE_%s", order.getType().name()))
+                    .put("reference", reference(order)));
+        }
+        return new JSONObject()
+                .put("batchMarketInstructions", new JSONObject()
+                        .put("cancellations", cancellationsArr)
+                        .put("amendments", new JSONArray())
+                        .put("submissions", submissionArr))
+                .put("pubKey", partyId)
+                .put("propagate", true).toString();
+    }
+
+    private String legacyOrder(
+            final Order order,
+            final String reference
+    ) throws JSONException {
+        Market market = order.getMarket();
+        JSONObject orderSubmission = new JSONObject()
+                .put("marketId", market.getId())
+                .put("size", decimalUtils.convertFromDecimals(
+                        market.getPositionDecimalPlaces(), order.getSize()).toBigInteger().toString())
+                .put("side", String.format("SIDE_%s", order.getSide().name()))
+                .put("type", String.format("TYPE_%s", order.getType().name()))
+                .put("timeInForce", String.format("TIME_IN_FORCE_%s", order.getTimeInForce().name()))
+                .put("reference", reference);
+        if(!order.getType().equals(OrderType.MARKET)) {
+            orderSubmission.put("price", decimalUtils.convertFromDecimals(
+                    market.getDecimalPlaces(), order.getPrice()).toBigInteger().toString());
+        }
+        return new JSONObject()
+                .put("orderSubmission", orderSubmission)
+                .put("pubKey", PARTY_ID)
+                .put("propagate", true).toString();
+    }
+
+    private String reference(
+            final Order order
+    ) {
+        return String.format("%s-%s", order.getPartyId(), order.getSize().toPlainString());
+    }
+
+    private String write(
+            final List<String> cancellations,
+            final List<Order> submissions,
+            final Market market,
+            final String partyId
+    ) {
+        return new String(payloadWriter.writeBatchMarketInstructions(
+                cancellations, submissions, market, partyId, this::reference), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testWriteBatchMarketInstructionsMatchesLegacyEncoding() throws JSONException {
+        Random random = new Random(42);
+        for(int n=0; n<200; n++) {
+            Market market = newMarket(random.nextInt(8), random.nextInt(6));
+            List<String> cancellations = new ArrayList<>();
+            List<Order> submissions = new ArrayList<>();
+            for(int i=0; i<random.nextInt(5); i++) {
+                cancellations.add(Long.toHexString(random.nextLong()));
+            }
+            for(int i=0; i<random.nextInt(45); i++) {
+                BigDecimal price = BigDecimal.valueOf(random.nextDouble() * 50000);
+                BigDecimal size = BigDecimal.valueOf(random.nextDouble() * 10)
+                        .setScale(random.nextInt(12), RoundingMode.HALF_UP);
+                submissions.add(newOrder(market, price, size,
+                        MarketSide.values()[random.nextInt(MarketSide.values().length)],
+                        OrderType.values()[random.nextInt(OrderType.values().length)],
+                        TimeInForce.values()[random.nextInt(TimeInForce.values().length)]));
+            }
+            Assertions.assertEquals(legacyBatch(cancellations, submissions, market, PARTY_ID),
+                    write(cancellations, submissions, market, PARTY_ID));
+        }
+    }
+
+    @Test
+    public void testWriteBatchMarketInstructionsEmpty() throws JSONException {
+        Market market = newMarket(5, 3);
+        Assertions.assertEquals(legacyBatch(Collections.emptyList(), Collections.emptyList(), market, PARTY_ID),
+                write(Collections.emptyList(), Collections.emptyList(), market, PARTY_ID));
+    }
+
+    @Test
+    public void testWriteBatchMarketInstructionsHalfDownRounding() throws JSONException {
+        Market market = newMarket(2, 1);
+        List<Order> submissions = List.of(
+                newOrder(market, new BigDecimal("1.005"), new BigDecimal("0.25"),
+                        MarketSide.BUY, OrderType.LIMIT, TimeInForce.GTC),
+                newOrder(market, new BigDecimal("1.0051"), new BigDecimal("-0.25"),
+                        MarketSide.SELL, OrderType.LIMIT, TimeInForce.GTC),
+                newOrder(market, new BigDecimal("123456789012345678901234.5"), new BigDecimal("1E+3"),
+                        MarketSide.SELL, OrderType.LIMIT, TimeInForce.GTC));
+        Assertions.assertEquals(legacyBatch(List.of("1"), submissions, market, PARTY_ID),
+                write(List.of("1"), submissions, market, PARTY_ID));
+    }
+
+    @Test
+    public void testWriteBatchMarketInstructionsEscapesStrings() throws JSONException {
+        Market market = newMarket(5, 3).setId("</script>\"\\\t\n\u0001\u0085 é€😀");
+        List<Order> submissions = List.of(newOrder(market, BigDecimal.ONE, BigDecimal.TEN,
+                MarketSide.BUY, OrderType.LIMIT, TimeInForce.GTC));
+        String marketId = "<\\/script>\\\"\\\\\\t\\n\\u0001\\u0085\\u2028é\\u20ac😀";
+        String expected = "{\"batchMarketInstructions\":{\"cancellations\":[{\"orderId\":\"a/b\",\"marketId\":\"" +
+                marketId + "\"}],\"submissions\":[{\"reference\":\"" + PARTY_ID + "-10\",\"side\":\"SIDE_BUY\"," +
+                "\"size\":\"10000\",\"price\":\"100000\",\"type\":\"TYPE_LIMIT\"," +
+                "\"timeInForce\":\"TIME_IN_FORCE_GTC\",\"marketId\":\"" + marketId + "\"}],\"amendments\":[]}," +
+                "\"propagate\":true,\"pubKey\":\"" + PARTY_ID + "\"}";
+        String payload = write(List.of("a/b"), submissions, market, PARTY_ID);
+        Assertions.assertEquals(expected, payload);
+        JSONObject cancellation = new JSONObject(payload).getJSONObject("batchMarketInstructions")
+                .getJSONArray("cancellations").getJSONObject(0);
+        Assertions.assertEquals(market.getId(), cancellation.getString("marketId"));
+        Assertions.assertEquals("a/b", cancellation.getString("orderId"));
+    }
+
+    @Test
+    public void testWriteBatchMarketInstructionsWithoutPartyId() throws JSONException {
+        Market market = newMarket(5, 3);
+        Assertions.assertEquals(legacyBatch(List.of("1"), Collections.emptyList(), market, null),
+                write(List.of("1"), Collections.emptyList(), market, null));
+    }
+
+    @Test
+    public void testWriteOrderSubmissionMatchesLegacyEncoding() throws JSONException {
+        Market market = newMarket(5, 3);
+        Order limit = newOrder(market, BigDecimal.valueOf(20001.12345), BigDecimal.valueOf(0.001),
+                MarketSide.SELL, OrderType.LIMIT, TimeInForce.GTC);
+        Order marketOrder = newOrder(market, null, BigDecimal.valueOf(0.001),
+                MarketSide.BUY, OrderType.MARKET, TimeInForce.IOC);
+        Assertions.assertEquals(legacyOrder(limit, "ref-1"), new String(
+                payloadWriter.writeOrderSubmission(limit, PARTY_ID, "ref-1"), StandardCharsets.UTF_8));
+        Assertions.assertEquals(legacyOrder(marketOrder, "ref-2"), new String(
+                payloadWriter.writeOrderSubmission(marketOrder, PARTY_ID, "ref-2"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testWriteBatchMarketInstructionsWithQuoteLevels() throws JSONException {
+        Market market = newMarket(5, 3);
+        List<Order> submissions = List.of(
+                new QuoteLevel().set(2000112345L, 5, 1, 3)
+                        .setMarket(market)
+                        .setPartyId(PARTY_ID)
+                        .setSide(MarketSide.BUY)
+                        .setType(OrderType.LIMIT)
+                        .setTimeInForce(TimeInForce.GTC),
+                new QuoteLevel().set(2000112345L, 2, 1, 1)
+                        .setMarket(market)
+                        .setPartyId(PARTY_ID)
+                        .setSide(MarketSide.SELL)
+                        .setType(OrderType.LIMIT)
+                        .setTimeInForce(TimeInForce.GTC));
+        Assertions.assertEquals(legacyBatch(List.of("1"), submissions, market, PARTY_ID),
+                write(List.of("1"), submissions, market, PARTY_ID));
+    }
+}
@@ -5,15 +5,28 @@ import com.mashape.unirest.http.JsonNode;
 import com.mashape.unirest.http.Unirest;
 import com.mashape.unirest.request.GetRequest;
 import com.mashape.unirest.request.HttpRequestWithBody;
+import com.mashape.unirest.request.body.RawBody;
 import com.mashape.unirest.request.body.RequestBodyEntity;
+import com.vega.protocol.constant.ErrorCode;
+import com.vega.protocol.constant.LatencyStage;
 import com.vega.protocol.constant.LiquidityCommitmentStatus;
 import com.vega.protocol.constant.MarketSide;
 import com.vega.protocol.constant.OrderType;
 import com.vega.protocol.constant.TimeInForce;
+import com.vega.protocol.constant.TransactionStatus;
+import com.vega.protocol.exception.TradingException;
 import com.vega.protocol.model.*;
+import com.vega.protocol.service.DataNodeService;
+import com.vega.protocol.service.LatencyService;
+import com.vega.protocol.service.MarketBindingService;
+import com.vega.protocol.service.OrderReferenceService;
 import com.vega.protocol.service.OrderService;
+import com.vega.protocol.service.RiskService;
+import com.vega.protocol.signer.TransactionSigner;
 import com.vega.protocol.store.AssetStore;
 import com.vega.protocol.store.MarketStore;
+import com.vega.protocol.store.OrderStore;
+import com.vega.protocol.store.ReferencePriceStore;
 import com.vega.protocol.utils.DecimalUtils;
 import org.apache.commons.io.IOUtils;
 import org.json.JSONArray;
@@ -35,18 +48,32 @@ public class VegaApiClientTest {
     private static final String WALLET_USER = "trading";
     private static final String WALLET_PASSWORD = "password123";
     private static final String NODE_URL = "https://api.n11.testnet.vega.xyz";
+    private static final String TENDERMINT_URL = "https://tm.n11.testnet.vega.xyz";
     private static final String MARKET_ID = "10c4b1114d2f6fda239b73d018bca55888b6018f0ac70029972a17fea0a6a56e";
     private static final String PARTY_ID = "6817f2b4d9464716c6756d2827d893872b1d33839e211c27a650629e428dc35c";
     private final MarketStore marketStore = Mockito.mock(MarketStore.class);
     private final AssetStore assetStore = Mockito.mock(AssetStore.class);
     private final DecimalUtils decimalUtils = Mockito.mock(DecimalUtils.class);
     private final OrderService orderService = Mockito.mock(OrderService.class);
+    private final TransactionSigner transactionSigner = Mockito.mock(TransactionSigner.class);
+    private final RiskService riskService = getRiskService(0.0);
+    private final LatencyService latencyService = new LatencyService();
+    private final DataNodeService dataNodeService = new DataNodeService(
+            NODE_URL, "", 10L, 3, 0.7, 3, 1000L);
 
     private final VegaApiClient vegaApiClient = new VegaApiClient(
-            WALLET_URL, WALLET_USER, WALLET_PASSWORD, NODE_URL, MARKET_ID,
-            marketStore, assetStore, decimalUtils, orderService
+            WALLET_URL, WALLET_USER, WALLET_PASSWORD, dataNodeService, TENDERMINT_URL, MARKET_ID,
+            marketStore, assetStore, decimalUtils, orderService, new PayloadWriter(decimalUtils),
+            new OrderReferenceService(100, 10000L, latencyService), transactionSigner, riskService, latencyService
     );
 
+    private RiskService getRiskService(
+            final double maxOrderNotional
+    ) {
+        return new RiskService(new OrderStore(), new MarketBindingService(MARKET_ID, "BTCUSDT", ""),
+                new ReferencePriceStore(), true, maxOrderNotional, 0.0, 0.1, 5000L);
+    }
+
     private Order newOrder() {
         Market market = new Market()
                 .setId("12345")
@@ -112,10 +139,13 @@ public class VegaApiClientTest {
     ) throws Exception {
         HttpRequestWithBody request = Mockito.mock(HttpRequestWithBody.class);
         RequestBodyEntity entity = Mockito.mock(RequestBodyEntity.class);
+        RawBody rawBody = Mockito.mock(RawBody.class);
         HttpResponse<JsonNode> response = Mockito.mock(HttpResponse.class);
         Mockito.when(request.body(Mockito.any(JSONObject.class))).thenReturn(entity);
+        Mockito.when(request.body(Mockito.any(byte[].class))).thenReturn(rawBody);
         Mockito.when(request.headers(Mockito.any())).thenReturn(request);
         Mockito.when(entity.asJson()).thenReturn(response);
+        Mockito.when(rawBody.asJson()).thenReturn(response);
         Mockito.when(response.getBody()).thenReturn(new JsonNode(jsonResponse.toString()));
         mockStatic.when(() -> Unirest.post(String.format("%s/api/v1/command/sync", WALLET_URL))).thenReturn(request);
     }
@@ -319,7 +349,7 @@ public class VegaApiClientTest {
             List<String> cancellations = List.of("12345");
             List<Order> submissions = List.of(order);
             return vegaApiClient.submitBulkInstruction(cancellations, submissions,
-                    new Market().setId(MARKET_ID), PARTY_ID);
+                    new Market().setId(MARKET_ID), PARTY_ID).map(BatchInstruction::getTxHash);
         } catch(Exception e) {
             Assertions.fail();
         }
@@ -481,6 +511,161 @@ public class VegaApiClientTest {
         getAssets(20, 200);
     }
 
+    @Test
+    public void testGetTransactionResultRejected() {
+        try(MockedStatic<Unirest> mockStatic = Mockito.mockStatic(Unirest.class)) {
+            JSONObject txResult = new JSONObject()
+                    .put("result", new JSONObject()
+                            .put("hash", "ABC")
+                            .put("tx_result", new JSONObject()
+                                    .put("code", 89)
+                                    .put("info", "too many transactions per block")));
+            GetRequest request = Mockito.mock(GetRequest.class);
+            HttpResponse<JsonNode> response = Mockito.mock(HttpResponse.class);
+            Mockito.when(request.asJson()).thenReturn(response);
+            Mockito.when(response.getBody()).thenReturn(new JsonNode(txResult.toString()));
+            Mockito.when(response.getStatus()).thenReturn(200);
+            mockStatic.when(() -> Unirest.get(String.format("%s/tx?hash=0xABC", TENDERMINT_URL))).thenReturn(request);
+            Transaction transaction = vegaApiClient.getTransactionResult("ABC").orElseThrow();
+            Assertions.assertEquals(TransactionStatus.REJECTED, transaction.getStatus());
+            Assertions.assertEquals("too many transactions per block", transaction.getReason());
+        } catch(Exception e) {
+            Assertions.fail();
+        }
+    }
+
+    @Test
+    public void testGetTransactionResultWithoutTendermintUrl() {
+        VegaApiClient client = new VegaApiClient(WALLET_URL, WALLET_USER, WALLET_PASSWORD, dataNodeService, "",
+                MARKET_ID, marketStore, assetStore, decimalUtils, orderService, new PayloadWriter(decimalUtils),
+                new OrderReferenceService(100, 10000L, latencyService), transactionSigner, riskService,
+                latencyService);
+        Assertions.assertTrue(client.getTransactionResult("ABC").isEmpty());
+    }
+
+    @Test
+    public void testSubmitBulkInstructionWithSigner() {
+        Order order = newOrder().setPartyId(PARTY_ID);
+        Mockito.when(transactionSigner.canSign(PARTY_ID)).thenReturn(true);
+        Mockito.when(transactionSigner.submitBatchMarketInstructions(Mockito.anyList(), Mockito.anyList(),
+                Mockito.any(Market.class), Mockito.any())).thenReturn(Optional.of("ABC"));
+        Optional<String> txHash = vegaApiClient.submitBulkInstruction(
+                List.of("1"), List.of(order), order.getMarket(), PARTY_ID).map(BatchInstruction::getTxHash);
+        Assertions.assertEquals(Optional.of("ABC"), txHash);
+    }
+
+    @Test
+    public void testSubmitBulkInstructionDropsOrdersFailingRiskChecks() {
+        VegaApiClient client = new VegaApiClient(WALLET_URL, WALLET_USER, WALLET_PASSWORD, dataNodeService, "",
+                MARKET_ID, marketStore, assetStore, decimalUtils, orderService, new PayloadWriter(decimalUtils),
+                new OrderReferenceService(100, 10000L, latencyService), transactionSigner, getRiskService(0.5),
+                latencyService);
+        Order order = newOrder().setPartyId(PARTY_ID);
+        Mockito.when(transactionSigner.canSign(PARTY_ID)).thenReturn(true);
+        Mockito.when(transactionSigner.submitBatchMarketInstructions(Mockito.anyList(), Mockito.anyList(),
+                Mockito.any(Market.class), Mockito.any())).thenReturn(Optional.of("ABC"));
+        BatchInstruction batch = client.submitBulkInstruction(
+                List.of("1"), List.of(order), order.getMarket(), PARTY_ID).orElseThrow();
+        Assertions.assertEquals("ABC", batch.getTxHash());
+        Assertions.assertEquals(List.of("1"), batch.getCancellations());
+        Assertions.assertTrue(batch.getSubmissions().isEmpty());
+        Mockito.verify(transactionSigner).submitBatchMarketInstructions(Mockito.eq(List.of("1")),
+                Mockito.eq(List.of()), Mockito.any(Market.class), Mockito.any());
+        Assertions.assertEquals(1, latencyService.get(LatencyStage.SIGN).getCount());
+        Assertions.assertEquals(1, latencyService.get(LatencyStage.SUBMIT).getCount());
+        Assertions.assertTrue(client.submitBulkInstruction(
+                List.of(), List.of(order), order.getMarket(), PARTY_ID).isEmpty());
+        Assertions.assertTrue(client.submitOrder(order, PARTY_ID).isEmpty());
+    }
+
+    @Test
+    public void testSubmitBulkInstructionSendsCancellationsWhenRiskChecksFail() {
+        RiskService failingRiskService = Mockito.mock(RiskService.class);
+        Mockito.when(failingRiskService.check(Mockito.anyList(), Mockito.anyList(), Mockito.any(Market.class)))
+                .thenThrow(new RuntimeException("Risk check failed"));
+        VegaApiClient client = new VegaApiClient(WALLET_URL, WALLET_USER, WALLET_PASSWORD, dataNodeService, "",
+                MARKET_ID, marketStore, assetStore, decimalUtils, orderService, new PayloadWriter(decimalUtils),
+                new OrderReferenceService(100, 10000L, latencyService), transactionSigner, failingRiskService,
+                latencyService);
+        Order order = newOrder().setPartyId(PARTY_ID);
+        Mockito.when(transactionSigner.canSign(PARTY_ID)).thenReturn(true);
+        Mockito.when(transactionSigner.submitBatchMarketInstructions(Mockito.anyList(), Mockito.anyList(),
+                Mockito.any(Market.class), Mockito.any())).thenReturn(Optional.of("ABC"));
+        BatchInstruction batch = client.submitBulkInstruction(
+                List.of("1"), List.of(order), order.getMarket(), PARTY_ID).orElseThrow();
+        Assertions.assertTrue(batch.getSubmissions().isEmpty());
+        Mockito.verify(transactionSigner).submitBatchMarketInstructions(Mockito.eq(List.of("1")),
+                Mockito.eq(List.of()), Mockito.any(Market.class), Mockito.any());
+        Assertions.assertTrue(client.submitBulkInstruction(
+                List.of(), List.of(order), order.getMarket(), PARTY_ID).isEmpty());
+    }
+
+    @Test
+    public void testSubmitWithUnknownOutcomeDoesNotUseWallet() {
+        Order order = newOrder().setPartyId(PARTY_ID);
+        Mockito.when(transactionSigner.canSign(PARTY_ID)).thenReturn(true);
+        Mockito.when(transactionSigner.submitBatchMarketInstructions(Mockito.anyList(), Mockito.anyList(),
+                Mockito.any(Market.class), Mockito.any()))
+                .thenThrow(new TradingException(ErrorCode.TRANSACTION_OUTCOME_UNKNOWN));
+        Mockito.when(transactionSigner.submitOrder(Mockito.any(Order.class), Mockito.anyString()))
+                .thenThrow(new TradingException(ErrorCode.TRANSACTION_OUTCOME_UNKNOWN));
+        try(MockedStatic<Unirest> mockStatic = Mockito.mockStatic(Unirest.class)) {
+            Assertions.assertTrue(vegaApiClient.submitBulkInstruction(
+                    List.of("1"), List.of(order), order.getMarket(), PARTY_ID).isEmpty());
+            Assertions.assertTrue(vegaApiClient.submitOrder(order, PARTY_ID).isEmpty());
+            mockStatic.verifyNoInteractions();
+        }
+    }
+
+    @Test
+    public void testSubmitOrderWithSigner() {
+        Order order = newOrder().setPartyId(PARTY_ID);
+        Mockito.when(transactionSigner.canSign(PARTY_ID)).thenReturn(true);
+        Mockito.when(transactionSigner.submitOrder(Mockito.any(Order.class), Mockito.anyString()))
+                .thenReturn(Optional.of("ABC"));
+        Optional<String> txHash = vegaApiClient.submitOrder(order, PARTY_ID);
+        Assertions.assertEquals(Optional.of("ABC"), txHash);
+        Assertions.assertNotNull(order.getReference());
+    }
+
+    @Test
+    public void testGetAssetsWithPagination() {
+        try(MockedStatic<Unirest> mockStatic = Mockito.mockStatic(Unirest.class)) {
+            try(InputStream is = getClass().getClassLoader().getResourceAsStream("vega-assets-rest.json")) {
+                JSONObject lastPage = new JSONObject(IOUtils.toString(Objects.requireNonNull(is), StandardCharsets.UTF_8));
+                JSONObject firstPage = new JSONObject(lastPage.toString());
+                firstPage.getJSONObject("assets").getJSONObject("pageInfo")
+                        .put("hasNextPage", true)
+                        .put("endCursor", "abc=");
+                mockGetRequest("/assets", mockStatic, firstPage, 200);
+                mockGetRequest("/assets?pagination.after=abc%3D", mockStatic, lastPage, 200);
+                List<Asset> assets = vegaApiClient.getAssets();
+                Assertions.assertEquals(40, assets.size());
+            } catch (Exception e) {
+                Assertions.fail();
+            }
+        }
+    }
+
+    @Test
+    public void testGetAssetsWithApiErrorOnSecondPage() {
+        try(MockedStatic<Unirest> mockStatic = Mockito.mockStatic(Unirest.class)) {
+            try(InputStream is = getClass().getClassLoader().getResourceAsStream("vega-assets-rest.json")) {
+                JSONObject lastPage = new JSONObject(IOUtils.toString(Objects.requireNonNull(is), StandardCharsets.UTF_8));
+                JSONObject firstPage = new JSONObject(lastPage.toString());
+                firstPage.getJSONObject("assets").getJSONObject("pageInfo")
+                        .put("hasNextPage", true)
+                        .put("endCursor", "abc");
+                mockGetRequest("/assets", mockStatic, firstPage, 200);
+                mockGetRequest("/assets?pagination.after=abc", mockStatic, lastPage, 500);
+                List<Asset> assets = vegaApiClient.getAssets();
+                Assertions.assertEquals(0, assets.size());
+            } catch (Exception e) {
+                Assertions.fail();
+            }
+        }
+    }
+
     @Test
     public void testGetAssetsWithApiError() {
         getAssets(0, 500);
@@ -622,9 +807,9 @@ public class VegaApiClientTest {
     public void testSubmitBatchInstructionWithMissingToken() {
         try(MockedStatic<Unirest> mockStatic = Mockito.mockStatic(Unirest.class)) {
             mockGetToken(mockStatic, new JSONObject());
-            Optional<String> txHash = vegaApiClient.submitBulkInstruction(Collections.emptyList(),
+            Optional<BatchInstruction> batch = vegaApiClient.submitBulkInstruction(Collections.emptyList(),
                     Collections.emptyList(), new Market().setId(MARKET_ID), PARTY_ID);
-            Assertions.assertTrue(txHash.isEmpty());
+            Assertions.assertTrue(batch.isEmpty());
         } catch(Exception e) {
             Assertions.fail();
         }
@@ -0,0 +1,108 @@
+package com.vega.protocol.backtest;
+
+import com.vega.protocol.constant.ErrorCode;
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.exception.TradingException;
+import com.vega.protocol.model.BacktestResult;
+import com.vega.protocol.model.BacktestSample;
+import com.vega.protocol.model.Fill;
+import com.vega.protocol.model.RecordedEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+
+public class BacktestTest {
+
+    private static final long START = 1650000000000L;
+
+    private Properties getProperties() throws IOException {
+        Properties properties = Backtest.loadProperties(null);
+        properties.setProperty("vega.market.id", "1");
+        properties.setProperty("reference.price.market", "BTCUSDT");
+        properties.setProperty("update.quotes.cron.expression", "* * * * * *");
+        properties.setProperty("backtest.market.decimal.places", "2");
+        properties.setProperty("backtest.latency.ms", "0");
+        return properties;
+    }
+
+    private List<RecordedEvent> getEvents() {
+        return List.of(
+                RecordedEventReader.parse(START + ",PRICE,BTCUSDT,99.99,100.01"),
+                RecordedEventReader.parse((START + 1000) + ",PRICE,BTCUSDT,99.99,100.01"),
+                RecordedEventReader.parse((START + 1500) + ",TRADE,1,SELL,99,2"),
+                RecordedEventReader.parse((START + 1600) + ",TRADE,2,SELL,99,2"),
+                RecordedEventReader.parse((START + 2500) + ",PRICE,BTCUSDT,99.99,100.01"));
+    }
+
+    @Test
+    public void testRun() throws IOException {
+        BacktestResult result = new Backtest(getProperties()).run(getEvents().iterator());
+        Assertions.assertEquals(5, result.getEvents());
+        Assertions.assertEquals(2500, result.getSimulatedMillis());
+        Assertions.assertTrue(result.getQuoteCycles() >= 3);
+        Assertions.assertFalse(result.getFills().isEmpty());
+        double bought = 0;
+        for(Fill fill : result.getFills()) {
+            Assertions.assertEquals(MarketSide.BUY, fill.getSide());
+            Assertions.assertTrue(fill.getPrice().doubleValue() >= 99 && fill.getPrice().doubleValue() < 100);
+            bought += fill.getSize().doubleValue();
+        }
+        Assertions.assertTrue(bought > 1 && bought < 2);
+        Assertions.assertEquals(bought, result.getMaxPosition(), 1e-9);
+        Assertions.assertTrue(result.getPnl() > 0);
+        Assertions.assertTrue(result.getFees() > 0);
+        BacktestSample last = result.getSamples().get(result.getSamples().size() - 1);
+        Assertions.assertTrue(last.getTimestamp() >= START + 2500);
+        Assertions.assertEquals(bought, last.getPosition(), 1e-9);
+        Assertions.assertEquals(result.getPnl(), last.getPnl(), 1e-9);
+        for(int i=1; i<result.getSamples().size(); i++) {
+            Assertions.assertTrue(result.getSamples().get(i).getTimestamp() >
+                    result.getSamples().get(i - 1).getTimestamp());
+        }
+    }
+
+    @Test
+    public void testRunWithParticipation() throws IOException {
+        Properties properties = getProperties();
+        properties.setProperty("backtest.trade.participation", "0.5");
+        BacktestResult result = new Backtest(properties).run(getEvents().iterator());
+        Assertions.assertEquals(1, result.getMaxPosition(), 1e-9);
+    }
+
+    @Test
+    public void testRunWithoutEvents() throws IOException {
+        BacktestResult result = new Backtest(getProperties()).run(List.<RecordedEvent>of().iterator());
+        Assertions.assertEquals(0, result.getEvents());
+        Assertions.assertTrue(result.getSamples().isEmpty());
+        Assertions.assertEquals(0, result.getPnl());
+    }
+
+    @Test
+    public void testMissingProperty() throws IOException {
+        Properties properties = getProperties();
+        properties.remove("backtest.balance");
+        try {
+            new Backtest(properties);
+            Assertions.fail();
+        } catch(TradingException e) {
+            Assertions.assertEquals(ErrorCode.BACKTEST_PROPERTY_NOT_FOUND, e.getMessage());
+        }
+    }
+
+    @Test
+    public void testWrite(@TempDir Path directory) throws IOException {
+        BacktestResult result = new Backtest(getProperties()).run(getEvents().iterator());
+        Backtest.write(result, directory);
+        List<String> fills = Files.readAllLines(directory.resolve("fills.csv"));
+        List<String> samples = Files.readAllLines(directory.resolve("samples.csv"));
+        Assertions.assertEquals(result.getFills().size() + 1, fills.size());
+        Assertions.assertEquals(result.getSamples().size() + 1, samples.size());
+        Assertions.assertTrue(fills.get(1).startsWith((START + 1500) + ",1,"));
+    }
+}
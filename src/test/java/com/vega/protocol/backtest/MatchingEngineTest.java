@@ -0,0 +1,180 @@
+package com.vega.protocol.backtest;
+
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.constant.OrderStatus;
+import com.vega.protocol.constant.OrderType;
+import com.vega.protocol.constant.TimeInForce;
+import com.vega.protocol.model.Fill;
+import com.vega.protocol.model.Market;
+import com.vega.protocol.model.Order;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class MatchingEngineTest {
+
+    private final SimulatedClock clock = new SimulatedClock();
+    private final List<Order> updates = new ArrayList<>();
+    private final List<Fill> fills = new ArrayList<>();
+    private final Market market = new Market().setId("1");
+
+    private MatchingEngine getMatchingEngine(
+            final long latencyMs
+    ) {
+        return new MatchingEngine(clock, TimeUnit.MILLISECONDS.toNanos(latencyMs), updates::add, fills::add);
+    }
+
+    private Order getOrder(
+            final MarketSide side,
+            final double price,
+            final double size
+    ) {
+        return new Order().setSide(side).setPrice(BigDecimal.valueOf(price)).setSize(BigDecimal.valueOf(size));
+    }
+
+    @Test
+    public void testSubmitAfterLatency() {
+        MatchingEngine matchingEngine = getMatchingEngine(100);
+        String txHash = matchingEngine.submit(Collections.emptyList(),
+                List.of(getOrder(MarketSide.BUY, 10, 1)), market, "party");
+        Assertions.assertEquals("sim-tx-1", txHash);
+        Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(100), matchingEngine.getNextInstructionTime());
+        matchingEngine.process();
+        Assertions.assertTrue(updates.isEmpty());
+        clock.advanceTo(TimeUnit.MILLISECONDS.toNanos(100));
+        matchingEngine.process();
+        Assertions.assertEquals(1, updates.size());
+        Assertions.assertEquals(OrderStatus.ACTIVE, updates.get(0).getStatus());
+        Assertions.assertEquals("party", updates.get(0).getPartyId());
+        Assertions.assertEquals(1, matchingEngine.getOrders("1", MarketSide.BUY).size());
+        Assertions.assertEquals(Long.MAX_VALUE, matchingEngine.getNextInstructionTime());
+    }
+
+    @Test
+    public void testTradeAtPriceTimePriority() {
+        MatchingEngine matchingEngine = getMatchingEngine(0);
+        matchingEngine.submit(Collections.emptyList(), List.of(getOrder(MarketSide.SELL, 11, 1),
+                getOrder(MarketSide.SELL, 10, 1), getOrder(MarketSide.SELL, 10, 2)), market, "party");
+        matchingEngine.process();
+        List<Order> asks = matchingEngine.getOrders("1", MarketSide.SELL);
+        Assertions.assertEquals(List.of("sim-2", "sim-3", "sim-1"), asks.stream().map(Order::getId).toList());
+        updates.clear();
+        matchingEngine.trade(market, MarketSide.BUY, BigDecimal.valueOf(10.5), BigDecimal.valueOf(2), "other");
+        List<Fill> restingFills = fills.stream().filter(f -> !f.isAggressor()).toList();
+        Assertions.assertEquals(2, restingFills.size());
+        Assertions.assertEquals("sim-2", restingFills.get(0).getOrderId());
+        Assertions.assertEquals(0, BigDecimal.ONE.compareTo(restingFills.get(0).getSize()));
+        Assertions.assertEquals("sim-3", restingFills.get(1).getOrderId());
+        Assertions.assertEquals(0, BigDecimal.TEN.compareTo(restingFills.get(1).getPrice()));
+        Assertions.assertEquals(OrderStatus.FILLED, updates.get(0).getStatus());
+        Assertions.assertEquals(OrderStatus.ACTIVE, updates.get(1).getStatus());
+        Assertions.assertEquals(0, BigDecimal.ONE.compareTo(updates.get(1).getRemainingSize()));
+        Assertions.assertEquals(OrderStatus.FILLED, updates.get(2).getStatus());
+        Assertions.assertEquals("other", updates.get(2).getPartyId());
+        Assertions.assertEquals(List.of("sim-3", "sim-1"),
+                matchingEngine.getOrders("1", MarketSide.SELL).stream().map(Order::getId).toList());
+    }
+
+    @Test
+    public void testTradeDoesNotRestRemainder() {
+        MatchingEngine matchingEngine = getMatchingEngine(0);
+        matchingEngine.submit(Collections.emptyList(), List.of(getOrder(MarketSide.BUY, 10, 1)), market, "party");
+        matchingEngine.process();
+        matchingEngine.trade(market, MarketSide.SELL, BigDecimal.valueOf(9), BigDecimal.valueOf(3), "other");
+        Assertions.assertEquals(2, fills.size());
+        Assertions.assertTrue(matchingEngine.getOrders("1", MarketSide.BUY).isEmpty());
+        Assertions.assertTrue(matchingEngine.getOrders("1", MarketSide.SELL).isEmpty());
+        Assertions.assertEquals(OrderStatus.PARTIALLY_FILLED, updates.get(updates.size() - 1).getStatus());
+    }
+
+    @Test
+    public void testTradeDoesNotCross() {
+        MatchingEngine matchingEngine = getMatchingEngine(0);
+        matchingEngine.submit(Collections.emptyList(), List.of(getOrder(MarketSide.BUY, 10, 1)), market, "party");
+        matchingEngine.process();
+        matchingEngine.trade(market, MarketSide.SELL, BigDecimal.valueOf(10.1), BigDecimal.ONE, "other");
+        Assertions.assertTrue(fills.isEmpty());
+        Assertions.assertEquals(OrderStatus.STOPPED, updates.get(updates.size() - 1).getStatus());
+        Assertions.assertEquals(1, matchingEngine.getOrders("1", MarketSide.BUY).size());
+    }
+
+    @Test
+    public void testSelfTradeIsStopped() {
+        MatchingEngine matchingEngine = getMatchingEngine(0);
+        matchingEngine.submit(Collections.emptyList(), List.of(getOrder(MarketSide.BUY, 10, 1)), market, "party");
+        matchingEngine.submit(Collections.emptyList(), List.of(getOrder(MarketSide.SELL, 9, 1)), market, "party");
+        matchingEngine.process();
+        Assertions.assertTrue(fills.isEmpty());
+        Assertions.assertEquals(OrderStatus.STOPPED, updates.get(1).getStatus());
+        Assertions.assertTrue(matchingEngine.getOrders("1", MarketSide.SELL).isEmpty());
+    }
+
+    @Test
+    public void testSubmitRejectsZeroSize() {
+        MatchingEngine matchingEngine = getMatchingEngine(0);
+        matchingEngine.submit(Collections.emptyList(), List.of(getOrder(MarketSide.BUY, 10, 0)), market, "party");
+        matchingEngine.process();
+        Assertions.assertEquals(OrderStatus.REJECTED, updates.get(0).getStatus());
+        Assertions.assertNotNull(updates.get(0).getRejectionReason());
+        Assertions.assertTrue(matchingEngine.getOrders("1", MarketSide.BUY).isEmpty());
+    }
+
+    @Test
+    public void testCancel() {
+        MatchingEngine matchingEngine = getMatchingEngine(0);
+        matchingEngine.submit(Collections.emptyList(), List.of(getOrder(MarketSide.BUY, 10, 1),
+                getOrder(MarketSide.BUY, 10, 2)), market, "party");
+        matchingEngine.process();
+        matchingEngine.submit(List.of("sim-1", "unknown"), List.of(getOrder(MarketSide.BUY, 9, 1)), market, "party");
+        matchingEngine.process();
+        Assertions.assertEquals(OrderStatus.CANCELLED, updates.get(2).getStatus());
+        Assertions.assertEquals("sim-1", updates.get(2).getId());
+        Assertions.assertEquals(List.of("sim-2", "sim-3"),
+                matchingEngine.getOrders("1", MarketSide.BUY).stream().map(Order::getId).toList());
+    }
+
+    @Test
+    public void testSubmitCopiesOrders() {
+        MatchingEngine matchingEngine = getMatchingEngine(0);
+        Order order = getOrder(MarketSide.BUY, 10, 1).setReference("ref");
+        matchingEngine.submit(Collections.emptyList(), List.of(order), market, "party");
+        order.setPrice(BigDecimal.valueOf(11));
+        matchingEngine.process();
+        Order resting = matchingEngine.getOrders("1", MarketSide.BUY).get(0);
+        Assertions.assertEquals(0, BigDecimal.TEN.compareTo(resting.getPrice()));
+        Assertions.assertEquals("ref", resting.getReference());
+        Assertions.assertNull(order.getId());
+    }
+
+    @Test
+    public void testMarketOrderTakesAnyPriceAndNeverRests() {
+        MatchingEngine matchingEngine = getMatchingEngine(0);
+        matchingEngine.submit(Collections.emptyList(), List.of(getOrder(MarketSide.SELL, 10, 1),
+                getOrder(MarketSide.SELL, 12, 1)), market, "party");
+        matchingEngine.submit(Collections.emptyList(), List.of(new Order().setSide(MarketSide.BUY)
+                .setSize(BigDecimal.valueOf(3)).setType(OrderType.MARKET).setTimeInForce(TimeInForce.IOC)),
+                market, "other");
+        matchingEngine.process();
+        Assertions.assertEquals(4, fills.size());
+        Assertions.assertEquals(0, BigDecimal.valueOf(12).compareTo(fills.get(3).getPrice()));
+        Order taker = updates.get(updates.size() - 1);
+        Assertions.assertEquals(OrderStatus.PARTIALLY_FILLED, taker.getStatus());
+        Assertions.assertEquals(0, BigDecimal.ONE.compareTo(taker.getRemainingSize()));
+        Assertions.assertTrue(matchingEngine.getOrders("1", MarketSide.BUY).isEmpty());
+    }
+
+    @Test
+    public void testImmediateOrCancelSubmissionDoesNotRest() {
+        MatchingEngine matchingEngine = getMatchingEngine(0);
+        matchingEngine.submit(Collections.emptyList(), List.of(getOrder(MarketSide.BUY, 10, 1)
+                .setTimeInForce(TimeInForce.IOC)), market, "party");
+        matchingEngine.process();
+        Assertions.assertEquals(OrderStatus.STOPPED, updates.get(0).getStatus());
+        Assertions.assertTrue(matchingEngine.getOrders("1", MarketSide.BUY).isEmpty());
+    }
+}
@@ -0,0 +1,86 @@
+package com.vega.protocol.backtest;
+
+import com.vega.protocol.constant.ErrorCode;
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.constant.RecordedEventType;
+import com.vega.protocol.exception.TradingException;
+import com.vega.protocol.model.RecordedEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPOutputStream;
+
+public class RecordedEventReaderTest {
+
+    private static final String EVENTS = """
+            timestamp,type,symbol,bid,ask
+            # reference prices and trades
+            1000,PRICE,BTCUSDT,100.1,100.3
+
+            1500,PRICE,BTCUSDT,100.2,100.4,2.5,3
+            2000,TRADE,1,SELL,100.0,1.5
+            """;
+
+    @Test
+    public void testRead() throws IOException {
+        try(RecordedEventReader reader = new RecordedEventReader(new BufferedReader(new StringReader(EVENTS)))) {
+            RecordedEvent price = reader.next();
+            Assertions.assertEquals(1000, price.getTimestamp());
+            Assertions.assertEquals(RecordedEventType.PRICE, price.getType());
+            Assertions.assertEquals("BTCUSDT", price.getSymbol());
+            Assertions.assertEquals(new BigDecimal("100.1"), price.getBidPrice());
+            Assertions.assertEquals(new BigDecimal("100.3"), price.getAskPrice());
+            Assertions.assertNull(price.getBidSize());
+            Assertions.assertEquals(new BigDecimal("3"), reader.next().getAskSize());
+            Assertions.assertTrue(reader.hasNext());
+            RecordedEvent trade = reader.next();
+            Assertions.assertEquals(RecordedEventType.TRADE, trade.getType());
+            Assertions.assertEquals("1", trade.getMarketId());
+            Assertions.assertEquals(MarketSide.SELL, trade.getSide());
+            Assertions.assertEquals(new BigDecimal("100.0"), trade.getPrice());
+            Assertions.assertEquals(new BigDecimal("1.5"), trade.getSize());
+            Assertions.assertFalse(reader.hasNext());
+            Assertions.assertThrows(NoSuchElementException.class, reader::next);
+        }
+    }
+
+    @Test
+    public void testOpenGzip() throws IOException {
+        Path path = Files.createTempFile("events", ".csv.gz");
+        try(OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(path))) {
+            outputStream.write(EVENTS.getBytes(StandardCharsets.UTF_8));
+        }
+        int count = 0;
+        try(RecordedEventReader reader = RecordedEventReader.open(path)) {
+            while(reader.hasNext()) {
+                reader.next();
+                count++;
+            }
+        } finally {
+            Files.delete(path);
+        }
+        Assertions.assertEquals(3, count);
+    }
+
+    @Test
+    public void testParseInvalid() {
+        for(String line : new String[] {"1000,QUOTE,BTCUSDT,1,2", "1000,PRICE,BTCUSDT,1", "1000,TRADE,1,HOLD,1,1",
+                "1000,TRADE,1,BUY,x,1", "1000"}) {
+            try {
+                RecordedEventReader.parse(line);
+                Assertions.fail();
+            } catch(TradingException e) {
+                Assertions.assertEquals(ErrorCode.INVALID_RECORDED_EVENT, e.getMessage());
+            }
+        }
+    }
+}
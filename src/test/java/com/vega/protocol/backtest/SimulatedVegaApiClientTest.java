@@ -0,0 +1,86 @@
+package com.vega.protocol.backtest;
+
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.constant.OrderStatus;
+import com.vega.protocol.constant.OrderType;
+import com.vega.protocol.model.BatchInstruction;
+import com.vega.protocol.model.Market;
+import com.vega.protocol.model.Order;
+import com.vega.protocol.model.ReferencePrice;
+import com.vega.protocol.service.LatencyService;
+import com.vega.protocol.service.MarketBindingService;
+import com.vega.protocol.service.OrderReferenceService;
+import com.vega.protocol.service.RiskService;
+import com.vega.protocol.store.OrderStore;
+import com.vega.protocol.store.ReferencePriceStore;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class SimulatedVegaApiClientTest {
+
+    private final SimulatedClock clock = new SimulatedClock();
+    private final OrderStore orderStore = new OrderStore();
+    private final ReferencePriceStore referencePriceStore = new ReferencePriceStore();
+    private final OrderReferenceService orderReferenceService = new OrderReferenceService(
+            100, 10000L, new LatencyService());
+    private final List<Order> updates = new ArrayList<>();
+    private final Market market = new Market().setId("1");
+    private MatchingEngine matchingEngine;
+    private SimulatedVegaApiClient vegaApiClient;
+
+    @BeforeEach
+    public void setup() {
+        referencePriceStore.update(new ReferencePrice().setSymbol("BTCUSDT").setMidPrice(BigDecimal.valueOf(100)));
+        RiskService riskService = new RiskService(orderStore, new MarketBindingService("1", "BTCUSDT", ""),
+                referencePriceStore, true, 500.0, 0.0, 0.0, 5000L);
+        riskService.setClock(clock);
+        matchingEngine = new MatchingEngine(clock, 0, updates::add, fill -> {});
+        vegaApiClient = new SimulatedVegaApiClient(matchingEngine, orderReferenceService, riskService);
+    }
+
+    private Order getOrder(
+            final double price,
+            final double size
+    ) {
+        return new Order().setMarket(market).setSide(MarketSide.BUY).setType(OrderType.LIMIT)
+                .setPrice(BigDecimal.valueOf(price)).setSize(BigDecimal.valueOf(size));
+    }
+
+    @Test
+    public void testSubmitBulkInstruction() {
+        Order order = getOrder(100, 1);
+        BatchInstruction batch = vegaApiClient.submitBulkInstruction(Collections.emptyList(),
+                List.of(order, getOrder(100, 10)), market, "party").orElseThrow();
+        Assertions.assertEquals("sim-tx-1", batch.getTxHash());
+        Assertions.assertEquals(List.of(order), batch.getSubmissions());
+        Assertions.assertNotNull(order.getReference());
+        Assertions.assertTrue(orderReferenceService.getByReference(order.getReference()).isPresent());
+        matchingEngine.process();
+        Assertions.assertEquals(1, updates.size());
+        Assertions.assertEquals(OrderStatus.ACTIVE, updates.get(0).getStatus());
+        Assertions.assertEquals(order.getReference(), updates.get(0).getReference());
+    }
+
+    @Test
+    public void testSubmitBulkInstructionNothingAllowed() {
+        Assertions.assertTrue(vegaApiClient.submitBulkInstruction(Collections.emptyList(),
+                List.of(getOrder(100, 10)), market, "party").isEmpty());
+        Assertions.assertEquals(Long.MAX_VALUE, matchingEngine.getNextInstructionTime());
+    }
+
+    @Test
+    public void testSubmitOrderAndCancel() {
+        Assertions.assertTrue(vegaApiClient.submitOrder(getOrder(100, 1), "party").isPresent());
+        matchingEngine.process();
+        Assertions.assertTrue(vegaApiClient.cancelOrder(updates.get(0).getId(), "party").isPresent());
+        matchingEngine.process();
+        Assertions.assertEquals(OrderStatus.CANCELLED, updates.get(1).getStatus());
+        Assertions.assertTrue(matchingEngine.getOrders("1", MarketSide.BUY).isEmpty());
+    }
+}
@@ -91,6 +91,26 @@ public class AppConfigControllerTest {
         Assertions.assertEquals(store.get().get(), updatedConfig);
     }
 
+    @Test
+    public void testUpdateMarketAppConfig() throws Exception {
+        AppConfig config = getAppConfig()
+                .setOrderCount(5);
+        mvc.perform(MockMvcRequestBuilders.put("/app-config/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(config)))
+                .andExpect(status().isOk());
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/app-config/1"))
+                .andExpect(status().isOk())
+                .andReturn();
+        Assertions.assertEquals(config, mapper.readValue(result.getResponse().getContentAsString(), AppConfig.class));
+        result = mvc.perform(MockMvcRequestBuilders.get("/app-config/2"))
+                .andExpect(status().isOk())
+                .andReturn();
+        Assertions.assertEquals(getAppConfig(),
+                mapper.readValue(result.getResponse().getContentAsString(), AppConfig.class));
+        Assertions.assertEquals(getAppConfig(), store.get().orElseThrow());
+    }
+
     @Test
     public void testUpdateAppConfigMissingFee() throws Exception {
         AppConfig config = getAppConfig()
@@ -0,0 +1,101 @@
+package com.vega.protocol.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vega.protocol.constant.LatencyStage;
+import com.vega.protocol.model.LatencyStats;
+import com.vega.protocol.model.OrderCycleStats;
+import com.vega.protocol.model.QuoteStats;
+import com.vega.protocol.service.LatencyService;
+import com.vega.protocol.service.OrderReferenceService;
+import com.vega.protocol.service.QuoteStatsService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@ContextConfiguration(classes = {QuoteController.class})
+@WebMvcTest
+public class QuoteControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+    @MockBean
+    private QuoteStatsService quoteStatsService;
+    @MockBean
+    private LatencyService latencyService;
+    @MockBean
+    private OrderReferenceService orderReferenceService;
+
+    @Test
+    public void testGetStats() throws Exception {
+        Mockito.when(quoteStatsService.getStats()).thenReturn(List.of(new QuoteStats()
+                .setMarketId("1").setCycles(2).setLevels(40).setLevelsSubmitted(25)));
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/quote/stats"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String body = result.getResponse().getContentAsString();
+        QuoteStats[] stats = new ObjectMapper().readValue(body, QuoteStats[].class);
+        Assertions.assertEquals(1, stats.length);
+        Assertions.assertEquals(25, stats[0].getLevelsSubmitted());
+    }
+
+    @Test
+    public void testGetStatsByMarketId() throws Exception {
+        Mockito.when(quoteStatsService.get("1")).thenReturn(Optional.of(new QuoteStats()
+                .setMarketId("1").setLastTouchedRatio(0.25)));
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/quote/stats/1"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String body = result.getResponse().getContentAsString();
+        QuoteStats stats = new ObjectMapper().readValue(body, QuoteStats.class);
+        Assertions.assertEquals(0.25, stats.getLastTouchedRatio());
+    }
+
+    @Test
+    public void testGetStatsByMarketIdMissing() throws Exception {
+        Mockito.when(quoteStatsService.get("1")).thenReturn(Optional.empty());
+        mvc.perform(MockMvcRequestBuilders.get("/quote/stats/1"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testGetLatency() throws Exception {
+        Mockito.when(latencyService.getStats()).thenReturn(List.of(new LatencyStats()
+                .setStage(LatencyStage.WALLET).setCount(3).setP99Micros(1500)));
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/quote/latency"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String body = result.getResponse().getContentAsString();
+        LatencyStats[] stats = new ObjectMapper().readValue(body, LatencyStats[].class);
+        Assertions.assertEquals(1, stats.length);
+        Assertions.assertEquals(LatencyStage.WALLET, stats[0].getStage());
+        Assertions.assertEquals(1500, stats[0].getP99Micros());
+    }
+
+    @Test
+    public void testGetOrderCycleStats() throws Exception {
+        Mockito.when(orderReferenceService.getCycleStats()).thenReturn(List.of(new OrderCycleStats()
+                .setCycleId(4).setSubmitted(10).setActive(9).setMissing(1).setMaxActiveMs(120)));
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/quote/orders"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String body = result.getResponse().getContentAsString();
+        OrderCycleStats[] stats = new ObjectMapper().readValue(body, OrderCycleStats[].class);
+        Assertions.assertEquals(1, stats.length);
+        Assertions.assertEquals(1, stats[0].getMissing());
+        Assertions.assertEquals(120, stats[0].getMaxActiveMs());
+    }
+}
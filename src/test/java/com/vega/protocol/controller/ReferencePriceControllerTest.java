@@ -43,4 +43,24 @@ public class ReferencePriceControllerTest {
         ReferencePrice price = new ObjectMapper().readValue(body, ReferencePrice.class);
         Assertions.assertEquals(referencePrice, price);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetReferencePriceBySymbol() throws Exception {
+        ReferencePrice referencePrice = new ReferencePrice()
+                .setSymbol("ETHUSDT")
+                .setMidPrice(BigDecimal.ONE)
+                .setBidPrice(BigDecimal.ONE)
+                .setAskPrice(BigDecimal.ONE)
+                .setBidSize(BigDecimal.ONE)
+                .setAskSize(BigDecimal.ONE);
+        store.update(referencePrice);
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/reference-price/ETHUSDT"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String body = result.getResponse().getContentAsString();
+        ReferencePrice price = new ObjectMapper().readValue(body, ReferencePrice.class);
+        Assertions.assertEquals(referencePrice, price);
+        mvc.perform(MockMvcRequestBuilders.get("/reference-price/BTCUSDT"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,65 @@
+package com.vega.protocol.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vega.protocol.constant.TransactionStatus;
+import com.vega.protocol.model.Transaction;
+import com.vega.protocol.model.TransactionStats;
+import com.vega.protocol.service.TransactionService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.Optional;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@ContextConfiguration(classes = {TransactionController.class})
+@WebMvcTest
+public class TransactionControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+    @MockBean
+    private TransactionService transactionService;
+
+    @Test
+    public void testGetStats() throws Exception {
+        Mockito.when(transactionService.getStats()).thenReturn(new TransactionStats()
+                .setSubmitted(3).setAccepted(2).setRejected(1).setFailureRate(1 / 3.0));
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/transaction/stats"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String body = result.getResponse().getContentAsString();
+        TransactionStats stats = new ObjectMapper().readValue(body, TransactionStats.class);
+        Assertions.assertEquals(3, stats.getSubmitted());
+        Assertions.assertEquals(1, stats.getRejected());
+    }
+
+    @Test
+    public void testGetByTxHash() throws Exception {
+        Mockito.when(transactionService.getById("ABC")).thenReturn(Optional.of(
+                new Transaction().setId("ABC").setStatus(TransactionStatus.ACCEPTED)));
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/transaction/ABC"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String body = result.getResponse().getContentAsString();
+        Transaction transaction = new ObjectMapper().readValue(body, Transaction.class);
+        Assertions.assertEquals(TransactionStatus.ACCEPTED, transaction.getStatus());
+    }
+
+    @Test
+    public void testGetByTxHashMissing() throws Exception {
+        Mockito.when(transactionService.getById("ABC")).thenReturn(Optional.empty());
+        mvc.perform(MockMvcRequestBuilders.get("/transaction/ABC"))
+                .andExpect(status().isNotFound());
+    }
+}
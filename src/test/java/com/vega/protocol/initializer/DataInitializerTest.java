@@ -1,15 +1,21 @@
 package com.vega.protocol.initializer;
 
 import com.vega.protocol.api.VegaApiClient;
+import com.vega.protocol.constant.QuotingStrategyType;
+import com.vega.protocol.model.Asset;
 import com.vega.protocol.model.Market;
 import com.vega.protocol.model.Order;
+import com.vega.protocol.service.ReferenceDataService;
 import com.vega.protocol.store.*;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
+import java.util.Set;
 
 public class DataInitializerTest {
 
@@ -50,9 +56,12 @@ public class DataInitializerTest {
         assetStore = Mockito.mock(AssetStore.class);
         networkParameterStore = Mockito.mock(NetworkParameterStore.class);
         dataInitializer = new DataInitializer(orderStore, marketStore, positionStore, appConfigStore, accountStore,
-                liquidityCommitmentStore, assetStore, networkParameterStore, vegaApiClient, PARTY_ID, FEE, MIN_SPREAD,
+                liquidityCommitmentStore, assetStore, networkParameterStore, vegaApiClient,
+                new ReferenceDataService(vegaApiClient, assetStore, marketStore, networkParameterStore,
+                        Mockito.mock(ApplicationEventPublisher.class), 60000L, 60000L, 60000L, "", ""), PARTY_ID, FEE, MIN_SPREAD,
                 MAX_SPREAD, COMMITMENT_SPREAD, ORDER_COUNT, BID_SIZE_FACTOR, ASK_SIZE_FACTOR, COMMITMENT_FACTOR,
-                BID_QUOTE_RANGE, ASK_QUOTE_RANGE, COMMITMENT_ORDER_COUNT, STAKE_BUFFER, BBO_OFFSET);
+                BID_QUOTE_RANGE, ASK_QUOTE_RANGE, COMMITMENT_ORDER_COUNT, STAKE_BUFFER, BBO_OFFSET,
+                QuotingStrategyType.AMM, 1.0, 1000.0, 3600.0, 1, 2.0, 10.0, 0.0);
     }
 
     @Test
@@ -70,4 +79,30 @@ public class DataInitializerTest {
         Mockito.verify(orderStore, Mockito.times(1)).update(Mockito.any(Order.class));
         Assertions.assertTrue(dataInitializer.isInitialized());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testInitializeRespectsDependencies() {
+        Mockito.when(vegaApiClient.getAssets()).thenReturn(List.of(new Asset()));
+        Mockito.when(vegaApiClient.getMarkets()).thenReturn(List.of(new Market()));
+        dataInitializer.initialize();
+        InOrder assetsBeforeMarkets = Mockito.inOrder(assetStore, vegaApiClient);
+        assetsBeforeMarkets.verify(assetStore).update(Mockito.any(Asset.class));
+        assetsBeforeMarkets.verify(vegaApiClient).getMarkets();
+        InOrder marketsBeforeOrders = Mockito.inOrder(marketStore, vegaApiClient);
+        marketsBeforeOrders.verify(marketStore).update(Mockito.any(Market.class));
+        marketsBeforeOrders.verify(vegaApiClient).getOpenOrders(PARTY_ID);
+        InOrder marketsBeforePositions = Mockito.inOrder(marketStore, vegaApiClient);
+        marketsBeforePositions.verify(marketStore).update(Mockito.any(Market.class));
+        marketsBeforePositions.verify(vegaApiClient).getPositions(PARTY_ID);
+        Mockito.verify(vegaApiClient).getNetworkParameters();
+        Mockito.verify(vegaApiClient).getAccounts(PARTY_ID);
+        Mockito.verify(vegaApiClient).getLiquidityCommitments(PARTY_ID);
+    }
+
+    @Test
+    public void testInitializeRecordsBootstrapTimings() {
+        dataInitializer.initialize();
+        Assertions.assertEquals(Set.of("networkParameters", "assets", "markets", "accounts", "positions", "orders",
+                "liquidityCommitments", "total"), dataInitializer.getBootstrapTimings().keySet());
+    }
+}
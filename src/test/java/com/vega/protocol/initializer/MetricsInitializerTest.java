@@ -0,0 +1,133 @@
+package com.vega.protocol.initializer;
+
+import com.vega.protocol.constant.LatencyStage;
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.model.*;
+import com.vega.protocol.service.LatencyService;
+import com.vega.protocol.service.MarketBindingService;
+import com.vega.protocol.service.OrderReferenceService;
+import com.vega.protocol.service.PositionService;
+import com.vega.protocol.service.TransactionService;
+import com.vega.protocol.store.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MetricsInitializerTest {
+
+    private static final String MARKET_ID = "1";
+    private static final String SYMBOL = "BTCUSDT";
+
+    private final MarketStore marketStore = new MarketStore();
+    private final OrderStore orderStore = new OrderStore();
+    private final PositionStore positionStore = new PositionStore();
+    private final ReferencePriceStore referencePriceStore = new ReferencePriceStore();
+    private final TransactionService transactionService = Mockito.mock(TransactionService.class);
+    private final LatencyService latencyService = new LatencyService();
+    private final OrderReferenceService orderReferenceService = Mockito.mock(OrderReferenceService.class);
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        bind(meterRegistry);
+    }
+
+    private void bind(
+            final MeterRegistry meterRegistry
+    ) {
+        new MetricsInitializer(new MarketBindingService(MARKET_ID, SYMBOL, ""), new PositionService(positionStore),
+                transactionService, latencyService, orderReferenceService, referencePriceStore, marketStore, orderStore,
+                positionStore, new AccountStore(), new LiquidityCommitmentStore()).bindTo(meterRegistry);
+    }
+
+    @Test
+    public void testStoreSizes() {
+        orderStore.add(new Order().setId("1"));
+        orderStore.add(new Order().setId("2"));
+        Assertions.assertEquals(2, meterRegistry.get("vega.store.size").tag("store", "orders").gauge().value());
+        Assertions.assertEquals(0, meterRegistry.get("vega.store.size").tag("store", "accounts").gauge().value());
+        Assertions.assertEquals(5, meterRegistry.find("vega.store.size").gauges().size());
+    }
+
+    @Test
+    public void testReferencePriceAge() {
+        Assertions.assertTrue(Double.isNaN(meterRegistry.get("vega.reference.price.age").tag("symbol", SYMBOL)
+                .timeGauge().value()));
+        referencePriceStore.update(new ReferencePrice().setSymbol(SYMBOL));
+        double age = meterRegistry.get("vega.reference.price.age").tag("symbol", SYMBOL).timeGauge()
+                .value(TimeUnit.SECONDS);
+        Assertions.assertTrue(age >= 0 && age < 1);
+    }
+
+    @Test
+    public void testPosition() {
+        Market market = new Market().setId(MARKET_ID).setMarkPrice(BigDecimal.valueOf(100));
+        Assertions.assertTrue(Double.isNaN(meterRegistry.get("vega.position.exposure").tag("market", MARKET_ID)
+                .gauge().value()));
+        marketStore.add(market);
+        positionStore.add(new Position().setId("1").setMarket(market).setSide(MarketSide.SELL)
+                .setSize(BigDecimal.valueOf(2)));
+        Assertions.assertEquals(-2, meterRegistry.get("vega.position.size").tag("market", MARKET_ID)
+                .gauge().value(), 1e-9);
+        Assertions.assertEquals(-200, meterRegistry.get("vega.position.exposure").tag("market", MARKET_ID)
+                .gauge().value(), 1e-9);
+    }
+
+    @Test
+    public void testTransactions() {
+        Mockito.when(transactionService.getStats()).thenReturn(new TransactionStats()
+                .setSubmitted(10).setPending(2).setAccepted(6).setRejected(1).setUnresolved(1).setRejectedOrders(3));
+        Assertions.assertEquals(10, meterRegistry.get("vega.transactions.submitted").functionCounter().count());
+        Assertions.assertEquals(6, meterRegistry.get("vega.transactions.resolved").tag("status", "accepted")
+                .functionCounter().count());
+        Assertions.assertEquals(1, meterRegistry.get("vega.transactions.resolved").tag("status", "unresolved")
+                .functionCounter().count());
+        Assertions.assertEquals(2, meterRegistry.get("vega.transactions.pending").gauge().value());
+        Assertions.assertEquals(3, meterRegistry.get("vega.orders.rejected").functionCounter().count());
+        Mockito.when(orderReferenceService.getMissing()).thenReturn(4L);
+        Assertions.assertEquals(4, meterRegistry.get("vega.orders.missing").gauge().value());
+    }
+
+    @Test
+    public void testLatency() {
+        AtomicLong now = new AtomicLong();
+        latencyService.setClock(now::get);
+        now.set(TimeUnit.MILLISECONDS.toNanos(3));
+        latencyService.record(LatencyStage.QUOTE_CYCLE, 0);
+        Timer timer = meterRegistry.get("vega.latency").tag("stage", "quote_cycle").timer();
+        Assertions.assertEquals(1, timer.count());
+        Assertions.assertEquals(3, timer.totalTime(TimeUnit.MILLISECONDS), 1e-9);
+        Assertions.assertEquals(3, timer.max(TimeUnit.MILLISECONDS), 1e-9);
+        Assertions.assertEquals(0, meterRegistry.get("vega.latency").tag("stage", "wallet").timer().count());
+        Assertions.assertEquals(LatencyStage.values().length, meterRegistry.find("vega.latency").timers().size());
+    }
+
+    @Test
+    public void testLatencyHistogram() {
+        Mockito.when(transactionService.getStats()).thenReturn(new TransactionStats());
+        PrometheusMeterRegistry prometheusRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        bind(prometheusRegistry);
+        AtomicLong now = new AtomicLong();
+        latencyService.setClock(now::get);
+        now.set(TimeUnit.MICROSECONDS.toNanos(5));
+        latencyService.record(LatencyStage.RISK_CHECK, 0);
+        String scrape = prometheusRegistry.scrape();
+        Assertions.assertTrue(scrape.contains(
+                "vega_latency_seconds_bucket{stage=\"risk_check\",le=\"4.096E-6\",} 0.0"));
+        Assertions.assertTrue(scrape.contains(
+                "vega_latency_seconds_bucket{stage=\"risk_check\",le=\"5.461E-6\",} 1.0"));
+        Assertions.assertTrue(scrape.contains("vega_latency_seconds_count{stage=\"risk_check\",} 1.0"));
+        Assertions.assertTrue(scrape.contains("vega_latency_seconds_count{stage=\"wallet\",} 0.0"));
+    }
+}
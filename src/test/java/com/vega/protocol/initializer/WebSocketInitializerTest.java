@@ -1,7 +1,12 @@
 package com.vega.protocol.initializer;
 
 import com.vega.protocol.constant.ReferencePriceSource;
+import com.vega.protocol.service.DataNodeService;
+import com.vega.protocol.service.MarketBindingService;
+import com.vega.protocol.service.MetricsService;
+import com.vega.protocol.service.OrderReferenceService;
 import com.vega.protocol.service.OrderService;
+import com.vega.protocol.service.TransactionService;
 import com.vega.protocol.store.*;
 import com.vega.protocol.utils.DecimalUtils;
 import org.junit.jupiter.api.Assertions;
@@ -21,17 +26,21 @@ public class WebSocketInitializerTest {
     private final LiquidityCommitmentStore liquidityCommitmentStore = Mockito.mock(LiquidityCommitmentStore.class);
     private final DecimalUtils decimalUtils = Mockito.mock(DecimalUtils.class);
     private final OrderService orderService = Mockito.mock(OrderService.class);
+    private final OrderReferenceService orderReferenceService = Mockito.mock(OrderReferenceService.class);
+    private final TransactionService transactionService = Mockito.mock(TransactionService.class);
+    private final DataNodeService dataNodeService = new DataNodeService("https://api.n11.testnet.vega.xyz/api/v2",
+            "wss://api.n11.testnet.vega.xyz/graphql", 10L, 3, 0.7, 3, 1000L);
     private static final String PARTY_ID = "1";
     private static final String MARKET_ID = "1";
 
     private WebSocketInitializer getWebSocketInitializer(boolean enabled, ReferencePriceSource source) {
         return new WebSocketInitializer(
-                "wss://api.n11.testnet.vega.xyz/graphql",
                 "wss://stream.binance.com:9443/stream",
                 "wss://socket.polygon.io/stocks",
-                enabled, enabled, enabled, "BTCUSDT", source, PARTY_ID, MARKET_ID,
+                enabled, enabled, enabled, source, PARTY_ID, new MarketBindingService(MARKET_ID, "BTCUSDT", ""),
                 referencePriceStore, marketStore, orderStore, positionStore, accountStore, assetStore,
-                liquidityCommitmentStore, decimalUtils, orderService
+                liquidityCommitmentStore, decimalUtils, orderService, orderReferenceService,
+                transactionService, dataNodeService, Mockito.mock(MetricsService.class)
         );
     }
 
@@ -0,0 +1,71 @@
+package com.vega.protocol.quote;
+
+import com.vega.protocol.constant.QuotingStrategyType;
+import com.vega.protocol.model.AppConfig;
+import com.vega.protocol.store.AppConfigStore;
+import com.vega.protocol.utils.PricingUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class AmmQuotingStrategyTest {
+
+    private final AmmQuotingStrategy strategy = new AmmQuotingStrategy(
+            new PricingUtils(Mockito.mock(AppConfigStore.class)));
+
+    private AppConfig getAppConfig() {
+        return new AppConfig()
+                .setOrderCount(10)
+                .setBidQuoteRange(0.02)
+                .setAskQuoteRange(0.02)
+                .setBidSizeFactor(1.0)
+                .setAskSizeFactor(1.0)
+                .setMinSpread(0.003)
+                .setMaxSpread(0.02)
+                .setBboOffset(0.001);
+    }
+
+    @Test
+    public void testGetType() {
+        Assertions.assertEquals(QuotingStrategyType.AMM, strategy.getType());
+    }
+
+    @Test
+    public void testQuote() {
+        QuoteLadder bids = new QuoteLadder();
+        QuoteLadder asks = new QuoteLadder();
+        MarketSnapshot snapshot = new MarketSnapshot().setBidPrice(99.9).setAskPrice(100.1)
+                .setBidVolume(10).setAskVolume(10).setPositionDecimalPlaces(2);
+        Assertions.assertTrue(strategy.quote(snapshot, getAppConfig(), bids, asks));
+        Assertions.assertEquals(11, bids.getCount());
+        Assertions.assertEquals(11, asks.getCount());
+        Assertions.assertEquals(99.9 * 0.999, bids.getPrice(0), 1e-9);
+        Assertions.assertEquals(100.1 * 1.001, asks.getPrice(0), 1e-9);
+        Assertions.assertEquals(0.01, bids.getSize(0));
+        Assertions.assertEquals(10.01, asks.getTotalSize(), 1e-9);
+    }
+
+    @Test
+    public void testQuoteWidensWithVolatility() {
+        QuoteLadder bids = new QuoteLadder();
+        QuoteLadder asks = new QuoteLadder();
+        MarketSnapshot snapshot = new MarketSnapshot().setBidPrice(99.9).setAskPrice(100.1)
+                .setBidVolume(10).setAskVolume(10).setPositionDecimalPlaces(2).setVolatility(1.0);
+        AppConfig config = getAppConfig().setQuoteHorizon(3600.0);
+        strategy.quote(snapshot, config, bids, asks);
+        Assertions.assertEquals(100.1 * 1.001, asks.getPrice(0), 1e-9);
+        strategy.quote(snapshot, config.setVolatilitySpreadFactor(1.0), bids, asks);
+        double volatilitySpread = 100 * Math.sqrt(3600.0 / (365 * 24 * 60 * 60));
+        double currentSpread = (100.1 * 1.001 - 99.9 * 0.999) / 2;
+        Assertions.assertEquals(99.9 * 0.999, bids.getPrice(0), 1e-9);
+        Assertions.assertEquals(100.1 * 1.001 + 0.003 + volatilitySpread - currentSpread, asks.getPrice(0), 1e-9);
+    }
+
+    @Test
+    public void testQuoteEmptyDistribution() {
+        QuoteLadder bids = new QuoteLadder();
+        QuoteLadder asks = new QuoteLadder();
+        MarketSnapshot snapshot = new MarketSnapshot().setBidPrice(99.9).setAskPrice(100.1);
+        Assertions.assertFalse(strategy.quote(snapshot, getAppConfig().setOrderCount(0), bids, asks));
+    }
+}
@@ -0,0 +1,103 @@
+package com.vega.protocol.quote;
+
+import com.vega.protocol.constant.QuotingStrategyType;
+import com.vega.protocol.model.AppConfig;
+import com.vega.protocol.store.AppConfigStore;
+import com.vega.protocol.utils.PricingUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class AvellanedaStoikovQuotingStrategyTest {
+
+    private final AvellanedaStoikovQuotingStrategy strategy = new AvellanedaStoikovQuotingStrategy(
+            new PricingUtils(Mockito.mock(AppConfigStore.class)));
+    private QuoteLadder bids;
+    private QuoteLadder asks;
+
+    private AppConfig getAppConfig() {
+        return new AppConfig()
+                .setStrategy(QuotingStrategyType.AVELLANEDA_STOIKOV)
+                .setOrderCount(10)
+                .setBidQuoteRange(0.02)
+                .setAskQuoteRange(0.02)
+                .setBidSizeFactor(1.0)
+                .setAskSizeFactor(2.0)
+                .setMinSpread(0.003)
+                .setRiskAversion(1.0)
+                .setLiquidityDensity(1000.0)
+                .setQuoteHorizon(3600.0);
+    }
+
+    private MarketSnapshot getSnapshot(
+            final double exposure,
+            final double openVolumeRatio
+    ) {
+        return new MarketSnapshot().setBidPrice(99.9).setAskPrice(100.1).setBidVolume(10).setAskVolume(10)
+                .setExposure(exposure).setOpenVolumeRatio(openVolumeRatio).setSigma(1.0);
+    }
+
+    @BeforeEach
+    public void setup() {
+        bids = new QuoteLadder();
+        asks = new QuoteLadder();
+    }
+
+    @Test
+    public void testGetType() {
+        Assertions.assertEquals(QuotingStrategyType.AVELLANEDA_STOIKOV, strategy.getType());
+    }
+
+    @Test
+    public void testQuoteWithoutInventory() {
+        Assertions.assertTrue(strategy.quote(getSnapshot(0, 0), getAppConfig(), bids, asks));
+        Assertions.assertEquals(10, bids.getCount());
+        Assertions.assertEquals(10, asks.getCount());
+        Assertions.assertEquals(10, bids.getTotalSize(), 1e-3);
+        Assertions.assertEquals(20, asks.getTotalSize(), 1e-3);
+        Assertions.assertEquals(100 - bids.getPrice(0), asks.getPrice(0) - 100, 1e-3);
+        double variance = 3600.0 / (365 * 24 * 60 * 60);
+        double halfSpread = 100 * (variance + 2 * Math.log1p(1.0 / 1000)) / 2;
+        Assertions.assertEquals(100 + halfSpread + 0.002 * (100 + halfSpread), asks.getPrice(0), 1e-3);
+        for(int i=1; i<bids.getCount(); i++) {
+            Assertions.assertTrue(bids.getPrice(i) < bids.getPrice(i - 1));
+            Assertions.assertTrue(asks.getPrice(i) > asks.getPrice(i - 1));
+        }
+    }
+
+    @Test
+    public void testQuoteSkewsAgainstInventory() {
+        strategy.quote(getSnapshot(0, 0), getAppConfig(), bids, asks);
+        double flatBid = bids.getPrice(0);
+        double flatAsk = asks.getPrice(0);
+        strategy.quote(getSnapshot(5, 0.5), getAppConfig().setRiskAversion(1.0), bids, asks);
+        Assertions.assertTrue(bids.getPrice(0) < flatBid);
+        Assertions.assertTrue(asks.getPrice(0) < flatAsk);
+        strategy.quote(getSnapshot(-5, 0.5), getAppConfig(), bids, asks);
+        Assertions.assertTrue(bids.getPrice(0) > flatBid);
+        Assertions.assertTrue(asks.getPrice(0) > flatAsk);
+    }
+
+    @Test
+    public void testQuoteUsesRealisedVolatility() {
+        strategy.quote(getSnapshot(0, 0), getAppConfig(), bids, asks);
+        double spread = asks.getPrice(0) - bids.getPrice(0);
+        strategy.quote(getSnapshot(0, 0).setVolatility(1.0), getAppConfig(), bids, asks);
+        Assertions.assertEquals(spread, asks.getPrice(0) - bids.getPrice(0), 1e-9);
+        strategy.quote(getSnapshot(0, 0).setVolatility(3.0), getAppConfig(), bids, asks);
+        Assertions.assertTrue(asks.getPrice(0) - bids.getPrice(0) > spread);
+    }
+
+    @Test
+    public void testQuoteMinSpread() {
+        strategy.quote(getSnapshot(0, 0), getAppConfig().setMinSpread(1.0), bids, asks);
+        Assertions.assertTrue(bids.getPrice(0) < 99);
+        Assertions.assertTrue(asks.getPrice(0) > 101);
+    }
+
+    @Test
+    public void testQuoteEmptyDistribution() {
+        Assertions.assertFalse(strategy.quote(getSnapshot(0, 0), getAppConfig().setOrderCount(0), bids, asks));
+    }
+}
@@ -0,0 +1,280 @@
+package com.vega.protocol.quote;
+
+import com.vega.protocol.constant.ErrorCode;
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.constant.OrderStatus;
+import com.vega.protocol.constant.QuotingStrategyType;
+import com.vega.protocol.model.AppConfig;
+import com.vega.protocol.model.Market;
+import com.vega.protocol.model.Order;
+import com.vega.protocol.store.AppConfigStore;
+import com.vega.protocol.utils.PricingUtils;
+import com.vega.protocol.utils.QuantUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+public class QuoteKernelTest {
+
+    private QuoteKernel quoteKernel;
+    private final AppConfigStore appConfigStore = Mockito.mock(AppConfigStore.class);
+    private final QuantUtils quantUtils = Mockito.mock(QuantUtils.class);
+
+    private AppConfig getAppConfig() {
+        return new AppConfig()
+                .setOrderCount(10)
+                .setBidQuoteRange(0.02)
+                .setAskQuoteRange(0.02)
+                .setBidSizeFactor(1.0)
+                .setAskSizeFactor(2.0)
+                .setMinSpread(0.003)
+                .setMaxSpread(0.02)
+                .setBboOffset(0.0);
+    }
+
+    private Market getMarket() {
+        return new Market().setId("1").setDecimalPlaces(2).setPositionDecimalPlaces(3)
+                .setBestBidPrice(BigDecimal.ZERO).setBestAskPrice(BigDecimal.valueOf(101))
+                .setMinValidPrice(BigDecimal.valueOf(50)).setMaxValidPrice(BigDecimal.valueOf(150));
+    }
+
+    private MarketSnapshot getSnapshot(
+            final double bidPrice,
+            final double askPrice,
+            final double bidVolume,
+            final double askVolume,
+            final double exposure,
+            final double openVolumeRatio,
+            final int positionDecimalPlaces
+    ) {
+        return new MarketSnapshot().setBidPrice(bidPrice).setAskPrice(askPrice).setBidVolume(bidVolume)
+                .setAskVolume(askVolume).setExposure(exposure).setOpenVolumeRatio(openVolumeRatio)
+                .setPositionDecimalPlaces(positionDecimalPlaces);
+    }
+
+    @BeforeEach
+    public void setup() {
+        Mockito.when(appConfigStore.get()).thenReturn(Optional.of(getAppConfig()));
+        quoteKernel = new QuoteKernel(List.of(new AmmQuotingStrategy(new PricingUtils(appConfigStore))), quantUtils);
+    }
+
+    @Test
+    public void testBuild() {
+        Assertions.assertTrue(quoteKernel.build(getSnapshot(99.9, 100.1, 10, 10, 0, 0, 3), getAppConfig()));
+        QuoteLadder bids = quoteKernel.getBids();
+        QuoteLadder asks = quoteKernel.getAsks();
+        Assertions.assertEquals(99.9, bids.getPrice(0));
+        Assertions.assertEquals(0.001, bids.getSize(0));
+        Assertions.assertEquals(10.001, bids.getTotalSize(), 1e-9);
+        Assertions.assertEquals(20.001, asks.getTotalSize(), 1e-9);
+        for(int i=1; i<bids.getCount(); i++) {
+            Assertions.assertTrue(bids.getPrice(i) <= bids.getPrice(i - 1));
+        }
+        for(int i=1; i<asks.getCount(); i++) {
+            Assertions.assertTrue(asks.getPrice(i) >= asks.getPrice(i - 1));
+        }
+    }
+
+    @Test
+    public void testBuildUsesConfigOrderCount() {
+        Assertions.assertTrue(quoteKernel.build(getSnapshot(99.9, 100.1, 10, 10, 0, 0, 3),
+                getAppConfig().setOrderCount(4)));
+        Assertions.assertEquals(5, quoteKernel.getBids().getCount());
+        Assertions.assertEquals(5, quoteKernel.getAsks().getCount());
+    }
+
+    @Test
+    public void testBuildSelectsStrategy() {
+        PricingUtils pricingUtils = new PricingUtils(appConfigStore);
+        quoteKernel = new QuoteKernel(List.of(new AmmQuotingStrategy(pricingUtils),
+                new AvellanedaStoikovQuotingStrategy(pricingUtils)), quantUtils);
+        AppConfig config = getAppConfig().setStrategy(QuotingStrategyType.AVELLANEDA_STOIKOV)
+                .setRiskAversion(1.0).setLiquidityDensity(1000.0).setQuoteHorizon(3600.0);
+        Assertions.assertTrue(quoteKernel.build(getSnapshot(99.9, 100.1, 10, 10, 0, 0, 3), config));
+        Assertions.assertEquals(10, quoteKernel.getBids().getCount());
+        Assertions.assertTrue(quoteKernel.build(getSnapshot(99.9, 100.1, 10, 10, 0, 0, 3), getAppConfig()));
+        Assertions.assertEquals(11, quoteKernel.getBids().getCount());
+    }
+
+    @Test
+    public void testBuildStrategyNotFound() {
+        try {
+            quoteKernel.build(getSnapshot(99.9, 100.1, 10, 10, 0, 0, 3),
+                    getAppConfig().setStrategy(QuotingStrategyType.AVELLANEDA_STOIKOV));
+            Assertions.fail();
+        } catch(Exception e) {
+            Assertions.assertEquals(e.getMessage(), ErrorCode.QUOTING_STRATEGY_NOT_FOUND);
+        }
+    }
+
+    @Test
+    public void testBuildWidensSpreadAgainstLongExposure() {
+        quoteKernel.build(getSnapshot(100, 100, 10, 10, 5, 0.5, 3), getAppConfig());
+        double targetSpread = 0.003 + 0.5 * (0.02 - 0.003);
+        Assertions.assertEquals(100 - targetSpread, quoteKernel.getBids().getPrice(0), 1e-9);
+        Assertions.assertEquals(100, quoteKernel.getAsks().getPrice(0));
+        quoteKernel.build(getSnapshot(100, 100, 10, 10, -5, 0.5, 3), getAppConfig());
+        Assertions.assertEquals(100, quoteKernel.getBids().getPrice(0));
+        Assertions.assertEquals(100 + targetSpread, quoteKernel.getAsks().getPrice(0), 1e-9);
+    }
+
+    @Test
+    public void testBuildWithEmptyDistribution() {
+        quoteKernel.build(getSnapshot(99.9, 100.1, 10, 10, 0, 0, 3), getAppConfig());
+        quoteKernel = new QuoteKernel(List.of(new AmmQuotingStrategy(Mockito.mock(PricingUtils.class))), quantUtils);
+        Assertions.assertFalse(quoteKernel.build(getSnapshot(99.9, 100.1, 10, 10, 0, 0, 3), getAppConfig()));
+        Assertions.assertEquals(0, quoteKernel.getBids().getCount());
+    }
+
+    @Test
+    public void testAdjustForCommitment() {
+        quoteKernel.build(getSnapshot(99.9, 100.1, 10, 10, 0, 0, 3), getAppConfig());
+        Mockito.doAnswer(invocation -> {
+            int count = invocation.getArgument(7);
+            double[] probabilities = invocation.getArgument(9);
+            Arrays.fill(probabilities, 0, count, 0.5);
+            return null;
+        }).when(quantUtils).getProbabilityOfTrading(Mockito.anyDouble(), Mockito.anyDouble(), Mockito.anyDouble(),
+                Mockito.anyDouble(), Mockito.anyDouble(), Mockito.anyDouble(), Mockito.any(double[].class),
+                Mockito.anyInt(), Mockito.any(MarketSide.class), Mockito.any(double[].class));
+        QuoteLadder bids = quoteKernel.getBids();
+        double effectiveVolume = 0;
+        for(int i=0; i<bids.getCount(); i++) {
+            effectiveVolume += bids.getSize(i) * bids.getPrice(i) * 0.5;
+        }
+        double totalSize = bids.getTotalSize();
+        quoteKernel.adjustForCommitment(MarketSide.BUY, getMarket(), 0.0001, 100, 0.001, effectiveVolume * 2);
+        Assertions.assertEquals(totalSize * 2, bids.getTotalSize(), 1e-9);
+        Mockito.verify(quantUtils).getProbabilityOfTrading(Mockito.eq(0d), Mockito.eq(0d), Mockito.eq(100d),
+                Mockito.eq(0.0001), Mockito.eq(50d), Mockito.eq(150d), Mockito.eq(bids.getPrices()),
+                Mockito.eq(bids.getCount()), Mockito.eq(MarketSide.BUY), Mockito.any(double[].class));
+        double askSize = quoteKernel.getAsks().getTotalSize();
+        quoteKernel.adjustForCommitment(MarketSide.SELL, getMarket(), 0.0001, 100, 0.001, 1);
+        Assertions.assertEquals(askSize, quoteKernel.getAsks().getTotalSize());
+    }
+
+    @Test
+    public void testToOrders() {
+        quoteKernel.build(getSnapshot(99.9, 100.1, 10, 10, 0, 0, 3), getAppConfig());
+        Market market = getMarket();
+        quoteKernel.toFixedPoint(market);
+        List<Order> bids = quoteKernel.toOrders(MarketSide.BUY, market, "party");
+        List<Order> asks = quoteKernel.toOrders(MarketSide.SELL, market, "party");
+        Assertions.assertEquals(quoteKernel.getBids().getCount(), bids.size());
+        Assertions.assertEquals(quoteKernel.getAsks().getCount(), asks.size());
+        Assertions.assertEquals(new BigDecimal("99.90"), bids.get(0).getPrice());
+        Assertions.assertEquals(new BigDecimal("0.001"), bids.get(0).getSize());
+        Assertions.assertEquals(MarketSide.SELL, asks.get(0).getSide());
+        Assertions.assertEquals(OrderStatus.ACTIVE, asks.get(0).getStatus());
+        Assertions.assertEquals("party", asks.get(0).getPartyId());
+        Assertions.assertEquals(2, asks.get(0).getPrice().scale());
+    }
+
+    @Test
+    public void testToOrdersReusesLevels() {
+        Market market = getMarket();
+        quoteKernel.build(getSnapshot(99.9, 100.1, 10, 10, 0, 0, 3), getAppConfig());
+        quoteKernel.toFixedPoint(market);
+        Order first = quoteKernel.toOrders(MarketSide.BUY, market, "party").get(0);
+        quoteKernel.build(getSnapshot(98.9, 99.1, 10, 10, 0, 0, 3), getAppConfig());
+        quoteKernel.toFixedPoint(market);
+        List<Order> bids = quoteKernel.toOrders(MarketSide.BUY, market, "party");
+        Assertions.assertSame(first, bids.get(0));
+        Assertions.assertEquals(new BigDecimal("98.90"), bids.get(0).getPrice());
+        Assertions.assertNotSame(first, quoteKernel.toOrders(MarketSide.SELL, market, "party").get(0));
+    }
+
+    private List<Order> getRestingOrders(
+            final MarketSide side,
+            final Market market
+    ) {
+        List<Order> orders = new ArrayList<>();
+        for(Order order : quoteKernel.toOrders(side, market, "party")) {
+            orders.add(new Order().setId(String.valueOf(orders.size())).setSide(side).setPrice(order.getPrice())
+                    .setSize(order.getSize()).setRemainingSize(order.getSize()));
+        }
+        return orders;
+    }
+
+    @Test
+    public void testReconcileKeepsMatchingOrders() {
+        Market market = getMarket();
+        quoteKernel.build(getSnapshot(99.9, 100.1, 10, 10, 0, 0, 3), getAppConfig());
+        quoteKernel.toFixedPoint(market);
+        List<Order> bids = getRestingOrders(MarketSide.BUY, market);
+        List<Order> asks = getRestingOrders(MarketSide.SELL, market);
+        List<String> cancellations = new ArrayList<>();
+        Assertions.assertEquals(0, quoteKernel.reconcile(
+                MarketSide.BUY, bids, market, "party", getAppConfig(), cancellations).size());
+        Assertions.assertEquals(0, quoteKernel.reconcile(
+                MarketSide.SELL, asks, market, "party", getAppConfig(), cancellations).size());
+        Assertions.assertEquals(0, cancellations.size());
+    }
+
+    @Test
+    public void testReconcileWithPriceTolerance() {
+        Market market = getMarket();
+        quoteKernel.build(getSnapshot(99.9, 100.1, 10, 10, 0, 0, 3), getAppConfig());
+        quoteKernel.toFixedPoint(market);
+        List<Order> bids = getRestingOrders(MarketSide.BUY, market);
+        bids.get(1).setPrice(bids.get(1).getPrice().subtract(new BigDecimal("0.01")));
+        List<String> cancellations = new ArrayList<>();
+        List<QuoteLevel> levels = quoteKernel.reconcile(MarketSide.BUY, bids, market, "party",
+                getAppConfig(), cancellations);
+        Assertions.assertEquals(List.of("1"), cancellations);
+        Assertions.assertEquals(1, levels.size());
+        Assertions.assertEquals(1, levels.get(0).getLevel());
+        cancellations.clear();
+        Assertions.assertEquals(0, quoteKernel.reconcile(MarketSide.BUY, bids, market, "party",
+                getAppConfig().setPriceToleranceTicks(1), cancellations).size());
+        Assertions.assertEquals(0, cancellations.size());
+        bids.get(1).setPrice(bids.get(1).getPrice().subtract(new BigDecimal("0.02")));
+        Assertions.assertEquals(0, quoteKernel.reconcile(MarketSide.BUY, bids, market, "party",
+                getAppConfig().setPriceToleranceBps(5.0), cancellations).size());
+        Assertions.assertEquals(0, cancellations.size());
+    }
+
+    @Test
+    public void testReconcileWithSizeTolerance() {
+        Market market = getMarket();
+        quoteKernel.build(getSnapshot(99.9, 100.1, 10, 10, 0, 0, 3), getAppConfig());
+        quoteKernel.toFixedPoint(market);
+        List<Order> asks = getRestingOrders(MarketSide.SELL, market);
+        Order partiallyFilled = asks.get(2);
+        partiallyFilled.setRemainingSize(partiallyFilled.getSize().multiply(new BigDecimal("0.95")));
+        List<String> cancellations = new ArrayList<>();
+        Assertions.assertEquals(0, quoteKernel.reconcile(MarketSide.SELL, asks, market, "party",
+                getAppConfig().setSizeTolerancePercent(10.0), cancellations).size());
+        partiallyFilled.setRemainingSize(partiallyFilled.getSize().multiply(new BigDecimal("0.5")));
+        List<QuoteLevel> levels = quoteKernel.reconcile(MarketSide.SELL, asks, market, "party",
+                getAppConfig().setSizeTolerancePercent(10.0), cancellations);
+        Assertions.assertEquals(List.of("2"), cancellations);
+        Assertions.assertEquals(1, levels.size());
+        Assertions.assertEquals(partiallyFilled.getPrice(), levels.get(0).getPrice());
+    }
+
+    @Test
+    public void testReconcileCancelsStaleOrdersAndFillsGaps() {
+        Market market = getMarket();
+        quoteKernel.build(getSnapshot(99.9, 100.1, 10, 10, 0, 0, 3), getAppConfig());
+        quoteKernel.toFixedPoint(market);
+        int count = quoteKernel.getBids().getCount();
+        List<Order> bids = new ArrayList<>(getRestingOrders(MarketSide.BUY, market).subList(0, 2));
+        bids.get(0).setPrice(new BigDecimal("100.50"));
+        bids.add(new Order().setId("stale").setSide(MarketSide.BUY).setPrice(BigDecimal.ONE).setSize(BigDecimal.ONE));
+        List<String> cancellations = new ArrayList<>();
+        List<QuoteLevel> levels = quoteKernel.reconcile(MarketSide.BUY, bids, market, "party",
+                getAppConfig().setPriceToleranceTicks(1), cancellations);
+        Assertions.assertEquals(List.of("0", "stale"), cancellations);
+        Assertions.assertEquals(count - 1, levels.size());
+        Assertions.assertEquals(0, levels.get(0).getLevel());
+        Assertions.assertEquals(2, levels.get(1).getLevel());
+    }
+}
@@ -0,0 +1,72 @@
+package com.vega.protocol.quote;
+
+import com.vega.protocol.constant.MarketSide;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class QuoteLadderTest {
+
+    @Test
+    public void testAddGrowsCapacity() {
+        QuoteLadder ladder = new QuoteLadder();
+        for(int i=0; i<100; i++) {
+            ladder.add(i, 1);
+        }
+        Assertions.assertEquals(100, ladder.getCount());
+        Assertions.assertEquals(99, ladder.getPrice(99));
+        Assertions.assertEquals(100, ladder.getTotalSize());
+        ladder.clear();
+        Assertions.assertEquals(0, ladder.getCount());
+        Assertions.assertEquals(0, ladder.getTotalSize());
+    }
+
+    @Test
+    public void testSortBids() {
+        QuoteLadder ladder = new QuoteLadder();
+        ladder.add(99, 1);
+        ladder.add(101, 2);
+        ladder.add(100, 3);
+        ladder.sort(MarketSide.BUY);
+        Assertions.assertEquals(101, ladder.getPrice(0));
+        Assertions.assertEquals(2, ladder.getSize(0));
+        Assertions.assertEquals(100, ladder.getPrice(1));
+        Assertions.assertEquals(3, ladder.getSize(1));
+        Assertions.assertEquals(99, ladder.getPrice(2));
+    }
+
+    @Test
+    public void testSortAsks() {
+        QuoteLadder ladder = new QuoteLadder();
+        ladder.add(101, 1);
+        ladder.add(99, 2);
+        ladder.add(100, 3);
+        ladder.sort(MarketSide.SELL);
+        Assertions.assertEquals(99, ladder.getPrice(0));
+        Assertions.assertEquals(2, ladder.getSize(0));
+        Assertions.assertEquals(101, ladder.getPrice(2));
+    }
+
+    @Test
+    public void testShiftAndMultiply() {
+        QuoteLadder ladder = new QuoteLadder();
+        ladder.add(100, 1);
+        ladder.add(101, 2);
+        ladder.shiftPrices(-0.5);
+        ladder.multiplySizes(1.5);
+        Assertions.assertEquals(99.5, ladder.getPrice(0));
+        Assertions.assertEquals(100.5, ladder.getPrice(1));
+        Assertions.assertEquals(4.5, ladder.getTotalSize());
+    }
+
+    @Test
+    public void testToFixedPoint() {
+        QuoteLadder ladder = new QuoteLadder();
+        ladder.add(1234.56789, 0.0015);
+        ladder.add(0.1 + 0.2, 3);
+        ladder.toFixedPoint(3, 3);
+        Assertions.assertEquals(1234568L, ladder.getScaledPrice(0));
+        Assertions.assertEquals(2L, ladder.getScaledSize(0));
+        Assertions.assertEquals(300L, ladder.getScaledPrice(1));
+        Assertions.assertEquals(3000L, ladder.getScaledSize(1));
+    }
+}
@@ -0,0 +1,64 @@
+package com.vega.protocol.quote;
+
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.constant.OrderStatus;
+import com.vega.protocol.constant.OrderType;
+import com.vega.protocol.constant.TimeInForce;
+import com.vega.protocol.model.Market;
+import com.vega.protocol.model.Order;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class QuoteLevelPoolTest {
+
+    private final QuoteLevelPool pool = new QuoteLevelPool();
+    private final Market market = new Market().setId("1").setDecimalPlaces(2).setPositionDecimalPlaces(3);
+
+    private QuoteLadder getLadder(
+            final int count
+    ) {
+        QuoteLadder ladder = new QuoteLadder();
+        for(int i=0; i<count; i++) {
+            ladder.add(100 - i, 0.5 + i);
+        }
+        ladder.toFixedPoint(market.getDecimalPlaces(), market.getPositionDecimalPlaces());
+        return ladder;
+    }
+
+    @Test
+    public void testFill() {
+        List<Order> orders = pool.fill(getLadder(3), MarketSide.BUY, market, "party");
+        Assertions.assertEquals(3, orders.size());
+        Assertions.assertEquals(new BigDecimal("99.00"), orders.get(1).getPrice());
+        Assertions.assertEquals(new BigDecimal("1.500"), orders.get(1).getSize());
+        Assertions.assertEquals(MarketSide.BUY, orders.get(1).getSide());
+        Assertions.assertEquals(OrderStatus.ACTIVE, orders.get(1).getStatus());
+        Assertions.assertEquals(OrderType.LIMIT, orders.get(1).getType());
+        Assertions.assertEquals(TimeInForce.GTC, orders.get(1).getTimeInForce());
+        Assertions.assertEquals(market, orders.get(1).getMarket());
+        Assertions.assertEquals("party", orders.get(1).getPartyId());
+        Assertions.assertEquals(1, pool.get(1).getLevel());
+        Assertions.assertSame(orders.get(1), pool.get(1));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> orders.add(new Order()));
+    }
+
+    @Test
+    public void testFillReusesLevels() {
+        List<Order> orders = pool.fill(getLadder(3), MarketSide.BUY, market, "party");
+        Order first = orders.get(0);
+        first.setReference("ref").setId("id");
+        Assertions.assertSame(orders, pool.fill(getLadder(2), MarketSide.SELL, market, "party"));
+        Assertions.assertEquals(2, orders.size());
+        Assertions.assertSame(first, orders.get(0));
+        Assertions.assertNull(first.getReference());
+        Assertions.assertNull(first.getId());
+        Assertions.assertEquals(MarketSide.SELL, first.getSide());
+        Assertions.assertEquals(3, pool.getCapacity());
+        pool.fill(getLadder(5), MarketSide.SELL, market, "party");
+        Assertions.assertEquals(5, pool.getCapacity());
+        Assertions.assertSame(first, orders.get(0));
+    }
+}
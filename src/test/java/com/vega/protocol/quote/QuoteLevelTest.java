@@ -0,0 +1,43 @@
+package com.vega.protocol.quote;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+public class QuoteLevelTest {
+
+    @Test
+    public void testSet() {
+        QuoteLevel level = new QuoteLevel().set(10015, 2, 3, 3);
+        Assertions.assertEquals(10015, level.getScaledPrice());
+        Assertions.assertEquals(2, level.getPriceDecimals());
+        Assertions.assertEquals(3, level.getScaledSize());
+        Assertions.assertEquals(3, level.getSizeDecimals());
+        Assertions.assertEquals(new BigDecimal("100.15"), level.getPrice());
+        Assertions.assertEquals(new BigDecimal("0.003"), level.getSize());
+    }
+
+    @Test
+    public void testDecimalsAreCachedUntilChanged() {
+        QuoteLevel level = new QuoteLevel().set(10015, 2, 3, 3);
+        BigDecimal price = level.getPrice();
+        BigDecimal size = level.getSize();
+        level.set(10015, 2, 4, 3);
+        Assertions.assertSame(price, level.getPrice());
+        Assertions.assertNotSame(size, level.getSize());
+        Assertions.assertEquals(new BigDecimal("0.004"), level.getSize());
+        level.set(10015, 3, 4, 3);
+        Assertions.assertEquals(new BigDecimal("10.015"), level.getPrice());
+    }
+
+    @Test
+    public void testSetPriceAndSize() {
+        QuoteLevel level = new QuoteLevel().set(0, 2, 0, 1);
+        level.setPrice(new BigDecimal("100.125")).setSize(new BigDecimal("2.25"));
+        Assertions.assertEquals(10012, level.getScaledPrice());
+        Assertions.assertEquals(22, level.getScaledSize());
+        Assertions.assertEquals(new BigDecimal("100.12"), level.getPrice());
+        Assertions.assertEquals(new BigDecimal("2.2"), level.getSize());
+    }
+}
@@ -0,0 +1,82 @@
+package com.vega.protocol.quote;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class VolatilityEstimatorTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testEwma() {
+        VolatilityEstimator estimator = new VolatilityEstimator(60, 60, false, 10);
+        double price = 100;
+        for(int i=0; i<=20; i++) {
+            estimator.update(price, i * SECOND);
+            price = price * Math.exp(i % 2 == 0 ? 0.001 : -0.001);
+        }
+        Assertions.assertEquals(20, estimator.getSamples());
+        Assertions.assertEquals(0.001 * Math.sqrt(VolatilityEstimator.SECONDS_PER_YEAR),
+                estimator.getVolatility(), 1e-9);
+    }
+
+    @Test
+    public void testEwmaScalesWithTime() {
+        VolatilityEstimator estimator = new VolatilityEstimator(60, 60, false, 1);
+        estimator.update(100, 0);
+        estimator.update(100 * Math.exp(0.002), 4 * SECOND);
+        Assertions.assertEquals(0.001 * Math.sqrt(VolatilityEstimator.SECONDS_PER_YEAR),
+                estimator.getVolatility(), 1e-9);
+    }
+
+    @Test
+    public void testEwmaWeightsRecentTicks() {
+        VolatilityEstimator estimator = new VolatilityEstimator(10, 60, false, 1);
+        long nanos = 0;
+        estimator.update(100, nanos);
+        for(int i=1; i<=100; i++) {
+            estimator.update(i % 2 == 0 ? 100 : 100.1, nanos += SECOND);
+        }
+        double before = estimator.getVolatility();
+        for(int i=1; i<=100; i++) {
+            estimator.update(100, nanos += SECOND);
+        }
+        Assertions.assertTrue(estimator.getVolatility() < before * 0.05);
+    }
+
+    @Test
+    public void testWarmUp() {
+        VolatilityEstimator estimator = new VolatilityEstimator(60, 60, false, 3);
+        estimator.update(100, 0);
+        estimator.update(101, SECOND);
+        estimator.update(100, 2 * SECOND);
+        Assertions.assertEquals(0, estimator.getVolatility());
+        estimator.update(101, 3 * SECOND);
+        Assertions.assertTrue(estimator.getVolatility() > 0);
+    }
+
+    @Test
+    public void testIgnoresInvalidTicks() {
+        VolatilityEstimator estimator = new VolatilityEstimator(60, 60, false, 1);
+        estimator.update(100, SECOND);
+        estimator.update(0, 2 * SECOND);
+        estimator.update(101, SECOND);
+        Assertions.assertEquals(0, estimator.getSamples());
+    }
+
+    @Test
+    public void testParkinson() {
+        VolatilityEstimator estimator = new VolatilityEstimator(600, 60, true, 1);
+        estimator.update(100, 0);
+        estimator.update(100 * Math.exp(0.01), 10 * SECOND);
+        estimator.update(100, 20 * SECOND);
+        Assertions.assertEquals(0, estimator.getSamples());
+        estimator.update(100, 60 * SECOND);
+        Assertions.assertEquals(1, estimator.getSamples());
+        double rate = 0.01 * 0.01 / (4 * Math.log(2)) / 60;
+        Assertions.assertEquals(Math.sqrt(rate * VolatilityEstimator.SECONDS_PER_YEAR),
+                estimator.getVolatility(), 1e-9);
+    }
+}
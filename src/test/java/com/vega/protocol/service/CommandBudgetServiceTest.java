@@ -0,0 +1,156 @@
+package com.vega.protocol.service;
+
+import com.vega.protocol.constant.CommandPriority;
+import com.vega.protocol.constant.ErrorCode;
+import com.vega.protocol.model.BatchInstruction;
+import com.vega.protocol.model.CommandBudget;
+import com.vega.protocol.model.NetworkParameter;
+import com.vega.protocol.model.Order;
+import com.vega.protocol.store.NetworkParameterStore;
+import com.vega.protocol.utils.SleepUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CommandBudgetServiceTest {
+
+    private static final String MAX_BATCH_SIZE_PARAM = "spam.protection.max.batchSize";
+    private static final String TX_PER_BLOCK_PARAM = "spam.pow.numberOfTxPerBlock";
+    private static final String EPOCH_LENGTH_PARAM = "validators.epoch.length";
+
+    private CommandBudgetService commandBudgetService;
+    private final NetworkParameterStore networkParameterStore = new NetworkParameterStore();
+    private final SleepUtils sleepUtils = Mockito.mock(SleepUtils.class);
+    private final AtomicLong clock = new AtomicLong();
+
+    private CommandBudgetService getService(
+            final long epochLimit,
+            final long maxWaitMs
+    ) {
+        CommandBudgetService service = new CommandBudgetService(
+                networkParameterStore, sleepUtils, 1000L, 1, epochLimit, maxWaitMs);
+        service.setClock(clock::get);
+        return service;
+    }
+
+    @BeforeEach
+    public void setup() {
+        networkParameterStore.add(new NetworkParameter().setId(MAX_BATCH_SIZE_PARAM).setValue("3"));
+        networkParameterStore.add(new NetworkParameter().setId(TX_PER_BLOCK_PARAM).setValue("3"));
+        commandBudgetService = getService(0L, 0L);
+        Mockito.doAnswer(invocation -> clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(invocation.getArgument(0))))
+                .when(sleepUtils).sleep(Mockito.anyLong());
+    }
+
+    @Test
+    public void testPartition() {
+        List<Order> submissions = List.of(new Order(), new Order(), new Order(), new Order());
+        List<BatchInstruction> batches = commandBudgetService.partition(List.of("1", "2"), submissions);
+        Assertions.assertEquals(2, batches.size());
+        Assertions.assertEquals(List.of("1", "2"), batches.get(0).getCancellations());
+        Assertions.assertEquals(1, batches.get(0).getSubmissions().size());
+        Assertions.assertEquals(0, batches.get(1).getCancellations().size());
+        Assertions.assertEquals(3, batches.get(1).getSubmissions().size());
+        Assertions.assertTrue(commandBudgetService.partition(
+                Collections.emptyList(), Collections.emptyList()).isEmpty());
+    }
+
+    @Test
+    public void testPartitionWithoutMaxBatchSize() {
+        networkParameterStore.remove(new NetworkParameter().setId(MAX_BATCH_SIZE_PARAM));
+        try {
+            commandBudgetService.partition(List.of("1"), Collections.emptyList());
+            Assertions.fail();
+        } catch(Exception e) {
+            Assertions.assertEquals(ErrorCode.NETWORK_PARAMETER_NOT_FOUND, e.getMessage());
+        }
+    }
+
+    @Test
+    public void testUrgentReserve() {
+        Assertions.assertTrue(commandBudgetService.tryAcquire(CommandPriority.ROUTINE));
+        Assertions.assertTrue(commandBudgetService.tryAcquire(CommandPriority.ROUTINE));
+        Assertions.assertFalse(commandBudgetService.tryAcquire(CommandPriority.ROUTINE));
+        Assertions.assertTrue(commandBudgetService.tryAcquire(CommandPriority.URGENT));
+        Assertions.assertFalse(commandBudgetService.tryAcquire(CommandPriority.URGENT));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        Assertions.assertTrue(commandBudgetService.tryAcquire(CommandPriority.ROUTINE));
+    }
+
+    @Test
+    public void testSingleTransactionPerBlockIsNotReserved() {
+        networkParameterStore.update(new NetworkParameter().setId(TX_PER_BLOCK_PARAM).setValue("1"));
+        Assertions.assertTrue(commandBudgetService.tryAcquire(CommandPriority.ROUTINE));
+        Assertions.assertFalse(commandBudgetService.tryAcquire(CommandPriority.URGENT));
+    }
+
+    @Test
+    public void testDefaultTransactionsPerBlock() {
+        networkParameterStore.remove(new NetworkParameter().setId(TX_PER_BLOCK_PARAM));
+        Assertions.assertEquals(2, commandBudgetService.getBudget().getBlockLimit());
+    }
+
+    @Test
+    public void testAcquireWaitsForNextBlock() {
+        commandBudgetService = getService(0L, 2000L);
+        for(int i=0; i<5; i++) {
+            Assertions.assertTrue(commandBudgetService.acquire(CommandPriority.ROUTINE));
+        }
+        Mockito.verify(sleepUtils, Mockito.times(2)).sleep(1000L);
+        Assertions.assertEquals(0, commandBudgetService.getBudget().getDeferred());
+    }
+
+    @Test
+    public void testAcquireDeferredAfterMaxWait() {
+        Assertions.assertTrue(commandBudgetService.acquire(CommandPriority.ROUTINE));
+        Assertions.assertTrue(commandBudgetService.acquire(CommandPriority.ROUTINE));
+        Assertions.assertFalse(commandBudgetService.acquire(CommandPriority.ROUTINE));
+        Mockito.verify(sleepUtils, Mockito.never()).sleep(Mockito.anyLong());
+        Assertions.assertEquals(1, commandBudgetService.getBudget().getDeferred());
+    }
+
+    @Test
+    public void testEpochLimit() {
+        networkParameterStore.add(new NetworkParameter().setId(EPOCH_LENGTH_PARAM).setValue("1m0s"));
+        commandBudgetService = getService(3L, 5000L);
+        for(int i=0; i<3; i++) {
+            Assertions.assertTrue(commandBudgetService.acquire(CommandPriority.ROUTINE));
+        }
+        Assertions.assertFalse(commandBudgetService.acquire(CommandPriority.URGENT));
+        CommandBudget budget = commandBudgetService.getBudget();
+        Assertions.assertEquals(3, budget.getEpochUsed());
+        Assertions.assertEquals(1, budget.getDeferred());
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        Assertions.assertTrue(commandBudgetService.acquire(CommandPriority.URGENT));
+    }
+
+    @Test
+    public void testSpamRejectionPausesBlock() {
+        Assertions.assertTrue(commandBudgetService.tryAcquire(CommandPriority.ROUTINE));
+        commandBudgetService.onRejected("ORDER_ERROR_MARGIN_CHECK_FAILED");
+        Assertions.assertTrue(commandBudgetService.tryAcquire(CommandPriority.URGENT));
+        commandBudgetService.onRejected("too many transactions per block");
+        Assertions.assertFalse(commandBudgetService.tryAcquire(CommandPriority.URGENT));
+        Assertions.assertEquals(1, commandBudgetService.getBudget().getSpamRejections());
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        Assertions.assertTrue(commandBudgetService.tryAcquire(CommandPriority.URGENT));
+    }
+
+    @Test
+    public void testGetBudget() {
+        networkParameterStore.add(new NetworkParameter().setId("market.auction.minimumDuration").setValue("1s"));
+        commandBudgetService.tryAcquire(CommandPriority.ROUTINE);
+        CommandBudget budget = commandBudgetService.getBudget();
+        Assertions.assertEquals(3, budget.getMaxBatchSize());
+        Assertions.assertEquals(3, budget.getBlockLimit());
+        Assertions.assertEquals(1, budget.getBlockUsed());
+        Assertions.assertEquals(1, budget.getRoutine());
+        Assertions.assertEquals(2, budget.getSpamParameters().size());
+    }
+}
@@ -0,0 +1,140 @@
+package com.vega.protocol.service;
+
+import com.vega.protocol.model.DataNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+public class DataNodeServiceTest {
+
+    private StandInDataNode primary;
+    private StandInDataNode secondary;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        primary = new StandInDataNode().setBlockHeight(100).setDelayMs(20);
+        secondary = new StandInDataNode().setBlockHeight(100).setDelayMs(20);
+    }
+
+    @AfterEach
+    public void teardown() {
+        primary.close();
+        secondary.close();
+    }
+
+    private DataNodeService getService(
+            final int failureThreshold,
+            final long probeTimeoutMs
+    ) {
+        return new DataNodeService(String.format("%s,%s", primary.getUrl(), secondary.getUrl()),
+                "ws://primary/graphql, ws://secondary/graphql", 10L, failureThreshold, 0.7, 3, probeTimeoutMs);
+    }
+
+    private long countRunningProbes() {
+        return Thread.getAllStackTraces().values().stream()
+                .filter(stack -> Arrays.stream(stack).anyMatch(frame ->
+                        frame.getClassName().equals(DataNodeService.class.getName()) &&
+                                frame.getMethodName().equals("probe")))
+                .count();
+    }
+
+    @Test
+    public void testSingleNode() {
+        DataNodeService dataNodeService = new DataNodeService(
+                primary.getUrl(), "ws://primary/graphql", 10L, 3, 0.7, 3, 1000L);
+        primary.setStatus(500);
+        dataNodeService.probe();
+        dataNodeService.reportFailure();
+        Assertions.assertEquals(primary.getUrl(), dataNodeService.getRestUrl());
+        Assertions.assertEquals(0, dataNodeService.getNodes().get(0).getProbes());
+    }
+
+    @Test
+    public void testWsUrlsPairedByPosition() {
+        DataNodeService dataNodeService = new DataNodeService(
+                "http://a, http://b", "ws://a", 10L, 3, 0.7, 3, 1000L);
+        List<DataNode> nodes = dataNodeService.getNodes();
+        Assertions.assertEquals("http://a", dataNodeService.getRestUrl());
+        Assertions.assertEquals("ws://a", dataNodeService.getWsUrl());
+        Assertions.assertEquals("http://b", nodes.get(1).getRestUrl());
+        Assertions.assertEquals("ws://a", nodes.get(1).getWsUrl());
+    }
+
+    @Test
+    public void testSwitchToFasterNodeWithHysteresis() {
+        DataNodeService dataNodeService = getService(3, 2000L);
+        dataNodeService.probe();
+        primary.setDelayMs(300);
+        int probes = 0;
+        while(probes < 10 && dataNodeService.getRestUrl().equals(primary.getUrl())) {
+            dataNodeService.probe();
+            probes++;
+        }
+        Assertions.assertTrue(probes >= 3);
+        Assertions.assertEquals(secondary.getUrl(), dataNodeService.getRestUrl());
+        Assertions.assertEquals("ws://secondary/graphql", dataNodeService.getWsUrl());
+    }
+
+    @Test
+    public void testStayOnSimilarNode() {
+        DataNodeService dataNodeService = getService(3, 2000L);
+        for(int i=0; i<5; i++) {
+            dataNodeService.probe();
+        }
+        Assertions.assertTrue(dataNodeService.getNodes().stream().allMatch(DataNode::isHealthy));
+        Assertions.assertEquals(primary.getUrl(), dataNodeService.getRestUrl());
+    }
+
+    @Test
+    public void testFailoverOnErrors() {
+        DataNodeService dataNodeService = getService(2, 2000L);
+        primary.setStatus(500);
+        dataNodeService.probe();
+        Assertions.assertEquals(primary.getUrl(), dataNodeService.getRestUrl());
+        dataNodeService.probe();
+        Assertions.assertEquals(secondary.getUrl(), dataNodeService.getRestUrl());
+        Assertions.assertFalse(dataNodeService.getNodes().get(0).isHealthy());
+    }
+
+    @Test
+    public void testFailoverOnTimeout() {
+        DataNodeService dataNodeService = getService(1, 100L);
+        primary.setDelayMs(500);
+        dataNodeService.probe();
+        Assertions.assertEquals(secondary.getUrl(), dataNodeService.getRestUrl());
+    }
+
+    @Test
+    public void testTimedOutProbeReleasesThread() {
+        DataNodeService dataNodeService = getService(5, 100L);
+        primary.setDelayMs(1000);
+        dataNodeService.probe();
+        Assertions.assertEquals(0, countRunningProbes());
+        Assertions.assertEquals(1, dataNodeService.getNodes().get(0).getConsecutiveFailures());
+        dataNodeService.stop();
+    }
+
+    @Test
+    public void testFailoverWhenLagging() {
+        DataNodeService dataNodeService = getService(3, 2000L);
+        secondary.setBlockHeight(150);
+        dataNodeService.probe();
+        Assertions.assertEquals(secondary.getUrl(), dataNodeService.getRestUrl());
+        Assertions.assertEquals(100, dataNodeService.getNodes().get(0).getBlockHeight());
+        Assertions.assertEquals(150, dataNodeService.getNodes().get(1).getBlockHeight());
+    }
+
+    @Test
+    public void testFailoverOnReportedFailures() {
+        DataNodeService dataNodeService = getService(2, 2000L);
+        dataNodeService.reportFailure();
+        Assertions.assertEquals(primary.getUrl(), dataNodeService.getRestUrl());
+        dataNodeService.reportFailure();
+        Assertions.assertEquals(secondary.getUrl(), dataNodeService.getRestUrl());
+    }
+}
@@ -0,0 +1,58 @@
+package com.vega.protocol.service;
+
+import com.vega.protocol.constant.LatencyStage;
+import com.vega.protocol.model.LatencyStats;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LatencyServiceTest {
+
+    @Test
+    public void testRecord() {
+        AtomicLong now = new AtomicLong(1000);
+        LatencyService latencyService = new LatencyService();
+        latencyService.setClock(now::get);
+        long start = latencyService.start();
+        now.addAndGet(2000);
+        long time = latencyService.record(LatencyStage.STORE_READ, start);
+        Assertions.assertEquals(3000, time);
+        now.addAndGet(5000);
+        latencyService.record(LatencyStage.DISTRIBUTION, time);
+        latencyService.record(LatencyStage.QUOTE_CYCLE, start);
+        Assertions.assertEquals(2, latencyService.get(LatencyStage.STORE_READ).getP50Micros(), 0.02);
+        Assertions.assertEquals(5, latencyService.get(LatencyStage.DISTRIBUTION).getP99Micros(), 0.05);
+        LatencyStats cycle = latencyService.get(LatencyStage.QUOTE_CYCLE);
+        Assertions.assertEquals(1, cycle.getCount());
+        Assertions.assertEquals(7, cycle.getP999Micros(), 0.07);
+        Assertions.assertEquals(7, cycle.getMaxMicros());
+        Assertions.assertEquals(0, latencyService.get(LatencyStage.WALLET).getCount());
+    }
+
+    @Test
+    public void testGetStats() {
+        LatencyService latencyService = new LatencyService();
+        latencyService.record(LatencyStage.WALLET, latencyService.start());
+        List<LatencyStats> stats = latencyService.getStats();
+        Assertions.assertEquals(LatencyStage.values().length, stats.size());
+        Assertions.assertEquals(LatencyStage.QUOTE_CYCLE, stats.get(0).getStage());
+        Assertions.assertEquals(1, stats.stream().mapToLong(LatencyStats::getCount).sum());
+        latencyService.reset();
+        Assertions.assertEquals(0, latencyService.get(LatencyStage.WALLET).getCount());
+    }
+
+    @Test
+    public void testTrace() {
+        LatencyService latencyService = new LatencyService();
+        String first = latencyService.startTrace();
+        Assertions.assertEquals(first, MDC.get(LatencyService.TRACE_ID));
+        latencyService.endTrace();
+        Assertions.assertNull(MDC.get(LatencyService.TRACE_ID));
+        String second = latencyService.startTrace();
+        Assertions.assertNotEquals(first, second);
+        latencyService.endTrace();
+    }
+}
@@ -0,0 +1,60 @@
+package com.vega.protocol.service;
+
+import com.vega.protocol.constant.ErrorCode;
+import com.vega.protocol.model.MarketBinding;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class MarketBindingServiceTest {
+
+    private static final String MARKET_ID = "1";
+    private static final String SYMBOL = "BTCUSDT";
+
+    @Test
+    public void testSingleMarket() {
+        MarketBindingService marketBindingService = new MarketBindingService(MARKET_ID, SYMBOL, "");
+        Assertions.assertFalse(marketBindingService.isMultiMarket());
+        Assertions.assertEquals(List.of(MARKET_ID), marketBindingService.getMarketIds());
+        Assertions.assertEquals(List.of(SYMBOL), marketBindingService.getSymbols());
+        Assertions.assertEquals(SYMBOL, marketBindingService.getByMarketId(MARKET_ID)
+                .map(MarketBinding::getReferencePriceMarket).orElseThrow());
+    }
+
+    @Test
+    public void testMultipleMarkets() {
+        MarketBindingService marketBindingService = new MarketBindingService(MARKET_ID, SYMBOL,
+                "1:BTCUSDT, 2:ETHUSDT,3:BTCUSDT");
+        Assertions.assertTrue(marketBindingService.isMultiMarket());
+        Assertions.assertEquals(List.of("1", "2", "3"), marketBindingService.getMarketIds());
+        Assertions.assertEquals(List.of("BTCUSDT", "ETHUSDT"), marketBindingService.getSymbols());
+        Assertions.assertEquals(List.of("1", "3"), marketBindingService.getBySymbol("BTCUSDT").stream()
+                .map(MarketBinding::getMarketId).toList());
+        Assertions.assertEquals("ETHUSDT", marketBindingService.getByMarketId("2")
+                .map(MarketBinding::getReferencePriceMarket).orElseThrow());
+        Assertions.assertTrue(marketBindingService.getByMarketId("4").isEmpty());
+        Assertions.assertTrue(marketBindingService.getBySymbol("SOLUSDT").isEmpty());
+        Assertions.assertTrue(marketBindingService.getBySymbol(null).isEmpty());
+    }
+
+    @Test
+    public void testInvalidBinding() {
+        try {
+            new MarketBindingService(MARKET_ID, SYMBOL, "1:BTCUSDT,2");
+            Assertions.fail();
+        } catch(Exception e) {
+            Assertions.assertEquals(e.getMessage(), ErrorCode.INVALID_MARKET_BINDING);
+        }
+    }
+
+    @Test
+    public void testDuplicateBinding() {
+        try {
+            new MarketBindingService(MARKET_ID, SYMBOL, "1:BTCUSDT,1:ETHUSDT");
+            Assertions.fail();
+        } catch(Exception e) {
+            Assertions.assertEquals(e.getMessage(), ErrorCode.DUPLICATE_MARKET_BINDING);
+        }
+    }
+}
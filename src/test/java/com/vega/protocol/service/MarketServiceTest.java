@@ -40,4 +40,17 @@ public class MarketServiceTest {
             Assertions.assertEquals(e.getMessage(), ErrorCode.MARKET_NOT_FOUND);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCountBySettlementAsset() {
+        Mockito.when(marketStore.getItems()).thenReturn(List.of(
+                new Market().setId("1").setSettlementAsset("USDT"),
+                new Market().setId("2").setSettlementAsset("USDT"),
+                new Market().setId("3").setSettlementAsset("USDC"),
+                new Market().setId("4").setSettlementAsset("USDT")
+        ));
+        Assertions.assertEquals(2, marketService.countBySettlementAsset(List.of("1", "2", "3"), "USDT"));
+        Assertions.assertEquals(1, marketService.countBySettlementAsset(List.of("1", "2", "3"), "USDC"));
+        Assertions.assertEquals(0, marketService.countBySettlementAsset(List.of(), "USDT"));
+    }
+}
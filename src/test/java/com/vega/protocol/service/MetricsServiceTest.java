@@ -0,0 +1,60 @@
+package com.vega.protocol.service;
+
+import com.vega.protocol.constant.WebSocketTopic;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MetricsServiceTest {
+
+    private final AtomicLong now = new AtomicLong(1000);
+    private MeterRegistry meterRegistry;
+    private MetricsService metricsService;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        metricsService = new MetricsService(meterRegistry);
+        metricsService.setClock(now::get);
+    }
+
+    @Test
+    public void testMetersArePreregistered() {
+        Assertions.assertEquals(WebSocketTopic.values().length,
+                meterRegistry.find("vega.ws.messages").counters().size());
+        Assertions.assertEquals(WebSocketTopic.values().length, meterRegistry.find("vega.ws.lag").timers().size());
+        Assertions.assertEquals(0, meterRegistry.get("vega.ws.messages").tag("topic", "orders").counter().count());
+        Assertions.assertTrue(Double.isNaN(meterRegistry.get("vega.ws.last.message.age")
+                .tag("topic", "orders").timeGauge().value()));
+    }
+
+    @Test
+    public void testOnMessage() {
+        metricsService.onMessage(WebSocketTopic.ORDERS);
+        metricsService.onMessage(WebSocketTopic.ORDERS);
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(250));
+        Assertions.assertEquals(2, meterRegistry.get("vega.ws.messages").tag("topic", "orders").counter().count());
+        Assertions.assertEquals(0, meterRegistry.get("vega.ws.messages").tag("topic", "markets").counter().count());
+        Assertions.assertEquals(250, meterRegistry.get("vega.ws.last.message.age").tag("topic", "orders")
+                .timeGauge().value(TimeUnit.MILLISECONDS), 1e-9);
+        Assertions.assertEquals(0, meterRegistry.get("vega.ws.lag").tag("topic", "orders").timer().count());
+    }
+
+    @Test
+    public void testOnMessageWithEventTime() {
+        metricsService.onMessage(WebSocketTopic.REFERENCE_PRICE, System.currentTimeMillis() - 100);
+        Assertions.assertEquals(1, meterRegistry.get("vega.ws.messages")
+                .tag("topic", "reference_price").counter().count());
+        double lag = meterRegistry.get("vega.ws.lag").tag("topic", "reference_price").timer()
+                .totalTime(TimeUnit.MILLISECONDS);
+        Assertions.assertTrue(lag >= 100 && lag < 10000);
+        metricsService.onMessage(WebSocketTopic.REFERENCE_PRICE, System.currentTimeMillis() + 60000);
+        Assertions.assertEquals(lag, meterRegistry.get("vega.ws.lag").tag("topic", "reference_price").timer()
+                .totalTime(TimeUnit.MILLISECONDS), 1e-9);
+    }
+}
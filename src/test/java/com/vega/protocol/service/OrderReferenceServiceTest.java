@@ -0,0 +1,241 @@
+package com.vega.protocol.service;
+
+import com.vega.protocol.constant.LatencyStage;
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.constant.OrderStatus;
+import com.vega.protocol.model.Market;
+import com.vega.protocol.model.Order;
+import com.vega.protocol.model.OrderCycleStats;
+import com.vega.protocol.model.OrderIntent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class OrderReferenceServiceTest {
+
+    private final AtomicLong now = new AtomicLong(1000);
+    private LatencyService latencyService;
+    private OrderReferenceService orderReferenceService;
+
+    @BeforeEach
+    public void setup() {
+        latencyService = new LatencyService();
+        latencyService.setClock(now::get);
+        orderReferenceService = new OrderReferenceService(10, 10000L, latencyService);
+    }
+
+    private Order newOrder() {
+        return new Order()
+                .setMarket(new Market().setId("1"))
+                .setSide(MarketSide.BUY)
+                .setPrice(BigDecimal.ONE)
+                .setSize(BigDecimal.TEN);
+    }
+
+    @Test
+    public void testNextIsUnique() {
+        Set<String> references = new HashSet<>();
+        for(int i=0; i<1000; i++) {
+            Assertions.assertTrue(references.add(orderReferenceService.next()));
+        }
+    }
+
+    @Test
+    public void testRegister() {
+        Order order = newOrder();
+        String reference = orderReferenceService.register(order, 3, 7L);
+        Assertions.assertEquals(reference, order.getReference());
+        Optional<OrderIntent> intent = orderReferenceService.getByReference(reference);
+        Assertions.assertTrue(intent.isPresent());
+        Assertions.assertEquals(3, intent.get().getLevel());
+        Assertions.assertEquals(7L, intent.get().getCycleId());
+        Assertions.assertEquals(MarketSide.BUY, intent.get().getSide());
+        Assertions.assertEquals("1", intent.get().getMarketId());
+        Assertions.assertNull(intent.get().getSubmittedAt());
+    }
+
+    @Test
+    public void testOnSubmitWithoutReference() {
+        Order order = newOrder();
+        String reference = orderReferenceService.onSubmit(order);
+        Assertions.assertEquals(reference, order.getReference());
+        OrderIntent intent = orderReferenceService.getByReference(reference).orElseThrow();
+        Assertions.assertNull(intent.getLevel());
+        Assertions.assertNotNull(intent.getSubmittedAt());
+    }
+
+    @Test
+    public void testOnSubmitKeepsRegisteredReference() {
+        Order order = newOrder();
+        String reference = orderReferenceService.register(order, 0, 1L);
+        Assertions.assertEquals(reference, orderReferenceService.onSubmit(order));
+        Assertions.assertEquals(1, orderReferenceService.size());
+    }
+
+    @Test
+    public void testOnUpdateAcknowledgesOnce() {
+        Order order = newOrder();
+        String reference = orderReferenceService.register(order, 0, 1L);
+        orderReferenceService.onSubmit(order);
+        orderReferenceService.onUpdate(new Order().setReference(reference).setStatus(OrderStatus.ACTIVE));
+        OrderIntent intent = orderReferenceService.getByReference(reference).orElseThrow();
+        Long acknowledgedAt = intent.getAcknowledgedAt();
+        Assertions.assertNotNull(acknowledgedAt);
+        Assertions.assertTrue(acknowledgedAt >= intent.getSubmittedAt());
+        orderReferenceService.onUpdate(new Order().setReference(reference).setStatus(OrderStatus.FILLED));
+        Assertions.assertEquals(acknowledgedAt, intent.getAcknowledgedAt());
+    }
+
+    @Test
+    public void testOnUpdateUnknownReference() {
+        orderReferenceService.onUpdate(new Order().setReference("unknown").setStatus(OrderStatus.REJECTED));
+        orderReferenceService.onUpdate(new Order().setStatus(OrderStatus.ACTIVE));
+        Assertions.assertEquals(0, orderReferenceService.size());
+    }
+
+    @Test
+    public void testCapacityIsBounded() {
+        String first = orderReferenceService.register(newOrder(), 0, 1L);
+        for(int i=0; i<20; i++) {
+            orderReferenceService.register(newOrder(), i, 1L);
+        }
+        Assertions.assertEquals(10, orderReferenceService.size());
+        Assertions.assertTrue(orderReferenceService.getByReference(first).isEmpty());
+    }
+
+    private void advanceMillis(
+            final long millis
+    ) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    @Test
+    public void testOnUpdateRecordsLifecycleLatency() {
+        Order order = newOrder();
+        String reference = orderReferenceService.register(order, 0, 1L);
+        orderReferenceService.onSubmit(order);
+        advanceMillis(20);
+        orderReferenceService.onUpdate(new Order().setReference(reference).setStatus(OrderStatus.ACTIVE)
+                .setSize(BigDecimal.TEN).setRemainingSize(BigDecimal.TEN));
+        advanceMillis(30);
+        orderReferenceService.onUpdate(new Order().setReference(reference).setStatus(OrderStatus.ACTIVE)
+                .setSize(BigDecimal.TEN).setRemainingSize(BigDecimal.ONE));
+        orderReferenceService.onUpdate(new Order().setReference(reference).setStatus(OrderStatus.ACTIVE)
+                .setSize(BigDecimal.TEN).setRemainingSize(BigDecimal.ONE));
+        advanceMillis(50);
+        orderReferenceService.onUpdate(new Order().setReference(reference).setStatus(OrderStatus.CANCELLED));
+        Assertions.assertEquals(1, latencyService.get(LatencyStage.ORDER_ACTIVE).getCount());
+        Assertions.assertEquals(20_000, latencyService.get(LatencyStage.ORDER_ACTIVE).getMaxMicros());
+        Assertions.assertEquals(1, latencyService.get(LatencyStage.ORDER_FILLED).getCount());
+        Assertions.assertEquals(50_000, latencyService.get(LatencyStage.ORDER_FILLED).getMaxMicros());
+        Assertions.assertEquals(1, latencyService.get(LatencyStage.ORDER_CANCELLED).getCount());
+        Assertions.assertEquals(100_000, latencyService.get(LatencyStage.ORDER_CANCELLED).getMaxMicros());
+        List<OrderCycleStats> cycles = orderReferenceService.getCycleStats();
+        Assertions.assertEquals(1, cycles.size());
+        OrderCycleStats cycle = cycles.get(0);
+        Assertions.assertEquals(1L, cycle.getCycleId());
+        Assertions.assertEquals(1, cycle.getSubmitted());
+        Assertions.assertEquals(1, cycle.getActive());
+        Assertions.assertEquals(1, cycle.getFilled());
+        Assertions.assertEquals(1, cycle.getCancelled());
+        Assertions.assertEquals(20, cycle.getMaxActiveMs(), 1e-9);
+        Assertions.assertEquals(50, cycle.getMaxFilledMs(), 1e-9);
+        Assertions.assertEquals(100, cycle.getMaxCancelledMs(), 1e-9);
+    }
+
+    @Test
+    public void testOnUpdateFilledWithoutActive() {
+        Order order = newOrder();
+        String reference = orderReferenceService.register(order, 0, 2L);
+        orderReferenceService.onSubmit(order);
+        advanceMillis(5);
+        orderReferenceService.onUpdate(new Order().setReference(reference).setStatus(OrderStatus.FILLED));
+        Assertions.assertEquals(0, latencyService.get(LatencyStage.ORDER_ACTIVE).getCount());
+        Assertions.assertEquals(1, latencyService.get(LatencyStage.ORDER_FILLED).getCount());
+        Assertions.assertEquals(1, orderReferenceService.getCycleStats().get(0).getFilled());
+    }
+
+    @Test
+    public void testOnUpdateBeforeSubmitIsNotRecorded() {
+        Order order = newOrder();
+        String reference = orderReferenceService.register(order, 0, 1L);
+        orderReferenceService.onUpdate(new Order().setReference(reference).setStatus(OrderStatus.ACTIVE));
+        Assertions.assertEquals(0, latencyService.get(LatencyStage.ORDER_ACTIVE).getCount());
+        Assertions.assertTrue(orderReferenceService.getCycleStats().isEmpty());
+    }
+
+    @Test
+    public void testResolveMissing() {
+        Order seen = newOrder();
+        Order unseen = newOrder();
+        orderReferenceService.register(seen, 0, 3L);
+        orderReferenceService.register(unseen, 1, 3L);
+        orderReferenceService.onSubmit(seen);
+        orderReferenceService.onSubmit(unseen);
+        orderReferenceService.onUpdate(new Order().setReference(seen.getReference()).setStatus(OrderStatus.ACTIVE));
+        advanceMillis(5000);
+        orderReferenceService.resolveMissing();
+        Assertions.assertEquals(0, orderReferenceService.getMissing());
+        advanceMillis(5001);
+        orderReferenceService.resolveMissing();
+        orderReferenceService.resolveMissing();
+        Assertions.assertEquals(1, orderReferenceService.getMissing());
+        OrderCycleStats cycle = orderReferenceService.getCycleStats().get(0);
+        Assertions.assertEquals(2, cycle.getSubmitted());
+        Assertions.assertEquals(1, cycle.getMissing());
+        Assertions.assertTrue(orderReferenceService.getByReference(unseen.getReference()).orElseThrow().isMissing());
+    }
+
+    @Test
+    public void testOnUpdateAfterTimeoutClearsMissing() {
+        Order order = newOrder();
+        String reference = orderReferenceService.register(order, 0, 4L);
+        orderReferenceService.onSubmit(order);
+        advanceMillis(10001);
+        orderReferenceService.resolveMissing();
+        Assertions.assertEquals(1, orderReferenceService.getMissing());
+        Assertions.assertEquals(1, orderReferenceService.getCycleStats().get(0).getMissing());
+        advanceMillis(1000);
+        orderReferenceService.onUpdate(new Order().setReference(reference).setStatus(OrderStatus.ACTIVE));
+        orderReferenceService.resolveMissing();
+        Assertions.assertEquals(0, orderReferenceService.getMissing());
+        OrderCycleStats cycle = orderReferenceService.getCycleStats().get(0);
+        Assertions.assertEquals(0, cycle.getMissing());
+        Assertions.assertEquals(1, cycle.getActive());
+        Assertions.assertEquals(11001, cycle.getMaxActiveMs(), 1e-9);
+        Assertions.assertFalse(orderReferenceService.getByReference(reference).orElseThrow().isMissing());
+        Assertions.assertEquals(1, latencyService.get(LatencyStage.ORDER_ACTIVE).getCount());
+    }
+
+    @Test
+    public void testEvictedBeforeSeenIsMissing() {
+        Order order = newOrder();
+        orderReferenceService.register(order, 0, 1L);
+        orderReferenceService.onSubmit(order);
+        for(int i=0; i<10; i++) {
+            orderReferenceService.register(newOrder(), i, 2L);
+        }
+        Assertions.assertEquals(1, orderReferenceService.getMissing());
+        Assertions.assertEquals(1, orderReferenceService.getCycleStats().get(0).getMissing());
+    }
+
+    @Test
+    public void testCycleStatsAreBounded() {
+        for(long i=0; i<OrderReferenceService.CYCLE_CAPACITY + 5; i++) {
+            Order order = newOrder();
+            orderReferenceService.register(order, 0, i);
+            orderReferenceService.onSubmit(order);
+        }
+        List<OrderCycleStats> cycles = orderReferenceService.getCycleStats();
+        Assertions.assertEquals(OrderReferenceService.CYCLE_CAPACITY, cycles.size());
+        Assertions.assertEquals(5L, cycles.get(0).getCycleId());
+    }
+}
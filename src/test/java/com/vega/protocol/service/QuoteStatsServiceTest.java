@@ -0,0 +1,52 @@
+package com.vega.protocol.service;
+
+import com.vega.protocol.model.QuoteStats;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class QuoteStatsServiceTest {
+
+    private final QuoteStatsService quoteStatsService = new QuoteStatsService();
+
+    @Test
+    public void testRecord() {
+        quoteStatsService.record("1", 20, 20, 0);
+        quoteStatsService.record("1", 20, 5, 4);
+        QuoteStats stats = quoteStatsService.get("1").orElseThrow();
+        Assertions.assertEquals(2, stats.getCycles());
+        Assertions.assertEquals(40, stats.getLevels());
+        Assertions.assertEquals(15, stats.getLevelsKept());
+        Assertions.assertEquals(25, stats.getLevelsSubmitted());
+        Assertions.assertEquals(4, stats.getOrdersCancelled());
+        Assertions.assertEquals(0.625, stats.getTouchedRatio(), 0.0001);
+        Assertions.assertEquals(0.25, stats.getLastTouchedRatio(), 0.0001);
+    }
+
+    @Test
+    public void testRecordEmptyLadder() {
+        quoteStatsService.record("1", 0, 0, 3);
+        QuoteStats stats = quoteStatsService.get("1").orElseThrow();
+        Assertions.assertEquals(0, stats.getTouchedRatio());
+        Assertions.assertEquals(0, stats.getLastTouchedRatio());
+    }
+
+    @Test
+    public void testGetReturnsCopy() {
+        quoteStatsService.record("1", 10, 2, 2);
+        quoteStatsService.get("1").orElseThrow().setCycles(100);
+        Assertions.assertEquals(1, quoteStatsService.get("1").orElseThrow().getCycles());
+    }
+
+    @Test
+    public void testGetStats() {
+        quoteStatsService.record("1", 10, 2, 2);
+        quoteStatsService.record("2", 10, 10, 0);
+        List<QuoteStats> stats = quoteStatsService.getStats();
+        Assertions.assertEquals(2, stats.size());
+        Assertions.assertEquals("1", stats.get(0).getMarketId());
+        Assertions.assertEquals("2", stats.get(1).getMarketId());
+        Assertions.assertTrue(quoteStatsService.get("3").isEmpty());
+    }
+}
@@ -0,0 +1,171 @@
+package com.vega.protocol.service;
+
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.model.Market;
+import com.vega.protocol.model.Position;
+import com.vega.protocol.model.ReferencePrice;
+import com.vega.protocol.store.PositionStore;
+import com.vega.protocol.store.ReferencePriceStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class QuoteTriggerServiceTest {
+
+    private static final String MARKET_ID = "1";
+    private static final String SYMBOL = "BTCUSDT";
+
+    private QuoteTriggerService quoteTriggerService;
+    private final ReferencePriceStore referencePriceStore = new ReferencePriceStore();
+    private final PositionStore positionStore = new PositionStore();
+    private final AtomicInteger runs = new AtomicInteger();
+    private final List<String> markets = new CopyOnWriteArrayList<>();
+    private final Semaphore completed = new Semaphore(0);
+
+    private QuoteTriggerService getService(
+            final boolean enabled,
+            final long minIntervalMs
+    ) {
+        return getService(enabled, minIntervalMs, new MarketBindingService(MARKET_ID, SYMBOL, ""));
+    }
+
+    private QuoteTriggerService getService(
+            final boolean enabled,
+            final long minIntervalMs,
+            final MarketBindingService marketBindingService
+    ) {
+        QuoteTriggerService service = new QuoteTriggerService(referencePriceStore, positionStore,
+                marketBindingService, enabled, 0.001, minIntervalMs);
+        service.setAction(marketId -> {
+            runs.incrementAndGet();
+            markets.add(marketId);
+            completed.release();
+        });
+        return service;
+    }
+
+    private void updateMidPrice(
+            final double midPrice
+    ) {
+        updateMidPrice(SYMBOL, midPrice);
+    }
+
+    private void updateMidPrice(
+            final String symbol,
+            final double midPrice
+    ) {
+        referencePriceStore.update(new ReferencePrice().setSymbol(symbol).setMidPrice(BigDecimal.valueOf(midPrice)));
+    }
+
+    private void updatePosition(
+            final String marketId,
+            final double size,
+            final MarketSide side
+    ) {
+        positionStore.update(new Position().setMarket(new Market().setId(marketId))
+                .setSize(BigDecimal.valueOf(size)).setSide(side).setId(marketId));
+    }
+
+    private boolean awaitRun() throws InterruptedException {
+        return completed.tryAcquire(5, TimeUnit.SECONDS);
+    }
+
+    @BeforeEach
+    public void setup() {
+        quoteTriggerService = getService(true, 0L);
+    }
+
+    @AfterEach
+    public void teardown() {
+        quoteTriggerService.stop();
+    }
+
+    @Test
+    public void testNoTriggerBeforeFirstQuote() throws InterruptedException {
+        updateMidPrice(200);
+        updatePosition(MARKET_ID, 1, MarketSide.BUY);
+        Assertions.assertFalse(completed.tryAcquire(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testTriggerOnPriceMove() throws InterruptedException {
+        quoteTriggerService.onQuoted(MARKET_ID, BigDecimal.valueOf(100), BigDecimal.ZERO);
+        updateMidPrice(100.05);
+        Assertions.assertFalse(completed.tryAcquire(200, TimeUnit.MILLISECONDS));
+        updateMidPrice(99.85);
+        Assertions.assertTrue(awaitRun());
+        Assertions.assertEquals(1, runs.get());
+        Assertions.assertEquals(List.of(MARKET_ID), markets);
+    }
+
+    @Test
+    public void testTriggerPerMarket() throws InterruptedException {
+        quoteTriggerService.stop();
+        quoteTriggerService = getService(true, 0L,
+                new MarketBindingService(MARKET_ID, SYMBOL, "1:BTCUSDT,2:ETHUSDT,3:ETHUSDT"));
+        quoteTriggerService.onQuoted("1", BigDecimal.valueOf(100), BigDecimal.ZERO);
+        quoteTriggerService.onQuoted("2", BigDecimal.valueOf(10), BigDecimal.ZERO);
+        quoteTriggerService.onQuoted("3", BigDecimal.valueOf(11), BigDecimal.ZERO);
+        updateMidPrice("ETHUSDT", 10.5);
+        Assertions.assertTrue(awaitRun());
+        Assertions.assertTrue(awaitRun());
+        Assertions.assertFalse(completed.tryAcquire(200, TimeUnit.MILLISECONDS));
+        Assertions.assertEquals(Set.of("2", "3"), Set.copyOf(markets));
+        updatePosition("1", 1, MarketSide.BUY);
+        Assertions.assertTrue(awaitRun());
+        Assertions.assertEquals("1", markets.get(2));
+        Assertions.assertFalse(quoteTriggerService.isExposureChanged("2", BigDecimal.ZERO));
+        Assertions.assertTrue(quoteTriggerService.isExposureChanged("4", BigDecimal.ZERO));
+    }
+
+    @Test
+    public void testTriggerOnPositionChange() throws InterruptedException {
+        quoteTriggerService.onQuoted(MARKET_ID, BigDecimal.valueOf(100), BigDecimal.valueOf(-2));
+        updatePosition("2", 5, MarketSide.BUY);
+        updatePosition(MARKET_ID, 2, MarketSide.SELL);
+        Assertions.assertFalse(completed.tryAcquire(200, TimeUnit.MILLISECONDS));
+        updatePosition(MARKET_ID, 1, MarketSide.SELL);
+        Assertions.assertTrue(awaitRun());
+    }
+
+    @Test
+    public void testIsExposureChanged() {
+        Assertions.assertTrue(quoteTriggerService.isExposureChanged(MARKET_ID, BigDecimal.ZERO));
+        quoteTriggerService.onQuoted(MARKET_ID, BigDecimal.valueOf(100), new BigDecimal("1.0"));
+        Assertions.assertFalse(quoteTriggerService.isExposureChanged(MARKET_ID, BigDecimal.ONE));
+        Assertions.assertTrue(quoteTriggerService.isExposureChanged(MARKET_ID, BigDecimal.ZERO));
+    }
+
+    @Test
+    public void testTriggersCoalescedWithinMinInterval() throws InterruptedException {
+        quoteTriggerService.stop();
+        quoteTriggerService = getService(true, 300L);
+        quoteTriggerService.onQuoted(MARKET_ID, BigDecimal.valueOf(100), BigDecimal.ZERO);
+        long start = System.nanoTime();
+        for(int i=0; i<50; i++) {
+            updateMidPrice(101 + i);
+        }
+        Assertions.assertTrue(awaitRun());
+        Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(250));
+        Assertions.assertFalse(completed.tryAcquire(100, TimeUnit.MILLISECONDS));
+        Assertions.assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void testDisabled() throws InterruptedException {
+        quoteTriggerService.stop();
+        quoteTriggerService = getService(false, 0L);
+        quoteTriggerService.onQuoted(MARKET_ID, BigDecimal.valueOf(100), BigDecimal.ZERO);
+        updateMidPrice(110);
+        Assertions.assertFalse(completed.tryAcquire(200, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,178 @@
+package com.vega.protocol.service;
+
+import com.vega.protocol.api.VegaApiClient;
+import com.vega.protocol.constant.AssetStatus;
+import com.vega.protocol.constant.DataType;
+import com.vega.protocol.constant.MarketState;
+import com.vega.protocol.constant.MarketTradingMode;
+import com.vega.protocol.constant.ReferenceDataType;
+import com.vega.protocol.event.ReferenceDataChangedEvent;
+import com.vega.protocol.model.Asset;
+import com.vega.protocol.model.Market;
+import com.vega.protocol.model.NetworkParameter;
+import com.vega.protocol.store.AssetStore;
+import com.vega.protocol.store.MarketStore;
+import com.vega.protocol.store.NetworkParameterStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ReferenceDataServiceTest {
+
+    private static final String SOURCE = "https://api.n11.testnet.vega.xyz/api/v2";
+    private static final String MAX_BATCH_SIZE_PARAM = "spam.protection.max.batchSize";
+
+    private ReferenceDataService referenceDataService;
+    private final VegaApiClient vegaApiClient = Mockito.mock(VegaApiClient.class);
+    private final ApplicationEventPublisher eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+    private final AssetStore assetStore = new AssetStore();
+    private final MarketStore marketStore = new MarketStore();
+    private final NetworkParameterStore networkParameterStore = new NetworkParameterStore();
+    private final AtomicLong clock = new AtomicLong(1000000L);
+    private Path cachePath;
+
+    private ReferenceDataService getService(
+            final String source
+    ) {
+        ReferenceDataService service = new ReferenceDataService(vegaApiClient, assetStore, marketStore,
+                networkParameterStore, eventPublisher, 3600000L, 300000L, 60000L, cachePath.toString(), source);
+        service.setClock(clock::get);
+        return service;
+    }
+
+    private Asset newAsset() {
+        return new Asset().setId("a1").setName("Tether").setSymbol("USDT").setDecimalPlaces(6)
+                .setQuantum(1.0).setStatus(AssetStatus.ENABLED);
+    }
+
+    private Market newMarket(
+            final int decimalPlaces
+    ) {
+        return new Market().setId("m1").setName("BTC/USDT").setSettlementAsset("USDT")
+                .setDecimalPlaces(decimalPlaces).setPositionDecimalPlaces(3).setState(MarketState.ACTIVE)
+                .setTradingMode(MarketTradingMode.CONTINUOUS).setTau(0.0001).setMu(0).setSigma(1.5);
+    }
+
+    private NetworkParameter newParameter(
+            final String value
+    ) {
+        return new NetworkParameter().setId(MAX_BATCH_SIZE_PARAM).setValue(value).setType(DataType.NUMBER);
+    }
+
+    @BeforeEach
+    public void setup() throws IOException {
+        cachePath = Files.createTempDirectory("reference-data").resolve("reference-data.json");
+        referenceDataService = getService(SOURCE);
+    }
+
+    @AfterEach
+    public void teardown() throws IOException {
+        Files.deleteIfExists(cachePath);
+        Files.deleteIfExists(cachePath.getParent());
+    }
+
+    @Test
+    public void testReadThroughWithinTtl() {
+        Mockito.when(vegaApiClient.getAssets()).thenReturn(List.of(newAsset()));
+        Assertions.assertEquals(1, referenceDataService.getAssets().size());
+        Assertions.assertEquals(1, referenceDataService.getAssets().size());
+        Mockito.verify(vegaApiClient, Mockito.times(1)).getAssets();
+        clock.addAndGet(3600000L);
+        referenceDataService.getAssets();
+        Mockito.verify(vegaApiClient, Mockito.times(2)).getAssets();
+    }
+
+    @Test
+    public void testStaleItemsKeptWhenFetchFails() {
+        Mockito.when(vegaApiClient.getNetworkParameters()).thenReturn(List.of(newParameter("100")));
+        referenceDataService.getNetworkParameters();
+        clock.addAndGet(60000L);
+        Mockito.when(vegaApiClient.getNetworkParameters()).thenReturn(Collections.emptyList());
+        Assertions.assertEquals("100", referenceDataService.getNetworkParameters().get(0).getValue());
+    }
+
+    @Test
+    public void testRefreshSkipsTypesNotLoaded() {
+        referenceDataService.refresh();
+        Mockito.verifyNoInteractions(vegaApiClient);
+    }
+
+    @Test
+    public void testRefreshPublishesChangedNetworkParameters() {
+        Mockito.when(vegaApiClient.getNetworkParameters()).thenReturn(List.of(newParameter("100")));
+        referenceDataService.getNetworkParameters().forEach(networkParameterStore::update);
+        clock.addAndGet(60000L);
+        referenceDataService.refresh();
+        Mockito.verify(eventPublisher, Mockito.never()).publishEvent(Mockito.any(Object.class));
+        Mockito.when(vegaApiClient.getNetworkParameters()).thenReturn(List.of(newParameter("50")));
+        clock.addAndGet(60000L);
+        referenceDataService.refresh();
+        Assertions.assertEquals("50", networkParameterStore.getById(MAX_BATCH_SIZE_PARAM).orElseThrow().getValue());
+        ArgumentCaptor<ReferenceDataChangedEvent> event = ArgumentCaptor.forClass(ReferenceDataChangedEvent.class);
+        Mockito.verify(eventPublisher).publishEvent(event.capture());
+        Assertions.assertEquals(ReferenceDataType.NETWORK_PARAMETERS, event.getValue().getType());
+        Assertions.assertEquals("100", ((NetworkParameter) event.getValue().getPrevious()).getValue());
+        Assertions.assertEquals("50", ((NetworkParameter) event.getValue().getCurrent()).getValue());
+    }
+
+    @Test
+    public void testRefreshMergesMarketDefinition() {
+        Mockito.when(vegaApiClient.getMarkets()).thenReturn(List.of(newMarket(5)));
+        referenceDataService.getMarkets().forEach(marketStore::update);
+        marketStore.getById("m1").orElseThrow().setBestBidPrice(BigDecimal.TEN)
+                .setTradingMode(MarketTradingMode.MONITORING_AUCTION);
+        clock.addAndGet(300000L);
+        Mockito.when(vegaApiClient.getMarkets()).thenReturn(List.of(newMarket(5)));
+        referenceDataService.refresh();
+        Mockito.verify(eventPublisher, Mockito.never()).publishEvent(Mockito.any(Object.class));
+        clock.addAndGet(300000L);
+        Mockito.when(vegaApiClient.getMarkets()).thenReturn(List.of(newMarket(6)));
+        referenceDataService.refresh();
+        Market market = marketStore.getById("m1").orElseThrow();
+        Assertions.assertEquals(6, market.getDecimalPlaces());
+        Assertions.assertEquals(BigDecimal.TEN, market.getBestBidPrice());
+        Assertions.assertEquals(MarketTradingMode.MONITORING_AUCTION, market.getTradingMode());
+        ArgumentCaptor<ReferenceDataChangedEvent> event = ArgumentCaptor.forClass(ReferenceDataChangedEvent.class);
+        Mockito.verify(eventPublisher).publishEvent(event.capture());
+        Assertions.assertEquals(5, ((Market) event.getValue().getPrevious()).getDecimalPlaces());
+    }
+
+    @Test
+    public void testLoadFromDisk() {
+        Mockito.when(vegaApiClient.getAssets()).thenReturn(List.of(newAsset()));
+        Mockito.when(vegaApiClient.getMarkets()).thenReturn(List.of(newMarket(5)));
+        Mockito.when(vegaApiClient.getNetworkParameters()).thenReturn(List.of(newParameter("100")));
+        referenceDataService.getAssets();
+        referenceDataService.getMarkets();
+        referenceDataService.getNetworkParameters();
+        Assertions.assertTrue(Files.exists(cachePath));
+        ReferenceDataService restarted = getService(SOURCE);
+        Assertions.assertEquals("USDT", restarted.getAssets().get(0).getSymbol());
+        Assertions.assertEquals(1.5, restarted.getMarkets().get(0).getSigma());
+        Assertions.assertEquals(MarketState.ACTIVE, restarted.getMarkets().get(0).getState());
+        Assertions.assertEquals("100", restarted.getNetworkParameters().get(0).getValue());
+        Mockito.verify(vegaApiClient, Mockito.times(1)).getAssets();
+        Mockito.verify(vegaApiClient, Mockito.times(1)).getMarkets();
+        Mockito.verify(vegaApiClient, Mockito.times(1)).getNetworkParameters();
+    }
+
+    @Test
+    public void testIgnoreDiskCacheFromOtherNode() {
+        Mockito.when(vegaApiClient.getAssets()).thenReturn(List.of(newAsset()));
+        referenceDataService.getAssets();
+        getService("https://other.node/api/v2").getAssets();
+        Mockito.verify(vegaApiClient, Mockito.times(2)).getAssets();
+    }
+}
@@ -0,0 +1,153 @@
+package com.vega.protocol.service;
+
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.constant.OrderStatus;
+import com.vega.protocol.constant.OrderType;
+import com.vega.protocol.constant.RiskCheck;
+import com.vega.protocol.model.Market;
+import com.vega.protocol.model.Order;
+import com.vega.protocol.model.ReferencePrice;
+import com.vega.protocol.store.OrderStore;
+import com.vega.protocol.store.ReferencePriceStore;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RiskServiceTest {
+
+    private static final String MARKET_ID = "1";
+    private static final String SYMBOL = "BTCUSDT";
+
+    private final OrderStore orderStore = new OrderStore();
+    private final ReferencePriceStore referencePriceStore = new ReferencePriceStore();
+    private final MarketBindingService marketBindingService = new MarketBindingService(MARKET_ID, SYMBOL, "");
+    private final AtomicLong clock = new AtomicLong();
+    private final Market market = new Market().setId(MARKET_ID)
+            .setMinValidPrice(BigDecimal.valueOf(90)).setMaxValidPrice(BigDecimal.valueOf(110));
+    private RiskService riskService;
+
+    private RiskService getRiskService(
+            final boolean enabled,
+            final double maxOrderNotional,
+            final double maxRestingNotional,
+            final double maxPriceDeviation
+    ) {
+        RiskService service = new RiskService(orderStore, marketBindingService, referencePriceStore, enabled,
+                maxOrderNotional, maxRestingNotional, maxPriceDeviation, 5000L);
+        service.setClock(clock::get);
+        return service;
+    }
+
+    private Order getOrder(
+            final String id,
+            final MarketSide side,
+            final double price,
+            final double size
+    ) {
+        return new Order().setId(id).setMarket(market).setSide(side).setType(OrderType.LIMIT)
+                .setStatus(OrderStatus.ACTIVE).setIsPeggedOrder(false)
+                .setPrice(BigDecimal.valueOf(price)).setSize(BigDecimal.valueOf(size));
+    }
+
+    @BeforeEach
+    public void setup() {
+        referencePriceStore.update(new ReferencePrice().setSymbol(SYMBOL).setMidPrice(BigDecimal.valueOf(100)));
+        riskService = getRiskService(true, 500, 1000, 0.05);
+    }
+
+    @Test
+    public void testCheckPasses() {
+        List<Order> submissions = List.of(
+                getOrder(null, MarketSide.BUY, 99, 1), getOrder(null, MarketSide.SELL, 101, 1));
+        Assertions.assertSame(submissions, riskService.check(Collections.emptyList(), submissions, market));
+    }
+
+    @Test
+    public void testCheckOrderNotional() {
+        Order order = getOrder(null, MarketSide.BUY, 99, 6);
+        Assertions.assertTrue(riskService.check(Collections.emptyList(), List.of(order), market).isEmpty());
+        Assertions.assertEquals(1, riskService.getRejections(RiskCheck.ORDER_NOTIONAL));
+    }
+
+    @Test
+    public void testCheckMarketOrderNotional() {
+        Order order = getOrder(null, MarketSide.BUY, 0, 6).setType(OrderType.MARKET).setPrice(null);
+        Assertions.assertTrue(riskService.check(Collections.emptyList(), List.of(order), market).isEmpty());
+        order.setSize(BigDecimal.ONE);
+        Assertions.assertEquals(1, riskService.check(Collections.emptyList(), List.of(order), market).size());
+    }
+
+    @Test
+    public void testCheckPriceBand() {
+        RiskService service = getRiskService(true, 0, 0, 0);
+        List<Order> submissions = List.of(getOrder(null, MarketSide.BUY, 89, 1), getOrder(null, MarketSide.BUY, 95, 1),
+                getOrder(null, MarketSide.SELL, 111, 1));
+        List<Order> allowed = service.check(Collections.emptyList(), submissions, market);
+        Assertions.assertEquals(List.of(submissions.get(1)), allowed);
+        Assertions.assertEquals(2, service.getRejections(RiskCheck.PRICE_BAND));
+    }
+
+    @Test
+    public void testCheckPriceDeviation() {
+        List<Order> submissions = List.of(getOrder(null, MarketSide.BUY, 96, 1), getOrder(null, MarketSide.BUY, 94, 1));
+        Assertions.assertEquals(1, riskService.check(Collections.emptyList(), submissions, market).size());
+        Assertions.assertEquals(1, riskService.getRejections(RiskCheck.PRICE_DEVIATION));
+    }
+
+    @Test
+    public void testCheckRestingNotional() {
+        orderStore.update(getOrder("1", MarketSide.BUY, 100, 4));
+        orderStore.update(getOrder("2", MarketSide.BUY, 99, 4));
+        Assertions.assertEquals(796, riskService.getRestingNotional(MARKET_ID, MarketSide.BUY));
+        List<Order> submissions = List.of(getOrder(null, MarketSide.BUY, 98, 2), getOrder(null, MarketSide.BUY, 97, 1),
+                getOrder(null, MarketSide.SELL, 101, 4));
+        List<Order> allowed = riskService.check(Collections.emptyList(), submissions, market);
+        Assertions.assertEquals(List.of(submissions.get(0), submissions.get(2)), allowed);
+        Assertions.assertEquals(1, riskService.getRejections(RiskCheck.RESTING_NOTIONAL));
+        Assertions.assertSame(submissions, riskService.check(List.of("1"), submissions, market));
+    }
+
+    @Test
+    public void testRestingNotionalFollowsOrderUpdates() {
+        Order order = getOrder("1", MarketSide.SELL, 100, 4);
+        orderStore.update(order);
+        orderStore.update(getOrder("2", MarketSide.SELL, 100, 4).setIsPeggedOrder(true));
+        Assertions.assertEquals(400, riskService.getRestingNotional(MARKET_ID, MarketSide.SELL));
+        orderStore.update(order.setRemainingSize(BigDecimal.ONE));
+        Assertions.assertEquals(100, riskService.getRestingNotional(MARKET_ID, MarketSide.SELL));
+        orderStore.remove(order.setStatus(OrderStatus.CANCELLED));
+        Assertions.assertEquals(0, riskService.getRestingNotional(MARKET_ID, MarketSide.SELL));
+    }
+
+    @Test
+    public void testOnSubmit() {
+        orderStore.update(getOrder("1", MarketSide.BUY, 100, 4));
+        riskService.onSubmit(List.of("1"), List.of(getOrder(null, MarketSide.BUY, 99, 2)), market);
+        Assertions.assertEquals(198, riskService.getRestingNotional(MARKET_ID, MarketSide.BUY));
+        orderStore.update(getOrder("3", MarketSide.BUY, 99, 2));
+        Assertions.assertEquals(198, riskService.getRestingNotional(MARKET_ID, MarketSide.BUY));
+        orderStore.remove(getOrder("1", MarketSide.BUY, 100, 4).setStatus(OrderStatus.CANCELLED));
+        Assertions.assertEquals(198, riskService.getRestingNotional(MARKET_ID, MarketSide.BUY));
+    }
+
+    @Test
+    public void testPendingSubmissionsExpire() {
+        riskService.onSubmit(Collections.emptyList(), List.of(getOrder(null, MarketSide.SELL, 101, 2)), market);
+        Assertions.assertEquals(202, riskService.getRestingNotional(MARKET_ID, MarketSide.SELL));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        Assertions.assertEquals(0, riskService.getRestingNotional(MARKET_ID, MarketSide.SELL));
+    }
+
+    @Test
+    public void testDisabled() {
+        RiskService service = getRiskService(false, 1, 1, 0.01);
+        List<Order> submissions = List.of(getOrder(null, MarketSide.BUY, 50, 10));
+        Assertions.assertSame(submissions, service.check(Collections.emptyList(), submissions, market));
+    }
+}
@@ -0,0 +1,61 @@
+package com.vega.protocol.service;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A local HTTP server which answers data node probes with a configurable delay, block height and status
+ */
+public class StandInDataNode implements AutoCloseable {
+
+    private final HttpServer server;
+    private volatile long delayMs;
+    private volatile long blockHeight;
+    private volatile int status = 200;
+
+    public StandInDataNode() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/v2/vega/time", exchange -> {
+            try {
+                Thread.sleep(delayMs);
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"timestamp\":\"1660000000000000000\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("X-Block-Height", String.valueOf(blockHeight));
+            exchange.sendResponseHeaders(status, body.length);
+            try(OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    public String getUrl() {
+        return String.format("http://localhost:%d/api/v2", server.getAddress().getPort());
+    }
+
+    public StandInDataNode setDelayMs(long delayMs) {
+        this.delayMs = delayMs;
+        return this;
+    }
+
+    public StandInDataNode setBlockHeight(long blockHeight) {
+        this.blockHeight = blockHeight;
+        return this;
+    }
+
+    public StandInDataNode setStatus(int status) {
+        this.status = status;
+        return this;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
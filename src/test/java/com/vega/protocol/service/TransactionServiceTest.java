@@ -0,0 +1,103 @@
+package com.vega.protocol.service;
+
+import com.vega.protocol.api.VegaApiClient;
+import com.vega.protocol.constant.OrderStatus;
+import com.vega.protocol.constant.TransactionStatus;
+import com.vega.protocol.model.Order;
+import com.vega.protocol.model.Transaction;
+import com.vega.protocol.model.TransactionStats;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+public class TransactionServiceTest {
+
+    private TransactionService transactionService;
+    private final VegaApiClient vegaApiClient = Mockito.mock(VegaApiClient.class);
+    private final CommandBudgetService commandBudgetService = Mockito.mock(CommandBudgetService.class);
+
+    @BeforeEach
+    public void setup() {
+        transactionService = new TransactionService(vegaApiClient, commandBudgetService, 2, 0L);
+    }
+
+    private TransactionStatus getStatus(
+            final String txHash
+    ) {
+        return transactionService.getById(txHash).map(Transaction::getStatus).orElseThrow();
+    }
+
+    @Test
+    public void testAcceptedFromOrderStream() {
+        transactionService.track("A", List.of(new Order().setReference("r1")), Collections.emptyList());
+        Assertions.assertEquals(TransactionStatus.PENDING, getStatus("A"));
+        transactionService.onOrderUpdate(new Order().setReference("r1").setStatus(OrderStatus.ACTIVE));
+        Assertions.assertEquals(TransactionStatus.ACCEPTED, getStatus("A"));
+        Assertions.assertNotNull(transactionService.getById("A").orElseThrow().getLatencyMs());
+        TransactionStats stats = transactionService.getStats();
+        Assertions.assertEquals(1, stats.getAccepted());
+        Assertions.assertEquals(0, stats.getPending());
+        Assertions.assertEquals(0, stats.getFailureRate());
+    }
+
+    @Test
+    public void testRejectedFromOrderStream() {
+        transactionService.track("A", List.of(new Order().setReference("r1")), Collections.emptyList());
+        transactionService.onOrderUpdate(new Order().setReference("r1").setStatus(OrderStatus.REJECTED)
+                .setRejectionReason("ORDER_ERROR_MARGIN_CHECK_FAILED"));
+        Transaction transaction = transactionService.getById("A").orElseThrow();
+        Assertions.assertEquals(TransactionStatus.REJECTED, transaction.getStatus());
+        Assertions.assertEquals("ORDER_ERROR_MARGIN_CHECK_FAILED", transaction.getReason());
+        Assertions.assertEquals(1.0, transactionService.getStats().getFailureRate());
+        Assertions.assertEquals(1, transactionService.getStats().getRejectedOrders());
+        Mockito.verify(commandBudgetService).onRejected("ORDER_ERROR_MARGIN_CHECK_FAILED");
+    }
+
+    @Test
+    public void testAcceptedFromCancellation() {
+        transactionService.track("A", Collections.emptyList(), List.of("o1"));
+        transactionService.onOrderUpdate(new Order().setId("o1").setReference("old").setStatus(OrderStatus.CANCELLED));
+        Assertions.assertEquals(TransactionStatus.ACCEPTED, getStatus("A"));
+    }
+
+    @Test
+    public void testUnknownOrderIgnored() {
+        transactionService.track("A", List.of(new Order().setReference("r1")), Collections.emptyList());
+        transactionService.onOrderUpdate(new Order().setReference("r2").setStatus(OrderStatus.ACTIVE));
+        transactionService.onOrderUpdate(new Order().setId("o1").setStatus(OrderStatus.CANCELLED));
+        Assertions.assertEquals(TransactionStatus.PENDING, getStatus("A"));
+    }
+
+    @Test
+    public void testResolveExpiredWithTransactionResult() {
+        transactionService.track("A", Collections.emptyList(), Collections.emptyList());
+        transactionService.track("B", Collections.emptyList(), Collections.emptyList());
+        Mockito.when(vegaApiClient.getTransactionResult("A")).thenReturn(Optional.of(new Transaction()
+                .setId("A").setStatus(TransactionStatus.REJECTED).setReason("spam")));
+        Mockito.when(vegaApiClient.getTransactionResult("B")).thenReturn(Optional.empty());
+        transactionService.resolveExpired();
+        Assertions.assertEquals(TransactionStatus.REJECTED, getStatus("A"));
+        Assertions.assertEquals("spam", transactionService.getById("A").orElseThrow().getReason());
+        Assertions.assertEquals(TransactionStatus.UNRESOLVED, getStatus("B"));
+        TransactionStats stats = transactionService.getStats();
+        Assertions.assertEquals(2, stats.getSubmitted());
+        Assertions.assertEquals(1, stats.getUnresolved());
+        Assertions.assertEquals(1.0, stats.getFailureRate());
+        Mockito.verify(commandBudgetService).onRejected("spam");
+    }
+
+    @Test
+    public void testCapacityIsBounded() {
+        transactionService.track("A", Collections.emptyList(), Collections.emptyList());
+        transactionService.track("B", Collections.emptyList(), Collections.emptyList());
+        transactionService.track("C", Collections.emptyList(), Collections.emptyList());
+        Assertions.assertTrue(transactionService.getById("A").isEmpty());
+        Assertions.assertEquals(1, transactionService.getStats().getUnresolved());
+        Assertions.assertEquals(2, transactionService.getStats().getPending());
+    }
+}
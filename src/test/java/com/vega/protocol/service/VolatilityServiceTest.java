@@ -0,0 +1,51 @@
+package com.vega.protocol.service;
+
+import com.vega.protocol.model.ReferencePrice;
+import com.vega.protocol.store.ReferencePriceStore;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class VolatilityServiceTest {
+
+    private final ReferencePriceStore referencePriceStore = new ReferencePriceStore();
+    private final AtomicLong clock = new AtomicLong();
+    private VolatilityService volatilityService;
+
+    @BeforeEach
+    public void setup() {
+        volatilityService = new VolatilityService(referencePriceStore,
+                new MarketBindingService("1", "BTCUSDT", "1:BTCUSDT,2:ETHUSDT"), 60.0, 60.0, false, 2);
+        volatilityService.setClock(clock::get);
+    }
+
+    private void tick(
+            final String symbol,
+            final double midPrice
+    ) {
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        referencePriceStore.update(new ReferencePrice().setSymbol(symbol).setMidPrice(BigDecimal.valueOf(midPrice)));
+    }
+
+    @Test
+    public void testGetVolatility() {
+        tick("BTCUSDT", 20000);
+        tick("BTCUSDT", 20010);
+        Assertions.assertEquals(0, volatilityService.getVolatility("BTCUSDT"));
+        tick("BTCUSDT", 20000);
+        Assertions.assertTrue(volatilityService.getVolatility("BTCUSDT") > 0);
+        Assertions.assertEquals(0, volatilityService.getVolatility("ETHUSDT"));
+    }
+
+    @Test
+    public void testGetVolatilityUnknownSymbol() {
+        tick("SOLUSDT", 100);
+        tick("SOLUSDT", 101);
+        tick("SOLUSDT", 100);
+        Assertions.assertEquals(0, volatilityService.getVolatility("SOLUSDT"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.vega.protocol.signer;
+
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.constant.OrderType;
+import com.vega.protocol.constant.TimeInForce;
+import com.vega.protocol.model.Market;
+import com.vega.protocol.model.Order;
+import com.vega.protocol.quote.QuoteLevel;
+import com.vega.protocol.utils.DecimalUtils;
+import org.apache.commons.codec.binary.Hex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+public class CommandEncoderTest {
+
+    private final CommandEncoder commandEncoder = new CommandEncoder(new DecimalUtils());
+
+    private final Market market = new Market()
+            .setId("m")
+            .setDecimalPlaces(2)
+            .setPositionDecimalPlaces(1);
+
+    private Order newOrder(
+            final OrderType type
+    ) {
+        return new Order()
+                .setMarket(market)
+                .setPrice(new BigDecimal("1.5"))
+                .setSize(new BigDecimal("2"))
+                .setSide(MarketSide.SELL)
+                .setType(type)
+                .setTimeInForce(TimeInForce.GTC);
+    }
+
+    @Test
+    public void testEncodeOrderSubmission() {
+        byte[] encoded = commandEncoder.encodeOrderSubmission(newOrder(OrderType.LIMIT), "r");
+        // market_id "m", price "150", size 20, side SELL, time_in_force GTC, type LIMIT, reference "r"
+        Assertions.assertEquals("0a016d12033135301814200228013801420172", Hex.encodeHexString(encoded));
+    }
+
+    @Test
+    public void testEncodeMarketOrderSubmissionOmitsPrice() {
+        byte[] encoded = commandEncoder.encodeOrderSubmission(newOrder(OrderType.MARKET), "r");
+        Assertions.assertEquals("0a016d1814200228013802420172", Hex.encodeHexString(encoded));
+    }
+
+    @Test
+    public void testEncodeBatchMarketInstructions() {
+        byte[] encoded = commandEncoder.encodeBatchMarketInstructions(
+                List.of("o"), List.of(newOrder(OrderType.LIMIT)), market, o -> "r");
+        Assertions.assertEquals("0a060a016f12016d1a130a016d12033135301814200228013801420172",
+                Hex.encodeHexString(encoded));
+    }
+
+    @Test
+    public void testEncodeEmptyBatchMarketInstructions() {
+        Assertions.assertEquals(0, commandEncoder.encodeBatchMarketInstructions(
+                Collections.emptyList(), Collections.emptyList(), market, o -> "r").length);
+    }
+
+    @Test
+    public void testEncodeQuoteLevelMatchesOrder() {
+        Order level = new QuoteLevel().set(150, 2, 20, 1)
+                .setMarket(market)
+                .setSide(MarketSide.SELL)
+                .setType(OrderType.LIMIT)
+                .setTimeInForce(TimeInForce.GTC);
+        byte[] expected = commandEncoder.encodeOrderSubmission(newOrder(OrderType.LIMIT), "r");
+        Assertions.assertEquals(Hex.encodeHexString(expected),
+                Hex.encodeHexString(commandEncoder.encodeOrderSubmission(level, "r")));
+    }
+}
@@ -0,0 +1,87 @@
+package com.vega.protocol.signer;
+
+import com.vega.protocol.model.LastBlock;
+import com.vega.protocol.model.ProofOfWork;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Optional;
+
+public class ProofOfWorkServiceTest {
+
+    private static final String BLOCK_HASH = "2FB2146FC01F21D358323174BAA230E7DE61C0F150B7FBC415C896B0C23E50FF";
+
+    private ProofOfWorkService proofOfWorkService;
+
+    @BeforeEach
+    public void setup() {
+        proofOfWorkService = new ProofOfWorkService(false, "", 500L);
+    }
+
+    private LastBlock newBlock(
+            final long height
+    ) {
+        return new LastBlock()
+                .setHeight(height)
+                .setHash(BLOCK_HASH)
+                .setChainId("testnet")
+                .setSpamPowDifficulty(6)
+                .setSpamPowNumberOfPastBlocks(20)
+                .setSpamPowNumberOfTxPerBlock(2);
+    }
+
+    @Test
+    public void testLeadingZeroBits() {
+        Assertions.assertEquals(0, ProofOfWorkService.leadingZeroBits(new byte[] {(byte) 0x80}));
+        Assertions.assertEquals(7, ProofOfWorkService.leadingZeroBits(new byte[] {0x01}));
+        Assertions.assertEquals(12, ProofOfWorkService.leadingZeroBits(new byte[] {0x00, 0x0F}));
+        Assertions.assertEquals(16, ProofOfWorkService.leadingZeroBits(new byte[] {0x00, 0x00}));
+    }
+
+    @Test
+    public void testSolve() throws Exception {
+        String tid = "DFE522E234D67E6AE3F017859F898E576B3928EA57310B765398615A0D3FDE2F";
+        long nonce = ProofOfWorkService.solve(BLOCK_HASH, tid, 10);
+        byte[] data = ByteBuffer.allocate(13 + 64 + 64 + 8)
+                .put("Vega_SPAM_PoW".getBytes(StandardCharsets.US_ASCII))
+                .put(BLOCK_HASH.getBytes(StandardCharsets.US_ASCII))
+                .put(tid.getBytes(StandardCharsets.US_ASCII))
+                .putLong(nonce)
+                .array();
+        byte[] hash = MessageDigest.getInstance("SHA3-256").digest(data);
+        Assertions.assertTrue(ProofOfWorkService.leadingZeroBits(hash) >= 10);
+    }
+
+    @Test
+    public void testTakeBeforeFirstBlock() {
+        Assertions.assertTrue(proofOfWorkService.take().isEmpty());
+    }
+
+    @Test
+    public void testUpdateSolvesProofsPerBlock() {
+        proofOfWorkService.update(newBlock(100));
+        Assertions.assertEquals(2, proofOfWorkService.available());
+        proofOfWorkService.update(newBlock(100));
+        Assertions.assertEquals(2, proofOfWorkService.available());
+        Optional<ProofOfWork> proof = proofOfWorkService.take();
+        Assertions.assertTrue(proof.isPresent());
+        Assertions.assertEquals(100, proof.get().getBlockHeight());
+        Assertions.assertEquals("testnet", proof.get().getChainId());
+        Assertions.assertTrue(proofOfWorkService.take().isPresent());
+        Assertions.assertTrue(proofOfWorkService.take().isEmpty());
+    }
+
+    @Test
+    public void testExpiredProofsAreDiscarded() {
+        proofOfWorkService.update(newBlock(100));
+        proofOfWorkService.update(newBlock(101));
+        Assertions.assertEquals(4, proofOfWorkService.available());
+        proofOfWorkService.update(newBlock(116));
+        Assertions.assertEquals(2, proofOfWorkService.available());
+        Assertions.assertEquals(116, proofOfWorkService.take().orElseThrow().getBlockHeight());
+    }
+}
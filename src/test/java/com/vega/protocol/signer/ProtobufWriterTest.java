@@ -0,0 +1,54 @@
+package com.vega.protocol.signer;
+
+import org.apache.commons.codec.binary.Hex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ProtobufWriterTest {
+
+    private String hex(
+            final ProtobufWriter writer
+    ) {
+        return Hex.encodeHexString(writer.toByteArray());
+    }
+
+    @Test
+    public void testWriteUint64() {
+        Assertions.assertEquals("089601", hex(new ProtobufWriter().writeUint64(1, 150)));
+        Assertions.assertEquals("08ffffffffffffffffff01", hex(new ProtobufWriter().writeUint64(1, -1L)));
+    }
+
+    @Test
+    public void testDefaultValuesAreSkipped() {
+        Assertions.assertEquals("", hex(new ProtobufWriter()
+                .writeUint64(1, 0)
+                .writeEnum(2, 0)
+                .writeString(3, "")
+                .writeString(4, null)));
+    }
+
+    @Test
+    public void testWriteString() {
+        Assertions.assertEquals("120774657374696e67", hex(new ProtobufWriter().writeString(2, "testing")));
+    }
+
+    @Test
+    public void testWriteLargeFieldNumber() {
+        Assertions.assertEquals("d23e0161", hex(new ProtobufWriter().writeString(1002, "a")));
+        Assertions.assertEquals("807d03", hex(new ProtobufWriter().writeEnum(2000, 3)));
+    }
+
+    @Test
+    public void testWriteMessage() {
+        ProtobufWriter inner = new ProtobufWriter().writeUint64(1, 150);
+        Assertions.assertEquals("1a03089601", hex(new ProtobufWriter().writeMessage(3, inner)));
+        Assertions.assertEquals("1a00", hex(new ProtobufWriter().writeMessage(3, new ProtobufWriter())));
+    }
+
+    @Test
+    public void testGrowsBuffer() {
+        byte[] value = new byte[1000];
+        byte[] encoded = new ProtobufWriter().writeBytes(1, value).writeBytes(2, value).toByteArray();
+        Assertions.assertEquals(2 * (1 + 2 + 1000), encoded.length);
+    }
+}
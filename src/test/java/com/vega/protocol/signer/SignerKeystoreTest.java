@@ -0,0 +1,59 @@
+package com.vega.protocol.signer;
+
+import org.apache.commons.codec.binary.Hex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.EdECPrivateKey;
+import java.util.Arrays;
+
+public class SignerKeystoreTest {
+
+    static byte[][] newKey() throws Exception {
+        KeyPair keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        byte[] seed = ((EdECPrivateKey) keyPair.getPrivate()).getBytes().orElseThrow();
+        byte[] encoded = keyPair.getPublic().getEncoded();
+        byte[] publicKey = Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length);
+        return new byte[][] {seed, publicKey};
+    }
+
+    @Test
+    public void testWriteAndLoad() throws Exception {
+        byte[][] key = newKey();
+        Path path = Files.createTempFile("keystore", ".json");
+        try {
+            SignerKeystore.write(path, key[0], key[1], "secret".toCharArray());
+            Assertions.assertFalse(Files.readString(path).contains(Hex.encodeHexString(key[0])));
+            SigningKey signingKey = SignerKeystore.load(path, "secret".toCharArray());
+            Assertions.assertEquals(Hex.encodeHexString(key[1]), signingKey.getPublicKeyHex());
+            byte[] message = "message".getBytes(StandardCharsets.UTF_8);
+            Assertions.assertTrue(signingKey.verify(message, signingKey.sign(message)));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void testLoadWithWrongPassphrase() throws Exception {
+        byte[][] key = newKey();
+        Path path = Files.createTempFile("keystore", ".json");
+        try {
+            SignerKeystore.write(path, key[0], key[1], "secret".toCharArray());
+            Assertions.assertThrows(Exception.class, () -> SignerKeystore.load(path, "wrong".toCharArray()));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void testMismatchedPublicKey() throws Exception {
+        byte[][] key = newKey();
+        byte[][] other = newKey();
+        Assertions.assertThrows(Exception.class, () -> new SigningKey(key[0], Hex.encodeHexString(other[1])));
+    }
+}
@@ -0,0 +1,176 @@
+package com.vega.protocol.signer;
+
+import com.mashape.unirest.http.Unirest;
+import com.mashape.unirest.http.exceptions.UnirestException;
+import com.mashape.unirest.request.HttpRequestWithBody;
+import com.mashape.unirest.request.body.RequestBodyEntity;
+import com.vega.protocol.constant.ErrorCode;
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.constant.OrderType;
+import com.vega.protocol.constant.TimeInForce;
+import com.vega.protocol.exception.TradingException;
+import com.vega.protocol.model.Market;
+import com.vega.protocol.model.Order;
+import com.vega.protocol.model.ProofOfWork;
+import com.vega.protocol.utils.DecimalUtils;
+import org.apache.commons.codec.binary.Hex;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+public class TransactionSignerTest {
+
+    private TransactionSigner transactionSigner;
+    private SigningKey signingKey;
+    private final ProofOfWorkService proofOfWorkService = Mockito.mock(ProofOfWorkService.class);
+
+    @BeforeEach
+    public void setup() throws Exception {
+        byte[][] key = SignerKeystoreTest.newKey();
+        signingKey = new SigningKey(key[0], Hex.encodeHexString(key[1]));
+        transactionSigner = new TransactionSigner(true, "http://localhost:3003", "", "",
+                signingKey.getPublicKeyHex(), new CommandEncoder(new DecimalUtils()), proofOfWorkService);
+    }
+
+    /**
+     * Read the length-delimited and varint fields of a message, keyed by field number
+     */
+    private Map<Integer, Object> read(
+            final byte[] message
+    ) {
+        Map<Integer, Object> fields = new HashMap<>();
+        ByteBuffer buffer = ByteBuffer.wrap(message);
+        while(buffer.hasRemaining()) {
+            long tag = readVarint(buffer);
+            int field = (int) (tag >>> 3);
+            if((tag & 7) == 0) {
+                fields.put(field, readVarint(buffer));
+            } else {
+                byte[] value = new byte[(int) readVarint(buffer)];
+                buffer.get(value);
+                fields.put(field, value);
+            }
+        }
+        return fields;
+    }
+
+    private long readVarint(
+            final ByteBuffer buffer
+    ) {
+        long value = 0;
+        for(int shift=0; ; shift+=7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private Order newOrder() {
+        return new Order()
+                .setMarket(new Market().setId("m"))
+                .setType(OrderType.MARKET)
+                .setSide(MarketSide.BUY)
+                .setTimeInForce(TimeInForce.IOC)
+                .setSize(BigDecimal.ONE);
+    }
+
+    private void readyToSign() {
+        transactionSigner.setSigningKey(signingKey);
+        Mockito.when(proofOfWorkService.take()).thenReturn(Optional.of(new ProofOfWork()
+                .setTid("abc")
+                .setNonce(1)
+                .setBlockHeight(1)
+                .setChainId("testnet")));
+    }
+
+    @Test
+    public void testDisabledWithoutKey() {
+        Assertions.assertFalse(transactionSigner.isEnabled());
+        Assertions.assertFalse(transactionSigner.canSign(signingKey.getPublicKeyHex()));
+    }
+
+    @Test
+    public void testCanSign() {
+        transactionSigner.setSigningKey(signingKey);
+        Assertions.assertTrue(transactionSigner.canSign(signingKey.getPublicKeyHex()));
+        Assertions.assertFalse(transactionSigner.canSign("other"));
+    }
+
+    @Test
+    public void testSubmitWithoutProofOfWork() {
+        transactionSigner.setSigningKey(signingKey);
+        Mockito.when(proofOfWorkService.take()).thenReturn(Optional.empty());
+        Assertions.assertTrue(transactionSigner.submitOrder(newOrder(), "r").isEmpty());
+    }
+
+    @Test
+    public void testSubmitWhenCoreNodeUnreachable() {
+        readyToSign();
+        Assertions.assertTrue(transactionSigner.submitOrder(newOrder(), "r").isEmpty());
+    }
+
+    @Test
+    public void testSubmitWithUnknownOutcome() throws Exception {
+        readyToSign();
+        try(MockedStatic<Unirest> mockStatic = Mockito.mockStatic(Unirest.class)) {
+            HttpRequestWithBody request = Mockito.mock(HttpRequestWithBody.class);
+            RequestBodyEntity entity = Mockito.mock(RequestBodyEntity.class);
+            Mockito.when(request.header(Mockito.anyString(), Mockito.anyString())).thenReturn(request);
+            Mockito.when(request.body(Mockito.any(JSONObject.class))).thenReturn(entity);
+            Mockito.when(entity.asJson())
+                    .thenThrow(new UnirestException(new SocketTimeoutException("Read timed out")));
+            mockStatic.when(() -> Unirest.post("http://localhost:3003/transaction/raw")).thenReturn(request);
+            TradingException e = Assertions.assertThrows(TradingException.class,
+                    () -> transactionSigner.submitOrder(newOrder(), "r"));
+            Assertions.assertEquals(ErrorCode.TRANSACTION_OUTCOME_UNKNOWN, e.getMessage());
+        }
+    }
+
+    @Test
+    public void testSign() throws Exception {
+        transactionSigner.setSigningKey(signingKey);
+        ProofOfWork proof = new ProofOfWork()
+                .setTid("abc")
+                .setNonce(42)
+                .setBlockHeight(1000)
+                .setChainId("testnet");
+        byte[] command = {0x0a, 0x01, 0x6d};
+        Map<Integer, Object> transaction = read(transactionSigner.sign(1015, command, proof, 7));
+        byte[] inputData = (byte[]) transaction.get(1);
+        Map<Integer, Object> input = read(inputData);
+        Assertions.assertEquals(7L, input.get(1));
+        Assertions.assertEquals(1000L, input.get(2));
+        Assertions.assertArrayEquals(command, (byte[]) input.get(1015));
+        Map<Integer, Object> signature = read((byte[]) transaction.get(2));
+        Assertions.assertEquals("vega/ed25519", new String((byte[]) signature.get(2), StandardCharsets.UTF_8));
+        Assertions.assertEquals(1L, signature.get(3));
+        byte[] signatureBytes = Hex.decodeHex(new String((byte[]) signature.get(1), StandardCharsets.UTF_8));
+        Assertions.assertTrue(signingKey.verify(
+                TransactionSigner.getSignedBytes("testnet", inputData), signatureBytes));
+        Assertions.assertEquals(signingKey.getPublicKeyHex(),
+                new String((byte[]) transaction.get(1002), StandardCharsets.UTF_8));
+        Assertions.assertEquals(3L, transaction.get(2000));
+        Map<Integer, Object> pow = read((byte[]) transaction.get(3000));
+        Assertions.assertEquals("abc", new String((byte[]) pow.get(1), StandardCharsets.UTF_8));
+        Assertions.assertEquals(42L, pow.get(2));
+    }
+
+    @Test
+    public void testGetSignedBytes() {
+        Assertions.assertArrayEquals(new byte[] {'a', 0, 1, 2},
+                TransactionSigner.getSignedBytes("a", new byte[] {1, 2}));
+    }
+}
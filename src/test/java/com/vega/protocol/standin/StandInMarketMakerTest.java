@@ -0,0 +1,86 @@
+package com.vega.protocol.standin;
+
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.service.QuoteStatsService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs the whole app against {@link StandInVega} until it has quoted both sides of the book
+ */
+@SpringBootTest
+@DirtiesContext
+public class StandInMarketMakerTest {
+
+    private static StandInVega vega;
+
+    @Autowired
+    private QuoteStatsService quoteStatsService;
+
+    @Value("${vega.market.id}")
+    private String marketId;
+
+    @Value("${reference.price.market}")
+    private String symbol;
+
+    @DynamicPropertySource
+    static void properties(
+            final DynamicPropertyRegistry registry
+    ) throws IOException {
+        Properties properties = StandInVega.loadProperties(null);
+        properties.setProperty("standin.http.port", "0");
+        properties.setProperty("standin.ws.port", "0");
+        properties.setProperty("standin.latency.ms", "1");
+        vega = new StandInVega(properties).start();
+        registry.add("vega.node.url", vega::getRestUrl);
+        registry.add("vega.ws.url", vega::getWsUrl);
+        registry.add("vega.wallet.url", vega::getWalletUrl);
+        registry.add("vega.tendermint.url", vega::getWalletUrl);
+        registry.add("binance.ws.url", vega::getTickerUrl);
+        registry.add("vega.signer.enabled", () -> "false");
+        registry.add("vega.wallet.user", () -> "user");
+        registry.add("vega.wallet.password", () -> "password");
+        registry.add("naive.flow.enabled", () -> "false");
+        registry.add("server.port", () -> "0");
+        String cachePath = Files.createTempFile("reference-data", ".json").toString();
+        registry.add("reference.data.cache.path", () -> cachePath);
+    }
+
+    @AfterAll
+    public static void teardown() {
+        vega.close();
+    }
+
+    private void await(
+            final BooleanSupplier condition
+    ) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60000;
+        while(!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            vega.publishTicker(symbol, BigDecimal.valueOf(19999), BigDecimal.valueOf(20001),
+                    BigDecimal.ONE, BigDecimal.ONE);
+            Thread.sleep(200);
+        }
+        Assertions.assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    public void testQuotingCycle() throws InterruptedException {
+        await(() -> !vega.getOrders(marketId, MarketSide.BUY).isEmpty() &&
+                !vega.getOrders(marketId, MarketSide.SELL).isEmpty());
+        Assertions.assertTrue(quoteStatsService.get(marketId).orElseThrow().getCycles() > 0);
+        Assertions.assertTrue(vega.getTickToTradeNanos().length > 0);
+    }
+}
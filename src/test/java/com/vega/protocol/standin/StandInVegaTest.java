@@ -0,0 +1,188 @@
+package com.vega.protocol.standin;
+
+import com.vega.protocol.api.PayloadWriter;
+import com.vega.protocol.api.VegaApiClient;
+import com.vega.protocol.constant.AccountType;
+import com.vega.protocol.constant.MarketSide;
+import com.vega.protocol.constant.OrderStatus;
+import com.vega.protocol.constant.OrderType;
+import com.vega.protocol.constant.TimeInForce;
+import com.vega.protocol.model.*;
+import com.vega.protocol.service.*;
+import com.vega.protocol.signer.TransactionSigner;
+import com.vega.protocol.store.*;
+import com.vega.protocol.utils.DecimalUtils;
+import com.vega.protocol.ws.BinanceWebSocketClient;
+import com.vega.protocol.ws.VegaWebSocketClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.function.BooleanSupplier;
+
+public class StandInVegaTest {
+
+    private static final String MARKET_ID = "1";
+    private static final String PARTY_ID = "party1";
+
+    private final DecimalUtils decimalUtils = new DecimalUtils();
+    private final MarketStore marketStore = new MarketStore();
+    private final AssetStore assetStore = new AssetStore();
+    private final OrderStore orderStore = new OrderStore();
+    private final PositionStore positionStore = new PositionStore();
+    private final AccountStore accountStore = new AccountStore();
+    private final ReferencePriceStore referencePriceStore = new ReferencePriceStore();
+    private final OrderReferenceService orderReferenceService = new OrderReferenceService(
+            100, 10000L, new LatencyService());
+    private StandInVega vega;
+    private VegaApiClient vegaApiClient;
+    private VegaWebSocketClient vegaWebSocketClient;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        Properties properties = StandInVega.loadProperties(null);
+        properties.setProperty("vega.market.id", MARKET_ID);
+        properties.setProperty("reference.price.market", "BTCUSDT");
+        properties.setProperty("standin.http.port", "0");
+        properties.setProperty("standin.ws.port", "0");
+        properties.setProperty("standin.market.decimal.places", "2");
+        properties.setProperty("standin.latency.ms", "1");
+        properties.setProperty("standin.page.size", "1");
+        vega = new StandInVega(properties).start();
+        DataNodeService dataNodeService = new DataNodeService(vega.getRestUrl(), vega.getWsUrl(),
+                10L, 3, 0.7, 3, 1000L);
+        TransactionSigner transactionSigner = new TransactionSigner(false, "", "", "", PARTY_ID,
+                null, null);
+        RiskService riskService = new RiskService(orderStore, new MarketBindingService(MARKET_ID, "BTCUSDT", ""),
+                referencePriceStore, false, 0.0, 0.0, 0.1, 5000L);
+        vegaApiClient = new VegaApiClient(vega.getWalletUrl(), "user", "password", dataNodeService,
+                vega.getWalletUrl(), MARKET_ID, marketStore, assetStore, decimalUtils, new OrderService(decimalUtils),
+                new PayloadWriter(decimalUtils), orderReferenceService, transactionSigner, riskService,
+                new LatencyService());
+        vegaApiClient.getAssets().forEach(assetStore::update);
+        vegaApiClient.getMarkets().forEach(marketStore::update);
+        vegaWebSocketClient = new VegaWebSocketClient(PARTY_ID, MARKET_ID, marketStore, orderStore, positionStore,
+                accountStore, assetStore, new LiquidityCommitmentStore(), decimalUtils, new OrderService(decimalUtils),
+                orderReferenceService, Mockito.mock(TransactionService.class),
+                new MetricsService(new SimpleMeterRegistry()), URI.create(vega.getWsUrl()));
+        Assertions.assertTrue(vegaWebSocketClient.connectBlocking());
+    }
+
+    @AfterEach
+    public void teardown() throws InterruptedException {
+        vegaWebSocketClient.closeBlocking();
+        vega.close();
+    }
+
+    private void await(
+            final BooleanSupplier condition
+    ) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while(!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertTrue(condition.getAsBoolean());
+    }
+
+    private Order newOrder(
+            final MarketSide side,
+            final double price
+    ) {
+        return new Order()
+                .setMarket(marketStore.getById(MARKET_ID).orElseThrow())
+                .setSide(side)
+                .setSize(BigDecimal.ONE)
+                .setPrice(BigDecimal.valueOf(price))
+                .setType(OrderType.LIMIT)
+                .setTimeInForce(TimeInForce.GTC);
+    }
+
+    @Test
+    public void testReferenceData() {
+        List<Asset> assets = vegaApiClient.getAssets();
+        Assertions.assertEquals(1, assets.size());
+        Assertions.assertEquals("USDT", assets.get(0).getSymbol());
+        Assertions.assertEquals(6, assets.get(0).getDecimalPlaces());
+        List<Market> markets = vegaApiClient.getMarkets();
+        Assertions.assertEquals(1, markets.size());
+        Assertions.assertEquals(MARKET_ID, markets.get(0).getId());
+        Assertions.assertEquals("USDT", markets.get(0).getSettlementAsset());
+        Assertions.assertEquals(2, markets.get(0).getDecimalPlaces());
+        List<Account> accounts = vegaApiClient.getAccounts(PARTY_ID);
+        Assertions.assertEquals(1, accounts.size());
+        Assertions.assertEquals(AccountType.GENERAL, accounts.get(0).getType());
+        Assertions.assertEquals(100000, accounts.get(0).getBalance().doubleValue(), 1e-9);
+        Assertions.assertEquals(6, vegaApiClient.getNetworkParameters().size());
+    }
+
+    @Test
+    public void testSubmitAndTrade() throws InterruptedException {
+        Optional<String> txHash = vegaApiClient.submitBulkInstruction(Collections.emptyList(),
+                List.of(newOrder(MarketSide.BUY, 99), newOrder(MarketSide.SELL, 101)),
+                marketStore.getById(MARKET_ID).orElseThrow(), PARTY_ID).map(BatchInstruction::getTxHash);
+        Assertions.assertTrue(txHash.isPresent());
+        await(() -> orderStore.getItems().size() == 2);
+        Assertions.assertTrue(orderStore.getItems().stream().allMatch(o -> o.getStatus().equals(OrderStatus.ACTIVE)));
+        Assertions.assertTrue(vegaApiClient.getTransactionResult(txHash.get()).isPresent());
+        Assertions.assertEquals(2, vegaApiClient.getOpenOrders(PARTY_ID).size());
+        await(() -> marketStore.getById(MARKET_ID).orElseThrow().getBestBidPrice().doubleValue() == 99);
+        vega.trade(MARKET_ID, MarketSide.SELL, BigDecimal.valueOf(99), BigDecimal.ONE);
+        await(() -> positionStore.getItems().size() == 1);
+        Position position = positionStore.getItems().get(0);
+        Assertions.assertEquals(MarketSide.BUY, position.getSide());
+        Assertions.assertEquals(1, position.getSize().doubleValue(), 1e-9);
+        Assertions.assertEquals(99, position.getEntryPrice().doubleValue(), 1e-9);
+        await(() -> orderStore.getItems().stream().anyMatch(o -> o.getStatus().equals(OrderStatus.FILLED)));
+        Assertions.assertEquals(1, vegaApiClient.getPositions(PARTY_ID).size());
+        Assertions.assertEquals(1, vegaApiClient.getOpenOrders(PARTY_ID).size());
+    }
+
+    @Test
+    public void testInjectedErrors() {
+        vega.setCommandErrorRate(1);
+        Optional<BatchInstruction> batch = vegaApiClient.submitBulkInstruction(Collections.emptyList(),
+                List.of(newOrder(MarketSide.BUY, 99)), marketStore.getById(MARKET_ID).orElseThrow(), PARTY_ID);
+        Assertions.assertTrue(batch.isEmpty());
+        Assertions.assertTrue(vega.getOrders(MARKET_ID, MarketSide.BUY).isEmpty());
+        vega.setDataErrorRate(1);
+        Assertions.assertTrue(vegaApiClient.getMarkets().isEmpty());
+        vega.setDataErrorRate(0);
+        Assertions.assertEquals(1, vegaApiClient.getMarkets().size());
+    }
+
+    @Test
+    public void testTickToTrade() throws InterruptedException {
+        BinanceWebSocketClient binanceWebSocketClient = new BinanceWebSocketClient(
+                URI.create(vega.getTickerUrl()), "BTCUSDT", referencePriceStore,
+                new MetricsService(new SimpleMeterRegistry()));
+        Assertions.assertTrue(binanceWebSocketClient.connectBlocking());
+        try {
+            await(() -> {
+                vega.publishTicker("BTCUSDT", BigDecimal.valueOf(99), BigDecimal.valueOf(101),
+                        BigDecimal.ONE, BigDecimal.ONE);
+                return referencePriceStore.get("BTCUSDT").isPresent();
+            });
+            Assertions.assertEquals(99, referencePriceStore.get("BTCUSDT").orElseThrow()
+                    .getBidPrice().doubleValue(), 1e-9);
+            Assertions.assertEquals(0, vega.getTickToTradeNanos().length);
+            vegaApiClient.submitBulkInstruction(Collections.emptyList(), List.of(newOrder(MarketSide.BUY, 99)),
+                    marketStore.getById(MARKET_ID).orElseThrow(), PARTY_ID);
+            vegaApiClient.submitBulkInstruction(Collections.emptyList(), List.of(newOrder(MarketSide.BUY, 98)),
+                    marketStore.getById(MARKET_ID).orElseThrow(), PARTY_ID);
+            long[] samples = vega.getTickToTradeNanos();
+            Assertions.assertEquals(1, samples.length);
+            Assertions.assertTrue(samples[0] > 0);
+        } finally {
+            binanceWebSocketClient.closeBlocking();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.vega.protocol.store;
 
 import com.vega.protocol.model.AppConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
 
 public class AppConfigStoreTest extends SingleItemStoreTest<AppConfig, AppConfigStore> {
 
@@ -15,4 +17,16 @@ public class AppConfigStoreTest extends SingleItemStoreTest<AppConfig, AppConfig
     public AppConfig getItem() {
         return new AppConfig();
     }
+
+    @Test
+    public void testGetByMarket() {
+        Assertions.assertTrue(store.get("1").isEmpty());
+        AppConfig defaultConfig = new AppConfig().setOrderCount(10);
+        AppConfig marketConfig = new AppConfig().setOrderCount(5);
+        store.update(defaultConfig);
+        store.update("1", marketConfig);
+        Assertions.assertSame(marketConfig, store.get("1").orElseThrow());
+        Assertions.assertSame(defaultConfig, store.get("2").orElseThrow());
+        Assertions.assertSame(defaultConfig, store.get().orElseThrow());
+    }
 }
@@ -4,6 +4,9 @@ import com.vega.protocol.model.UniqueItem;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public abstract class MultipleItemStoreTest<X extends UniqueItem, T extends MultipleItemStore<X>> {
 
     public abstract T getStore();
@@ -22,4 +25,19 @@ public abstract class MultipleItemStoreTest<X extends UniqueItem, T extends Mult
         getStore().remove(item);
         Assertions.assertEquals(getStore().getItems().size(), 0);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testListener() {
+        X item = getItem();
+        item.setId("1");
+        List<X> updates = new ArrayList<>();
+        getStore().addListener(updates::add);
+        getStore().add(item);
+        Assertions.assertTrue(updates.isEmpty());
+        getStore().update(item);
+        Assertions.assertEquals(1, updates.size());
+        getStore().remove(item);
+        Assertions.assertEquals(2, updates.size());
+        Assertions.assertTrue(getStore().getById("1").isEmpty());
+    }
+}
@@ -1,6 +1,13 @@
 package com.vega.protocol.store;
 
+import com.vega.protocol.constant.ErrorCode;
+import com.vega.protocol.exception.TradingException;
 import com.vega.protocol.model.NetworkParameter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 public class NetworkParameterStoreTest extends MultipleItemStoreTest<NetworkParameter, NetworkParameterStore> {
 
@@ -15,4 +22,57 @@ public class NetworkParameterStoreTest extends MultipleItemStoreTest<NetworkPara
     public NetworkParameter getItem() {
         return new NetworkParameter();
     }
+
+    @Test
+    public void testGetDouble() {
+        store.add(new NetworkParameter().setId("a").setValue("0.00001"));
+        store.add(new NetworkParameter().setId("b").setValue("abc"));
+        Assertions.assertEquals(0.00001, store.getDouble("a"));
+        Assertions.assertEquals(1.5, store.getDouble("b", 1.5));
+        Assertions.assertEquals(1.5, store.getDouble("c", 1.5));
+        TradingException e = Assertions.assertThrows(TradingException.class, () -> store.getDouble("b"));
+        Assertions.assertEquals(ErrorCode.NETWORK_PARAMETER_NOT_FOUND, e.getMessage());
+        Assertions.assertThrows(TradingException.class, () -> store.getDouble("c"));
+    }
+
+    @Test
+    public void testGetLong() {
+        store.add(new NetworkParameter().setId("a").setValue("100"));
+        store.add(new NetworkParameter().setId("b").setValue("1.5"));
+        store.add(new NetworkParameter().setId("c").setValue("1000000000000000000000000"));
+        Assertions.assertEquals(100, store.getLong("a"));
+        Assertions.assertEquals(7, store.getLong("b", 7));
+        Assertions.assertEquals(7, store.getLong("c", 7));
+        Assertions.assertEquals(1e24, store.getDouble("c"));
+        Assertions.assertThrows(TradingException.class, () -> store.getLong("b"));
+    }
+
+    @Test
+    public void testGetDuration() {
+        store.add(new NetworkParameter().setId("a").setValue("24h0m0s"));
+        store.add(new NetworkParameter().setId("b").setValue("0s"));
+        Assertions.assertEquals(Duration.ofHours(24), store.getDuration("a", Duration.ZERO));
+        Assertions.assertEquals(Duration.ofDays(2), store.getDuration("b", Duration.ofDays(2)));
+        Assertions.assertEquals(Duration.ofDays(2), store.getDuration("c", Duration.ofDays(2)));
+    }
+
+    @Test
+    public void testParsedValueFollowsUpdates() {
+        store.add(new NetworkParameter().setId("a").setValue("1"));
+        store.add(new NetworkParameter().setId("a").setValue("2"));
+        Assertions.assertEquals(1, store.getLong("a"));
+        store.update(new NetworkParameter().setId("a").setValue("3"));
+        Assertions.assertEquals(3, store.getLong("a"));
+        store.remove(new NetworkParameter().setId("a"));
+        Assertions.assertEquals(-1, store.getLong("a", -1));
+    }
+
+    @Test
+    public void testParseDuration() {
+        Assertions.assertEquals(TimeUnit.HOURS.toNanos(24), NetworkParameterStore.parseDuration("24h0m0s"));
+        Assertions.assertEquals(TimeUnit.SECONDS.toNanos(90), NetworkParameterStore.parseDuration("1m30s"));
+        Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(1500), NetworkParameterStore.parseDuration("1.5s"));
+        Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(500), NetworkParameterStore.parseDuration("500ms"));
+        Assertions.assertEquals(0, NetworkParameterStore.parseDuration("invalid"));
+    }
 }
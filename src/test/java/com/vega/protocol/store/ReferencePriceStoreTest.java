@@ -1,6 +1,10 @@
 package com.vega.protocol.store;
 
 import com.vega.protocol.model.ReferencePrice;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
 
 public class ReferencePriceStoreTest extends SingleItemStoreTest<ReferencePrice, ReferencePriceStore> {
 
@@ -15,4 +19,25 @@ public class ReferencePriceStoreTest extends SingleItemStoreTest<ReferencePrice,
     public ReferencePrice getItem() {
         return new ReferencePrice();
     }
+
+    @Test
+    public void testGetBySymbol() {
+        ReferencePrice btc = new ReferencePrice().setSymbol("BTCUSDT").setMidPrice(BigDecimal.TEN);
+        ReferencePrice eth = new ReferencePrice().setSymbol("ETHUSDT").setMidPrice(BigDecimal.ONE);
+        store.update(btc);
+        store.update(eth);
+        store.update(new ReferencePrice());
+        Assertions.assertEquals(btc, store.get("BTCUSDT").orElseThrow());
+        Assertions.assertEquals(eth, store.get("ETHUSDT").orElseThrow());
+        Assertions.assertTrue(store.get("LINKUSDT").isEmpty());
+    }
+
+    @Test
+    public void testGetAge() {
+        Assertions.assertTrue(store.getAge("BTCUSDT").isEmpty());
+        store.update(new ReferencePrice().setSymbol("BTCUSDT"));
+        long age = store.getAge("BTCUSDT").orElseThrow();
+        Assertions.assertTrue(age >= 0 && age < 1_000_000_000L);
+        Assertions.assertTrue(store.getAge("ETHUSDT").isEmpty());
+    }
 }
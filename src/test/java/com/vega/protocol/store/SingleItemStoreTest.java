@@ -3,6 +3,9 @@ package com.vega.protocol.store;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public abstract class SingleItemStoreTest<X, T extends SingleItemStore<X>> {
 
     public abstract T getStore();
@@ -15,4 +18,13 @@ public abstract class SingleItemStoreTest<X, T extends SingleItemStore<X>> {
         getStore().update(item);
         Assertions.assertTrue(getStore().get().isPresent());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testListener() {
+        X item = getItem();
+        List<X> updates = new ArrayList<>();
+        getStore().addListener(updates::add);
+        getStore().update(item);
+        Assertions.assertEquals(List.of(item), updates);
+    }
+}
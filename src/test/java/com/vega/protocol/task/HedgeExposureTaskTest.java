@@ -2,10 +2,12 @@ package com.vega.protocol.task;
 
 import com.vega.protocol.api.BinanceApiClient;
 import com.vega.protocol.api.IGApiClient;
+import com.vega.protocol.constant.MarketSide;
 import com.vega.protocol.constant.ReferencePriceSource;
 import com.vega.protocol.initializer.DataInitializer;
 import com.vega.protocol.initializer.WebSocketInitializer;
 import com.vega.protocol.model.ReferencePrice;
+import com.vega.protocol.service.MarketBindingService;
 import com.vega.protocol.service.PositionService;
 import com.vega.protocol.store.ReferencePriceStore;
 import com.vega.protocol.utils.SleepUtils;
@@ -33,8 +35,15 @@ public class HedgeExposureTaskTest {
     private HedgeExposureTask getHedgeExposureTask(
             final boolean enabled
     ) {
-        return new HedgeExposureTask(dataInitializer, webSocketInitializer, MARKET_ID, enabled,
-                ReferencePriceSource.BINANCE, "AAPL.CASH", "BTCUSDT",
+        return getHedgeExposureTask(enabled, new MarketBindingService(MARKET_ID, "BTCUSDT", ""));
+    }
+
+    private HedgeExposureTask getHedgeExposureTask(
+            final boolean enabled,
+            final MarketBindingService marketBindingService
+    ) {
+        return new HedgeExposureTask(dataInitializer, webSocketInitializer, marketBindingService, enabled,
+                ReferencePriceSource.BINANCE, "AAPL.CASH",
                 positionService, igApiClient, binanceApiClient, referencePriceStore, sleepUtils);
     }
 
@@ -66,7 +75,28 @@ public class HedgeExposureTaskTest {
         Mockito.when(webSocketInitializer.isBinanceWebSocketInitialized()).thenReturn(true);
         Mockito.when(positionService.getExposure(MARKET_ID)).thenReturn(BigDecimal.ONE);
         Mockito.when(referencePriceStore.get()).thenReturn(Optional.of(referencePrice()));
+        Mockito.when(referencePriceStore.get("BTCUSDT")).thenReturn(Optional.of(referencePrice()));
         hedgeExposureTask.execute();
+        Mockito.verify(binanceApiClient, Mockito.times(1))
+                .submitMarketOrder("BTCUSDT", BigDecimal.ONE, MarketSide.SELL);
+    }
+
+    @Test
+    public void testExecuteMultipleMarkets() {
+        hedgeExposureTask = getHedgeExposureTask(true, new MarketBindingService(MARKET_ID, "BTCUSDT",
+                "1:BTCUSDT,2:ETHUSDT"));
+        Mockito.when(dataInitializer.isInitialized()).thenReturn(true);
+        Mockito.when(webSocketInitializer.isVegaWebSocketsInitialized()).thenReturn(true);
+        Mockito.when(webSocketInitializer.isBinanceWebSocketInitialized()).thenReturn(true);
+        Mockito.when(positionService.getExposure("1")).thenReturn(BigDecimal.ONE);
+        Mockito.when(positionService.getExposure("2")).thenReturn(BigDecimal.ONE.negate());
+        Mockito.when(referencePriceStore.get()).thenReturn(Optional.of(referencePrice()));
+        Mockito.when(referencePriceStore.get("ETHUSDT")).thenReturn(Optional.of(referencePrice()));
+        hedgeExposureTask.execute();
+        Mockito.verify(binanceApiClient, Mockito.times(0))
+                .submitMarketOrder(Mockito.eq("BTCUSDT"), Mockito.any(), Mockito.any());
+        Mockito.verify(binanceApiClient, Mockito.times(1))
+                .submitMarketOrder("ETHUSDT", BigDecimal.ONE, MarketSide.BUY);
     }
 
     @Test
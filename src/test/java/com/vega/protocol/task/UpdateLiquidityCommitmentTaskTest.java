@@ -1,12 +1,15 @@
 package com.vega.protocol.task;
 
 import com.vega.protocol.api.VegaApiClient;
+import com.vega.protocol.constant.CommandPriority;
 import com.vega.protocol.constant.ErrorCode;
 import com.vega.protocol.constant.MarketSide;
 import com.vega.protocol.initializer.DataInitializer;
 import com.vega.protocol.initializer.WebSocketInitializer;
 import com.vega.protocol.model.*;
 import com.vega.protocol.service.AccountService;
+import com.vega.protocol.service.CommandBudgetService;
+import com.vega.protocol.service.MarketBindingService;
 import com.vega.protocol.service.MarketService;
 import com.vega.protocol.service.PositionService;
 import com.vega.protocol.store.AppConfigStore;
@@ -16,6 +19,7 @@ import com.vega.protocol.utils.PricingUtils;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import java.math.BigDecimal;
@@ -28,6 +32,7 @@ public class UpdateLiquidityCommitmentTaskTest {
     private static final String MARKET_ID = "1";
     private static final String PARTY_ID = "1";
     private static final String USDT = "USDT";
+    private static final String SYMBOL = "BTCUSDT";
 
     private UpdateLiquidityCommitmentTask updateLiquidityCommitmentTask;
     private final ReferencePriceStore referencePriceStore = Mockito.mock(ReferencePriceStore.class);
@@ -37,6 +42,7 @@ public class UpdateLiquidityCommitmentTaskTest {
     private final PositionService positionService = Mockito.mock(PositionService.class);
     private final LiquidityCommitmentStore liquidityCommitmentStore = Mockito.mock(LiquidityCommitmentStore.class);
     private final VegaApiClient vegaApiClient = Mockito.mock(VegaApiClient.class);
+    private final CommandBudgetService commandBudgetService = Mockito.mock(CommandBudgetService.class);
     private final DataInitializer dataInitializer = Mockito.mock(DataInitializer.class);
     private final WebSocketInitializer webSocketInitializer = Mockito.mock(WebSocketInitializer.class);
 
@@ -59,8 +65,16 @@ public class UpdateLiquidityCommitmentTaskTest {
     private UpdateLiquidityCommitmentTask getTask(
             final boolean enabled
     ) {
-        return new UpdateLiquidityCommitmentTask(MARKET_ID, enabled, PARTY_ID,
-                marketService, accountService, positionService, appConfigStore, vegaApiClient, referencePriceStore,
+        return getTask(enabled, new MarketBindingService(MARKET_ID, SYMBOL, ""));
+    }
+
+    private UpdateLiquidityCommitmentTask getTask(
+            final boolean enabled,
+            final MarketBindingService marketBindingService
+    ) {
+        return new UpdateLiquidityCommitmentTask(marketBindingService, enabled, PARTY_ID,
+                marketService, accountService, positionService, appConfigStore, vegaApiClient, commandBudgetService,
+                referencePriceStore,
                 liquidityCommitmentStore, dataInitializer,
                 webSocketInitializer, "*/15 * * * * *");
     }
@@ -68,6 +82,28 @@ public class UpdateLiquidityCommitmentTaskTest {
     @BeforeEach
     public void setup() {
         updateLiquidityCommitmentTask = getTask(true);
+        Mockito.when(commandBudgetService.tryAcquire(CommandPriority.URGENT)).thenReturn(true);
+    }
+
+    @Test
+    public void testExecuteDeferredByCommandBudget() {
+        Mockito.when(commandBudgetService.tryAcquire(CommandPriority.URGENT)).thenReturn(false);
+        Mockito.when(dataInitializer.isInitialized()).thenReturn(true);
+        Mockito.when(webSocketInitializer.isVegaWebSocketsInitialized()).thenReturn(true);
+        Mockito.when(webSocketInitializer.isBinanceWebSocketInitialized()).thenReturn(true);
+        Mockito.when(marketService.getById(MARKET_ID)).thenReturn(new Market().setSettlementAsset(USDT)
+                .setTargetStake(BigDecimal.ONE).setSuppliedStake(BigDecimal.ONE));
+        Mockito.when(accountService.getTotalBalance(USDT)).thenReturn(BigDecimal.valueOf(100000));
+        Mockito.when(positionService.getExposure(MARKET_ID)).thenReturn(BigDecimal.ZERO);
+        Mockito.when(appConfigStore.get(MARKET_ID)).thenReturn(Optional.of(getAppConfig()));
+        ReferencePrice referencePrice = new ReferencePrice().setSymbol(SYMBOL).setBidPrice(BigDecimal.valueOf(19999))
+                .setAskPrice(BigDecimal.valueOf(20001)).setMidPrice(BigDecimal.valueOf(20000));
+        Mockito.when(referencePriceStore.get()).thenReturn(Optional.of(referencePrice));
+        Mockito.when(referencePriceStore.get(SYMBOL)).thenReturn(Optional.of(referencePrice));
+        Mockito.when(liquidityCommitmentStore.getItems()).thenReturn(Collections.emptyList());
+        updateLiquidityCommitmentTask.execute();
+        Mockito.verify(vegaApiClient, Mockito.times(0)).submitLiquidityCommitment(
+                Mockito.any(LiquidityCommitment.class), Mockito.anyString(), Mockito.anyBoolean());
     }
 
     @Test
@@ -79,16 +115,49 @@ public class UpdateLiquidityCommitmentTaskTest {
                 .setTargetStake(BigDecimal.ONE).setSuppliedStake(BigDecimal.ONE));
         Mockito.when(accountService.getTotalBalance(USDT)).thenReturn(BigDecimal.valueOf(100000));
         Mockito.when(positionService.getExposure(MARKET_ID)).thenReturn(BigDecimal.ZERO);
-        Mockito.when(appConfigStore.get()).thenReturn(Optional.of(getAppConfig()));
-        Mockito.when(referencePriceStore.get()).thenReturn(Optional.of(
-                new ReferencePrice().setBidPrice(BigDecimal.valueOf(19999))
-                        .setAskPrice(BigDecimal.valueOf(20001)).setMidPrice(BigDecimal.valueOf(20000))));
+        Mockito.when(appConfigStore.get(MARKET_ID)).thenReturn(Optional.of(getAppConfig()));
+        ReferencePrice referencePrice = new ReferencePrice().setSymbol(SYMBOL).setBidPrice(BigDecimal.valueOf(19999))
+                .setAskPrice(BigDecimal.valueOf(20001)).setMidPrice(BigDecimal.valueOf(20000));
+        Mockito.when(referencePriceStore.get()).thenReturn(Optional.of(referencePrice));
+        Mockito.when(referencePriceStore.get(SYMBOL)).thenReturn(Optional.of(referencePrice));
         Mockito.when(liquidityCommitmentStore.getItems()).thenReturn(Collections.emptyList());
         updateLiquidityCommitmentTask.execute();
         Mockito.verify(vegaApiClient, Mockito.times(1)).submitLiquidityCommitment(
                 Mockito.any(LiquidityCommitment.class), Mockito.anyString(), Mockito.anyBoolean()); // TODO - fix assertion
     }
 
+    @Test
+    public void testExecuteMultipleMarketsSplitsBalance() {
+        updateLiquidityCommitmentTask = getTask(true, new MarketBindingService(MARKET_ID, SYMBOL,
+                "1:BTCUSDT,2:ETHUSDT"));
+        Mockito.when(dataInitializer.isInitialized()).thenReturn(true);
+        Mockito.when(webSocketInitializer.isVegaWebSocketsInitialized()).thenReturn(true);
+        Mockito.when(webSocketInitializer.isBinanceWebSocketInitialized()).thenReturn(true);
+        for(String marketId : List.of("1", "2")) {
+            Mockito.when(marketService.getById(marketId)).thenReturn(new Market().setId(marketId)
+                    .setSettlementAsset(USDT).setTargetStake(BigDecimal.ONE).setSuppliedStake(BigDecimal.ONE));
+            Mockito.when(positionService.getExposure(marketId)).thenReturn(BigDecimal.ZERO);
+            Mockito.when(appConfigStore.get(marketId)).thenReturn(Optional.of(getAppConfig()));
+        }
+        Mockito.when(marketService.countBySettlementAsset(List.of("1", "2"), USDT)).thenReturn(2);
+        Mockito.when(accountService.getTotalBalance(USDT)).thenReturn(BigDecimal.valueOf(100000));
+        ReferencePrice referencePrice = new ReferencePrice().setBidPrice(BigDecimal.valueOf(19999))
+                .setAskPrice(BigDecimal.valueOf(20001)).setMidPrice(BigDecimal.valueOf(20000));
+        Mockito.when(referencePriceStore.get()).thenReturn(Optional.of(referencePrice));
+        Mockito.when(referencePriceStore.get(SYMBOL)).thenReturn(Optional.of(referencePrice));
+        Mockito.when(referencePriceStore.get("ETHUSDT")).thenReturn(Optional.of(referencePrice));
+        Mockito.when(liquidityCommitmentStore.getItems()).thenReturn(Collections.emptyList());
+        updateLiquidityCommitmentTask.execute();
+        ArgumentCaptor<LiquidityCommitment> captor = ArgumentCaptor.forClass(LiquidityCommitment.class);
+        Mockito.verify(vegaApiClient, Mockito.times(2)).submitLiquidityCommitment(
+                captor.capture(), Mockito.anyString(), Mockito.anyBoolean());
+        for(LiquidityCommitment liquidityCommitment : captor.getAllValues()) {
+            Assertions.assertEquals(2500, liquidityCommitment.getCommitmentAmount().doubleValue());
+        }
+        Assertions.assertEquals(List.of("1", "2"), captor.getAllValues().stream()
+                .map(lc -> lc.getMarket().getId()).toList());
+    }
+
     @Test
     public void testExecuteDisabled() {
         updateLiquidityCommitmentTask = getTask(false);
@@ -105,7 +174,8 @@ public class UpdateLiquidityCommitmentTaskTest {
         Mockito.when(dataInitializer.isInitialized()).thenReturn(true);
         Mockito.when(webSocketInitializer.isVegaWebSocketsInitialized()).thenReturn(true);
         Mockito.when(webSocketInitializer.isBinanceWebSocketInitialized()).thenReturn(true);
-        Mockito.when(marketService.getById(MARKET_ID)).thenReturn(new Market().setSettlementAsset(USDT));
+        Mockito.when(marketService.getById(MARKET_ID)).thenReturn(new Market().setSettlementAsset(USDT)
+                .setTargetStake(BigDecimal.ONE).setSuppliedStake(BigDecimal.ONE));
         Mockito.when(accountService.getTotalBalance(USDT)).thenReturn(BigDecimal.ZERO);
         Mockito.when(positionService.getExposure(MARKET_ID)).thenReturn(BigDecimal.ZERO);
         updateLiquidityCommitmentTask.execute();
@@ -113,6 +183,20 @@ public class UpdateLiquidityCommitmentTaskTest {
                 Mockito.any(LiquidityCommitment.class), Mockito.anyString(), Mockito.anyBoolean());
     }
 
+    @Test
+    public void testExecuteBeforeMarketData() {
+        Mockito.when(dataInitializer.isInitialized()).thenReturn(true);
+        Mockito.when(webSocketInitializer.isVegaWebSocketsInitialized()).thenReturn(true);
+        Mockito.when(webSocketInitializer.isBinanceWebSocketInitialized()).thenReturn(true);
+        Mockito.when(marketService.getById(MARKET_ID)).thenReturn(new Market().setSettlementAsset(USDT));
+        Mockito.when(accountService.getTotalBalance(USDT)).thenReturn(BigDecimal.valueOf(100000));
+        Mockito.when(positionService.getExposure(MARKET_ID)).thenReturn(BigDecimal.ZERO);
+        Mockito.when(appConfigStore.get(MARKET_ID)).thenReturn(Optional.of(getAppConfig()));
+        updateLiquidityCommitmentTask.execute();
+        Mockito.verify(vegaApiClient, Mockito.times(0)).submitLiquidityCommitment(
+                Mockito.any(LiquidityCommitment.class), Mockito.anyString(), Mockito.anyBoolean());
+    }
+
     @Test
     public void testExecuteLongPosition() {
         Mockito.when(dataInitializer.isInitialized()).thenReturn(true);
@@ -122,10 +206,11 @@ public class UpdateLiquidityCommitmentTaskTest {
                 .setTargetStake(BigDecimal.valueOf(9000)).setSuppliedStake(BigDecimal.ONE));
         Mockito.when(accountService.getTotalBalance(USDT)).thenReturn(BigDecimal.valueOf(100000));
         Mockito.when(positionService.getExposure(MARKET_ID)).thenReturn(BigDecimal.valueOf(1));
-        Mockito.when(appConfigStore.get()).thenReturn(Optional.of(getAppConfig()));
-        Mockito.when(referencePriceStore.get()).thenReturn(Optional.of(
-                new ReferencePrice().setBidPrice(BigDecimal.valueOf(19999))
-                        .setAskPrice(BigDecimal.valueOf(20001)).setMidPrice(BigDecimal.valueOf(20000))));
+        Mockito.when(appConfigStore.get(MARKET_ID)).thenReturn(Optional.of(getAppConfig()));
+        ReferencePrice referencePrice = new ReferencePrice().setSymbol(SYMBOL).setBidPrice(BigDecimal.valueOf(19999))
+                .setAskPrice(BigDecimal.valueOf(20001)).setMidPrice(BigDecimal.valueOf(20000));
+        Mockito.when(referencePriceStore.get()).thenReturn(Optional.of(referencePrice));
+        Mockito.when(referencePriceStore.get(SYMBOL)).thenReturn(Optional.of(referencePrice));
         Mockito.when(liquidityCommitmentStore.getItems()).thenReturn(Collections.emptyList());
         updateLiquidityCommitmentTask.execute();
         Mockito.verify(vegaApiClient, Mockito.times(1)).submitLiquidityCommitment(
@@ -141,10 +226,11 @@ public class UpdateLiquidityCommitmentTaskTest {
                 .setTargetStake(BigDecimal.valueOf(1000000000)).setSuppliedStake(BigDecimal.ONE));
         Mockito.when(accountService.getTotalBalance(USDT)).thenReturn(BigDecimal.valueOf(100000));
         Mockito.when(positionService.getExposure(MARKET_ID)).thenReturn(BigDecimal.valueOf(-1));
-        Mockito.when(appConfigStore.get()).thenReturn(Optional.of(getAppConfig()));
-        Mockito.when(referencePriceStore.get()).thenReturn(Optional.of(
-                new ReferencePrice().setBidPrice(BigDecimal.valueOf(19999))
-                        .setAskPrice(BigDecimal.valueOf(20001)).setMidPrice(BigDecimal.valueOf(20000))));
+        Mockito.when(appConfigStore.get(MARKET_ID)).thenReturn(Optional.of(getAppConfig()));
+        ReferencePrice referencePrice = new ReferencePrice().setSymbol(SYMBOL).setBidPrice(BigDecimal.valueOf(19999))
+                .setAskPrice(BigDecimal.valueOf(20001)).setMidPrice(BigDecimal.valueOf(20000));
+        Mockito.when(referencePriceStore.get()).thenReturn(Optional.of(referencePrice));
+        Mockito.when(referencePriceStore.get(SYMBOL)).thenReturn(Optional.of(referencePrice));
         Mockito.when(liquidityCommitmentStore.getItems()).thenReturn(
                 List.of(new LiquidityCommitment().setMarket(new Market().setId(MARKET_ID))));
         updateLiquidityCommitmentTask.execute();
@@ -162,7 +248,7 @@ public class UpdateLiquidityCommitmentTaskTest {
         Mockito.when(accountService.getTotalBalance(USDT)).thenReturn(BigDecimal.valueOf(100000));
         Mockito.when(positionService.getExposure(MARKET_ID)).thenReturn(BigDecimal.ZERO);
         try {
-            updateLiquidityCommitmentTask.execute();
+            updateLiquidityCommitmentTask.execute(MARKET_ID);
             Assertions.fail();
         } catch(Exception e) {
             Assertions.assertEquals(e.getMessage(), ErrorCode.APP_CONFIG_NOT_FOUND);
@@ -177,9 +263,9 @@ public class UpdateLiquidityCommitmentTaskTest {
         Mockito.when(marketService.getById(MARKET_ID)).thenReturn(new Market().setSettlementAsset(USDT));
         Mockito.when(accountService.getTotalBalance(USDT)).thenReturn(BigDecimal.valueOf(100000));
         Mockito.when(positionService.getExposure(MARKET_ID)).thenReturn(BigDecimal.ZERO);
-        Mockito.when(appConfigStore.get()).thenReturn(Optional.of(getAppConfig()));
+        Mockito.when(appConfigStore.get(MARKET_ID)).thenReturn(Optional.of(getAppConfig()));
         try {
-            updateLiquidityCommitmentTask.execute();
+            updateLiquidityCommitmentTask.execute(MARKET_ID);
             Assertions.fail();
         } catch(Exception e) {
             Assertions.assertEquals(e.getMessage(), ErrorCode.REFERENCE_PRICE_NOT_FOUND);
@@ -1,42 +1,64 @@
 package com.vega.protocol.task;
 
 import com.vega.protocol.api.VegaApiClient;
+import com.vega.protocol.constant.CommandPriority;
 import com.vega.protocol.constant.ErrorCode;
+import com.vega.protocol.constant.LatencyStage;
 import com.vega.protocol.constant.MarketSide;
 import com.vega.protocol.constant.MarketTradingMode;
 import com.vega.protocol.constant.OrderStatus;
+import com.vega.protocol.exception.TradingException;
 import com.vega.protocol.initializer.DataInitializer;
 import com.vega.protocol.initializer.WebSocketInitializer;
 import com.vega.protocol.model.*;
+import com.vega.protocol.quote.AmmQuotingStrategy;
+import com.vega.protocol.quote.QuoteLadder;
 import com.vega.protocol.service.AccountService;
+import com.vega.protocol.service.CommandBudgetService;
+import com.vega.protocol.service.LatencyService;
+import com.vega.protocol.service.MarketBindingService;
 import com.vega.protocol.service.MarketService;
+import com.vega.protocol.service.OrderReferenceService;
 import com.vega.protocol.service.PositionService;
+import com.vega.protocol.service.QuoteStatsService;
+import com.vega.protocol.service.QuoteTriggerService;
+import com.vega.protocol.service.TransactionService;
+import com.vega.protocol.service.VolatilityService;
 import com.vega.protocol.store.AppConfigStore;
 import com.vega.protocol.store.ReferencePriceStore;
 import com.vega.protocol.store.LiquidityCommitmentStore;
 import com.vega.protocol.store.NetworkParameterStore;
 import com.vega.protocol.store.OrderStore;
+import com.vega.protocol.store.PositionStore;
 import com.vega.protocol.utils.PricingUtils;
 import com.vega.protocol.utils.QuantUtils;
+import com.vega.protocol.utils.SleepUtils;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.slf4j.MDC;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 
 public class UpdateQuotesTaskTest {
 
     private static final String TAU_SCALING_PARAM = "market.liquidity.probabilityOfTrading.tau.scaling";
     private static final String MAX_BATCH_SIZE_PARAM = "spam.protection.max.batchSize";
+    private static final String TX_PER_BLOCK_PARAM = "spam.pow.numberOfTxPerBlock";
     private static final String STAKE_TO_SISKAS_PARAM = "market.liquidity.stakeToCcySiskas";
 
     private static final String MARKET_ID = "1";
     private static final String PARTY_ID = "1";
     private static final String USDT = "USDT";
+    private static final String SYMBOL = "BTCUSDT";
 
     private UpdateQuotesTask updateQuotesTask;
     private final ReferencePriceStore referencePriceStore = Mockito.mock(ReferencePriceStore.class);
@@ -48,10 +70,21 @@ public class UpdateQuotesTaskTest {
     private final PositionService positionService = Mockito.mock(PositionService.class);
     private final PricingUtils pricingUtils = Mockito.mock(PricingUtils.class);
     private final QuantUtils quantUtils = Mockito.mock(QuantUtils.class);
+    private final TransactionService transactionService = Mockito.mock(TransactionService.class);
     private final DataInitializer dataInitializer = Mockito.mock(DataInitializer.class);
     private final WebSocketInitializer webSocketInitializer = Mockito.mock(WebSocketInitializer.class);
     private final LiquidityCommitmentStore liquidityCommitmentStore = Mockito.mock(LiquidityCommitmentStore.class);
-    private final NetworkParameterStore networkParameterStore = Mockito.mock(NetworkParameterStore.class);
+    private final NetworkParameterStore networkParameterStore = new NetworkParameterStore();
+    private final CommandBudgetService commandBudgetService = new CommandBudgetService(
+            networkParameterStore, Mockito.mock(SleepUtils.class), 1000L, 1, 0L, 0L);
+    private final MarketBindingService marketBindingService = new MarketBindingService(MARKET_ID, SYMBOL, "");
+    private final QuoteStatsService quoteStatsService = new QuoteStatsService();
+    private final VolatilityService volatilityService = Mockito.mock(VolatilityService.class);
+    private final LatencyService latencyService = new LatencyService();
+    private final OrderReferenceService orderReferenceService = new OrderReferenceService(
+            100, 10000L, latencyService);
+    private final QuoteTriggerService quoteTriggerService = new QuoteTriggerService(
+            referencePriceStore, new PositionStore(), marketBindingService, true, 0.0015, 0L);
 
     private AppConfig getAppConfig() {
         return new AppConfig()
@@ -71,10 +104,21 @@ public class UpdateQuotesTaskTest {
     private UpdateQuotesTask getTask(
             final boolean enabled
     ) {
-        return new UpdateQuotesTask(MARKET_ID, enabled, PARTY_ID, referencePriceStore, appConfigStore, orderStore,
-                liquidityCommitmentStore, networkParameterStore, vegaApiClient, marketService, accountService,
-                positionService, pricingUtils, quantUtils, dataInitializer, webSocketInitializer,
-                "*/15 * * * * *");
+        return getTask(enabled, marketBindingService, quoteTriggerService, 0);
+    }
+
+    private UpdateQuotesTask getTask(
+            final boolean enabled,
+            final MarketBindingService marketBindingService,
+            final QuoteTriggerService quoteTriggerService,
+            final int workers
+    ) {
+        return new UpdateQuotesTask(marketBindingService, enabled, PARTY_ID, referencePriceStore, appConfigStore,
+                orderStore, liquidityCommitmentStore, networkParameterStore, vegaApiClient, marketService,
+                accountService, positionService, List.of(new AmmQuotingStrategy(pricingUtils)), quantUtils,
+                orderReferenceService, transactionService, commandBudgetService, quoteTriggerService,
+                quoteStatsService, volatilityService, latencyService, dataInitializer, webSocketInitializer,
+                "*/15 * * * * *", workers);
     }
 
     @BeforeEach
@@ -82,7 +126,7 @@ public class UpdateQuotesTaskTest {
         updateQuotesTask = getTask(true);
     }
 
-    private void execute(
+    private void mockExecute(
             final BigDecimal exposure,
             final BigDecimal balance,
             final MarketTradingMode tradingMode,
@@ -93,17 +137,20 @@ public class UpdateQuotesTaskTest {
         Mockito.when(webSocketInitializer.isVegaWebSocketsInitialized()).thenReturn(true);
         Mockito.when(webSocketInitializer.isBinanceWebSocketInitialized()).thenReturn(true);
         Mockito.when(marketService.getById(MARKET_ID)).thenReturn(new Market()
+                .setId(MARKET_ID)
                 .setSettlementAsset(USDT)
                 .setTradingMode(tradingMode));
         Mockito.when(accountService.getTotalBalance(USDT)).thenReturn(balance);
         Mockito.when(positionService.getExposure(MARKET_ID)).thenReturn(exposure);
-        Mockito.when(appConfigStore.get()).thenReturn(Optional.of(getAppConfig()));
-        Mockito.when(referencePriceStore.get()).thenReturn(Optional.of(new ReferencePrice()
+        Mockito.when(appConfigStore.get(MARKET_ID)).thenReturn(Optional.of(getAppConfig()));
+        ReferencePrice referencePrice = new ReferencePrice()
+                .setSymbol(SYMBOL)
                 .setAskPrice(BigDecimal.valueOf(20001))
                 .setBidPrice(BigDecimal.valueOf(19999))
-                .setMidPrice(BigDecimal.valueOf(20000))));
-        Mockito.when(networkParameterStore.getById(MAX_BATCH_SIZE_PARAM))
-                .thenReturn(Optional.of(new NetworkParameter().setValue("100").setId(MAX_BATCH_SIZE_PARAM)));
+                .setMidPrice(BigDecimal.valueOf(20000));
+        Mockito.when(referencePriceStore.get()).thenReturn(Optional.of(referencePrice));
+        Mockito.when(referencePriceStore.get(SYMBOL)).thenReturn(Optional.of(referencePrice));
+        networkParameterStore.update(new NetworkParameter().setValue("100").setId(MAX_BATCH_SIZE_PARAM));
         List<Order> currentOrders = new ArrayList<>();
         for(int i=0; i<4; i++) {
             currentOrders.add(new Order()
@@ -112,6 +159,7 @@ public class UpdateQuotesTaskTest {
                     .setPrice(BigDecimal.ONE)
                     .setSize(BigDecimal.TEN)
                     .setIsPeggedOrder(false)
+                    .setMarket(new Market().setId(MARKET_ID))
                     .setStatus(i % 2 == 0 ? OrderStatus.ACTIVE : OrderStatus.CANCELLED));
         }
         for(int i=0; i<4; i++) {
@@ -121,31 +169,40 @@ public class UpdateQuotesTaskTest {
                     .setPrice(BigDecimal.ONE)
                     .setSize(BigDecimal.TEN)
                     .setIsPeggedOrder(false)
+                    .setMarket(new Market().setId(MARKET_ID))
                     .setStatus(i % 2 == 0 ? OrderStatus.ACTIVE : OrderStatus.CANCELLED));
         }
-        List<DistributionStep> bidDistribution = new ArrayList<>();
-        List<DistributionStep> askDistribution = new ArrayList<>();
-        for(int i=0; i<bidDistributionSize; i++) {
-            bidDistribution.add(new DistributionStep().setPrice(3d).setSize(1d));
-        }
-        for(int i=0; i<askDistributionSize; i++) {
-            askDistribution.add(new DistributionStep().setPrice(4d).setSize(1d));
-        }
         Mockito.when(orderStore.getItems()).thenReturn(currentOrders);
-        if(exposure.doubleValue() > 0) {
-            Mockito.when(pricingUtils.getDistribution(19999d, 0.1d, 0.05d, MarketSide.BUY))
-                    .thenReturn(bidDistribution);
-        } else {
-            Mockito.when(pricingUtils.getDistribution(19999d, 0.2d, 0.05d, MarketSide.BUY))
-                    .thenReturn(bidDistribution);
-        }
-        if(exposure.doubleValue() < 0) {
-            Mockito.when(pricingUtils.getDistribution(20001d, 0.1d, 0.05d, MarketSide.SELL))
-                    .thenReturn(askDistribution);
-        } else {
-            Mockito.when(pricingUtils.getDistribution(20001d, 0.2d, 0.05d, MarketSide.SELL))
-                    .thenReturn(askDistribution);
-        }
+        mockDistribution(19999d, exposure.doubleValue() > 0 ? 0.1d : 0.2d, MarketSide.BUY, 3d, bidDistributionSize);
+        mockDistribution(20001d, exposure.doubleValue() < 0 ? 0.1d : 0.2d, MarketSide.SELL, 4d, askDistributionSize);
+    }
+
+    private void mockDistribution(
+            final double midPrice,
+            final double totalVolume,
+            final MarketSide side,
+            final double price,
+            final int size
+    ) {
+        Mockito.when(pricingUtils.getDistribution(Mockito.eq(midPrice), Mockito.eq(totalVolume), Mockito.eq(0.05d),
+                Mockito.eq(side), Mockito.anyInt(), Mockito.any(QuoteLadder.class))).thenAnswer(invocation -> {
+            QuoteLadder ladder = invocation.getArgument(5);
+            ladder.clear();
+            for(int i=0; i<size; i++) {
+                ladder.add(price, 1d);
+            }
+            return size;
+        });
+    }
+
+    private void execute(
+            final BigDecimal exposure,
+            final BigDecimal balance,
+            final MarketTradingMode tradingMode,
+            final int bidDistributionSize,
+            final int askDistributionSize
+    ) {
+        mockExecute(exposure, balance, tradingMode, bidDistributionSize, askDistributionSize);
         updateQuotesTask.execute();
         int modifier = 1;
         if(balance.doubleValue() == 0 || bidDistributionSize == 0 || askDistributionSize == 0) {
@@ -156,6 +213,207 @@ public class UpdateQuotesTaskTest {
                         Mockito.any(Market.class), Mockito.anyString());
     }
 
+    @Test
+    public void testExecuteMergesBatches() {
+        mockExecute(BigDecimal.ZERO, BigDecimal.valueOf(100000), MarketTradingMode.CONTINUOUS, 3, 1);
+        Mockito.when(appConfigStore.get(MARKET_ID)).thenReturn(Optional.of(getAppConfig().setBboOffset(0.0)));
+        networkParameterStore.update(new NetworkParameter().setValue("4").setId(MAX_BATCH_SIZE_PARAM));
+        networkParameterStore.update(new NetworkParameter().setValue("10").setId(TX_PER_BLOCK_PARAM));
+        updateQuotesTask.execute();
+        ArgumentCaptor<List<String>> cancellations = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<Order>> submissions = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(vegaApiClient, Mockito.times(3)).submitBulkInstruction(cancellations.capture(),
+                submissions.capture(), Mockito.any(Market.class), Mockito.anyString());
+        Assertions.assertEquals(List.of("1", "3", "4", "6"), cancellations.getAllValues().get(0));
+        Assertions.assertEquals(0, submissions.getAllValues().get(0).size());
+        Assertions.assertEquals(4, submissions.getAllValues().get(1).size());
+        Assertions.assertEquals(2, submissions.getAllValues().get(2).size());
+    }
+
+    @Test
+    public void testExecuteTracksOrdersThatWereSent() {
+        mockExecute(BigDecimal.ZERO, BigDecimal.valueOf(100000), MarketTradingMode.CONTINUOUS, 3, 1);
+        Mockito.when(appConfigStore.get(MARKET_ID)).thenReturn(Optional.of(getAppConfig().setBboOffset(0.0)));
+        Mockito.when(vegaApiClient.submitBulkInstruction(Mockito.anyList(), Mockito.anyList(),
+                Mockito.any(Market.class), Mockito.anyString())).thenAnswer(invocation -> {
+                    List<Order> submissions = invocation.getArgument(1);
+                    return Optional.of(new BatchInstruction()
+                            .setTxHash("tx")
+                            .setCancellations(invocation.getArgument(0))
+                            .setSubmissions(submissions.subList(0, 1)));
+                });
+        updateQuotesTask.execute();
+        ArgumentCaptor<List<Order>> submissions = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(transactionService).track(Mockito.eq("tx"), submissions.capture(), Mockito.anyList());
+        Assertions.assertEquals(1, submissions.getValue().size());
+    }
+
+    @Test
+    public void testExecuteRecordsLatencyAndTraceId() {
+        mockExecute(BigDecimal.ZERO, BigDecimal.valueOf(100000), MarketTradingMode.CONTINUOUS, 3, 1);
+        Mockito.when(appConfigStore.get(MARKET_ID)).thenReturn(Optional.of(getAppConfig().setBboOffset(0.0)));
+        Set<String> traceIds = new HashSet<>();
+        Mockito.when(vegaApiClient.submitBulkInstruction(Mockito.anyList(), Mockito.anyList(),
+                Mockito.any(Market.class), Mockito.anyString())).thenAnswer(invocation -> {
+                    traceIds.add(MDC.get(LatencyService.TRACE_ID));
+                    return Optional.empty();
+                });
+        updateQuotesTask.execute();
+        Assertions.assertEquals(1, traceIds.size());
+        Assertions.assertNotNull(traceIds.iterator().next());
+        Assertions.assertNull(MDC.get(LatencyService.TRACE_ID));
+        for(LatencyStage stage : List.of(LatencyStage.QUOTE_CYCLE, LatencyStage.STORE_READ,
+                LatencyStage.DISTRIBUTION, LatencyStage.RECONCILE)) {
+            Assertions.assertEquals(1, latencyService.get(stage).getCount());
+        }
+        Assertions.assertEquals(0, latencyService.get(LatencyStage.COMMITMENT).getCount());
+        updateQuotesTask.execute();
+        Assertions.assertEquals(2, traceIds.size());
+        Assertions.assertEquals(2, latencyService.get(LatencyStage.QUOTE_CYCLE).getCount());
+    }
+
+    @Test
+    public void testExecuteDeferredByCommandBudget() {
+        mockExecute(BigDecimal.ZERO, BigDecimal.valueOf(100000), MarketTradingMode.CONTINUOUS, 3, 1);
+        Mockito.when(appConfigStore.get(MARKET_ID)).thenReturn(Optional.of(getAppConfig().setBboOffset(0.0)));
+        Assertions.assertTrue(commandBudgetService.tryAcquire(CommandPriority.ROUTINE));
+        updateQuotesTask.execute();
+        Mockito.verify(vegaApiClient, Mockito.times(1)).submitBulkInstruction(Mockito.eq(List.of("1", "3")),
+                Mockito.eq(List.of()), Mockito.any(Market.class), Mockito.eq(PARTY_ID));
+        Assertions.assertEquals(1, commandBudgetService.getBudget().getDeferred());
+        Assertions.assertEquals(1, commandBudgetService.getBudget().getUrgent());
+    }
+
+    @Test
+    public void testExecuteRequestedAgainWhenPartlyDeferred() {
+        mockExecute(BigDecimal.ZERO, BigDecimal.valueOf(100000), MarketTradingMode.CONTINUOUS, 3, 1);
+        Mockito.when(appConfigStore.get(MARKET_ID)).thenReturn(Optional.of(getAppConfig().setBboOffset(0.0)));
+        networkParameterStore.update(new NetworkParameter().setValue("4").setId(MAX_BATCH_SIZE_PARAM));
+        updateQuotesTask.execute();
+        Mockito.verify(vegaApiClient, Mockito.times(1)).submitBulkInstruction(Mockito.eq(List.of("1", "3", "4", "6")),
+                Mockito.eq(List.of()), Mockito.any(Market.class), Mockito.eq(PARTY_ID));
+        Assertions.assertEquals(2, commandBudgetService.getBudget().getDeferred());
+    }
+
+    private List<Order> getLiveOrders(
+            final List<Order> submissions
+    ) {
+        List<Order> liveOrders = new ArrayList<>();
+        for(int i=0; i<submissions.size(); i++) {
+            Order order = submissions.get(i);
+            liveOrders.add(new Order()
+                    .setId(String.valueOf(100 + i))
+                    .setSide(order.getSide())
+                    .setPrice(order.getPrice())
+                    .setSize(order.getSize())
+                    .setIsPeggedOrder(false)
+                    .setMarket(order.getMarket())
+                    .setStatus(OrderStatus.ACTIVE));
+        }
+        return liveOrders;
+    }
+
+    @Test
+    public void testExecuteSkippedUntilPriceOrExposureChanges() {
+        mockExecute(BigDecimal.ZERO, BigDecimal.valueOf(100000), MarketTradingMode.CONTINUOUS, 3, 1);
+        Mockito.when(appConfigStore.get(MARKET_ID)).thenReturn(Optional.of(getAppConfig().setBboOffset(0.0)));
+        updateQuotesTask.execute();
+        ArgumentCaptor<List<Order>> submissions = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(vegaApiClient, Mockito.times(1)).submitBulkInstruction(Mockito.anyList(),
+                submissions.capture(), Mockito.any(Market.class), Mockito.anyString());
+        List<Order> liveOrders = getLiveOrders(submissions.getValue());
+        Mockito.when(orderStore.getItems()).thenReturn(liveOrders);
+        updateQuotesTask.execute();
+        Mockito.verify(vegaApiClient, Mockito.times(1)).submitBulkInstruction(Mockito.anyList(),
+                Mockito.anyList(), Mockito.any(Market.class), Mockito.anyString());
+        mockExecute(BigDecimal.ONE, BigDecimal.valueOf(100000), MarketTradingMode.CONTINUOUS, 3, 1);
+        mockDistribution(19999d, 0.1d, MarketSide.BUY, 2d, 3);
+        Mockito.when(appConfigStore.get(MARKET_ID)).thenReturn(Optional.of(getAppConfig().setBboOffset(0.0)));
+        Mockito.when(orderStore.getItems()).thenReturn(liveOrders);
+        updateQuotesTask.execute();
+        Mockito.verify(vegaApiClient, Mockito.times(2)).submitBulkInstruction(Mockito.anyList(),
+                Mockito.anyList(), Mockito.any(Market.class), Mockito.anyString());
+    }
+
+    @Test
+    public void testExecuteKeepsLevelsWithinTolerance() {
+        mockExecute(BigDecimal.ZERO, BigDecimal.valueOf(100000), MarketTradingMode.CONTINUOUS, 3, 1);
+        AppConfig config = getAppConfig().setBboOffset(0.0).setPriceToleranceTicks(1).setSizeTolerancePercent(10.0);
+        Mockito.when(appConfigStore.get(MARKET_ID)).thenReturn(Optional.of(config));
+        networkParameterStore.update(new NetworkParameter().setValue("10").setId(TX_PER_BLOCK_PARAM));
+        updateQuotesTask.execute();
+        ArgumentCaptor<List<Order>> submissions = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(vegaApiClient, Mockito.times(1)).submitBulkInstruction(Mockito.anyList(),
+                submissions.capture(), Mockito.any(Market.class), Mockito.anyString());
+        List<Order> liveOrders = getLiveOrders(submissions.getValue());
+        Assertions.assertEquals(BigDecimal.valueOf(3), liveOrders.get(1).getPrice());
+        liveOrders.get(1).setPrice(BigDecimal.valueOf(6));
+        liveOrders.get(2).setPrice(BigDecimal.valueOf(4));
+        mockExecute(BigDecimal.ONE.negate(), BigDecimal.valueOf(100000), MarketTradingMode.CONTINUOUS, 3, 1);
+        Mockito.when(appConfigStore.get(MARKET_ID)).thenReturn(Optional.of(config));
+        Mockito.when(orderStore.getItems()).thenReturn(liveOrders);
+        updateQuotesTask.execute();
+        ArgumentCaptor<List<String>> cancellations = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(vegaApiClient, Mockito.times(2)).submitBulkInstruction(cancellations.capture(),
+                submissions.capture(), Mockito.any(Market.class), Mockito.anyString());
+        Assertions.assertEquals(List.of("101"), cancellations.getValue());
+        Assertions.assertEquals(1, submissions.getValue().size());
+        Assertions.assertEquals(BigDecimal.valueOf(3), submissions.getValue().get(0).getPrice());
+        QuoteStats stats = quoteStatsService.get(MARKET_ID).orElseThrow();
+        Assertions.assertEquals(2, stats.getCycles());
+        Assertions.assertEquals(12, stats.getLevels());
+        Assertions.assertEquals(7, stats.getLevelsSubmitted());
+        Assertions.assertEquals(1 / 6.0, stats.getLastTouchedRatio(), 0.0001);
+    }
+
+    @Test
+    public void testWorkersWithoutBindings() {
+        MarketBindingService bindings = Mockito.mock(MarketBindingService.class);
+        updateQuotesTask = getTask(true, bindings, quoteTriggerService, 2);
+        updateQuotesTask.request(MARKET_ID);
+        updateQuotesTask.stop();
+        Mockito.verify(vegaApiClient, Mockito.times(0)).submitBulkInstruction(Mockito.anyList(), Mockito.anyList(),
+                Mockito.any(Market.class), Mockito.anyString());
+    }
+
+    @Test
+    public void testExecuteMultipleMarketsInParallel() throws InterruptedException {
+        MarketBindingService bindings = new MarketBindingService(MARKET_ID, SYMBOL,
+                "1:BTCUSDT,2:ETHUSDT,3:SOLUSDT");
+        QuoteTriggerService trigger = new QuoteTriggerService(
+                referencePriceStore, new PositionStore(), bindings, true, 0.0015, 0L);
+        updateQuotesTask = getTask(true, bindings, trigger, 2);
+        mockExecute(BigDecimal.ZERO, BigDecimal.valueOf(100000), MarketTradingMode.CONTINUOUS, 3, 1);
+        networkParameterStore.update(new NetworkParameter().setValue("10").setId(TX_PER_BLOCK_PARAM));
+        ReferencePrice referencePrice = referencePriceStore.get(SYMBOL).orElseThrow();
+        Mockito.when(referencePriceStore.get(Mockito.anyString())).thenReturn(Optional.of(referencePrice));
+        Mockito.when(appConfigStore.get(Mockito.anyString()))
+                .thenReturn(Optional.of(getAppConfig().setBboOffset(0.0)));
+        Mockito.when(positionService.getExposure(Mockito.anyString())).thenReturn(BigDecimal.ZERO);
+        CountDownLatch slowMarket = new CountDownLatch(1);
+        Market market = marketService.getById(MARKET_ID);
+        Mockito.when(marketService.getById(MARKET_ID)).thenAnswer(invocation -> {
+            slowMarket.await();
+            return market;
+        });
+        Mockito.when(marketService.getById("2")).thenReturn(new Market().setId("2").setSettlementAsset(USDT));
+        Mockito.when(marketService.getById("3")).thenThrow(new TradingException(ErrorCode.MARKET_NOT_FOUND));
+        try {
+            updateQuotesTask.execute();
+            Mockito.verify(vegaApiClient, Mockito.timeout(5000).times(1)).submitBulkInstruction(Mockito.anyList(),
+                    Mockito.anyList(), Mockito.argThat(m -> "2".equals(m.getId())), Mockito.anyString());
+            Mockito.verify(vegaApiClient, Mockito.times(0)).submitBulkInstruction(Mockito.anyList(),
+                    Mockito.anyList(), Mockito.argThat(m -> MARKET_ID.equals(m.getId())), Mockito.anyString());
+            slowMarket.countDown();
+            Mockito.verify(vegaApiClient, Mockito.timeout(5000).times(1)).submitBulkInstruction(Mockito.anyList(),
+                    Mockito.anyList(), Mockito.argThat(m -> MARKET_ID.equals(m.getId())), Mockito.anyString());
+        } finally {
+            slowMarket.countDown();
+            updateQuotesTask.stop();
+            trigger.stop();
+        }
+    }
+
     @Test
     public void testExecuteDisabled() {
         updateQuotesTask = getTask(false);
@@ -209,12 +467,13 @@ public class UpdateQuotesTaskTest {
         Mockito.when(webSocketInitializer.isVegaWebSocketsInitialized()).thenReturn(true);
         Mockito.when(webSocketInitializer.isBinanceWebSocketInitialized()).thenReturn(true);
         Mockito.when(marketService.getById(MARKET_ID)).thenReturn(new Market()
+                .setId(MARKET_ID)
                 .setSettlementAsset(USDT)
                 .setTradingMode(MarketTradingMode.CONTINUOUS));
         Mockito.when(accountService.getTotalBalance(USDT)).thenReturn(BigDecimal.valueOf(100000));
         Mockito.when(positionService.getExposure(MARKET_ID)).thenReturn(BigDecimal.ZERO);
         try {
-            updateQuotesTask.execute();
+            updateQuotesTask.execute(MARKET_ID);
             Assertions.fail();
         } catch(Exception e) {
             Assertions.assertEquals(e.getMessage(), ErrorCode.APP_CONFIG_NOT_FOUND);
@@ -227,13 +486,14 @@ public class UpdateQuotesTaskTest {
         Mockito.when(webSocketInitializer.isVegaWebSocketsInitialized()).thenReturn(true);
         Mockito.when(webSocketInitializer.isBinanceWebSocketInitialized()).thenReturn(true);
         Mockito.when(marketService.getById(MARKET_ID)).thenReturn(new Market()
+                .setId(MARKET_ID)
                 .setSettlementAsset(USDT)
                 .setTradingMode(MarketTradingMode.CONTINUOUS));
         Mockito.when(accountService.getTotalBalance(USDT)).thenReturn(BigDecimal.valueOf(100000));
         Mockito.when(positionService.getExposure(MARKET_ID)).thenReturn(BigDecimal.ZERO);
-        Mockito.when(appConfigStore.get()).thenReturn(Optional.of(getAppConfig()));
+        Mockito.when(appConfigStore.get(MARKET_ID)).thenReturn(Optional.of(getAppConfig()));
         try {
-            updateQuotesTask.execute();
+            updateQuotesTask.execute(MARKET_ID);
             Assertions.fail();
         } catch(Exception e) {
             Assertions.assertEquals(e.getMessage(), ErrorCode.REFERENCE_PRICE_NOT_FOUND);
@@ -26,4 +26,40 @@ public class DecimalUtilsTest {
         BigDecimal number = decimalUtils.convertFromDecimals(5, BigDecimal.valueOf(12345.67899));
         Assertions.assertEquals(number, BigDecimal.valueOf(1234567899));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFromDecimalToLong() {
+        long number = decimalUtils.convertFromDecimalsToLong(5, BigDecimal.valueOf(12345.67899));
+        Assertions.assertEquals(number, 1234567899L);
+    }
+
+    @Test
+    public void testFromDecimalToLongMatchesBigDecimal() {
+        String[] values = {"0", "1.5", "2.5", "-2.5", "0.000015", "-0.000015", "123.456789", "1E+3", "99.9999999"};
+        for(String value : values) {
+            for(int dp=0; dp<8; dp++) {
+                BigDecimal number = new BigDecimal(value);
+                Assertions.assertEquals(decimalUtils.convertFromDecimals(dp, number).longValueExact(),
+                        decimalUtils.convertFromDecimalsToLong(dp, number));
+            }
+        }
+    }
+
+    @Test
+    public void testFromDecimalToLongRoundsBeyondPowersOfTen() {
+        String[] values = {"0.9000000000000000000", "-0.9000000000000000000", "0.5000000000000000000",
+                "0.5000000000000000001", "0.0000000000000000001"};
+        for(String value : values) {
+            BigDecimal number = new BigDecimal(value);
+            Assertions.assertEquals(decimalUtils.convertFromDecimals(0, number).longValueExact(),
+                    decimalUtils.convertFromDecimalsToLong(0, number));
+        }
+        Assertions.assertEquals(1L, decimalUtils.convertFromDecimalsToLong(0, new BigDecimal("0.9000000000000000000")));
+    }
+
+    @Test
+    public void testFromDecimalToLongOverflow() {
+        Assertions.assertThrows(ArithmeticException.class, () ->
+                decimalUtils.convertFromDecimalsToLong(18, BigDecimal.valueOf(1000)));
+    }
+}
@@ -0,0 +1,64 @@
+package com.vega.protocol.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assertions.assertEquals(0, histogram.getTotalCount());
+        Assertions.assertEquals(0, histogram.getMax());
+        Assertions.assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for(int i=1; i<=100; i++) {
+            histogram.record(i);
+        }
+        Assertions.assertEquals(100, histogram.getTotalCount());
+        Assertions.assertEquals(50, histogram.getValueAtPercentile(50));
+        Assertions.assertEquals(99, histogram.getValueAtPercentile(99));
+        Assertions.assertEquals(100, histogram.getValueAtPercentile(99.9));
+        Assertions.assertEquals(100, histogram.getValueAtPercentile(100));
+        Assertions.assertEquals(1, histogram.getValueAtPercentile(0));
+    }
+
+    @Test
+    public void testLargeValuesWithinOnePercent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for(long i=1; i<=100000; i++) {
+            histogram.record(i * 1000);
+        }
+        Assertions.assertEquals(50_000_000, histogram.getValueAtPercentile(50), 50_000_000 * 0.01);
+        Assertions.assertEquals(99_000_000, histogram.getValueAtPercentile(99), 99_000_000 * 0.01);
+        Assertions.assertEquals(99_900_000, histogram.getValueAtPercentile(99.9), 99_900_000 * 0.01);
+        Assertions.assertTrue(histogram.getValueAtPercentile(50) >= 50_000_000);
+        Assertions.assertEquals(100_000_000, histogram.getMax());
+        Assertions.assertEquals(100_000_000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testExtremeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        Assertions.assertEquals(2, histogram.getTotalCount());
+        Assertions.assertEquals(0, histogram.getValueAtPercentile(50));
+        Assertions.assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1000);
+        histogram.reset();
+        Assertions.assertEquals(0, histogram.getTotalCount());
+        Assertions.assertEquals(0, histogram.getMax());
+        histogram.record(10);
+        Assertions.assertEquals(10, histogram.getValueAtPercentile(50));
+    }
+}
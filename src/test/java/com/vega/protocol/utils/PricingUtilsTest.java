@@ -5,6 +5,7 @@ import com.vega.protocol.constant.MarketSide;
 import com.vega.protocol.exception.TradingException;
 import com.vega.protocol.model.AppConfig;
 import com.vega.protocol.model.DistributionStep;
+import com.vega.protocol.quote.QuoteLadder;
 import com.vega.protocol.store.AppConfigStore;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -72,4 +73,97 @@ public class PricingUtilsTest {
             Assertions.assertEquals(e.getMessage(), ErrorCode.APP_CONFIG_NOT_FOUND);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetDistributionIntoLadder() {
+        Mockito.when(appConfigStore.get()).thenReturn(Optional.of(new AppConfig().setOrderCount(25)));
+        List<DistributionStep> distribution = pricingUtils.getDistribution(100.0, 2000.0, 0.02, MarketSide.BUY);
+        QuoteLadder ladder = new QuoteLadder();
+        ladder.add(1.0, 1.0);
+        int count = pricingUtils.getDistribution(100.0, 2000.0, 0.02, MarketSide.BUY, ladder);
+        Assertions.assertEquals(distribution.size(), count);
+        Assertions.assertEquals(count, ladder.getCount());
+        for(int i=0; i<count; i++) {
+            Assertions.assertEquals(distribution.get(i).getPrice(), ladder.getPrice(i));
+            Assertions.assertEquals(distribution.get(i).getSize(), ladder.getSize(i));
+        }
+    }
+
+    @Test
+    public void testGetDistributionHasOneLevelPerOrder() {
+        QuoteLadder ladder = new QuoteLadder();
+        for(int count=1; count<=200; count++) {
+            Mockito.when(appConfigStore.get()).thenReturn(Optional.of(new AppConfig().setOrderCount(count)));
+            Assertions.assertEquals(count, pricingUtils.getDistribution(100.0, 50.0, 0.02, MarketSide.SELL, ladder));
+            Assertions.assertEquals(50.0, ladder.getTotalSize(), 1e-9);
+            Assertions.assertEquals(102.0, ladder.getPrice(count - 1));
+        }
+    }
+
+    @Test
+    public void testGetDistributionMatchesCurve() {
+        int count = 20;
+        Mockito.when(appConfigStore.get()).thenReturn(Optional.of(new AppConfig().setOrderCount(count)));
+        QuoteLadder ladder = new QuoteLadder();
+        pricingUtils.getDistribution(100.0, 1.0, 0.02, MarketSide.BUY, ladder);
+        double iter = 6.0 / count;
+        double sum = 2 * Math.cbrt(3);
+        double total = 0;
+        for(int i=0; i<count; i++) {
+            double x = -3 + (i + 1) * iter;
+            double expected = Math.cbrt(x) - Math.cbrt(x - iter);
+            total += ladder.getSize(i);
+            Assertions.assertEquals(100.0 - (0.02 * 100.0 * (i + 1) / count), ladder.getPrice(i), 1e-4);
+            Assertions.assertEquals(expected / sum, ladder.getSize(i), 1e-3);
+        }
+        Assertions.assertEquals(1.0, total, 1e-9);
+    }
+
+    @Test
+    public void testGetDistributionWeightsArePositive() {
+        QuoteLadder ladder = new QuoteLadder();
+        for(int count=1; count<=200; count++) {
+            Mockito.when(appConfigStore.get()).thenReturn(Optional.of(new AppConfig().setOrderCount(count)));
+            pricingUtils.getDistribution(100.0, 50.0, 0.02, MarketSide.BUY, ladder);
+            for(int i=0; i<count; i++) {
+                Assertions.assertTrue(ladder.getSize(i) > 0);
+            }
+        }
+    }
+
+    @Test
+    public void testShapeRebuiltWhenConfigChanges() {
+        AppConfigStore store = new AppConfigStore();
+        PricingUtils utils = new PricingUtils(store);
+        QuoteLadder ladder = new QuoteLadder();
+        AppConfig config = new AppConfig().setOrderCount(10);
+        store.update(config);
+        Assertions.assertEquals(10, utils.getDistribution(100.0, 50.0, 0.02, MarketSide.BUY, ladder));
+        config.setOrderCount(15);
+        Assertions.assertEquals(15, utils.getDistribution(100.0, 50.0, 0.02, MarketSide.BUY, ladder));
+        store.update(new AppConfig().setOrderCount(5));
+        Assertions.assertEquals(5, utils.getDistribution(100.0, 50.0, 0.02, MarketSide.BUY, ladder));
+    }
+
+    @Test
+    public void testGetDistributionWithNoOrders() {
+        Mockito.when(appConfigStore.get()).thenReturn(Optional.of(new AppConfig().setOrderCount(0)));
+        Assertions.assertEquals(0, pricingUtils.getDistribution(100.0, 50.0, 0.02, MarketSide.BUY,
+                new QuoteLadder()));
+    }
+
+    @Test
+    public void testGetDistributionForOrderCount() {
+        Mockito.when(appConfigStore.get()).thenReturn(Optional.of(new AppConfig().setOrderCount(10)));
+        QuoteLadder ladder = new QuoteLadder();
+        QuoteLadder expected = new QuoteLadder();
+        pricingUtils.getDistribution(100.0, 50.0, 0.02, MarketSide.SELL, expected);
+        Assertions.assertEquals(10, pricingUtils.getDistribution(100.0, 50.0, 0.02, MarketSide.SELL, 10, ladder));
+        for(int i=0; i<10; i++) {
+            Assertions.assertEquals(expected.getPrice(i), ladder.getPrice(i));
+            Assertions.assertEquals(expected.getSize(i), ladder.getSize(i));
+        }
+        Assertions.assertEquals(4, pricingUtils.getDistribution(100.0, 50.0, 0.02, MarketSide.SELL, 4, ladder));
+        Assertions.assertEquals(50.0, ladder.getTotalSize(), 1e-9);
+    }
+}
@@ -71,4 +71,25 @@ public class QuantUtilsTest {
         double result = quantUtils.getProbabilityOfTrading(mu, sigma, bestAsk, tau, lowerBound, upperBound, price, side);
         Assertions.assertEquals(result, 0);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetProbabilityOfTradingForLadder() {
+        double mu = 0;
+        double tau = 1.0 / 365.25;
+        double sigma = 1.2;
+        double lowerBound = 95.0;
+        double upperBound = 100.0;
+        double[] prices = {94, 95.001, 96.5, 97.25, 99.999, 101, 0};
+        double[] probabilities = new double[prices.length];
+        for(MarketSide side : MarketSide.values()) {
+            double bestPrice = side.equals(MarketSide.BUY) ? 100 : 95;
+            quantUtils.getProbabilityOfTrading(mu, sigma, bestPrice, tau, lowerBound, upperBound, prices,
+                    prices.length - 1, side, probabilities);
+            for(int i=0; i<prices.length - 1; i++) {
+                Assertions.assertEquals(quantUtils.getProbabilityOfTrading(mu, sigma, bestPrice, tau, lowerBound,
+                        upperBound, prices[i], side), probabilities[i]);
+            }
+            Assertions.assertEquals(0, probabilities[prices.length - 1]);
+        }
+    }
+}
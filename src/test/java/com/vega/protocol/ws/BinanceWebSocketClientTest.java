@@ -1,5 +1,8 @@
 package com.vega.protocol.ws;
 
+import com.vega.protocol.constant.WebSocketTopic;
+import com.vega.protocol.model.ReferencePrice;
+import com.vega.protocol.service.MetricsService;
 import com.vega.protocol.store.ReferencePriceStore;
 import org.java_websocket.handshake.HandshakeImpl1Server;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,11 +17,13 @@ public class BinanceWebSocketClientTest {
 
     private BinanceWebSocketClient binanceWebSocketClient;
     private final ReferencePriceStore referencePriceStore = Mockito.mock(ReferencePriceStore.class);
+    private final MetricsService metricsService = Mockito.mock(MetricsService.class);
 
     @BeforeEach
     public void setup() {
         binanceWebSocketClient = new BinanceWebSocketClient(
-                URI.create("wss://stream.binance.com:9443/stream"), SYMBOL, referencePriceStore);
+                URI.create("wss://stream.binance.com:9443/stream"), SYMBOL, referencePriceStore,
+                metricsService);
     }
 
     @Test
@@ -35,4 +40,19 @@ public class BinanceWebSocketClientTest {
     public void testOnMessageError() {
         binanceWebSocketClient.onMessage("");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testOnMessageRecordsLag() {
+        binanceWebSocketClient.onMessage("{\"stream\":\"btcusdt@ticker\",\"data\":{\"E\":1000,\"s\":\"BTCUSDT\"," +
+                "\"a\":\"101\",\"b\":\"99\",\"A\":\"1\",\"B\":\"2\"}}");
+        Mockito.verify(metricsService).onMessage(WebSocketTopic.REFERENCE_PRICE, 1000L);
+        Mockito.verify(referencePriceStore).update(Mockito.any(ReferencePrice.class));
+    }
+
+    @Test
+    public void testOnMessageWithoutEventTime() {
+        binanceWebSocketClient.onMessage("{\"stream\":\"btcusdt@ticker\",\"data\":{\"s\":\"BTCUSDT\"," +
+                "\"a\":\"101\",\"b\":\"99\",\"A\":\"1\",\"B\":\"2\"}}");
+        Mockito.verify(metricsService).onMessage(WebSocketTopic.REFERENCE_PRICE);
+    }
+}
@@ -1,7 +1,11 @@
 package com.vega.protocol.ws;
 
+import com.vega.protocol.constant.WebSocketTopic;
 import com.vega.protocol.model.*;
+import com.vega.protocol.service.MetricsService;
+import com.vega.protocol.service.OrderReferenceService;
 import com.vega.protocol.service.OrderService;
+import com.vega.protocol.service.TransactionService;
 import com.vega.protocol.store.*;
 import com.vega.protocol.utils.DecimalUtils;
 import lombok.extern.slf4j.Slf4j;
@@ -33,6 +37,9 @@ public class VegaWebSocketClientTest {
     private LiquidityCommitmentStore liquidityCommitmentStore;
     private DecimalUtils decimalUtils;
     private OrderService orderService;
+    private OrderReferenceService orderReferenceService;
+    private TransactionService transactionService;
+    private MetricsService metricsService;
     private static final String PARTY_ID = "6817f2b4d9464716c6756d2827d893872b1d33839e211c27a650629e428dc35c";
     private static final String MARKET_ID = "c6233d79a53a81b9d9d889c5beb42baaa1e3eb412d19bfd854dfa35309ce4190";
 
@@ -45,10 +52,13 @@ public class VegaWebSocketClientTest {
         assetStore = Mockito.mock(AssetStore.class);
         decimalUtils = Mockito.mock(DecimalUtils.class);
         orderService = Mockito.mock(OrderService.class);
+        orderReferenceService = Mockito.mock(OrderReferenceService.class);
+        transactionService = Mockito.mock(TransactionService.class);
         liquidityCommitmentStore = Mockito.mock(LiquidityCommitmentStore.class);
+        metricsService = Mockito.mock(MetricsService.class);
         vegaWebSocketClient = new VegaWebSocketClient(PARTY_ID, MARKET_ID, marketStore, orderStore, positionStore,
-                accountStore, assetStore, liquidityCommitmentStore, decimalUtils, orderService,
-                URI.create("wss://api.n11.testnet.vega.xyz/graphql"));
+                accountStore, assetStore, liquidityCommitmentStore, decimalUtils, orderService, orderReferenceService,
+                transactionService, metricsService, URI.create("wss://api.n11.testnet.vega.xyz/graphql"));
     }
 
     private void handleMarkets(
@@ -120,6 +130,7 @@ public class VegaWebSocketClientTest {
     @Test
     public void testHandleMarkets() {
         handleMarkets(Optional.of(new Asset().setSymbol("USDT").setDecimalPlaces(1)), 1);
+        Mockito.verify(metricsService).onMessage(WebSocketTopic.MARKETS);
     }
 
     @Test